@@ -53,6 +53,8 @@ import java.util.logging.Logger;
 
 import javax.ws.rs.client.ClientException;
 import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
@@ -62,6 +64,8 @@ import org.glassfish.jersey.client.ClientResponse;
 import org.glassfish.jersey.client.RequestWriter;
 import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
 import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorMetrics;
+import org.glassfish.jersey.client.spi.EntityReadiness;
 import org.glassfish.jersey.internal.util.PropertiesHelper;
 
 import org.glassfish.grizzly.http.client.Version;
@@ -71,6 +75,9 @@ import com.google.common.util.concurrent.SettableFuture;
 import com.ning.http.client.AsyncCompletionHandler;
 import com.ning.http.client.AsyncHttpClient;
 import com.ning.http.client.AsyncHttpClientConfig;
+import com.ning.http.client.HttpResponseBodyPart;
+import com.ning.http.client.HttpResponseHeaders;
+import com.ning.http.client.HttpResponseStatus;
 import com.ning.http.client.Request;
 import com.ning.http.client.RequestBuilder;
 import com.ning.http.client.providers.grizzly.GrizzlyAsyncHttpProvider;
@@ -82,6 +89,9 @@ import com.ning.http.client.providers.grizzly.GrizzlyAsyncHttpProvider;
  */
 public class GrizzlyConnector extends RequestWriter implements Connector {
 
+    private static final String SERVER_SENT_EVENTS = "text/event-stream";
+    private static final MediaType SERVER_SENT_EVENTS_TYPE = MediaType.valueOf(SERVER_SENT_EVENTS);
+
     private AsyncHttpClient client;
 
     /**
@@ -127,7 +137,13 @@ public class GrizzlyConnector extends RequestWriter implements Connector {
 
         try {
             com.ning.http.client.Request connectorRequest = translate(requestContext);
-            Future<com.ning.http.client.Response> respFuture = client.executeRequest(connectorRequest);
+            Future<com.ning.http.client.Response> respFuture = client.executeRequest(connectorRequest,
+                    new MeteredCompletionHandler<com.ning.http.client.Response>(ConnectorMetrics.from(requestContext)) {
+                        @Override
+                        public com.ning.http.client.Response onCompleted(com.ning.http.client.Response response) {
+                            return response;
+                        }
+                    });
             connectorResponse = respFuture.get();
         } catch (ExecutionException ex) {
             Throwable e = ex.getCause() == null ? ex : ex.getCause();
@@ -147,23 +163,10 @@ public class GrizzlyConnector extends RequestWriter implements Connector {
 
         Throwable failure;
         try {
-            return client.executeRequest(connectorRequest, new AsyncCompletionHandler<ClientResponse>() {
-                @Override
-                public ClientResponse onCompleted(com.ning.http.client.Response connectorResponse) throws Exception {
-                    final ClientResponse response = translate(request, connectorResponse);
-                    try {
-                        return response;
-                    } finally {
-                        callback.response(response);
-                    }
-                }
-
-                @Override
-                public void onThrowable(Throwable t) {
-                    t = t instanceof IOException ? new ClientException(t.getMessage(), t) : t;
-                    callback.failure(t);
-                }
-            });
+            final AsyncResponseHandler handler = new AsyncResponseHandler(request, callback);
+            final Future<ClientResponse> future = client.executeRequest(connectorRequest, handler);
+            handler.setConnection(future);
+            return future;
         } catch (IOException ex) {
             failure = ex;
             callback.failure(new ClientException(ex.getMessage(), ex.getCause()));
@@ -182,38 +185,179 @@ public class GrizzlyConnector extends RequestWriter implements Connector {
         client.close();
     }
 
+    /**
+     * Handler of the asynchronous responses.
+     * <p>
+     * The responses are passed to the callback once their entity has been received, except for the
+     * {@value #SERVER_SENT_EVENTS} responses. An event stream does not complete while it is in use, such responses are
+     * therefore passed to the callback as soon as the response headers are received and their entity is streamed
+     * as it arrives. The {@link EntityReadiness entity readiness} of the streamed entity is attached to the request.
+     * </p>
+     */
+    private final class AsyncResponseHandler extends MeteredCompletionHandler<ClientResponse> {
+
+        private final ClientRequest request;
+        private final AsyncConnectorCallback callback;
+        private HttpResponseStatus status;
+        private volatile StreamingEntityInputStream entity;
+
+        AsyncResponseHandler(ClientRequest request, AsyncConnectorCallback callback) {
+            super(ConnectorMetrics.from(request));
+            this.request = request;
+            this.callback = callback;
+        }
+
+        void setConnection(Future<?> connection) {
+            final StreamingEntityInputStream streamed = entity;
+            if (streamed != null) {
+                streamed.setConnection(connection);
+            }
+        }
+
+        @Override
+        public STATE onStatusReceived(HttpResponseStatus status) throws Exception {
+            this.status = status;
+            return super.onStatusReceived(status);
+        }
+
+        @Override
+        public STATE onHeadersReceived(HttpResponseHeaders headers) throws Exception {
+            final STATE state = super.onHeadersReceived(headers);
+            if (entity == null && !headers.isTraillingHeadersReceived() && isEventStream(headers.getHeaders())) {
+                final EntityReadiness readiness = new EntityReadiness();
+                final StreamingEntityInputStream streamed = new StreamingEntityInputStream(readiness);
+                entity = streamed;
+                request.setProperty(EntityReadiness.PROPERTY, readiness);
+
+                final ClientResponse response = translate(request, status.getStatusCode(), status.getStatusText(),
+                        headers.getHeaders());
+                response.setEntityStream(streamed);
+                callback.response(response);
+            }
+            return state;
+        }
+
+        @Override
+        public STATE onBodyPartReceived(HttpResponseBodyPart part) throws Exception {
+            final StreamingEntityInputStream streamed = entity;
+            if (streamed == null) {
+                return super.onBodyPartReceived(part);
+            }
+            return streamed.received(part.getBodyPartBytes()) ? STATE.CONTINUE : STATE.ABORT;
+        }
+
+        @Override
+        public ClientResponse onCompleted(com.ning.http.client.Response connectorResponse) throws Exception {
+            final StreamingEntityInputStream streamed = entity;
+            if (streamed != null) {
+                streamed.completed(null);
+                return null;
+            }
+            final ClientResponse response = translate(request, connectorResponse);
+            try {
+                return response;
+            } finally {
+                callback.response(response);
+            }
+        }
+
+        @Override
+        public void onThrowable(Throwable t) {
+            final StreamingEntityInputStream streamed = entity;
+            if (streamed != null) {
+                streamed.completed(t);
+                return;
+            }
+            t = t instanceof IOException ? new ClientException(t.getMessage(), t) : t;
+            callback.failure(t);
+        }
+    }
+
+    private static boolean isEventStream(Map<String, List<String>> headers) {
+        final List<String> contentType = headers.get(HttpHeaders.CONTENT_TYPE);
+        if (contentType == null || contentType.isEmpty()) {
+            return false;
+        }
+        try {
+            final MediaType mediaType = MediaType.valueOf(contentType.get(0));
+            return SERVER_SENT_EVENTS_TYPE.getType().equalsIgnoreCase(mediaType.getType())
+                    && SERVER_SENT_EVENTS_TYPE.getSubtype().equalsIgnoreCase(mediaType.getSubtype());
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Completion handler reporting the connection events to the {@link ConnectorMetrics connector metrics}.
+     * The connection is considered established once the request headers have been written.
+     *
+     * @param <T> type of the completion result.
+     */
+    private abstract static class MeteredCompletionHandler<T> extends AsyncCompletionHandler<T> {
+
+        private final ConnectorMetrics metrics;
+
+        MeteredCompletionHandler(ConnectorMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public STATE onHeaderWriteCompleted() {
+            if (metrics != null) {
+                metrics.connected();
+            }
+            return super.onHeaderWriteCompleted();
+        }
+
+        @Override
+        public STATE onStatusReceived(HttpResponseStatus status) throws Exception {
+            if (metrics != null) {
+                metrics.firstByteReceived();
+            }
+            return super.onStatusReceived(status);
+        }
+    }
+
     private ClientResponse translate(ClientRequest requestContext, final com.ning.http.client.Response original) {
+        final ClientResponse responseContext = translate(requestContext, original.getStatusCode(), original.getStatusText(),
+                original.getHeaders());
+
+        try {
+            responseContext.setEntityStream(original.getResponseBodyAsStream());
+        } catch (IOException e) {
+            Logger.getLogger(GrizzlyConnector.class.getName()).log(Level.SEVERE, null, e);
+        }
+
+        return responseContext;
+    }
+
+    private ClientResponse translate(ClientRequest requestContext, final int statusCode, final String reasonPhrase,
+                                     Map<String, List<String>> headers) {
 
         final ClientResponse responseContext = new ClientResponse(new Response.StatusType() {
             @Override
             public int getStatusCode() {
-                return original.getStatusCode();
+                return statusCode;
             }
 
             @Override
             public Response.Status.Family getFamily() {
-                return Response.Status.Family.familyOf(original.getStatusCode());
+                return Response.Status.Family.familyOf(statusCode);
             }
 
             @Override
             public String getReasonPhrase() {
-                return original.getStatusText();
+                return reasonPhrase;
             }
         }, requestContext);
 
-        for (Map.Entry<String, List<String>> entry : original.getHeaders().entrySet()) {
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
             for (String value : entry.getValue()) {
                 // TODO value.toString?
                 responseContext.getHeaders().add(entry.getKey(), value);
             }
         }
 
-        try {
-            responseContext.setEntityStream(original.getResponseBodyAsStream());
-        } catch (IOException e) {
-            Logger.getLogger(GrizzlyConnector.class.getName()).log(Level.SEVERE, null, e);
-        }
-
         return responseContext;
     }
 
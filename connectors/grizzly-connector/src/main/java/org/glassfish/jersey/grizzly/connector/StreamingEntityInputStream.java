@@ -0,0 +1,209 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.grizzly.connector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedList;
+import java.util.concurrent.Future;
+
+import org.glassfish.jersey.client.spi.EntityReadiness;
+
+/**
+ * Response entity stream fed with the entity parts as they are received by the connector.
+ * <p>
+ * The received parts are buffered until read, {@link #available()} returns the number of buffered bytes.
+ * Every received part and the end of the entity are reported to the {@link EntityReadiness entity readiness}.
+ * Closing the stream before the whole entity has been received aborts the connection.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+final class StreamingEntityInputStream extends InputStream {
+
+    private final EntityReadiness readiness;
+
+    // guarded by this
+    private final LinkedList<byte[]> parts = new LinkedList<byte[]>();
+    private int position;
+    private int available;
+    private boolean completed;
+    private IOException failure;
+    private boolean closed;
+    private Future<?> connection;
+
+    /**
+     * Create new streaming entity input stream.
+     *
+     * @param readiness readiness of the entity to be notified about the received data.
+     */
+    StreamingEntityInputStream(EntityReadiness readiness) {
+        this.readiness = readiness;
+    }
+
+    /**
+     * Set the connection receiving the entity, which is aborted once the stream is closed.
+     *
+     * @param connection future of the connection receiving the entity.
+     */
+    void setConnection(Future<?> connection) {
+        final boolean abort;
+        synchronized (this) {
+            this.connection = connection;
+            abort = closed && !completed;
+        }
+        if (abort) {
+            connection.cancel(true);
+        }
+    }
+
+    /**
+     * Append a received part of the entity.
+     *
+     * @param part received entity bytes.
+     * @return {@code false} if the stream has been closed and the rest of the entity is not needed anymore.
+     */
+    boolean received(byte[] part) {
+        synchronized (this) {
+            if (closed) {
+                return false;
+            }
+            if (part.length > 0) {
+                parts.add(part);
+                available += part.length;
+                notifyAll();
+            }
+        }
+        readiness.dataAvailable();
+        return true;
+    }
+
+    /**
+     * Mark the end of the entity.
+     *
+     * @param failure failure of receiving the entity, {@code null} if the whole entity has been received.
+     */
+    void completed(Throwable failure) {
+        synchronized (this) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            if (failure != null) {
+                this.failure = failure instanceof IOException ?
+                        (IOException) failure : new IOException(failure.getMessage(), failure);
+            }
+            notifyAll();
+        }
+        readiness.completed();
+    }
+
+    @Override
+    public synchronized int available() throws IOException {
+        return available;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed.");
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (available == 0 && !completed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(e.getMessage());
+            }
+            if (closed) {
+                throw new IOException("Stream closed.");
+            }
+        }
+        if (available == 0) {
+            if (failure != null) {
+                throw failure;
+            }
+            return -1;
+        }
+
+        int read = 0;
+        while (read < len && available > 0) {
+            final byte[] part = parts.getFirst();
+            final int count = Math.min(len - read, part.length - position);
+            System.arraycopy(part, position, b, off + read, count);
+            read += count;
+            position += count;
+            available -= count;
+            if (position == part.length) {
+                parts.removeFirst();
+                position = 0;
+            }
+        }
+        return read;
+    }
+
+    @Override
+    public void close() throws IOException {
+        final Future<?> abort;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            parts.clear();
+            available = 0;
+            abort = completed ? null : connection;
+            notifyAll();
+        }
+        if (abort != null) {
+            abort.cancel(true);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.grizzly.connector;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.spi.EntityReadiness;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.test.JerseyTest;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests streaming of the asynchronously received event streams.
+ *
+ * @author agent (agent at local)
+ */
+public class EventStreamTest extends JerseyTest {
+
+    private static final CountDownLatch FIRST_READ = new CountDownLatch(1);
+
+    @Path("/events")
+    public static class EventsResource {
+        @GET
+        @Produces("text/event-stream")
+        public ChunkedOutput<String> get() {
+            final ChunkedOutput<String> output = new ChunkedOutput<String>(String.class);
+            new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        output.write("data: 1\n\n");
+                        FIRST_READ.await(10, TimeUnit.SECONDS);
+                        output.write("data: 2\n\n");
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    } finally {
+                        try {
+                            output.close();
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }.start();
+            return output;
+        }
+    }
+
+    /**
+     * Filter capturing the entity readiness attached to the request by the connector.
+     */
+    public static class ReadinessFilter implements ClientResponseFilter {
+
+        private static volatile EntityReadiness readiness;
+
+        @Override
+        public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) {
+            readiness = (EntityReadiness) requestContext.getProperty(EntityReadiness.PROPERTY);
+        }
+    }
+
+    @Override
+    protected Application configure() {
+        return new ResourceConfig(EventsResource.class);
+    }
+
+    @Override
+    protected void configureClient(ClientConfig clientConfig) {
+        clientConfig.connector(new GrizzlyConnector(clientConfig)).register(ReadinessFilter.class);
+    }
+
+    @Test
+    public void testEventStreamPassedOnHeaders() throws Exception {
+        final BlockingQueue<Response> responses = new LinkedBlockingQueue<Response>();
+        target("events").request().async().get(new InvocationCallback<Response>() {
+            @Override
+            public void completed(Response response) {
+                responses.add(response);
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                error.printStackTrace();
+            }
+        });
+
+        // the stream is not complete until the first event is read
+        final Response response = responses.poll(5, TimeUnit.SECONDS);
+        assertNotNull("Response not received before the end of the stream.", response);
+        final EntityReadiness readiness = ReadinessFilter.readiness;
+        assertNotNull(readiness);
+        assertFalse(readiness.isCompleted());
+
+        final CountDownLatch notified = new CountDownLatch(1);
+        readiness.setListener(new Runnable() {
+            @Override
+            public void run() {
+                notified.countDown();
+            }
+        });
+
+        final InputStream entity = response.readEntity(InputStream.class);
+        assertEquals("data: 1\n\n", read(entity, 9));
+        FIRST_READ.countDown();
+
+        assertTrue(notified.await(5, TimeUnit.SECONDS));
+        assertEquals("data: 2\n\n", read(entity, 9));
+        assertEquals(-1, entity.read());
+        assertTrue(readiness.isCompleted());
+        entity.close();
+    }
+
+    private static String read(InputStream entity, int length) throws IOException {
+        final byte[] data = new byte[length];
+        int read = 0;
+        while (read < length) {
+            final int n = entity.read(data, read, length - read);
+            if (n < 0) {
+                break;
+            }
+            read += n;
+        }
+        return new String(data, 0, read, "UTF-8");
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.local.connector;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.glassfish.jersey.server.ApplicationHandler;
+
+/**
+ * Registry of Jersey applications running in the current JVM that can be invoked by the
+ * {@link LocalConnector local connector}.
+ * <p>
+ * Each application is registered under its base URI. A client request is dispatched to the application
+ * registered with the longest base URI that is a prefix of the request URI. A single registry instance
+ * is typically shared by all the co-located services and by the clients communicating with them:
+ * <pre>
+ * LocalApplicationRegistry registry = new LocalApplicationRegistry();
+ * registry.register(URI.create("http://orders/api/"), new ApplicationHandler(new OrdersApplication()));
+ *
+ * Client client = ClientFactory.newClient(new ClientConfig().connector(new LocalConnector(registry)));
+ * Order order = client.target("http://orders/api/orders/42").request().get(Order.class);
+ * </pre>
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class LocalApplicationRegistry {
+
+    /**
+     * Registered application.
+     */
+    static final class Registration {
+        final URI baseUri;
+        final ApplicationHandler handler;
+
+        private Registration(final URI baseUri, final ApplicationHandler handler) {
+            this.baseUri = baseUri;
+            this.handler = handler;
+        }
+    }
+
+    private final ConcurrentMap<String, Registration> applications = new ConcurrentHashMap<String, Registration>();
+
+    /**
+     * Register an application under a base URI. Any application previously registered
+     * under the same base URI is replaced.
+     *
+     * @param baseUri absolute base URI of the application.
+     * @param handler application handler to be invoked.
+     * @return application handler previously registered under the same base URI or {@code null}.
+     * @throws IllegalArgumentException in case the base URI is not absolute.
+     */
+    public ApplicationHandler register(final URI baseUri, final ApplicationHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("Application handler must not be null.");
+        }
+        final String key = key(baseUri);
+        final URI normalized = URI.create(key);
+        final Registration previous = applications.put(key, new Registration(normalized, handler));
+        return previous == null ? null : previous.handler;
+    }
+
+    /**
+     * Remove the application registered under the base URI.
+     *
+     * @param baseUri absolute base URI of the application.
+     * @return application handler that has been removed or {@code null} if no application has been
+     *         registered under the base URI.
+     */
+    public ApplicationHandler unregister(final URI baseUri) {
+        final Registration removed = applications.remove(key(baseUri));
+        return removed == null ? null : removed.handler;
+    }
+
+    /**
+     * Check if there is an application able to process the request URI.
+     *
+     * @param requestUri request URI.
+     * @return {@code true} if the request can be dispatched to a registered application.
+     */
+    public boolean isRegistered(final URI requestUri) {
+        return lookup(requestUri) != null;
+    }
+
+    /**
+     * Find the application registered with the longest base URI matching the request URI.
+     *
+     * @param requestUri request URI.
+     * @return application registration or {@code null} if no application matches the request URI.
+     */
+    Registration lookup(final URI requestUri) {
+        if (applications.isEmpty() || !requestUri.isAbsolute() || requestUri.getRawAuthority() == null) {
+            return null;
+        }
+
+        final String prefix = prefix(requestUri);
+        String path = requestUri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        } else if (!path.endsWith("/")) {
+            path = path + "/";
+        }
+
+        while (true) {
+            final Registration registration = applications.get(prefix + path);
+            if (registration != null) {
+                return registration;
+            }
+            if (path.length() <= 1) {
+                return null;
+            }
+            path = path.substring(0, path.lastIndexOf('/', path.length() - 2) + 1);
+        }
+    }
+
+    private static String key(final URI baseUri) {
+        if (!baseUri.isAbsolute() || baseUri.getRawAuthority() == null) {
+            throw new IllegalArgumentException("Application base URI must be an absolute hierarchical URI: " + baseUri);
+        }
+        final String path = baseUri.normalize().getRawPath();
+        if (path == null || path.isEmpty()) {
+            return prefix(baseUri) + "/";
+        }
+        return prefix(baseUri) + (path.endsWith("/") ? path : path + "/");
+    }
+
+    private static String prefix(final URI uri) {
+        return uri.getScheme().toLowerCase(Locale.ENGLISH) + "://" + uri.getRawAuthority().toLowerCase(Locale.ENGLISH);
+    }
+}
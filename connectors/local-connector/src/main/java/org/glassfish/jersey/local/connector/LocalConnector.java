@@ -0,0 +1,379 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.local.connector;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.client.ClientException;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.ext.WriterInterceptor;
+
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.RequestWriter;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.internal.PropertiesDelegate;
+import org.glassfish.jersey.internal.util.PropertiesHelper;
+import org.glassfish.jersey.message.MessageBodyWorkers;
+import org.glassfish.jersey.message.internal.EntityReferenceInputStream;
+import org.glassfish.jersey.message.internal.ExceptionWrapperInterceptor;
+import org.glassfish.jersey.message.internal.OutboundMessageContext;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.spi.ContentEncoder;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Client connector dispatching the requests directly to Jersey applications running in the same JVM.
+ * <p>
+ * The connector resolves the target application of each request in a {@link LocalApplicationRegistry
+ * local application registry} and invokes the application handler without any network communication.
+ * Requests that do not match any registered application are passed to the fallback connector,
+ * if configured, or fail with a {@link ClientException}.
+ * </p>
+ * <p>
+ * By default the request and response entities are passed by reference: if the receiving side reads
+ * the entity as a Java type compatible with the sent entity instance (and no reader or writer interceptor
+ * would modify the entity), the sent instance itself is returned to the reader, skipping the message body
+ * writers and readers entirely. Otherwise the entity is serialized and parsed as with any other connector.
+ * Note that the entity instances passed by reference are shared by the client and the application and
+ * should therefore not be modified once sent. Passing entities by reference can be switched off in which
+ * case the entities are always serialized.
+ * </p>
+ * <p>
+ * Asynchronous requests are processed by the connector's own pool of daemon threads, which is shut down once
+ * the connector is {@link #close() closed}.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public class LocalConnector extends RequestWriter implements Connector {
+
+    private static final SecurityContext SECURITY_CONTEXT = new SecurityContext() {
+
+        @Override
+        public boolean isUserInRole(String role) {
+            return false;
+        }
+
+        @Override
+        public boolean isSecure() {
+            return false;
+        }
+
+        @Override
+        public Principal getUserPrincipal() {
+            return null;
+        }
+
+        @Override
+        public String getAuthenticationScheme() {
+            return null;
+        }
+    };
+
+    private final LocalApplicationRegistry registry;
+    private final Connector fallback;
+    private final boolean passEntitiesByReference;
+    private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+            .setNameFormat("jersey-local-connector-%d")
+            .setDaemon(true)
+            .build());
+
+    /**
+     * Create new local connector passing the entities by reference and without a fallback connector.
+     *
+     * @param registry registry of the local applications.
+     */
+    public LocalConnector(final LocalApplicationRegistry registry) {
+        this(registry, null, true);
+    }
+
+    /**
+     * Create new local connector.
+     *
+     * @param registry                registry of the local applications.
+     * @param fallback                connector used for the requests that do not match any local application,
+     *                                may be {@code null}.
+     * @param passEntitiesByReference if {@code true}, the entities are passed by reference whenever possible,
+     *                                otherwise the entities are always serialized.
+     */
+    public LocalConnector(final LocalApplicationRegistry registry, final Connector fallback,
+                          final boolean passEntitiesByReference) {
+        if (registry == null) {
+            throw new NullPointerException("Local application registry must not be null.");
+        }
+        this.registry = registry;
+        this.fallback = fallback;
+        this.passEntitiesByReference = passEntitiesByReference;
+    }
+
+    @Override
+    public ClientResponse apply(final ClientRequest request) {
+        final LocalApplicationRegistry.Registration application = registry.lookup(request.getUri());
+        if (application == null) {
+            if (fallback != null) {
+                return fallback.apply(request);
+            }
+            throw new ClientException("No local application registered for the request URI " + request.getUri());
+        }
+
+        final boolean followRedirects = PropertiesHelper.getValue(request.getConfiguration().getProperties(),
+                ClientProperties.FOLLOW_REDIRECTS, true);
+
+        return tryFollowRedirects(followRedirects, invoke(application, request), new ClientRequest(request));
+    }
+
+    @Override
+    public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+        if (fallback != null && registry.lookup(request.getUri()) == null) {
+            return fallback.apply(request, callback);
+        }
+
+        return executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    callback.response(apply(request));
+                } catch (Throwable t) {
+                    callback.failure(t);
+                }
+            }
+        });
+    }
+
+    @Override
+    public String getName() {
+        return "Jersey Local Connector";
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        // the registered applications are not owned by the connector
+        if (fallback != null) {
+            fallback.close();
+        }
+    }
+
+    private ClientResponse invoke(final LocalApplicationRegistry.Registration application, final ClientRequest request) {
+        final PropertiesDelegate propertiesDelegate = new MapPropertiesDelegate();
+        final ContainerRequest containerRequest = new ContainerRequest(application.baseUri, request.getUri(),
+                request.getMethod(), SECURITY_CONTEXT, propertiesDelegate);
+
+        if (request.hasEntity()) {
+            ensureMediaType(request);
+            if (passEntitiesByReference && isWrittenAsIs(request)) {
+                containerRequest.setEntityStream(new EntityReferenceInputStream(request.getEntity(), request.getEntityType()) {
+                    @Override
+                    protected InputStream serialize() throws IOException {
+                        return new ByteArrayInputStream(serializeEntity(request));
+                    }
+                });
+            } else {
+                try {
+                    containerRequest.setEntityStream(new ByteArrayInputStream(serializeEntity(request)));
+                } catch (IOException ex) {
+                    throw new ClientException(ex.getMessage(), ex);
+                }
+            }
+        }
+        containerRequest.getHeaders().putAll(request.getStringHeaders());
+
+        final LocalResponseWriter writer = new LocalResponseWriter(passEntitiesByReference);
+        containerRequest.setWriter(writer);
+        application.handler.handle(containerRequest);
+
+        final ContainerResponse containerResponse;
+        try {
+            containerResponse = writer.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Local application request processing has been interrupted.", ex);
+        } catch (ExecutionException ex) {
+            throw new ClientException(ex.getCause().getMessage(), ex.getCause());
+        }
+
+        if (containerResponse == null) {
+            // unmapped exception propagated to the container
+            final ClientResponse response = new ClientResponse(Response.Status.INTERNAL_SERVER_ERROR, request);
+            response.setEntityStream(new ByteArrayInputStream(new byte[0]));
+            return response;
+        }
+
+        final ClientResponse response = new ClientResponse(containerResponse.getStatusInfo(), request);
+        response.setStatus(containerResponse.getStatus());
+        response.getHeaders().putAll(containerResponse.getStringHeaders());
+        if (writer.isEntityReference()) {
+            final MessageBodyWorkers workers = containerRequest.getWorkers();
+            response.setEntityStream(
+                    new EntityReferenceInputStream(containerResponse.getEntity(), containerResponse.getEntityType()) {
+                        @Override
+                        protected InputStream serialize() throws IOException {
+                            return new ByteArrayInputStream(
+                                    serializeEntity(containerResponse, workers, propertiesDelegate));
+                        }
+                    });
+        } else {
+            response.setEntityStream(new ByteArrayInputStream(writer.getEntityBytes()));
+        }
+
+        return response;
+    }
+
+    /**
+     * Check that no client writer interceptor would modify the request entity.
+     */
+    private static boolean isWrittenAsIs(final ClientRequest request) {
+        final boolean encoded = request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING);
+        for (WriterInterceptor interceptor : request.getWorkers().getWriterInterceptors()) {
+            if (interceptor instanceof ExceptionWrapperInterceptor || (interceptor instanceof ContentEncoder && !encoded)) {
+                continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Make sure the request has a media type set, the same way the request entity writer selects it.
+     */
+    private static void ensureMediaType(final ClientRequest request) {
+        if (request.getMediaType() == null) {
+            final GenericType<?> entityType = new GenericType(request.getEntityType());
+            final List<MediaType> mediaTypes = request.getWorkers().getMessageBodyWriterMediaTypes(
+                    entityType.getRawType(), entityType.getType(), request.getEntityAnnotations());
+
+            MediaType mediaType = MediaType.APPLICATION_OCTET_STREAM_TYPE;
+            if (!mediaTypes.isEmpty()) {
+                mediaType = mediaTypes.get(0);
+                if (mediaType.isWildcardType() || mediaType.isWildcardSubtype()) {
+                    mediaType = MediaType.APPLICATION_OCTET_STREAM_TYPE;
+                }
+            }
+            request.setMediaType(mediaType);
+        }
+    }
+
+    private byte[] serializeEntity(final ClientRequest request) throws IOException {
+        final ByteArrayOutputStream entity = new ByteArrayOutputStream();
+        writeRequestEntity(request, new RequestEntityWriterListener() {
+            @Override
+            public void onRequestEntitySize(long size) {
+                // not needed
+            }
+
+            @Override
+            public OutboundMessageContext.StreamProvider onGetStreamProvider() {
+                return new OutboundMessageContext.StreamProvider() {
+                    @Override
+                    public OutputStream getOutputStream() {
+                        return entity;
+                    }
+
+                    @Override
+                    public void commit() {
+                        // nothing to commit
+                    }
+                };
+            }
+        });
+        return entity.toByteArray();
+    }
+
+    private static byte[] serializeEntity(final ContainerResponse response,
+                                          final MessageBodyWorkers workers,
+                                          final PropertiesDelegate propertiesDelegate) throws IOException {
+        final ByteArrayOutputStream entity = new ByteArrayOutputStream();
+        final Object instance = response.getEntity();
+        final OutputStream entityStream = workers.writeTo(
+                instance,
+                instance.getClass(),
+                response.getEntityType(),
+                response.getEntityAnnotations(),
+                response.getMediaType(),
+                response.getHeaders(),
+                propertiesDelegate,
+                entity,
+                null,
+                true);
+        entityStream.close();
+        return entity.toByteArray();
+    }
+
+    private ClientResponse tryFollowRedirects(final boolean followRedirects, final ClientResponse response,
+                                              final ClientRequest request) {
+        final int statusCode = response.getStatus();
+        if (!followRedirects || statusCode < 302 || statusCode > 307) {
+            return response;
+        }
+
+        switch (statusCode) {
+            case 303:
+                request.setMethod("GET");
+                // intentionally no break
+            case 302:
+            case 307:
+                request.setUri(response.getLocation());
+
+                return apply(request);
+            default:
+                return response;
+        }
+    }
+}
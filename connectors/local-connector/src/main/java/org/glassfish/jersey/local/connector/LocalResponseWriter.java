@@ -0,0 +1,211 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.local.connector;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.glassfish.jersey.server.ContainerException;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.spi.EntityReferenceResponseWriter;
+
+import com.google.common.util.concurrent.AbstractFuture;
+
+/**
+ * Response writer collecting the response of a locally invoked application.
+ * <p>
+ * The response entity is either passed by reference (if enabled and allowed by the server runtime)
+ * or collected in a byte array.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+final class LocalResponseWriter extends AbstractFuture<ContainerResponse> implements EntityReferenceResponseWriter {
+
+    private static final Logger LOGGER = Logger.getLogger(LocalResponseWriter.class.getName());
+    private static final Timer TIMER = new Timer("Jersey local connector request timer", true);
+
+    private final boolean passEntitiesByReference;
+    private final ByteArrayOutputStream entity = new ByteArrayOutputStream();
+    private final Object runtimeLock = new Object();
+
+    private volatile ContainerResponse response;
+    private volatile boolean entityReference;
+
+    private TimerTask timeoutTask;
+    private TimeoutHandler timeoutHandler;
+    private boolean suspended;
+
+    /**
+     * Create new local response writer.
+     *
+     * @param passEntitiesByReference if {@code true}, the response entities are accepted by reference.
+     */
+    LocalResponseWriter(final boolean passEntitiesByReference) {
+        this.passEntitiesByReference = passEntitiesByReference;
+    }
+
+    /**
+     * Check whether the response entity has been passed by reference.
+     *
+     * @return {@code true} if the response entity has been passed by reference.
+     */
+    boolean isEntityReference() {
+        return entityReference;
+    }
+
+    /**
+     * Get the serialized response entity data.
+     *
+     * @return serialized response entity data.
+     */
+    byte[] getEntityBytes() {
+        return entity.toByteArray();
+    }
+
+    @Override
+    public OutputStream writeResponseStatusAndHeaders(final long contentLength, final ContainerResponse response)
+            throws ContainerException {
+        this.response = response;
+
+        if (contentLength >= 0) {
+            response.getHeaders().putSingle(HttpHeaders.CONTENT_LENGTH, Long.toString(contentLength));
+        }
+
+        return entity;
+    }
+
+    @Override
+    public boolean writeEntityReference(final Object entity, final ContainerResponse response)
+            throws ContainerException {
+        if (!passEntitiesByReference) {
+            return false;
+        }
+
+        this.response = response;
+        this.entityReference = true;
+        return true;
+    }
+
+    @Override
+    public boolean suspend(final long time, final TimeUnit unit, final TimeoutHandler handler) {
+        synchronized (runtimeLock) {
+            if (suspended) {
+                return false;
+            }
+
+            suspended = true;
+            timeoutHandler = handler;
+
+            setSuspendTimeout(time, unit);
+            return true;
+        }
+    }
+
+    @Override
+    public void setSuspendTimeout(final long time, final TimeUnit unit) throws IllegalStateException {
+        final TimerTask task = new TimerTask() {
+
+            @Override
+            public void run() {
+                try {
+                    synchronized (runtimeLock) {
+                        timeoutHandler.onTimeout(LocalResponseWriter.this);
+                    }
+                } catch (Throwable throwable) {
+                    LOGGER.log(Level.WARNING, "Suspend timeout handler execution failed.", throwable);
+                }
+            }
+        };
+        synchronized (runtimeLock) {
+            if (!suspended) {
+                throw new IllegalStateException("Response processing is not suspended.");
+            }
+
+            if (timeoutTask != null) {
+                timeoutTask.cancel();
+                timeoutTask = null;
+            }
+
+            if (time <= AsyncResponse.NO_TIMEOUT) {
+                return;
+            }
+
+            timeoutTask = task;
+            TIMER.schedule(task, unit.toMillis(time));
+        }
+    }
+
+    @Override
+    public void commit() {
+        cancelTimeout();
+
+        final ContainerResponse current = response;
+        if (current != null) {
+            super.set(current);
+        }
+    }
+
+    @Override
+    public void failure(final Throwable error) {
+        cancelTimeout();
+
+        // a network container would log the failure and respond with 500 - let the connector do the same
+        LOGGER.log(Level.WARNING, "Local application request processing failed.", error);
+        super.set(null);
+    }
+
+    private void cancelTimeout() {
+        synchronized (runtimeLock) {
+            if (timeoutTask != null) {
+                timeoutTask.cancel();
+                timeoutTask = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.local.connector;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientException;
+import javax.ws.rs.client.ClientFactory;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ResourceConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link LocalConnector Local connector} tests.
+ *
+ * @author agent (agent at local)
+ */
+public class LocalConnectorTest {
+
+    private static final URI BASE_URI = URI.create("http://orders.local/api/");
+
+    /**
+     * Mutable entity type, so that the identity of the exchanged instances can be checked.
+     */
+    public static class Note {
+        public String text;
+
+        public Note(String text) {
+            this.text = text;
+        }
+    }
+
+    @Path("notes")
+    public static class NotesResource {
+        static volatile Object received;
+        static final Note NOTE = new Note("stored");
+
+        @GET
+        @Produces("application/x-note")
+        public Note get() {
+            return NOTE;
+        }
+
+        @POST
+        @Path("note")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String post(Note note) {
+            received = note;
+            return note.text;
+        }
+
+        @POST
+        @Path("text")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String postText(String text) {
+            received = text;
+            return text;
+        }
+
+        @POST
+        @Path("bytes")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String postBytes(byte[] bytes) {
+            received = bytes;
+            return new String(bytes);
+        }
+
+        @GET
+        @Path("async")
+        @Produces(MediaType.TEXT_PLAIN)
+        public void async(@Suspended final AsyncResponse asyncResponse) {
+            new Thread() {
+                @Override
+                public void run() {
+                    asyncResponse.resume("resumed");
+                }
+            }.start();
+        }
+
+        @GET
+        @Path("thread")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String thread() {
+            return Thread.currentThread().getName();
+        }
+
+        @GET
+        @Path("fail")
+        public String fail() {
+            throw new IllegalStateException("failure");
+        }
+    }
+
+    @Path("/")
+    public static class NestedResource {
+        @GET
+        @Produces(MediaType.TEXT_PLAIN)
+        public String get() {
+            return "nested";
+        }
+    }
+
+    private LocalApplicationRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new LocalApplicationRegistry();
+        registry.register(BASE_URI, new ApplicationHandler(new ResourceConfig(NotesResource.class)));
+        NotesResource.received = null;
+    }
+
+    private Client client(boolean passEntitiesByReference) {
+        return ClientFactory.newClient(new ClientConfig()
+                .connector(new LocalConnector(registry, null, passEntitiesByReference)).getConfiguration());
+    }
+
+    @Test
+    public void testResponseEntityByReference() {
+        final Note note = client(true).target(BASE_URI).path("notes").request().get(Note.class);
+        assertSame(NotesResource.NOTE, note);
+    }
+
+    @Test
+    public void testRequestEntityByReference() {
+        final Note note = new Note("sent");
+        final String response = client(true).target(BASE_URI).path("notes/note").request()
+                .post(Entity.entity(note, "application/x-note"), String.class);
+        assertEquals("sent", response);
+        assertSame(note, NotesResource.received);
+    }
+
+    @Test
+    public void testSerializedWhenTypesDiffer() {
+        final String response = client(true).target(BASE_URI).path("notes/bytes").request()
+                .post(Entity.text("hello"), String.class);
+        assertEquals("hello", response);
+        assertArrayEquals("hello".getBytes(), (byte[]) NotesResource.received);
+
+        final byte[] bytes = client(true).target(BASE_URI).path("notes/text").request()
+                .post(Entity.text("world"), byte[].class);
+        assertArrayEquals("world".getBytes(), bytes);
+    }
+
+    @Test
+    public void testSerializedWhenReferencesDisabled() {
+        final String text = new String("serialized");
+        final String response = client(false).target(BASE_URI).path("notes/text").request()
+                .post(Entity.text(text), String.class);
+        assertEquals("serialized", response);
+        assertEquals(text, NotesResource.received);
+        assertNotSame(text, NotesResource.received);
+    }
+
+    @Test
+    public void testAsyncResource() throws Exception {
+        assertEquals("resumed", client(true).target(BASE_URI).path("notes/async").request().get(String.class));
+        assertEquals("resumed", client(true).target(BASE_URI).path("notes/async").request().async()
+                .get(String.class).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testAsyncRequestProcessedByConnectorThreads() throws Exception {
+        final String thread = client(true).target(BASE_URI).path("notes/thread").request().async()
+                .get(String.class).get(10, TimeUnit.SECONDS);
+        assertTrue(thread, thread.startsWith("jersey-local-connector-"));
+    }
+
+    @Test
+    public void testUnmappedException() {
+        final Response response = client(true).target(BASE_URI).path("notes/fail").request().get();
+        assertEquals(500, response.getStatus());
+    }
+
+    @Test
+    public void testLongestBaseUriMatch() {
+        registry.register(URI.create("http://orders.local/api/nested"),
+                new ApplicationHandler(new ResourceConfig(NestedResource.class)));
+
+        final Client client = client(true);
+        assertEquals("nested", client.target("http://orders.local/api/nested").request().get(String.class));
+        assertEquals("stored", client.target("http://ORDERS.local/api/notes/note").request()
+                .post(Entity.entity(new Note("stored"), "application/x-note"), String.class));
+    }
+
+    @Test(expected = ClientException.class)
+    public void testUnregisteredApplication() {
+        client(true).target("http://unknown.local/api/notes").request().get(String.class);
+    }
+}
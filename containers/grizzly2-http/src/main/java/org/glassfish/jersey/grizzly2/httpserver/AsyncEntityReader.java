@@ -0,0 +1,299 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.grizzly2.httpserver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.glassfish.grizzly.ReadHandler;
+import org.glassfish.grizzly.http.server.io.NIOInputStream;
+
+/**
+ * Non-blocking request entity reader.
+ * <p>
+ * The reader is registered with the Grizzly {@link NIOInputStream non-blocking input stream}
+ * of the request and consumes the request entity data as they become available, without blocking
+ * the calling thread while waiting for the client. Data are buffered in memory up to the configured
+ * threshold. Once the threshold is exceeded, the buffered data as well as any remaining data are
+ * spilled to a temporary file.
+ * </p>
+ * <p>
+ * Once the whole entity has been read, the {@link Callback callback} is notified with an input stream
+ * of the buffered entity. Failures to buffer the entity on the server side (e.g. when the temporary
+ * file cannot be written) are reported as {@link BufferingException}, all other reported failures
+ * are caused by reading the entity from the client.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+final class AsyncEntityReader implements ReadHandler, Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(AsyncEntityReader.class.getName());
+
+    /**
+     * Asynchronous entity reading callback.
+     */
+    interface Callback {
+
+        /**
+         * Invoked once the whole request entity has been read.
+         *
+         * @param entityStream input stream of the buffered request entity.
+         */
+        void onEntityRead(InputStream entityStream);
+
+        /**
+         * Invoked whenever a part of the request entity has been received.
+         */
+        void onDataRead();
+
+        /**
+         * Invoked in case reading of the request entity has failed.
+         *
+         * @param error reading failure.
+         */
+        void onError(Throwable error);
+    }
+
+    /**
+     * Signals a server-side failure to buffer the received request entity.
+     */
+    static final class BufferingException extends IOException {
+
+        private static final long serialVersionUID = -5479620843452417934L;
+
+        BufferingException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Byte array output stream that provides direct access to its internal buffer.
+     */
+    private static final class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+
+        ExposedByteArrayOutputStream(int size) {
+            super(size);
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+
+    private final NIOInputStream input;
+    private final int threshold;
+    private final Callback callback;
+
+    private byte[] chunk;
+    private ExposedByteArrayOutputStream memoryBuffer;
+    private File spillFile;
+    private OutputStream spillStream;
+    private InputStream entityStream;
+    private volatile boolean closed;
+
+    /**
+     * Create new asynchronous entity reader.
+     *
+     * @param input     non-blocking request input stream.
+     * @param threshold maximum number of bytes buffered in memory.
+     * @param callback  entity reading callback.
+     */
+    AsyncEntityReader(NIOInputStream input, int threshold, Callback callback) {
+        this.input = input;
+        this.threshold = threshold;
+        this.callback = callback;
+    }
+
+    /**
+     * Start reading the request entity.
+     */
+    void start() {
+        input.notifyAvailable(this);
+    }
+
+    @Override
+    public void onDataAvailable() throws Exception {
+        if (closed) {
+            return;
+        }
+        readAvailable();
+        callback.onDataRead();
+        input.notifyAvailable(this);
+    }
+
+    @Override
+    public void onAllDataRead() throws Exception {
+        final InputStream stream;
+        try {
+            stream = finish();
+        } catch (IOException ex) {
+            onError(ex);
+            return;
+        }
+
+        if (stream != null) {
+            callback.onEntityRead(stream);
+        }
+    }
+
+    /**
+     * Read the remaining entity data and open the buffered entity stream.
+     *
+     * @return buffered entity stream or {@code null} if the reader has already been closed.
+     * @throws IOException in case the remaining data could not be read or buffered.
+     */
+    private synchronized InputStream finish() throws IOException {
+        if (closed) {
+            return null;
+        }
+        readAvailable();
+
+        if (spillStream != null) {
+            try {
+                spillStream.close();
+                spillStream = null;
+                entityStream = new FileInputStream(spillFile);
+            } catch (IOException ex) {
+                throw new BufferingException(ex);
+            }
+        } else if (memoryBuffer != null) {
+            entityStream = memoryBuffer.toInputStream();
+            memoryBuffer = null;
+        } else {
+            entityStream = new ByteArrayInputStream(new byte[0]);
+        }
+        chunk = null;
+        return entityStream;
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (closed) {
+            return;
+        }
+        close();
+        callback.onError(t);
+    }
+
+    /**
+     * Release all resources associated with the buffered entity, including the temporary file.
+     * Any entity data received after the reader has been closed are ignored.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        closeQuietly(spillStream);
+        closeQuietly(entityStream);
+        spillStream = null;
+        entityStream = null;
+        memoryBuffer = null;
+
+        if (spillFile != null) {
+            if (!spillFile.delete()) {
+                LOGGER.log(Level.FINE, "Unable to delete request entity temporary file {0}.", spillFile);
+                spillFile.deleteOnExit();
+            }
+            spillFile = null;
+        }
+    }
+
+    private synchronized void readAvailable() throws IOException {
+        int available;
+        while (!closed && (available = input.readyData()) > 0) {
+            if (chunk == null || chunk.length < available) {
+                chunk = new byte[Math.min(Math.max(available, 8192), Math.max(threshold, 8192))];
+            }
+            final int read = input.read(chunk, 0, Math.min(available, chunk.length));
+            if (read <= 0) {
+                return;
+            }
+            write(chunk, read);
+        }
+    }
+
+    private void write(byte[] data, int length) throws IOException {
+        if (spillStream != null) {
+            try {
+                spillStream.write(data, 0, length);
+            } catch (IOException ex) {
+                throw new BufferingException(ex);
+            }
+            return;
+        }
+
+        if (memoryBuffer == null) {
+            memoryBuffer = new ExposedByteArrayOutputStream(Math.min(Math.max(length, 1024), threshold));
+        }
+
+        if (memoryBuffer.size() + length <= threshold) {
+            memoryBuffer.write(data, 0, length);
+        } else {
+            try {
+                spillFile = File.createTempFile("jersey-grizzly-entity", ".tmp");
+                spillStream = new FileOutputStream(spillFile);
+                memoryBuffer.writeTo(spillStream);
+                memoryBuffer = null;
+                spillStream.write(data, 0, length);
+            } catch (IOException ex) {
+                throw new BufferingException(ex);
+            }
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.FINE, "Unable to close request entity buffer.", ex);
+            }
+        }
+    }
+}
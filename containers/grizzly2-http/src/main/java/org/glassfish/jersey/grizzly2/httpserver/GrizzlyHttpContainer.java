@@ -39,16 +39,20 @@
  */
 package org.glassfish.jersey.grizzly2.httpserver;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.security.Principal;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -62,6 +66,7 @@ import javax.ws.rs.WebApplicationException;
 import org.glassfish.jersey.internal.inject.AbstractBinder;
 import org.glassfish.jersey.internal.inject.ReferencingFactory;
 import org.glassfish.jersey.internal.util.ExtendedLogger;
+import org.glassfish.jersey.internal.util.PropertiesHelper;
 import org.glassfish.jersey.internal.util.collection.Ref;
 import org.glassfish.jersey.process.internal.RequestScoped;
 import org.glassfish.jersey.server.ApplicationHandler;
@@ -69,11 +74,12 @@ import org.glassfish.jersey.server.ContainerException;
 import org.glassfish.jersey.server.ContainerRequest;
 import org.glassfish.jersey.server.ContainerResponse;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.internal.ApplicationHandlerHolder;
 import org.glassfish.jersey.server.internal.ConfigHelper;
 import org.glassfish.jersey.server.spi.Container;
 import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
-import org.glassfish.jersey.server.spi.ContainerResponseWriter;
 import org.glassfish.jersey.server.spi.RequestScopedInitializer;
+import org.glassfish.jersey.server.spi.ZeroCopyResponseWriter;
 
 import org.glassfish.hk2.api.PerLookup;
 import org.glassfish.hk2.api.ServiceLocator;
@@ -81,9 +87,12 @@ import org.glassfish.hk2.api.TypeLiteral;
 import org.glassfish.hk2.utilities.Binder;
 
 import org.glassfish.grizzly.CompletionHandler;
+import org.glassfish.grizzly.EmptyCompletionHandler;
+import org.glassfish.grizzly.WriteResult;
 import org.glassfish.grizzly.http.server.HttpHandler;
 import org.glassfish.grizzly.http.server.Request;
 import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.Header;
 import org.glassfish.grizzly.utils.Charsets;
 
 /**
@@ -157,11 +166,45 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
         }
     };
 
-    private final static class ResponseWriter implements ContainerResponseWriter {
+    private final static class ResponseWriter implements ZeroCopyResponseWriter {
 
         private final String name;
         private final Response grizzlyResponse;
 
+        /**
+         * Request entity buffer, set in case the request entity has been read asynchronously.
+         */
+        private volatile AsyncEntityReader entityBuffer;
+        /**
+         * {@code true} while the request entity is being read asynchronously and the request has not been
+         * dispatched to the application nor rejected yet.
+         */
+        private final AtomicBoolean entityPending = new AtomicBoolean();
+        /**
+         * Maximum time (in milliseconds) to wait for the next part of the asynchronously read request entity.
+         */
+        private volatile long entityReadTimeout;
+        /**
+         * Jersey timeout handler of a response suspended before the request has been dispatched.
+         */
+        private volatile TimeoutHandler timeoutHandler;
+        /**
+         * {@code true} if Jersey has set a suspend timeout of a response suspended before the request
+         * has been dispatched. Used to ignore an expired entity read timeout.
+         */
+        private volatile boolean timeoutRequested;
+
+        private final Object transferLock = new Object();
+        /**
+         * {@code true} if a file transfer is in progress, guarded by {@link #transferLock}.
+         */
+        private boolean transferInProgress;
+        /**
+         * {@code true} if the writer has been committed while a file transfer was in progress,
+         * guarded by {@link #transferLock}.
+         */
+        private boolean commitPending;
+
         ResponseWriter(final Response response) {
             this.grizzlyResponse = response;
 
@@ -178,19 +221,142 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
             return name;
         }
 
+        /**
+         * Suspend the Grizzly response while the request entity is being read asynchronously.
+         * <p>
+         * The response stays suspended until it is committed. Should the request processing be suspended later
+         * by Jersey, the {@link #suspend(long, java.util.concurrent.TimeUnit, TimeoutHandler)} call only updates
+         * the timeout and the timeout handler of the already suspended response.
+         * </p>
+         * <p>
+         * Until the request is {@link #entityRead() dispatched}, the suspend timeout is used as the entity read
+         * timeout. If no entity data are received within the timeout, the {@code 408} response is sent.
+         * </p>
+         *
+         * @param entityBuffer asynchronous request entity reader.
+         * @param readTimeout  entity read timeout in milliseconds, zero or less for no timeout.
+         */
+        void suspendForEntity(final AsyncEntityReader entityBuffer, final long readTimeout) {
+            this.entityBuffer = entityBuffer;
+            this.entityReadTimeout = readTimeout;
+            entityPending.set(true);
+            grizzlyResponse.suspend(readTimeout, TimeUnit.MILLISECONDS, EMPTY_COMPLETION_HANDLER,
+                    new org.glassfish.grizzly.http.server.TimeoutHandler() {
+
+                        @Override
+                        public boolean onTimeout(Response response) {
+                            if (entityPending.get()) {
+                                entityTimeout();
+                                return false;
+                            }
+                            final TimeoutHandler handler = timeoutHandler;
+                            if (handler != null && timeoutRequested) {
+                                handler.onTimeout(ResponseWriter.this);
+                            }
+                            return false;
+                        }
+                    });
+            logger.debugLog("{0} - suspendForEntity(...) called", name);
+        }
+
+        /**
+         * Restart the entity read timeout once a part of the request entity has been received.
+         */
+        void entityProgress() {
+            if (entityReadTimeout > 0 && entityPending.get()) {
+                grizzlyResponse.getSuspendContext().setTimeout(entityReadTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        /**
+         * Mark the request entity as fully read. Once marked, an expiration of the entity read timeout
+         * is ignored unless Jersey sets its own suspend timeout.
+         *
+         * @return {@code true} if the request should be dispatched to the application, {@code false} if it has
+         *         already been rejected (e.g. because of the entity read timeout).
+         */
+        boolean entityRead() {
+            return entityPending.compareAndSet(true, false);
+        }
+
+        private void entityTimeout() {
+            if (entityPending.compareAndSet(true, false)) {
+                logger.log(Level.FINE, "Timed out while reading the request entity.");
+                sendEntityError(408);
+            }
+        }
+
+        /**
+         * Send an error response in case the request entity could not be read and resume the response.
+         * Failures to buffer the request entity on the server side result in the {@code 500} response,
+         * failures to read the entity from the client in the {@code 400} response.
+         *
+         * @param error request entity reading failure.
+         */
+        void entityFailure(final Throwable error) {
+            if (entityPending.compareAndSet(true, false)) {
+                if (error instanceof AsyncEntityReader.BufferingException) {
+                    logger.log(Level.SEVERE, "Unable to buffer the request entity.", error);
+                    sendEntityError(500);
+                } else {
+                    logger.log(Level.FINE, "Unable to read the request entity.", error);
+                    sendEntityError(400);
+                }
+            }
+        }
+
+        private void sendEntityError(final int status) {
+            try {
+                if (!grizzlyResponse.isCommitted()) {
+                    grizzlyResponse.sendError(status);
+                }
+            } catch (IOException e) {
+                logger.log(Level.SEVERE, "Unable to send " + status + " error response.", e);
+            } finally {
+                commit();
+            }
+        }
+
         @Override
         public void commit() {
+            synchronized (transferLock) {
+                if (transferInProgress) {
+                    // the response is finished once the file transfer completes
+                    commitPending = true;
+                    return;
+                }
+            }
             try {
                 if (grizzlyResponse.isSuspended()) {
                     grizzlyResponse.resume();
                 }
             } finally {
+                releaseEntityBuffer();
                 logger.debugLog("{0} - commit() called", name);
             }
         }
 
+        private void releaseEntityBuffer() {
+            final AsyncEntityReader buffer = entityBuffer;
+            if (buffer != null) {
+                entityBuffer = null;
+                buffer.close();
+            }
+        }
+
         @Override
         public boolean suspend(final long timeOut, final TimeUnit timeUnit, final TimeoutHandler timeoutHandler) {
+            if (entityBuffer != null && grizzlyResponse.isSuspended()) {
+                // response has been suspended while reading the request entity
+                try {
+                    this.timeoutHandler = timeoutHandler;
+                    this.timeoutRequested = timeOut > 0;
+                    grizzlyResponse.getSuspendContext().setTimeout(timeOut, timeUnit);
+                    return true;
+                } finally {
+                    logger.debugLog("{0} - suspend(...) called", name);
+                }
+            }
             try {
                 grizzlyResponse.suspend(timeOut, timeUnit, EMPTY_COMPLETION_HANDLER,
                         new org.glassfish.grizzly.http.server.TimeoutHandler() {
@@ -218,6 +384,7 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
         @Override
         public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) throws IllegalStateException {
             try {
+                timeoutRequested = timeOut > 0;
                 grizzlyResponse.getSuspendContext().setTimeout(timeOut, timeUnit);
             } finally {
                 logger.debugLog("{0} - setTimeout(...) called", name);
@@ -229,14 +396,7 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
                                                           final ContainerResponse context)
                 throws ContainerException {
             try {
-                grizzlyResponse.setStatus(context.getStatus());
-                grizzlyResponse.setContentLengthLong(contentLength);
-
-                for (final Map.Entry<String, List<String>> e : context.getStringHeaders().entrySet()) {
-                    for (final String value : e.getValue()) {
-                        grizzlyResponse.addHeader(e.getKey(), value);
-                    }
-                }
+                writeStatusAndHeaders(contentLength, context);
 
                 return grizzlyResponse.getOutputStream();
             } finally {
@@ -244,6 +404,85 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
             }
         }
 
+        @Override
+        public boolean writeFile(final File file, final long position, final long count,
+                                 final ContainerResponse context) throws ContainerException {
+            try {
+                if (!grizzlyResponse.isSendFileEnabled()) {
+                    // sendfile not supported by the network listener - let Jersey write the entity
+                    return false;
+                }
+
+                writeStatusAndHeaders(count, context);
+
+                synchronized (transferLock) {
+                    transferInProgress = true;
+                }
+                if (!grizzlyResponse.isSuspended()) {
+                    // keep the response open until the transfer completes, the response is resumed in commit()
+                    grizzlyResponse.suspend(0, TimeUnit.MILLISECONDS, EMPTY_COMPLETION_HANDLER);
+                }
+                grizzlyResponse.getOutputBuffer().sendfile(file, position, count,
+                        new EmptyCompletionHandler<WriteResult>() {
+
+                            @Override
+                            public void completed(WriteResult result) {
+                                transferFinished();
+                            }
+
+                            @Override
+                            public void cancelled() {
+                                transferFinished();
+                            }
+
+                            @Override
+                            public void failed(Throwable throwable) {
+                                logger.log(Level.FINE, "Unable to transfer the response entity file.", throwable);
+                                transferFinished();
+                            }
+                        });
+                return true;
+            } finally {
+                logger.debugLog("{0} - writeFile(...) called", name);
+            }
+        }
+
+        private void transferFinished() {
+            final boolean commit;
+            synchronized (transferLock) {
+                transferInProgress = false;
+                commit = commitPending;
+            }
+            if (commit) {
+                commit();
+            }
+        }
+
+        @Override
+        public boolean writeByteBuffer(final ByteBuffer buffer, final ContainerResponse context)
+                throws ContainerException {
+            try {
+                writeStatusAndHeaders(buffer.remaining(), context);
+                grizzlyResponse.getOutputBuffer().writeByteBuffer(buffer);
+                return true;
+            } catch (IOException ex) {
+                throw new ContainerException(ex);
+            } finally {
+                logger.debugLog("{0} - writeByteBuffer(...) called", name);
+            }
+        }
+
+        private void writeStatusAndHeaders(final long contentLength, final ContainerResponse context) {
+            grizzlyResponse.setStatus(context.getStatus());
+            grizzlyResponse.setContentLengthLong(contentLength);
+
+            for (final Map.Entry<String, List<String>> e : context.getStringHeaders().entrySet()) {
+                for (final String value : e.getValue()) {
+                    grizzlyResponse.addHeader(e.getKey(), value);
+                }
+            }
+        }
+
         @Override
         public void failure(Throwable error) {
             try {
@@ -253,6 +492,9 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
             } catch (IOException e) {
                 logger.log(Level.SEVERE, "Unable to send 500 error response.", e);
             } finally {
+                if (entityBuffer != null) {
+                    commit();
+                }
                 logger.debugLog("{0} - failure(...) called", name);
                 rethrow(error);
             }
@@ -272,7 +514,10 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
         }
     }
 
-    private volatile ApplicationHandler appHandler;
+    private volatile ApplicationHandlerHolder appHandler;
+    private volatile boolean asyncEntityInput;
+    private volatile int asyncEntityInputThreshold;
+    private volatile int asyncEntityInputReadTimeout;
     private final ContainerLifecycleListener containerListener;
 
     /**
@@ -281,12 +526,25 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
      * @param application Jersey application to be deployed on Grizzly container.
      */
     GrizzlyHttpContainer(final ApplicationHandler application) {
-        this.appHandler = application;
+        this.appHandler = new ApplicationHandlerHolder(application);
         this.containerListener = ConfigHelper.getContainerLifecycleListener(application);
 
-        this.appHandler.registerAdditionalBinders(new HashSet<Binder>() {{
+        application.registerAdditionalBinders(new HashSet<Binder>() {{
             add(new GrizzlyBinder());
         }});
+        configure(application.getConfiguration());
+    }
+
+    private void configure(final ResourceConfig configuration) {
+        final Map<String, Object> properties = configuration.getProperties();
+        this.asyncEntityInputThreshold = PropertiesHelper.getValue(properties,
+                GrizzlyHttpContainerProperties.ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD,
+                GrizzlyHttpContainerProperties.DEFAULT_ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD);
+        this.asyncEntityInputReadTimeout = PropertiesHelper.getValue(properties,
+                GrizzlyHttpContainerProperties.ASYNC_ENTITY_INPUT_READ_TIMEOUT,
+                GrizzlyHttpContainerProperties.DEFAULT_ASYNC_ENTITY_INPUT_READ_TIMEOUT);
+        this.asyncEntityInput = PropertiesHelper.getValue(properties,
+                GrizzlyHttpContainerProperties.ASYNC_ENTITY_INPUT, Boolean.FALSE);
     }
 
     @Override
@@ -301,10 +559,9 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
         try {
             logger.debugLog("GrizzlyHttpContaner.service(...) started");
             URI baseUri = getBaseUri(request);
-            ContainerRequest requestContext = new ContainerRequest(baseUri,
+            final ContainerRequest requestContext = new ContainerRequest(baseUri,
                     getRequestUri(baseUri, request), request.getMethod().getMethodString(),
                     getSecurityContext(request), new GrizzlyRequestPropertiesDelegate(request));
-            requestContext.setEntityStream(request.getInputStream());
             for (String headerName : request.getHeaderNames()) {
                 requestContext.headers(headerName, request.getHeaders(headerName));
             }
@@ -318,7 +575,36 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
                     }).getType()).set(response);
                 }
             });
-            appHandler.handle(requestContext);
+
+            if (asyncEntityInput && hasEntity(request)) {
+                final ApplicationHandlerHolder handler = appHandler;
+                final AsyncEntityReader entityReader = new AsyncEntityReader(request.getNIOInputStream(),
+                        asyncEntityInputThreshold, new AsyncEntityReader.Callback() {
+
+                    @Override
+                    public void onEntityRead(final InputStream entityStream) {
+                        if (responseWriter.entityRead()) {
+                            requestContext.setEntityStream(entityStream);
+                            handler.handle(requestContext);
+                        }
+                    }
+
+                    @Override
+                    public void onDataRead() {
+                        responseWriter.entityProgress();
+                    }
+
+                    @Override
+                    public void onError(final Throwable error) {
+                        responseWriter.entityFailure(error);
+                    }
+                });
+                responseWriter.suspendForEntity(entityReader, asyncEntityInputReadTimeout);
+                entityReader.start();
+            } else {
+                requestContext.setEntityStream(request.getInputStream());
+                appHandler.handle(requestContext);
+            }
         } finally {
             // TODO if writer not closed or suspended yet, suspend.
             logger.debugLog("GrizzlyHttpContaner.service(...) finished");
@@ -327,18 +613,23 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
 
     @Override
     public ResourceConfig getConfiguration() {
-        return appHandler.getConfiguration();
+        return appHandler.get().getConfiguration();
     }
 
     @Override
     public void reload() {
-        reload(appHandler.getConfiguration());
+        reload(getConfiguration());
     }
 
     @Override
     public void reload(ResourceConfig configuration) {
-        appHandler = new ApplicationHandler(configuration.register(new GrizzlyBinder()));
-        containerListener.onReload(this);
+        appHandler.reload(configuration.register(new GrizzlyBinder()), new Runnable() {
+            @Override
+            public void run() {
+                configure(getConfiguration());
+                containerListener.onReload(GrizzlyHttpContainer.this);
+            }
+        });
     }
 
     @Override
@@ -348,6 +639,10 @@ public final class GrizzlyHttpContainer extends HttpHandler implements Container
         appHandler = null;
     }
 
+    private static boolean hasEntity(final Request request) {
+        return request.getContentLengthLong() > 0 || request.getHeader(Header.TransferEncoding) != null;
+    }
+
     private SecurityContext getSecurityContext(final Request request) {
         return new SecurityContext() {
 
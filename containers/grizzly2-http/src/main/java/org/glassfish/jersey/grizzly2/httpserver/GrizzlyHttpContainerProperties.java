@@ -0,0 +1,127 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.grizzly2.httpserver;
+
+/**
+ * Jersey Grizzly HTTP container configuration properties.
+ * <p>
+ * The properties are read from the {@link org.glassfish.jersey.server.ResourceConfig configuration}
+ * of the application deployed in the {@link GrizzlyHttpContainer Grizzly HTTP container}.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class GrizzlyHttpContainerProperties {
+
+    /**
+     * If {@code true}, the request entity is read asynchronously by the container before the request
+     * is dispatched to the Jersey application. While the request entity is being received, no Grizzly
+     * worker thread is blocked waiting for the (potentially slow) client. The request processing
+     * is dispatched to the application only once the whole request entity has been buffered.
+     * <p>
+     * Request entities up to the {@link #ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD configured threshold}
+     * are buffered in memory, larger entities are spilled to a temporary file that is deleted once
+     * the request processing is finished.
+     * </p>
+     * <p>
+     * The property value MUST be an instance of {@code Boolean} type or a {@code String} convertible
+     * to {@code Boolean} type.
+     * </p>
+     * <p>
+     * The default value is {@code false}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String ASYNC_ENTITY_INPUT = "jersey.config.grizzly2.http.asyncEntityInput";
+
+    /**
+     * Maximum size (in bytes) of an {@link #ASYNC_ENTITY_INPUT asynchronously read} request entity
+     * that is buffered in memory. Larger request entities are spilled to a temporary file.
+     * <p>
+     * The property value MUST be an instance of {@code Integer} type or a {@code String} convertible
+     * to {@code Integer} type.
+     * </p>
+     * <p>
+     * The default value is {@value #DEFAULT_ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD = "jersey.config.grizzly2.http.asyncEntityInput.bufferThreshold";
+
+    /**
+     * Default value of the {@link #ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD} property.
+     */
+    public static final int DEFAULT_ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD = 64 * 1024;
+
+    /**
+     * Maximum time (in milliseconds) the container waits for the next part of an
+     * {@link #ASYNC_ENTITY_INPUT asynchronously read} request entity. If no entity data are received
+     * from the client within the timeout, the request is not dispatched to the application and
+     * the {@code 408 Request Timeout} response is sent instead. A value of zero or less disables
+     * the timeout.
+     * <p>
+     * The property value MUST be an instance of {@code Integer} type or a {@code String} convertible
+     * to {@code Integer} type.
+     * </p>
+     * <p>
+     * The default value is {@value #DEFAULT_ASYNC_ENTITY_INPUT_READ_TIMEOUT}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String ASYNC_ENTITY_INPUT_READ_TIMEOUT = "jersey.config.grizzly2.http.asyncEntityInput.readTimeout";
+
+    /**
+     * Default value of the {@link #ASYNC_ENTITY_INPUT_READ_TIMEOUT} property.
+     */
+    public static final int DEFAULT_ASYNC_ENTITY_INPUT_READ_TIMEOUT = 30000;
+
+    private GrizzlyHttpContainerProperties() {
+        // prevents instantiation
+    }
+}
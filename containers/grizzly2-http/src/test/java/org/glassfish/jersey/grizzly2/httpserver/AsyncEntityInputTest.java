@@ -0,0 +1,238 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.grizzly2.httpserver;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URL;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+
+import org.glassfish.jersey.server.ResourceConfig;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link GrizzlyHttpContainerProperties#ASYNC_ENTITY_INPUT asynchronous reading} of request entities
+ * in the Grizzly HTTP container.
+ *
+ * @author agent (agent at local)
+ */
+public class AsyncEntityInputTest {
+
+    private static final int THRESHOLD = 4096;
+
+    @Path("upload")
+    public static class UploadResource {
+
+        private static final AtomicInteger invocations = new AtomicInteger();
+
+        @POST
+        public String upload(byte[] entity) {
+            invocations.incrementAndGet();
+            return entity.length + ":" + checksum(entity);
+        }
+    }
+
+    private HttpServer server;
+    private int port;
+
+    private void startServer(int readTimeout) throws IOException {
+        final ServerSocket socket = new ServerSocket(0);
+        port = socket.getLocalPort();
+        socket.close();
+
+        server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:" + port + "/"),
+                new ResourceConfig(UploadResource.class)
+                        .setProperty(GrizzlyHttpContainerProperties.ASYNC_ENTITY_INPUT, true)
+                        .setProperty(GrizzlyHttpContainerProperties.ASYNC_ENTITY_INPUT_BUFFER_THRESHOLD, THRESHOLD)
+                        .setProperty(GrizzlyHttpContainerProperties.ASYNC_ENTITY_INPUT_READ_TIMEOUT, readTimeout));
+    }
+
+    @After
+    public void stopServer() {
+        if (server != null) {
+            server.stop();
+            server = null;
+        }
+    }
+
+    @Test
+    public void testChunkedUpload() throws Exception {
+        startServer(30000);
+        final byte[] entity = entity(THRESHOLD / 2);
+
+        final HttpURLConnection connection = open();
+        connection.setChunkedStreamingMode(256);
+        assertEquals(entity.length + ":" + checksum(entity), post(connection, entity));
+    }
+
+    @Test
+    public void testLargeUploadSpilledToFile() throws Exception {
+        startServer(30000);
+        final int tempFiles = countTempFiles();
+        final byte[] entity = entity(1024 * 1024);
+
+        final HttpURLConnection connection = open();
+        connection.setFixedLengthStreamingMode(entity.length);
+        assertEquals(entity.length + ":" + checksum(entity), post(connection, entity));
+
+        final HttpURLConnection chunked = open();
+        chunked.setChunkedStreamingMode(8192);
+        assertEquals(entity.length + ":" + checksum(entity), post(chunked, entity));
+
+        assertTempFilesDeleted(tempFiles);
+    }
+
+    @Test
+    public void testAbortedUpload() throws Exception {
+        startServer(30000);
+        final int tempFiles = countTempFiles();
+        final int invocations = UploadResource.invocations.get();
+
+        final Socket socket = new Socket("localhost", port);
+        final OutputStream out = socket.getOutputStream();
+        out.write(("POST /upload HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/octet-stream\r\n"
+                + "Content-Length: 100000\r\n\r\n").getBytes("ASCII"));
+        out.write(entity(THRESHOLD * 4));
+        out.flush();
+        Thread.sleep(200);
+        socket.close();
+
+        assertTempFilesDeleted(tempFiles);
+        assertEquals("Aborted request must not be dispatched.", invocations, UploadResource.invocations.get());
+
+        final byte[] entity = entity(100);
+        assertEquals(entity.length + ":" + checksum(entity), post(open(), entity));
+    }
+
+    @Test
+    public void testStalledUploadTimesOut() throws Exception {
+        startServer(500);
+        final int invocations = UploadResource.invocations.get();
+
+        final Socket socket = new Socket("localhost", port);
+        try {
+            socket.setSoTimeout(10000);
+            final OutputStream out = socket.getOutputStream();
+            out.write(("POST /upload HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/octet-stream\r\n"
+                    + "Content-Length: 1000\r\n\r\n").getBytes("ASCII"));
+            out.write(entity(10));
+            out.flush();
+
+            final String statusLine = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), "ASCII")).readLine();
+            assertTrue(statusLine, statusLine.startsWith("HTTP/1.1 408"));
+        } finally {
+            socket.close();
+        }
+        assertEquals("Timed out request must not be dispatched.", invocations, UploadResource.invocations.get());
+    }
+
+    private HttpURLConnection open() throws IOException {
+        final HttpURLConnection connection =
+                (HttpURLConnection) new URL("http://localhost:" + port + "/upload").openConnection();
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty("Content-Type", "application/octet-stream");
+        return connection;
+    }
+
+    private static String post(HttpURLConnection connection, byte[] entity) throws IOException {
+        final OutputStream out = connection.getOutputStream();
+        out.write(entity);
+        out.close();
+
+        assertEquals(200, connection.getResponseCode());
+        final InputStream in = connection.getInputStream();
+        try {
+            return new BufferedReader(new InputStreamReader(in, "UTF-8")).readLine();
+        } finally {
+            in.close();
+        }
+    }
+
+    private static byte[] entity(int size) {
+        final byte[] entity = new byte[size];
+        new Random(size).nextBytes(entity);
+        return entity;
+    }
+
+    private static long checksum(byte[] data) {
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        return crc.getValue();
+    }
+
+    private static int countTempFiles() {
+        final String[] files = new File(System.getProperty("java.io.tmpdir")).list(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.startsWith("jersey-grizzly-entity") && name.endsWith(".tmp");
+            }
+        });
+        return files == null ? 0 : files.length;
+    }
+
+    private static void assertTempFilesDeleted(int expected) throws InterruptedException {
+        for (int i = 0; i < 50 && countTempFiles() > expected; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals("Request entity temporary files have not been deleted.", expected, countTempFiles());
+    }
+}
@@ -63,6 +63,7 @@ import org.glassfish.jersey.server.ContainerException;
 import org.glassfish.jersey.server.ContainerRequest;
 import org.glassfish.jersey.server.ContainerResponse;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.internal.ApplicationHandlerHolder;
 import org.glassfish.jersey.server.internal.ConfigHelper;
 import org.glassfish.jersey.server.spi.Container;
 import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
@@ -82,7 +83,7 @@ import com.sun.net.httpserver.HttpsExchange;
 public class JdkHttpHandlerContainer implements HttpHandler, Container {
      private static final Logger LOGGER = Logger.getLogger(JdkHttpHandlerContainer.class.getName());
 
-    transient private ApplicationHandler appHandler;
+    transient private ApplicationHandlerHolder appHandler;
     private final ContainerLifecycleListener containerListener;
 
     /**
@@ -92,7 +93,7 @@ public class JdkHttpHandlerContainer implements HttpHandler, Container {
      *                   initialized.
      */
     JdkHttpHandlerContainer(ApplicationHandler appHandler) {
-        this.appHandler = appHandler;
+        this.appHandler = new ApplicationHandlerHolder(appHandler);
         this.containerListener = ConfigHelper.getContainerLifecycleListener(appHandler);
     }
 
@@ -196,7 +197,7 @@ public class JdkHttpHandlerContainer implements HttpHandler, Container {
 
     @Override
     public ResourceConfig getConfiguration() {
-        return appHandler.getConfiguration();
+        return appHandler.get().getConfiguration();
     }
 
     @Override
@@ -206,8 +207,12 @@ public class JdkHttpHandlerContainer implements HttpHandler, Container {
 
     @Override
     public void reload(ResourceConfig configuration) {
-        appHandler = new ApplicationHandler(configuration);
-        containerListener.onReload(this);
+        appHandler.reload(configuration, new Runnable() {
+            @Override
+            public void run() {
+                containerListener.onReload(JdkHttpHandlerContainer.this);
+            }
+        });
     }
 
     private final static class ResponseWriter implements ContainerResponseWriter {
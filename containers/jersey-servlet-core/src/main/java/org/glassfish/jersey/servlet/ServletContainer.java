@@ -63,6 +63,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.glassfish.jersey.internal.ProcessingException;
 import org.glassfish.jersey.internal.util.ExtendedLogger;
+import org.glassfish.jersey.internal.util.PropertiesHelper;
 import org.glassfish.jersey.internal.util.collection.Value;
 import org.glassfish.jersey.server.ContainerException;
 import org.glassfish.jersey.server.ResourceConfig;
@@ -125,7 +126,7 @@ public class ServletContainer extends HttpServlet implements Filter, Container {
 
     private static final long serialVersionUID = 3932047066686065219L;
     private transient FilterConfig filterConfig;
-    private transient WebComponent webComponent;
+    private transient volatile WebComponent webComponent;
     private transient ResourceConfig resourceConfig;
     private transient Pattern staticContentPattern;
     private transient String filterContextPath;
@@ -142,7 +143,7 @@ public class ServletContainer extends HttpServlet implements Filter, Container {
      */
     protected void init(WebConfig webConfig) throws ServletException {
         webComponent = new WebComponent(webConfig, resourceConfig);
-        containerListener = ConfigHelper.getContainerLifecycleListener(webComponent.appHandler);
+        containerListener = ConfigHelper.getContainerLifecycleListener(webComponent.appHandler.get());
         containerListener.onStartup(this);
     }
 
@@ -531,7 +532,7 @@ public class ServletContainer extends HttpServlet implements Filter, Container {
 
     @Override
     public ResourceConfig getConfiguration() {
-        return webComponent.appHandler.getConfiguration();
+        return webComponent.appHandler.get().getConfiguration();
     }
 
     @Override
@@ -541,6 +542,16 @@ public class ServletContainer extends HttpServlet implements Filter, Container {
 
     @Override
     public void reload(ResourceConfig configuration) {
+        if (PropertiesHelper.getValue(configuration.getProperties(), ServerProperties.RELOAD_WARM_UP, Boolean.FALSE)) {
+            webComponent.reload(configuration, new Runnable() {
+                @Override
+                public void run() {
+                    containerListener.onReload(ServletContainer.this);
+                }
+            });
+            return;
+        }
+
         try {
             webComponent = new WebComponent(webComponent.webConfig, configuration);
             containerListener.onReload(this);
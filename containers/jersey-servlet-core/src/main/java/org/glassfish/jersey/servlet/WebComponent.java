@@ -78,6 +78,8 @@ import org.glassfish.jersey.process.internal.RequestScoped;
 import org.glassfish.jersey.server.ApplicationHandler;
 import org.glassfish.jersey.server.ContainerRequest;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+import org.glassfish.jersey.server.internal.ApplicationHandlerHolder;
 import org.glassfish.jersey.server.internal.inject.HttpContext;
 import org.glassfish.jersey.server.spi.ContainerResponseWriter;
 import org.glassfish.jersey.server.spi.ContainerResponseWriter.TimeoutHandler;
@@ -126,7 +128,7 @@ public class WebComponent {
 
     private AsyncContextDelegateProvider getAsyncExtensionDelegate() {
 
-        final Iterator<AsyncContextDelegateProvider> providers = Providers.getAllProviders(appHandler.getServiceLocator(),
+        final Iterator<AsyncContextDelegateProvider> providers = Providers.getAllProviders(appHandler.get().getServiceLocator(),
                 AsyncContextDelegateProvider.class).iterator();
         if (providers.hasNext()) {
             return providers.next();
@@ -223,7 +225,7 @@ public class WebComponent {
     /**
      * Jersey application handler.
      */
-    final ApplicationHandler appHandler;
+    final ApplicationHandlerHolder appHandler;
     /**
      * Web component configuration.
      */
@@ -251,12 +253,27 @@ public class WebComponent {
             resourceConfig = createResourceConfig(webConfig);
         }
         resourceConfig.register(new WebComponentBinder());
-        this.appHandler = new ApplicationHandler(resourceConfig);
+        this.appHandler = new ApplicationHandlerHolder(new ApplicationHandler(resourceConfig));
         this.asyncExtensionDelegate = getAsyncExtensionDelegate();
         this.forwardOn404 = webConfig.getConfigType().equals(WebConfig.ConfigType.FilterConfig) &&
                 resourceConfig.isProperty(ServletProperties.FILTER_FORWARD_ON_404);
     }
 
+    /**
+     * Reload the Jersey application deployed in the web component using the
+     * {@link ServerProperties#RELOAD_WARM_UP pre-warmed} application reload.
+     * <p>
+     * The web component configuration (e.g. the {@link ServletProperties#FILTER_FORWARD_ON_404} setting)
+     * is retained.
+     * </p>
+     *
+     * @param resourceConfig new Jersey application configuration.
+     * @param reloadCallback callback invoked once the new application has been deployed.
+     */
+    void reload(final ResourceConfig resourceConfig, final Runnable reloadCallback) {
+        appHandler.reload(resourceConfig.register(new WebComponentBinder()), reloadCallback);
+    }
+
     /**
      * Dispatch client requests to a resource class.
      *
@@ -292,7 +309,7 @@ public class WebComponent {
         filterFormParameters(servletRequest, requestContext);
 
         try {
-            final ResponseWriter responseWriter = new ResponseWriter(forwardOn404, servletResponse,
+            final ResponseWriter responseWriter = new ResponseWriter(forwardOn404, servletRequest, servletResponse,
                     asyncExtensionDelegate.createDelegate(servletRequest, servletResponse));
 
             requestContext.setRequestScopedInitializer(new RequestScopedInitializer() {
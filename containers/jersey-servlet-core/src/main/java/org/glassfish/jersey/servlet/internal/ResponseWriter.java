@@ -40,8 +40,10 @@
 
 package org.glassfish.jersey.servlet.internal;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -49,13 +51,16 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedMap;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
 import org.glassfish.jersey.server.ContainerException;
 import org.glassfish.jersey.server.ContainerResponse;
 import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+import org.glassfish.jersey.server.spi.ZeroCopyResponseWriter;
 import org.glassfish.jersey.servlet.spi.AsyncContextDelegate;
 
 import com.google.common.util.concurrent.SettableFuture;
@@ -64,15 +69,26 @@ import javax.ws.rs.WebApplicationException;
 /**
  * An internal implementation of {@link ContainerResponseWriter} for Servlet containers.
  * The writer depends on provided {@link AsyncContextDelegate} to support async functionality.
+ * <p>
+ * File response entities are transferred using the native {@code sendfile} support of the Servlet
+ * container, if available (currently the Tomcat {@code org.apache.tomcat.sendfile.*} request attributes
+ * are supported).
+ * </p>
  *
  * @author Paul Sandoz (paul.sandoz at oracle.com)
  * @author Jakub Podlesak (jakub.podlesak at oracle.com)
  * @author Martin Matula (martin.matula at oracle.com)
  */
-public class ResponseWriter implements ContainerResponseWriter {
+public class ResponseWriter implements ZeroCopyResponseWriter {
 
     private static final Logger LOGGER = Logger.getLogger(ResponseWriter.class.getName());
 
+    private static final String SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+    private final HttpServletRequest request;
     private final HttpServletResponse response;
     private final boolean useSetStatusOn404;
     private final SettableFuture<ContainerResponse> responseContext;
@@ -86,7 +102,24 @@ public class ResponseWriter implements ContainerResponseWriter {
      * @param asyncExt          delegate to use for async features implementation
      */
     public ResponseWriter(final boolean useSetStatusOn404, final HttpServletResponse response, AsyncContextDelegate asyncExt) {
+        this(useSetStatusOn404, null, response, asyncExt);
+    }
+
+    /**
+     * Creates a new instance to write a single Jersey response.
+     *
+     * @param useSetStatusOn404 true if status should be written explicitly when 404 is returned
+     * @param request           original HttpServletRequest, used to detect native {@code sendfile} support
+     *                          of the Servlet container. May be {@code null}.
+     * @param response          original HttpResponseRequest
+     * @param asyncExt          delegate to use for async features implementation
+     */
+    public ResponseWriter(final boolean useSetStatusOn404,
+                          final HttpServletRequest request,
+                          final HttpServletResponse response,
+                          final AsyncContextDelegate asyncExt) {
         this.useSetStatusOn404 = useSetStatusOn404;
+        this.request = request;
         this.response = response;
         this.asyncExt = asyncExt;
         this.responseContext = SettableFuture.create();
@@ -109,6 +142,44 @@ public class ResponseWriter implements ContainerResponseWriter {
 
     @Override
     public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) throws ContainerException {
+        writeStatusAndHeaders(contentLength, responseContext);
+
+        if (!responseContext.hasEntity()) {
+            return null;
+        } else {
+            try {
+                return response.getOutputStream();
+            } catch (IOException e) {
+                throw new ContainerException(e);
+            }
+        }
+    }
+
+    @Override
+    public boolean writeFile(File file, long position, long count, ContainerResponse responseContext)
+            throws ContainerException {
+        if (request == null || !Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTRIBUTE))) {
+            return false;
+        }
+
+        writeStatusAndHeaders(count, responseContext);
+        if (count >= Integer.MAX_VALUE) {
+            response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(count));
+        }
+
+        request.setAttribute(SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+        request.setAttribute(SENDFILE_START_ATTRIBUTE, position);
+        request.setAttribute(SENDFILE_END_ATTRIBUTE, position + count);
+        return true;
+    }
+
+    @Override
+    public boolean writeByteBuffer(ByteBuffer buffer, ContainerResponse responseContext) throws ContainerException {
+        // Servlet API does not provide any native byte buffer transfer mechanism
+        return false;
+    }
+
+    private void writeStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
         this.responseContext.set(responseContext);
 
         // first set the content length, so that if headers have an explicit value, it takes precedence over this one
@@ -126,16 +197,6 @@ public class ResponseWriter implements ContainerResponseWriter {
             }
         }
         response.setStatus(responseContext.getStatus());
-
-        if (!responseContext.hasEntity()) {
-            return null;
-        } else {
-            try {
-                return response.getOutputStream();
-            } catch (IOException e) {
-                throw new ContainerException(e);
-            }
-        }
     }
 
     @Override
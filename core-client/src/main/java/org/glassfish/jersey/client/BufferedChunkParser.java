@@ -0,0 +1,221 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Base class for chunk parsers that read the response entity input stream in blocks into a reusable buffer
+ * and locate the chunks directly in the buffered data.
+ * <p>
+ * Concrete parsers implement the {@link #findChunk(byte[], int, int, int[])} method that searches the buffered
+ * data for a complete chunk. Any data read past the end of the returned chunk are retained in the buffer and
+ * used for parsing the subsequent chunks. For this reason, a buffered chunk parser must not be shared by
+ * multiple chunked inputs. Empty chunks are skipped.
+ * </p>
+ * <p>
+ * When used by a {@link ChunkedInput}, the chunk data are passed to the {@link javax.ws.rs.ext.MessageBodyReader}
+ * as a view of the parser buffer, without copying the chunk data into a new array.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public abstract class BufferedChunkParser implements ChunkParser {
+    /**
+     * Default initial size of the parser buffer ({@value}).
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final int[] chunk = new int[2];
+    private byte[] buffer;
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private InputStream source = null;
+
+    /**
+     * Create new buffered chunk parser with the {@link #DEFAULT_BUFFER_SIZE default initial buffer size}.
+     */
+    protected BufferedChunkParser() {
+        this(DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Create new buffered chunk parser.
+     *
+     * @param bufferSize initial size of the parser buffer. The buffer grows if a chunk does not fit in the buffer.
+     */
+    protected BufferedChunkParser(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public final byte[] readChunk(final InputStream responseStream) throws IOException {
+        if (!nextChunk(responseStream)) {
+            return null;
+        }
+        return Arrays.copyOfRange(buffer, chunk[0], chunk[0] + chunk[1]);
+    }
+
+    /**
+     * Read next chunk and return a stream over the chunk data stored in the parser buffer.
+     * <p>
+     * The returned stream is valid only until the next chunk is read.
+     * </p>
+     *
+     * @param responseStream response entity input stream.
+     * @return stream of the next chunk data, or {@code null} if no more chunks are available.
+     * @throws IOException in case reading from the response entity fails.
+     */
+    InputStream readChunkStream(final InputStream responseStream) throws IOException {
+        if (!nextChunk(responseStream)) {
+            return null;
+        }
+        return new ByteArrayInputStream(buffer, chunk[0], chunk[1]);
+    }
+
+    /**
+     * Search the buffered data for a complete chunk.
+     * <p>
+     * If a complete chunk is found, the method stores the buffer index of the first chunk data byte into
+     * {@code chunk[0]} and the length of the chunk data into {@code chunk[1]} and returns the number of the
+     * consumed bytes, including any delimiters or other framing data. Otherwise the method returns {@code 0}
+     * and will be invoked again once more data are read into the buffer.
+     * </p>
+     *
+     * @param buffer buffer containing the data.
+     * @param offset index of the first unconsumed byte in the buffer.
+     * @param length number of the unconsumed bytes in the buffer.
+     * @param chunk  array to store the chunk data position into.
+     * @return number of the consumed bytes or {@code 0} if no complete chunk is found in the buffer.
+     * @throws IOException in case the data are not valid.
+     */
+    protected abstract int findChunk(byte[] buffer, int offset, int length, int[] chunk) throws IOException;
+
+    /**
+     * Process the data remaining in the buffer once the end of the response entity input stream is reached
+     * and no more complete chunks are {@link #findChunk(byte[], int, int, int[]) found} in the buffer.
+     * <p>
+     * The default implementation returns all the remaining data as the last chunk.
+     * </p>
+     *
+     * @param buffer buffer containing the data.
+     * @param offset index of the first unconsumed byte in the buffer.
+     * @param length number of the unconsumed bytes in the buffer. Always greater than {@code 0}.
+     * @param chunk  array to store the chunk data position into.
+     * @return number of the consumed bytes or {@code 0} if the remaining data should be discarded.
+     * @throws IOException in case the remaining data are not valid.
+     */
+    protected int findLastChunk(final byte[] buffer, final int offset, final int length, final int[] chunk)
+            throws IOException {
+        chunk[0] = offset;
+        chunk[1] = length;
+        return length;
+    }
+
+    /**
+     * Invoked when the parser starts parsing a new response entity input stream.
+     * <p>
+     * Parsers that keep any state between the {@link #findChunk(byte[], int, int, int[])} invocations
+     * should reset it. The default implementation does nothing.
+     * </p>
+     */
+    protected void reset() {
+        // do nothing
+    }
+
+    private boolean nextChunk(final InputStream in) throws IOException {
+        if (in != source) {
+            source = in;
+            position = 0;
+            limit = 0;
+            eof = false;
+            reset();
+        }
+
+        while (true) {
+            final int length = limit - position;
+            int consumed = length > 0 ? findChunk(buffer, position, length, chunk) : 0;
+            if (consumed == 0 && eof && length > 0) {
+                consumed = findLastChunk(buffer, position, length, chunk);
+                if (consumed == 0) {
+                    position = limit;
+                }
+            }
+
+            if (consumed > 0) {
+                position += consumed;
+                if (chunk[1] > 0) {
+                    return true;
+                }
+                // skip empty chunk
+            } else if (eof) {
+                return false;
+            } else {
+                fill(in);
+            }
+        }
+    }
+
+    private void fill(final InputStream in) throws IOException {
+        if (position > 0) {
+            // compact the unconsumed data to the beginning of the buffer
+            final int length = limit - position;
+            System.arraycopy(buffer, position, buffer, 0, length);
+            position = 0;
+            limit = length;
+        } else if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length << 1);
+        }
+
+        final int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+}
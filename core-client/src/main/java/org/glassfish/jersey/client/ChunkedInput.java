@@ -41,10 +41,10 @@
 package org.glassfish.jersey.client;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.Arrays;
@@ -104,41 +104,177 @@ public class ChunkedInput<T> extends GenericType<T> implements Closeable {
         return new FixedBoundaryParser(boundary);
     }
 
-    private static class FixedBoundaryParser implements ChunkParser {
+    /**
+     * Create new chunk parser that will split the response entity input stream into lines,
+     * e.g. for reading newline-delimited JSON streams.
+     *
+     * Lines are terminated by {@code LF} or {@code CRLF}, the line terminators are not part of
+     * the chunk data. Empty lines are skipped.
+     *
+     * @return new newline-delimited chunk parser.
+     */
+    public static ChunkParser createNewlineDelimitedParser() {
+        return new NewlineDelimitedParser();
+    }
+
+    /**
+     * Create new chunk parser that will split the response entity input stream into chunks
+     * prefixed with the chunk data length encoded as a 4-byte big-endian integer.
+     *
+     * @return new length-prefixed chunk parser.
+     */
+    public static ChunkParser createLengthPrefixedParser() {
+        return new LengthPrefixedParser(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create new chunk parser that will split the response entity input stream into chunks
+     * prefixed with the chunk data length encoded as a 4-byte big-endian integer.
+     *
+     * @param maxChunkSize maximum accepted chunk data length. Reading a longer chunk fails.
+     * @return new length-prefixed chunk parser.
+     */
+    public static ChunkParser createLengthPrefixedParser(final int maxChunkSize) {
+        return new LengthPrefixedParser(maxChunkSize);
+    }
+
+    /**
+     * Fixed boundary parser searching the buffered data for the boundary using the Boyer-Moore-Horspool algorithm.
+     */
+    private static class FixedBoundaryParser extends BufferedChunkParser {
         private final byte[] delimiter;
+        private final int[] shift = new int[256];
+        private int scanned = 0;
 
         public FixedBoundaryParser(byte[] boundary) {
+            if (boundary.length == 0) {
+                throw new IllegalArgumentException("Chunk boundary must not be empty.");
+            }
             delimiter = Arrays.copyOf(boundary, boundary.length);
+
+            final int last = delimiter.length - 1;
+            Arrays.fill(shift, delimiter.length);
+            for (int i = 0; i < last; i++) {
+                shift[delimiter[i] & 0xff] = last - i;
+            }
         }
 
         @Override
-        public byte[] readChunk(InputStream in) throws IOException {
-            final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
-            final byte[] delimiterBuffer = new byte[delimiter.length];
-
-            int data;
-            do {
-                int dPos = 0;
-                while ((data = in.read()) != -1) {
-                    final byte b = (byte) data;
-                    if (b == delimiter[dPos]) {
-                        delimiterBuffer[dPos++] = b;
-                        if (dPos == delimiter.length) {
-                            // found chunk delimiter
-                            break;
-                        }
-                    } else if (dPos > 0) {
-                        buffer.write(delimiterBuffer, 0, dPos - 1);
-                        dPos = 0;
+        protected int findChunk(byte[] buffer, int offset, int length, int[] chunk) {
+            final int end = offset + length;
+            final int last = delimiter.length - 1;
+
+            // skip the data already searched in the previous invocations
+            int i = offset + scanned;
+            while (i + last < end) {
+                int j = last;
+                while (buffer[i + j] == delimiter[j]) {
+                    if (j == 0) {
+                        chunk[0] = offset;
+                        chunk[1] = i - offset;
+                        scanned = 0;
+                        return chunk[1] + delimiter.length;
                     }
-                    buffer.write(b);
+                    j--;
                 }
-            } while (data != -1 && buffer.size() == 0);
+                i += shift[buffer[i + last] & 0xff];
+            }
+
+            scanned = i - offset;
+            return 0;
+        }
+
+        @Override
+        protected int findLastChunk(byte[] buffer, int offset, int length, int[] chunk) throws IOException {
+            scanned = 0;
+            return super.findLastChunk(buffer, offset, length, chunk);
+        }
+
+        @Override
+        protected void reset() {
+            scanned = 0;
+        }
+    }
+
+    /**
+     * Parser splitting the stream on the {@code LF} characters, stripping the optional preceding {@code CR}.
+     */
+    private static class NewlineDelimitedParser extends BufferedChunkParser {
+        private int scanned = 0;
 
-            if (buffer.size() > 0) {
-                return buffer.toByteArray();
+        @Override
+        protected int findChunk(byte[] buffer, int offset, int length, int[] chunk) {
+            final int end = offset + length;
+            for (int i = offset + scanned; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    scanned = 0;
+                    setLine(buffer, offset, i, chunk);
+                    return i - offset + 1;
+                }
+            }
+
+            scanned = length;
+            return 0;
+        }
+
+        @Override
+        protected int findLastChunk(byte[] buffer, int offset, int length, int[] chunk) {
+            scanned = 0;
+            setLine(buffer, offset, offset + length, chunk);
+            return length;
+        }
+
+        @Override
+        protected void reset() {
+            scanned = 0;
+        }
+
+        private static void setLine(byte[] buffer, int offset, int end, int[] chunk) {
+            if (end > offset && buffer[end - 1] == '\r') {
+                end--;
+            }
+            chunk[0] = offset;
+            chunk[1] = end - offset;
+        }
+    }
+
+    /**
+     * Parser of chunks prefixed with 4-byte big-endian chunk data length.
+     */
+    private static class LengthPrefixedParser extends BufferedChunkParser {
+        private static final int PREFIX_LENGTH = 4;
+
+        private final int maxChunkSize;
+
+        public LengthPrefixedParser(int maxChunkSize) {
+            this.maxChunkSize = maxChunkSize;
+        }
+
+        @Override
+        protected int findChunk(byte[] buffer, int offset, int length, int[] chunk) throws IOException {
+            if (length < PREFIX_LENGTH) {
+                return 0;
+            }
+
+            final int chunkLength = ((buffer[offset] & 0xff) << 24)
+                    | ((buffer[offset + 1] & 0xff) << 16)
+                    | ((buffer[offset + 2] & 0xff) << 8)
+                    | (buffer[offset + 3] & 0xff);
+            if (chunkLength < 0 || chunkLength > maxChunkSize) {
+                throw new IOException(LocalizationMessages.CHUNKED_INPUT_CHUNK_LENGTH_INVALID(chunkLength));
+            }
+            if (length - PREFIX_LENGTH < chunkLength) {
+                return 0;
             }
-            return null;
+
+            chunk[0] = offset + PREFIX_LENGTH;
+            chunk[1] = chunkLength;
+            return PREFIX_LENGTH + chunkLength;
+        }
+
+        @Override
+        protected int findLastChunk(byte[] buffer, int offset, int length, int[] chunk) throws IOException {
+            throw new IOException(LocalizationMessages.CHUNKED_INPUT_CHUNK_TRUNCATED());
         }
     }
 
@@ -302,11 +438,10 @@ public class ChunkedInput<T> extends GenericType<T> implements Closeable {
         }
 
         try {
-            final byte[] chunk = parser.readChunk(inputStream);
-            if (chunk == null) {
+            final InputStream chunkStream = readChunkStream();
+            if (chunkStream == null) {
                 close();
             } else {
-                ByteArrayInputStream chunkStream = new ByteArrayInputStream(chunk);
                 //noinspection unchecked
                 return (T) messageBodyWorkers.readFrom(
                         getRawType(),
@@ -324,4 +459,16 @@ public class ChunkedInput<T> extends GenericType<T> implements Closeable {
         }
         return null;
     }
+
+    private InputStream readChunkStream() throws IOException {
+        final Class<?> rawType = getRawType();
+        if (parser instanceof BufferedChunkParser
+                && !InputStream.class.isAssignableFrom(rawType) && !Reader.class.isAssignableFrom(rawType)) {
+            // chunk data are read directly from the parser buffer; streams may be consumed lazily and need a copy
+            return ((BufferedChunkParser) parser).readChunkStream(inputStream);
+        }
+
+        final byte[] chunk = parser.readChunk(inputStream);
+        return chunk == null ? null : new ByteArrayInputStream(chunk);
+    }
 }
@@ -0,0 +1,462 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.spi.ConnectorMetrics;
+
+/**
+ * Client request metrics aggregated per target host and response status family.
+ * <p>
+ * The metrics are collected by the {@link ClientRuntime client runtime} when the
+ * {@link ClientMetricsFeature client metrics feature} is enabled. If the metrics have been
+ * created with a JMX name, each {@link EndpointMetrics endpoint metrics} instance is also
+ * registered in the platform MBean server under the
+ * {@code org.glassfish.jersey.client:type=ClientMetrics,name=<name>,host=<host>,status=<family>}
+ * object name. The MBeans are registered while at least one client runtime using the metrics is open
+ * and unregistered when the last such runtime is closed, i.e. when its client is closed. The collected
+ * metrics remain available through this API after the MBeans have been unregistered.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class ClientMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(ClientMetrics.class.getName());
+
+    /**
+     * JMX domain of the client metrics MBeans.
+     */
+    public static final String JMX_DOMAIN = "org.glassfish.jersey.client";
+    private static final String FAILED = "FAILED";
+
+    private final String jmxName;
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<String, EndpointMetrics>();
+    private int openRuntimes;
+
+    /**
+     * Create new client metrics.
+     *
+     * @param jmxName name used in the object names of the registered MBeans, {@code null} if the
+     *                metrics should not be registered in JMX.
+     */
+    ClientMetrics(String jmxName) {
+        this.jmxName = jmxName;
+    }
+
+    /**
+     * Get the target hosts for which metrics have been recorded.
+     *
+     * @return sorted set of target hosts in the form of {@code scheme://host:port}.
+     */
+    public Set<String> getHosts() {
+        final Set<String> hosts = new TreeSet<String>();
+        for (EndpointMetrics metrics : endpoints.values()) {
+            hosts.add(metrics.getHost());
+        }
+        return hosts;
+    }
+
+    /**
+     * Get metrics of all the endpoints.
+     *
+     * @return metrics of all the target host and status family combinations recorded so far.
+     */
+    public Collection<EndpointMetrics> getEndpointMetrics() {
+        return Collections.unmodifiableCollection(endpoints.values());
+    }
+
+    /**
+     * Get the metrics of the requests to the host that received a response with a status
+     * from the family.
+     *
+     * @param host   target host in the form of {@code scheme://host:port}.
+     * @param family response status family, {@code null} for requests that failed without a response.
+     * @return endpoint metrics or {@code null} if no such request has been recorded.
+     */
+    public EndpointMetrics getEndpointMetrics(String host, Response.Status.Family family) {
+        return endpoints.get(key(host, family));
+    }
+
+    /**
+     * Get the number of requests to the host.
+     *
+     * @param host target host in the form of {@code scheme://host:port}.
+     * @return number of requests.
+     */
+    public long getRequestCount(String host) {
+        long count = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            if (metrics.getHost().equals(host)) {
+                count += metrics.getRequestCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the ratio of the requests to the host that failed without a response or received
+     * a client or server error response.
+     *
+     * @param host target host in the form of {@code scheme://host:port}.
+     * @return error rate in the range {@code [0, 1]}.
+     */
+    public double getErrorRate(String host) {
+        long count = 0;
+        long errors = 0;
+        for (EndpointMetrics metrics : endpoints.values()) {
+            if (metrics.getHost().equals(host)) {
+                count += metrics.getRequestCount();
+                final Response.Status.Family family = metrics.getStatusFamily();
+                if (family == null
+                        || family == Response.Status.Family.CLIENT_ERROR
+                        || family == Response.Status.Family.SERVER_ERROR) {
+                    errors += metrics.getRequestCount();
+                }
+            }
+        }
+        return count == 0 ? 0 : (double) errors / count;
+    }
+
+    /**
+     * Reset all the metrics.
+     */
+    public void reset() {
+        for (EndpointMetrics metrics : endpoints.values()) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Unregister all the metrics MBeans from the platform MBean server. The metrics registered later,
+     * i.e. for host and status family combinations not seen yet, will be registered again.
+     */
+    public synchronized void unregisterMBeans() {
+        if (jmxName == null) {
+            return;
+        }
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (EndpointMetrics metrics : endpoints.values()) {
+            try {
+                final ObjectName name = objectName(metrics);
+                if (server.isRegistered(name)) {
+                    server.unregisterMBean(name);
+                }
+            } catch (JMException e) {
+                LOGGER.log(Level.WARNING, "Failed to unregister client metrics MBean.", e);
+            }
+        }
+    }
+
+    /**
+     * Notify the metrics that a client runtime using them has been created. The MBeans of the metrics
+     * recorded so far are registered again if the metrics have not been in use by any other runtime.
+     */
+    synchronized void runtimeOpened() {
+        if (openRuntimes++ == 0) {
+            for (EndpointMetrics metrics : endpoints.values()) {
+                register(metrics);
+            }
+        }
+    }
+
+    /**
+     * Notify the metrics that a client runtime using them has been closed. The MBeans are unregistered
+     * once the metrics are no longer in use by any runtime.
+     */
+    synchronized void runtimeClosed() {
+        if (openRuntimes > 0 && --openRuntimes == 0) {
+            unregisterMBeans();
+        }
+    }
+
+    /**
+     * Start recording metrics of a request.
+     *
+     * @param request client request.
+     * @return request metrics recorder.
+     */
+    Exchange start(ClientRequest request) {
+        final ConnectorMetrics connectorMetrics = new ConnectorMetrics();
+        request.setProperty(ConnectorMetrics.PROPERTY, connectorMetrics);
+        return new Exchange(getHost(request.getUri()), connectorMetrics);
+    }
+
+    private EndpointMetrics getEndpoint(String host, Response.Status.Family family) {
+        final String key = key(host, family);
+        EndpointMetrics metrics = endpoints.get(key);
+        if (metrics == null) {
+            final EndpointMetrics created = new EndpointMetrics(host, family);
+            metrics = endpoints.putIfAbsent(key, created);
+            if (metrics == null) {
+                metrics = created;
+                register(created);
+            }
+        }
+        return metrics;
+    }
+
+    private synchronized void register(EndpointMetrics metrics) {
+        if (jmxName == null || openRuntimes == 0) {
+            return;
+        }
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = objectName(metrics);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new EndpointMetricsMBean(metrics), name);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Failed to register client metrics MBean.", e);
+        }
+    }
+
+    private ObjectName objectName(EndpointMetrics metrics) throws JMException {
+        final Response.Status.Family family = metrics.getStatusFamily();
+        return new ObjectName(JMX_DOMAIN + ":type=ClientMetrics"
+                + ",name=" + ObjectName.quote(jmxName)
+                + ",host=" + ObjectName.quote(metrics.getHost())
+                + ",status=" + (family != null ? family.name() : FAILED));
+    }
+
+    private static String key(String host, Response.Status.Family family) {
+        return host + ' ' + (family != null ? family.name() : FAILED);
+    }
+
+    private static String getHost(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ':' + uri.getPort();
+    }
+
+    /**
+     * Metrics recorder of a single request.
+     */
+    final class Exchange {
+
+        private final String host;
+        private final ConnectorMetrics connectorMetrics;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean recorded = new AtomicBoolean();
+        private volatile long requestFiltered = -1;
+        private volatile long responseReceived = -1;
+
+        private Exchange(String host, ConnectorMetrics connectorMetrics) {
+            this.host = host;
+            this.connectorMetrics = connectorMetrics;
+        }
+
+        /**
+         * Record the end of the request processing stages, i.e. the request is about to be passed
+         * to the connector.
+         */
+        void requestFiltered() {
+            requestFiltered = System.nanoTime();
+        }
+
+        /**
+         * Record the response has been returned by the connector (or the request has been aborted).
+         */
+        void responseReceived() {
+            responseReceived = System.nanoTime();
+        }
+
+        /**
+         * Record the end of the response processing stages and start measuring the entity reading.
+         *
+         * @param response processed response.
+         */
+        void responseFiltered(ClientResponse response) {
+            final long now = System.nanoTime();
+            if (!recorded.compareAndSet(false, true)) {
+                return;
+            }
+
+            final EndpointMetrics metrics = getEndpoint(host, response.getStatusInfo().getFamily());
+            final ConnectorMetrics measured = getConnectorMetrics(response);
+            final long received = responseReceived > 0 ? responseReceived : now;
+            final long filtered = requestFiltered;
+            if (filtered > 0) {
+                metrics.getRequestFilteringTime().record(filtered - start, TimeUnit.NANOSECONDS);
+                metrics.getExchangeTime().record(received - filtered, TimeUnit.NANOSECONDS);
+                recordConnectorTimes(metrics, measured, filtered);
+            } else {
+                // aborted by a request filter
+                metrics.getRequestFilteringTime().record(received - start, TimeUnit.NANOSECONDS);
+            }
+            metrics.getResponseFilteringTime().record(now - received, TimeUnit.NANOSECONDS);
+            metrics.getTotalTime().record(now - start, TimeUnit.NANOSECONDS);
+            metrics.requestCompleted(measured.getBytesSent());
+
+            if (response.hasEntity()) {
+                response.setEntityStream(new MeteredInputStream(response.getEntityStream(), metrics));
+            }
+        }
+
+        /**
+         * Record the request failure.
+         */
+        void failed() {
+            final long now = System.nanoTime();
+            if (!recorded.compareAndSet(false, true)) {
+                return;
+            }
+
+            final EndpointMetrics metrics = getEndpoint(host, null);
+            final long filtered = requestFiltered;
+            if (filtered > 0) {
+                metrics.getRequestFilteringTime().record(filtered - start, TimeUnit.NANOSECONDS);
+                recordConnectorTimes(metrics, connectorMetrics, filtered);
+            }
+            metrics.getTotalTime().record(now - start, TimeUnit.NANOSECONDS);
+            metrics.requestCompleted(connectorMetrics.getBytesSent());
+        }
+
+        /**
+         * Get the connector metrics of the request that produced the response. It differs from the metrics
+         * attached to the original request if the response has been received for a copy of the request
+         * (e.g. by a hedged attempt).
+         */
+        private ConnectorMetrics getConnectorMetrics(ClientResponse response) {
+            final ClientRequest request = response.getRequestContext();
+            final ConnectorMetrics measured = request != null ? ConnectorMetrics.from(request) : null;
+            return measured != null ? measured : connectorMetrics;
+        }
+
+        private void recordConnectorTimes(EndpointMetrics metrics, ConnectorMetrics measured, long filtered) {
+            final long connected = measured.getConnectedTime();
+            if (connected > 0) {
+                metrics.getConnectTime().record(connected - filtered, TimeUnit.NANOSECONDS);
+            }
+            final long firstByte = measured.getFirstByteTime();
+            if (firstByte > 0) {
+                metrics.getFirstByteTime().record(firstByte - filtered, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Response entity stream recording the number of bytes read and the reading time.
+     */
+    private static final class MeteredInputStream extends FilterInputStream {
+
+        private final EndpointMetrics metrics;
+        private long bytes;
+        private long firstRead = -1;
+        private boolean recorded;
+
+        MeteredInputStream(InputStream in, EndpointMetrics metrics) {
+            super(in);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            started();
+            final int b = super.read();
+            if (b == -1) {
+                finished();
+            } else {
+                bytes++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            started();
+            final int read = super.read(b, off, len);
+            if (read == -1) {
+                finished();
+            } else {
+                bytes += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            started();
+            final long skipped = super.skip(n);
+            bytes += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                finished();
+            }
+        }
+
+        private void started() {
+            if (firstRead < 0) {
+                firstRead = System.nanoTime();
+            }
+        }
+
+        private void finished() {
+            if (!recorded) {
+                recorded = true;
+                metrics.entityRead(bytes, firstRead < 0 ? 0 : System.nanoTime() - firstRead);
+            }
+        }
+    }
+}
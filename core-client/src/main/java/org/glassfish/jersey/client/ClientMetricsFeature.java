@@ -0,0 +1,158 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.ws.rs.BindingPriority;
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.glassfish.jersey.client.spi.ConnectorMetrics;
+
+/**
+ * Feature that enables collection of the client request metrics.
+ * <p>
+ * When enabled, the {@link ClientRuntime client runtime} measures for every request the time spent in
+ * the request filters, in the connector exchange and in the response filters, as well as the time spent
+ * reading the response entity and the number of entity bytes sent and received. Connectors that support
+ * it additionally report the connect and time to first byte latencies through the
+ * {@link ConnectorMetrics connector metrics} attached to the request. The measurements are aggregated
+ * per target host and response status family in lock-free {@link TimeHistogram histograms} available
+ * through the {@link #getMetrics() client metrics} API and, optionally, through JMX:
+ * </p>
+ * <pre>
+ * ClientMetricsFeature metricsFeature = new ClientMetricsFeature("orders-client");
+ * Client client = ClientFactory.newClient(new ClientConfig().register(metricsFeature));
+ * ...
+ * EndpointMetrics metrics = metricsFeature.getMetrics()
+ *         .getEndpointMetrics("http://orders:8080", Response.Status.Family.SUCCESSFUL);
+ * long p99 = metrics.getTotalTime().getValueAtPercentile(99, TimeUnit.MILLISECONDS);
+ * </pre>
+ * <p>
+ * The same feature instance may be registered with multiple clients in order to aggregate their metrics.
+ * The metrics MBeans are unregistered once all the clients using the feature have been closed.
+ * </p>
+ * <p>
+ * If the {@link RequestCoalescingFeature request coalescing feature} is enabled as well, a request joining
+ * an identical request already in flight is recorded with the time it waited for the shared response as
+ * its exchange time. As such a request is not passed to the connector, no connect and time to first
+ * byte latencies and no sent entity bytes are recorded for it.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public class ClientMetricsFeature implements Feature {
+
+    /**
+     * Name of the client configuration property holding the {@link ClientMetrics} used by the
+     * {@link ClientRuntime client runtime}.
+     */
+    static final String METRICS_PROPERTY = ClientMetricsFeature.class.getName() + ".metrics";
+
+    private final ClientMetrics metrics;
+
+    /**
+     * Create new client metrics feature that does not register the metrics in JMX.
+     */
+    public ClientMetricsFeature() {
+        this(null);
+    }
+
+    /**
+     * Create new client metrics feature registering the metrics in the platform MBean server.
+     *
+     * @param jmxName name used in the object names of the metrics MBeans, {@code null} if the metrics
+     *                should not be registered in JMX.
+     * @see ClientMetrics
+     */
+    public ClientMetricsFeature(String jmxName) {
+        this.metrics = new ClientMetrics(jmxName);
+    }
+
+    /**
+     * Get the collected client metrics.
+     *
+     * @return client metrics.
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        context.setProperty(METRICS_PROPERTY, metrics);
+        context.register(new BytesSentInterceptor());
+        return true;
+    }
+
+    /**
+     * Counts the request entity bytes written to the connector, i.e. after any entity encoding.
+     */
+    @BindingPriority(Integer.MAX_VALUE)
+    private static final class BytesSentInterceptor implements WriterInterceptor {
+
+        @Override
+        public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+            final Object connectorMetrics = context.getProperty(ConnectorMetrics.PROPERTY);
+            if (connectorMetrics instanceof ConnectorMetrics) {
+                final ConnectorMetrics metrics = (ConnectorMetrics) connectorMetrics;
+                context.setOutputStream(new FilterOutputStream(context.getOutputStream()) {
+                    @Override
+                    public void write(int b) throws IOException {
+                        out.write(b);
+                        metrics.addBytesSent(1);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        out.write(b, off, len);
+                        metrics.addBytesSent(len);
+                    }
+                });
+            }
+            context.proceed();
+        }
+    }
+}
@@ -69,6 +69,8 @@ class ClientRuntime {
     private final Stage<ClientResponse> responseProcessingRoot;
 
     private final Connector connector;
+    private final RequestCoalescer coalescer;
+    private final ClientMetrics metrics;
     private final ExtendedConfig config;
 
     private final RequestScope requestScope;
@@ -95,7 +97,15 @@ class ClientRuntime {
                 responseFilteringStage : Stages.<ClientResponse>identity();
 
         this.config = config;
-        this.connector = connector;
+        final Object hedger = config.getProperty(RequestHedgingFeature.HEDGER_PROPERTY);
+        this.connector = hedger instanceof RequestHedger ? ((RequestHedger) hedger).wrap(connector) : connector;
+        final Object coalescer = config.getProperty(RequestCoalescingFeature.COALESCER_PROPERTY);
+        this.coalescer = coalescer instanceof RequestCoalescer ? (RequestCoalescer) coalescer : null;
+        final Object metrics = config.getProperty(ClientMetricsFeature.METRICS_PROPERTY);
+        this.metrics = metrics instanceof ClientMetrics ? (ClientMetrics) metrics : null;
+        if (this.metrics != null) {
+            this.metrics.runtimeOpened();
+        }
 
         this.requestScope = locator.getService(RequestScope.class);
         this.asyncExecutorsFactory = new ClientAsyncExecutorsFactory(locator);
@@ -119,16 +129,23 @@ class ClientRuntime {
             @Override
             public void run() {
                 final RequestScope.Instance currentScopeInstance = requestScope.referenceCurrent();
+                final ClientMetrics.Exchange exchange = metrics != null ? metrics.start(request) : null;
                 final AsyncConnectorCallback connectorCallback = new AsyncConnectorCallback() {
 
                     @Override
                     public void response(final ClientResponse response) {
+                        if (exchange != null) {
+                            exchange.responseReceived();
+                        }
                         submit(asyncExecutorsFactory.getRespondingExecutor(request), currentScopeInstance, new Runnable() {
                             @Override
                             public void run() {
                                 final ClientResponse processedResponse;
                                 try {
                                     processedResponse = Stages.process(response, responseProcessingRoot);
+                                    if (exchange != null) {
+                                        exchange.responseFiltered(processedResponse);
+                                    }
                                 } catch (Throwable throwable) {
                                     failure(throwable);
                                     return;
@@ -144,6 +161,9 @@ class ClientRuntime {
 
                     @Override
                     public void failure(Throwable failure) {
+                        if (exchange != null) {
+                            exchange.failed();
+                        }
                         try {
                             callback.failed(failure instanceof ClientException ?
                                     (ClientException) failure : new ClientException(failure));
@@ -153,7 +173,16 @@ class ClientRuntime {
                     }
                 };
                 try {
-                    connector.apply(addUserAgent(Stages.process(request, requestProcessingRoot), connector.getName()), connectorCallback);
+                    final ClientRequest processedRequest =
+                            addUserAgent(Stages.process(request, requestProcessingRoot), connector.getName());
+                    if (exchange != null) {
+                        exchange.requestFiltered();
+                    }
+                    if (coalescer != null) {
+                        coalescer.apply(processedRequest, connector, connectorCallback);
+                    } else {
+                        connector.apply(processedRequest, connectorCallback);
+                    }
                 } catch (AbortException aborted) {
                     connectorCallback.response(aborted.getAbortResponse());
                 } catch (Throwable throwable) {
@@ -209,18 +238,37 @@ class ClientRuntime {
      * @throws ClientException in case of an invocation failure.
      */
     public ClientResponse invoke(final ClientRequest request) throws ClientException {
+        final ClientMetrics.Exchange exchange = metrics != null ? metrics.start(request) : null;
         ClientResponse response;
         try {
             try {
-                response = connector.apply(addUserAgent(Stages.process(request, requestProcessingRoot), connector.getName()));
+                final ClientRequest processedRequest =
+                        addUserAgent(Stages.process(request, requestProcessingRoot), connector.getName());
+                if (exchange != null) {
+                    exchange.requestFiltered();
+                }
+                response = coalescer != null ? coalescer.apply(processedRequest, connector) : connector.apply(processedRequest);
             } catch (AbortException aborted) {
                 response = aborted.getAbortResponse();
             }
+            if (exchange != null) {
+                exchange.responseReceived();
+            }
 
-            return Stages.process(response, responseProcessingRoot);
+            response = Stages.process(response, responseProcessingRoot);
+            if (exchange != null) {
+                exchange.responseFiltered(response);
+            }
+            return response;
         } catch (ClientException ex) {
+            if (exchange != null) {
+                exchange.failed();
+            }
             throw ex;
         } catch (Throwable t) {
+            if (exchange != null) {
+                exchange.failed();
+            }
             throw new ClientException(t.getMessage(), t);
         }
     }
@@ -247,7 +295,13 @@ class ClientRuntime {
      * Close the client runtime and release the underlying transport connector.
      */
     public void close() {
-        connector.close();
+        try {
+            connector.close();
+        } finally {
+            if (metrics != null) {
+                metrics.runtimeClosed();
+            }
+        }
     }
 
     /**
@@ -0,0 +1,254 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.core.Response;
+
+/**
+ * Client request metrics aggregated for a target host and response status family.
+ *
+ * @author agent (agent at local)
+ * @see ClientMetrics
+ */
+public final class EndpointMetrics {
+
+    private final String host;
+    private final Response.Status.Family family;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+
+    private final TimeHistogram requestFiltering = new TimeHistogram();
+    private final TimeHistogram exchange = new TimeHistogram();
+    private final TimeHistogram connect = new TimeHistogram();
+    private final TimeHistogram firstByte = new TimeHistogram();
+    private final TimeHistogram responseFiltering = new TimeHistogram();
+    private final TimeHistogram entityReading = new TimeHistogram();
+    private final TimeHistogram total = new TimeHistogram();
+    private final Map<String, TimeHistogram> timers;
+
+    /**
+     * Create new endpoint metrics.
+     *
+     * @param host   target host.
+     * @param family response status family, {@code null} for requests that failed without a response.
+     */
+    EndpointMetrics(String host, Response.Status.Family family) {
+        this.host = host;
+        this.family = family;
+
+        final Map<String, TimeHistogram> map = new LinkedHashMap<String, TimeHistogram>();
+        map.put("RequestFiltering", requestFiltering);
+        map.put("Exchange", exchange);
+        map.put("Connect", connect);
+        map.put("FirstByte", firstByte);
+        map.put("ResponseFiltering", responseFiltering);
+        map.put("EntityReading", entityReading);
+        map.put("Total", total);
+        this.timers = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Get the target host in the form of {@code scheme://host:port}.
+     *
+     * @return target host.
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Get the response status family.
+     *
+     * @return response status family or {@code null} if the metrics aggregate requests that failed
+     *         without receiving a response (e.g. due to a connection failure).
+     */
+    public Response.Status.Family getStatusFamily() {
+        return family;
+    }
+
+    /**
+     * Get the number of completed requests.
+     *
+     * @return number of requests.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Get the number of request entity bytes sent.
+     *
+     * @return number of bytes sent.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    /**
+     * Get the number of response entity bytes read by the application.
+     *
+     * @return number of bytes received.
+     */
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    /**
+     * Get the time spent in the request processing stages (request filters) before the request has been
+     * passed to the connector.
+     *
+     * @return request filtering time histogram.
+     */
+    public TimeHistogram getRequestFilteringTime() {
+        return requestFiltering;
+    }
+
+    /**
+     * Get the time spent in the connector, from passing the request to the connector until the response
+     * has been returned by the connector. Requests aborted by a request filter are not recorded. For the
+     * requests that received a response shared by a coalesced request, the time spent waiting for the
+     * shared response is recorded.
+     *
+     * @return connector exchange time histogram.
+     */
+    public TimeHistogram getExchangeTime() {
+        return exchange;
+    }
+
+    /**
+     * Get the time from passing the request to the connector until the connection has been established.
+     * Only recorded if reported by the connector, i.e. not for the requests that received a response
+     * shared by a coalesced request.
+     *
+     * @return connect time histogram.
+     * @see org.glassfish.jersey.client.spi.ConnectorMetrics
+     */
+    public TimeHistogram getConnectTime() {
+        return connect;
+    }
+
+    /**
+     * Get the time from passing the request to the connector until the first byte of the response
+     * has been received. Only recorded if reported by the connector, i.e. not for the requests that
+     * received a response shared by a coalesced request.
+     *
+     * @return time to first byte histogram.
+     * @see org.glassfish.jersey.client.spi.ConnectorMetrics
+     */
+    public TimeHistogram getFirstByteTime() {
+        return firstByte;
+    }
+
+    /**
+     * Get the time spent in the response processing stages (response filters).
+     *
+     * @return response filtering time histogram.
+     */
+    public TimeHistogram getResponseFilteringTime() {
+        return responseFiltering;
+    }
+
+    /**
+     * Get the time spent reading the response entity, from the first read until the entity
+     * stream has been exhausted or closed.
+     *
+     * @return entity reading time histogram.
+     */
+    public TimeHistogram getEntityReadingTime() {
+        return entityReading;
+    }
+
+    /**
+     * Get the total request processing time, from the request invocation until the response has been
+     * filtered (i.e. excluding the entity reading) or until the request has failed.
+     *
+     * @return total request processing time histogram.
+     */
+    public TimeHistogram getTotalTime() {
+        return total;
+    }
+
+    /**
+     * Reset all the metrics.
+     */
+    public void reset() {
+        requests.set(0);
+        bytesSent.set(0);
+        bytesReceived.set(0);
+        for (TimeHistogram timer : timers.values()) {
+            timer.reset();
+        }
+    }
+
+    /**
+     * Get all the time histograms keyed by their names.
+     *
+     * @return time histograms.
+     */
+    Map<String, TimeHistogram> getTimers() {
+        return timers;
+    }
+
+    void requestCompleted(long bytes) {
+        requests.incrementAndGet();
+        bytesSent.addAndGet(bytes);
+    }
+
+    void entityRead(long bytes, long nanos) {
+        bytesReceived.addAndGet(bytes);
+        entityReading.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointMetrics{host=" + host
+                + ", status=" + (family != null ? family : "FAILED")
+                + ", requests=" + getRequestCount()
+                + ", total=" + total + '}';
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanConstructorInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanNotificationInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ReflectionException;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Read-only JMX view of the {@link EndpointMetrics endpoint metrics}.
+ * <p>
+ * Besides the {@code RequestCount}, {@code BytesSent} and {@code BytesReceived} attributes, the MBean exposes
+ * {@code <timer>Count}, {@code <timer>MeanMillis}, {@code <timer>P50Millis}, {@code <timer>P90Millis},
+ * {@code <timer>P99Millis} and {@code <timer>MaxMillis} attributes for each of the time histograms
+ * (e.g. {@code ExchangeP99Millis}) and a {@code reset} operation.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+final class EndpointMetricsMBean implements DynamicMBean {
+
+    private static final String[] STATISTICS = {"Count", "MeanMillis", "P50Millis", "P90Millis", "P99Millis", "MaxMillis"};
+
+    private final EndpointMetrics metrics;
+    private final MBeanInfo info;
+
+    /**
+     * Create new MBean exposing the endpoint metrics.
+     *
+     * @param metrics endpoint metrics.
+     */
+    EndpointMetricsMBean(EndpointMetrics metrics) {
+        this.metrics = metrics;
+
+        final List<MBeanAttributeInfo> attributes = Lists.newArrayList(
+                attribute("RequestCount", "long", "Number of completed requests."),
+                attribute("BytesSent", "long", "Number of request entity bytes sent."),
+                attribute("BytesReceived", "long", "Number of response entity bytes read."));
+        for (String timer : metrics.getTimers().keySet()) {
+            for (String statistic : STATISTICS) {
+                attributes.add(attribute(timer + statistic, "Count".equals(statistic) ? "long" : "double",
+                        timer + " time " + statistic + "."));
+            }
+        }
+        this.info = new MBeanInfo(
+                EndpointMetrics.class.getName(),
+                "Client request metrics of " + metrics.getHost() + " ("
+                        + (metrics.getStatusFamily() != null ? metrics.getStatusFamily() : "FAILED") + ").",
+                attributes.toArray(new MBeanAttributeInfo[attributes.size()]),
+                new MBeanConstructorInfo[0],
+                new MBeanOperationInfo[]{
+                        new MBeanOperationInfo("reset", "Reset the metrics.", new MBeanParameterInfo[0],
+                                "void", MBeanOperationInfo.ACTION)},
+                new MBeanNotificationInfo[0]);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        if ("RequestCount".equals(attribute)) {
+            return metrics.getRequestCount();
+        } else if ("BytesSent".equals(attribute)) {
+            return metrics.getBytesSent();
+        } else if ("BytesReceived".equals(attribute)) {
+            return metrics.getBytesReceived();
+        }
+
+        for (Map.Entry<String, TimeHistogram> timer : metrics.getTimers().entrySet()) {
+            if (attribute.startsWith(timer.getKey())) {
+                final TimeHistogram histogram = timer.getValue();
+                final String statistic = attribute.substring(timer.getKey().length());
+                if ("Count".equals(statistic)) {
+                    return histogram.getCount();
+                } else if ("MeanMillis".equals(statistic)) {
+                    return histogram.getMean(TimeUnit.MILLISECONDS);
+                } else if ("P50Millis".equals(statistic)) {
+                    return percentile(histogram, 50);
+                } else if ("P90Millis".equals(statistic)) {
+                    return percentile(histogram, 90);
+                } else if ("P99Millis".equals(statistic)) {
+                    return percentile(histogram, 99);
+                } else if ("MaxMillis".equals(statistic)) {
+                    return (double) histogram.getMax(TimeUnit.MICROSECONDS) / 1000;
+                }
+            }
+        }
+        throw new AttributeNotFoundException(attribute);
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Attribute " + attribute.getName() + " is read-only.");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        final AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // skip unknown attributes
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if ("reset".equals(actionName)) {
+            metrics.reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+
+    private static double percentile(TimeHistogram histogram, double percentile) {
+        final long micros = histogram.getValueAtPercentile(percentile, TimeUnit.MICROSECONDS);
+        return micros < 0 ? 0 : (double) micros / 1000;
+    }
+
+    private static MBeanAttributeInfo attribute(String name, String type, String description) {
+        return new MBeanAttributeInfo(name, type, description, true, false, false);
+    }
+}
@@ -63,6 +63,7 @@ import javax.net.ssl.SSLContext;
 import org.glassfish.jersey.client.internal.LocalizationMessages;
 import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
 import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorMetrics;
 import org.glassfish.jersey.internal.util.PropertiesHelper;
 import org.glassfish.jersey.internal.util.collection.UnsafeValue;
 import org.glassfish.jersey.internal.util.collection.Values;
@@ -226,6 +227,7 @@ public class HttpUrlConnector extends RequestWriter implements Connector {
 
     private ClientResponse _apply(final ClientRequest request) throws IOException {
         final Map<String, Object> configurationProperties = request.getConfiguration().getProperties();
+        final ConnectorMetrics metrics = ConnectorMetrics.from(request);
 
         final HttpURLConnection uc;
 
@@ -310,7 +312,11 @@ public class HttpUrlConnector extends RequestWriter implements Connector {
                     return new OutboundMessageContext.StreamProvider() {
                         @Override
                         public OutputStream getOutputStream() throws IOException {
-                            return uc.getOutputStream();
+                            final OutputStream out = uc.getOutputStream();
+                            if (metrics != null) {
+                                metrics.connected();
+                            }
+                            return out;
                         }
 
                         @Override
@@ -323,10 +329,17 @@ public class HttpUrlConnector extends RequestWriter implements Connector {
             });
         } else {
             writeOutBoundHeaders(request.getStringHeaders(), uc);
+            if (metrics != null) {
+                uc.connect();
+                metrics.connected();
+            }
         }
 
-        ClientResponse responseContext = new ClientResponse(
-                Statuses.from(uc.getResponseCode()), request);
+        final int status = uc.getResponseCode();
+        if (metrics != null) {
+            metrics.firstByteReceived();
+        }
+        ClientResponse responseContext = new ClientResponse(Statuses.from(status), request);
         responseContext.headers(Maps.<String, List<String>>filterKeys(uc.getHeaderFields(), Predicates.notNull()));
         responseContext.setEntityStream(getInputStream(uc));
 
@@ -0,0 +1,473 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.ClientException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.HeadersFactory;
+import org.glassfish.jersey.message.internal.ReaderWriter;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Coalesces identical in-flight requests into a single connector invocation.
+ * <p>
+ * The response of the executed request is buffered and shared only if identical requests
+ * joined it while it was in flight. {@code text/event-stream} responses as well as responses with
+ * entities larger than the configured maximum are never shared, the joined requests are executed
+ * separately instead.
+ * </p>
+ *
+ * @author agent (agent at local)
+ * @see RequestCoalescingFeature
+ */
+final class RequestCoalescer {
+
+    private static final List<String> CONDITIONAL_HEADERS = ImmutableList.of(
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_MATCH,
+            HttpHeaders.IF_UNMODIFIED_SINCE, "If-Range", "Range");
+    private static final MediaType SERVER_SENT_EVENTS_TYPE = new MediaType("text", "event-stream");
+
+    private final List<String> headers;
+    private final int maxEntitySize;
+    private final ConcurrentMap<Key, Flight> inFlight = new ConcurrentHashMap<Key, Flight>();
+    private final RequestCoalescingStatistics statistics = new RequestCoalescingStatistics();
+
+    /**
+     * Create new request coalescer.
+     *
+     * @param headers names of the request headers distinguishing the coalesced requests.
+     * @param maxEntitySize maximum size of a response entity (in bytes) that is shared with the coalesced requests.
+     */
+    RequestCoalescer(Collection<String> headers, int maxEntitySize) {
+        this.headers = ImmutableList.<String>builder().addAll(CONDITIONAL_HEADERS).addAll(headers).build();
+        this.maxEntitySize = maxEntitySize;
+    }
+
+    /**
+     * Get the coalescing statistics.
+     *
+     * @return coalescing statistics.
+     */
+    RequestCoalescingStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Synchronously invoke the request using the connector, unless an identical
+     * request is already in flight, in which case the response of that request is
+     * awaited instead.
+     *
+     * @param request client request.
+     * @param connector connector used to invoke the request.
+     * @return client response.
+     */
+    ClientResponse apply(ClientRequest request, Connector connector) {
+        if (!isCoalescible(request)) {
+            return connector.apply(request);
+        }
+
+        final Key key = new Key(request, headers);
+        final Flight flight = new Flight();
+        Flight existing;
+        while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+            if (existing.join()) {
+                statistics.coalesced();
+                return await(existing, request, connector);
+            }
+            // the existing flight has already been closed and removed - try again
+        }
+
+        statistics.executed();
+        final ClientResponse response;
+        try {
+            response = connector.apply(request);
+        } catch (Throwable t) {
+            if (close(key, flight)) {
+                flight.response.setException(t);
+            }
+            throw toClientException(t);
+        }
+
+        if (close(key, flight)) {
+            try {
+                share(flight, response);
+            } catch (IOException e) {
+                throw new ClientException(e.getMessage(), e);
+            }
+        }
+        return response;
+    }
+
+    private ClientResponse await(Flight flight, ClientRequest request, Connector connector) {
+        final BufferedResponse shared;
+        try {
+            shared = flight.response.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ClientException(e.getMessage(), e);
+        } catch (ExecutionException e) {
+            throw toClientException(e.getCause());
+        }
+
+        if (shared != null) {
+            return shared.toResponse(request);
+        }
+        statistics.notShared();
+        return connector.apply(request);
+    }
+
+    /**
+     * Asynchronously invoke the request using the connector, unless an identical
+     * request is already in flight, in which case the response of that request is
+     * passed to the callback instead.
+     *
+     * @param request client request.
+     * @param connector connector used to invoke the request.
+     * @param callback asynchronous connector callback.
+     * @return asynchronous response future. The future returned for a coalesced request
+     *         is specific to the request, cancelling it does not affect the other requests.
+     */
+    Future<?> apply(final ClientRequest request, final Connector connector, final AsyncConnectorCallback callback) {
+        if (!isCoalescible(request)) {
+            return connector.apply(request, callback);
+        }
+
+        final Key key = new Key(request, headers);
+        final Flight flight = new Flight();
+        Flight existing;
+        while ((existing = inFlight.putIfAbsent(key, flight)) != null) {
+            if (existing.join()) {
+                statistics.coalesced();
+                return await(existing, request, connector, callback);
+            }
+            // the existing flight has already been closed and removed - try again
+        }
+
+        statistics.executed();
+        try {
+            return connector.apply(request, new AsyncConnectorCallback() {
+                @Override
+                public void response(ClientResponse response) {
+                    if (close(key, flight)) {
+                        try {
+                            share(flight, response);
+                        } catch (IOException e) {
+                            callback.failure(e);
+                            return;
+                        }
+                    }
+                    callback.response(response);
+                }
+
+                @Override
+                public void failure(Throwable failure) {
+                    if (close(key, flight)) {
+                        flight.response.setException(failure);
+                    }
+                    callback.failure(failure);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (close(key, flight)) {
+                flight.response.setException(e);
+            }
+            throw e;
+        }
+    }
+
+    private Future<?> await(final Flight flight,
+                            final ClientRequest request,
+                            final Connector connector,
+                            final AsyncConnectorCallback callback) {
+        // each coalesced request gets its own future, so that cancelling it does not cancel the shared flight
+        final SettableFuture<ClientResponse> result = SettableFuture.create();
+        Futures.addCallback(flight.response, new FutureCallback<BufferedResponse>() {
+            @Override
+            public void onSuccess(BufferedResponse shared) {
+                if (result.isCancelled()) {
+                    return;
+                }
+                if (shared != null) {
+                    final ClientResponse response = shared.toResponse(request);
+                    callback.response(response);
+                    result.set(response);
+                    return;
+                }
+
+                statistics.notShared();
+                try {
+                    connector.apply(request, new AsyncConnectorCallback() {
+                        @Override
+                        public void response(ClientResponse response) {
+                            callback.response(response);
+                            result.set(response);
+                        }
+
+                        @Override
+                        public void failure(Throwable failure) {
+                            callback.failure(failure);
+                            result.setException(failure);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    onFailure(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable failure) {
+                if (result.isCancelled()) {
+                    return;
+                }
+                callback.failure(failure);
+                result.setException(failure);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+        return result;
+    }
+
+    /**
+     * Close the flight so that no more requests can join it.
+     *
+     * @return {@code true} if any requests joined the flight.
+     */
+    private boolean close(Key key, Flight flight) {
+        // new identical requests must not join the flight once it is completed
+        if (inFlight.remove(key, flight)) {
+            statistics.completed();
+        }
+        return flight.close();
+    }
+
+    /**
+     * Share the response of the executed request with the requests that joined the flight. If the response
+     * cannot be shared, the joined requests are notified to execute the request themselves.
+     */
+    private void share(Flight flight, ClientResponse response) throws IOException {
+        BufferedResponse buffered = null;
+        try {
+            if (isShareable(response)) {
+                buffered = BufferedResponse.from(response, maxEntitySize);
+            }
+        } finally {
+            flight.response.set(buffered);
+        }
+    }
+
+    private boolean isShareable(ClientResponse response) {
+        final MediaType type = response.getMediaType();
+        if (type != null && SERVER_SENT_EVENTS_TYPE.getType().equalsIgnoreCase(type.getType())
+                && SERVER_SENT_EVENTS_TYPE.getSubtype().equalsIgnoreCase(type.getSubtype())) {
+            return false;
+        }
+        return response.getLength() <= maxEntitySize;
+    }
+
+    private static boolean isCoalescible(ClientRequest request) {
+        final String method = request.getMethod();
+        return (HttpMethod.GET.equals(method) || HttpMethod.HEAD.equals(method)) && !request.hasEntity();
+    }
+
+    private static ClientException toClientException(Throwable t) {
+        return t instanceof ClientException ? (ClientException) t : new ClientException(t.getMessage(), t);
+    }
+
+    /**
+     * Identity of a coalescible request.
+     */
+    private static final class Key {
+
+        private final String method;
+        private final String uri;
+        private final List<String> headerValues;
+        private final int hashCode;
+
+        Key(ClientRequest request, List<String> headers) {
+            this.method = request.getMethod();
+            this.uri = request.getUri().toString();
+            this.headerValues = new ArrayList<String>(headers.size());
+            for (String header : headers) {
+                headerValues.add(request.getHeaderString(header));
+            }
+            this.hashCode = 31 * (31 * method.hashCode() + uri.hashCode()) + headerValues.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return method.equals(other.method) && uri.equals(other.uri) && headerValues.equals(other.headerValues);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Single executed request joined by the identical requests.
+     */
+    private static final class Flight {
+
+        /**
+         * Shared response of the executed request, {@code null} if the response cannot be shared.
+         */
+        final SettableFuture<BufferedResponse> response = SettableFuture.create();
+        private int waiters = 0;
+        private boolean closed = false;
+
+        /**
+         * Join the flight.
+         *
+         * @return {@code true} if joined, {@code false} if the flight has already been closed.
+         */
+        synchronized boolean join() {
+            if (closed) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        /**
+         * Close the flight.
+         *
+         * @return {@code true} if any requests joined the flight.
+         */
+        synchronized boolean close() {
+            closed = true;
+            return waiters > 0;
+        }
+    }
+
+    /**
+     * Response of the executed request shared with the coalesced requests.
+     */
+    private static final class BufferedResponse {
+
+        private final Response.StatusType status;
+        private final MultivaluedMap<String, String> headers;
+        private final byte[] entity;
+
+        private BufferedResponse(Response.StatusType status, MultivaluedMap<String, String> headers, byte[] entity) {
+            this.status = status;
+            this.headers = headers;
+            this.entity = entity;
+        }
+
+        /**
+         * Buffer the response of the executed request. The entity stream of the response is
+         * replaced with a stream reading the buffered entity.
+         *
+         * @return buffered response or {@code null} if the entity is larger than the maximum size.
+         */
+        static BufferedResponse from(ClientResponse response, int maxEntitySize) throws IOException {
+            byte[] entity = null;
+            if (response.hasEntity()) {
+                final InputStream in = response.getEntityStream();
+                final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[ReaderWriter.BUFFER_SIZE];
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                    if (out.size() > maxEntitySize) {
+                        // too large to be shared - let the executed request read the rest of the entity
+                        response.setEntityStream(new SequenceInputStream(
+                                new ByteArrayInputStream(out.toByteArray()), in));
+                        return null;
+                    }
+                }
+                in.close();
+                entity = out.toByteArray();
+                response.setEntityStream(new ByteArrayInputStream(entity));
+            }
+
+            final MultivaluedMap<String, String> headers = HeadersFactory.createInbound();
+            for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+                headers.put(header.getKey(), new ArrayList<String>(header.getValue()));
+            }
+            return new BufferedResponse(response.getStatusInfo(), headers, entity);
+        }
+
+        /**
+         * Create a new response for the coalesced request.
+         */
+        ClientResponse toResponse(ClientRequest request) {
+            final ClientResponse response = new ClientResponse(status, request);
+            response.headers(headers);
+            if (entity != null) {
+                response.setEntityStream(new ByteArrayInputStream(entity));
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.HttpHeaders;
+
+/**
+ * Feature that enables coalescing of identical in-flight client requests.
+ * <p>
+ * When the feature is enabled, concurrent {@code GET} and {@code HEAD} requests without
+ * an entity that target the same URI and carry the same values of the selected request headers
+ * are sent to the {@link org.glassfish.jersey.client.spi.Connector connector} only once.
+ * If any requests joined the executed request while it was in flight, its response is buffered and handed
+ * over to all of them, each getting its own readable copy of the response entity.
+ * {@code text/event-stream} responses, as well as responses with entities larger than the
+ * {@link #DEFAULT_MAX_ENTITY_SIZE maximum entity size}, are never shared. Instead, the requests that joined
+ * such a request are executed separately. Request and response
+ * filters are still executed for every request. Coalescing only applies to requests that are in flight
+ * at the same time, no responses are retained once the executed request completes.
+ * </p>
+ * <p>
+ * Besides the request method and URI, the requests are distinguished by the values of the
+ * conditional request headers and of the headers selected when creating the feature; requests
+ * that differ in other headers may be coalesced. By default the {@code Accept}, {@code Accept-Encoding},
+ * {@code Accept-Language}, {@code Authorization} and {@code Cookie} headers are selected.
+ * </p>
+ * <p>
+ * The same feature instance may be registered with multiple clients, in which case identical
+ * requests are coalesced across all these clients and the {@link #getStatistics() statistics}
+ * are shared.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public class RequestCoalescingFeature implements Feature {
+
+    /**
+     * Name of the client configuration property holding the {@link RequestCoalescer} used by the
+     * {@link ClientRuntime client runtime}.
+     */
+    static final String COALESCER_PROPERTY = RequestCoalescingFeature.class.getName() + ".coalescer";
+
+    /**
+     * Request headers distinguishing the coalesced requests by default.
+     */
+    public static final Set<String> DEFAULT_HEADERS = Collections.unmodifiableSet(new LinkedHashSet<String>(
+            Arrays.asList(
+                    HttpHeaders.ACCEPT,
+                    HttpHeaders.ACCEPT_ENCODING,
+                    HttpHeaders.ACCEPT_LANGUAGE,
+                    HttpHeaders.AUTHORIZATION,
+                    HttpHeaders.COOKIE)));
+
+    /**
+     * Default maximum size of a response entity (in bytes) that is shared with the coalesced requests.
+     */
+    public static final int DEFAULT_MAX_ENTITY_SIZE = 1024 * 1024;
+
+    private final RequestCoalescer coalescer;
+
+    /**
+     * Create new request coalescing feature distinguishing the requests by the {@link #DEFAULT_HEADERS
+     * default request headers}.
+     */
+    public RequestCoalescingFeature() {
+        this(DEFAULT_HEADERS);
+    }
+
+    /**
+     * Create new request coalescing feature.
+     *
+     * @param headers names of the request headers (in addition to the request method, URI and
+     *                conditional headers) whose values must be equal for the requests to be coalesced.
+     */
+    public RequestCoalescingFeature(Collection<String> headers) {
+        this(headers, DEFAULT_MAX_ENTITY_SIZE);
+    }
+
+    /**
+     * Create new request coalescing feature.
+     *
+     * @param headers       names of the request headers (in addition to the request method, URI and
+     *                      conditional headers) whose values must be equal for the requests to be coalesced.
+     * @param maxEntitySize maximum size of a response entity (in bytes) that is shared with the coalesced
+     *                      requests. Requests joined to a request with a larger response are executed separately.
+     */
+    public RequestCoalescingFeature(Collection<String> headers, int maxEntitySize) {
+        this.coalescer = new RequestCoalescer(headers, maxEntitySize);
+    }
+
+    /**
+     * Get the request coalescing statistics.
+     *
+     * @return request coalescing statistics.
+     */
+    public RequestCoalescingStatistics getStatistics() {
+        return coalescer.getStatistics();
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        context.setProperty(COALESCER_PROPERTY, coalescer);
+        return true;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the {@link RequestCoalescingFeature request coalescing}.
+ *
+ * @author agent (agent at local)
+ */
+public final class RequestCoalescingStatistics {
+
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    /**
+     * Create new empty statistics.
+     */
+    RequestCoalescingStatistics() {
+    }
+
+    /**
+     * Get the number of coalescible requests that have been sent to the connector.
+     *
+     * @return number of executed requests.
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * Get the number of requests that have not been sent to the connector and have
+     * been given the response of an identical in-flight request instead.
+     *
+     * @return number of coalesced requests.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Get the number of distinct coalescible requests currently in flight.
+     *
+     * @return number of in-flight requests.
+     */
+    public long getInFlightCount() {
+        return inFlight.get();
+    }
+
+    /**
+     * Reset the {@link #getExecutedCount() executed} and {@link #getCoalescedCount() coalesced}
+     * counters to zero.
+     */
+    public void reset() {
+        executed.set(0);
+        coalesced.set(0);
+    }
+
+    void executed() {
+        executed.incrementAndGet();
+        inFlight.incrementAndGet();
+    }
+
+    void completed() {
+        inFlight.decrementAndGet();
+    }
+
+    void coalesced() {
+        coalesced.incrementAndGet();
+    }
+
+    void notShared() {
+        // the coalesced request could not be given the shared response and has been executed
+        coalesced.decrementAndGet();
+        executed.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestCoalescingStatistics{executed=" + getExecutedCount()
+                + ", coalesced=" + getCoalescedCount()
+                + ", inFlight=" + getInFlightCount() + '}';
+    }
+}
@@ -0,0 +1,564 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.URI;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.ClientException;
+
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorMetrics;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Executes safe requests with hedging and retries of failed connection attempts.
+ *
+ * @author agent (agent at local)
+ * @see RequestHedgingFeature
+ */
+final class RequestHedger {
+
+    /**
+     * Methods of the requests that are hedged and retried. {@code PUT} and {@code DELETE} are idempotent as well,
+     * but a duplicate attempt may observe or race the effects of the original one (e.g. a hedged {@code DELETE}
+     * may answer {@code 404} once the original deleted the resource).
+     */
+    private static final Set<String> HEDGEABLE_METHODS = ImmutableSet.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+    private static final long BUDGET_UNIT = 1000;
+    private static final int BUDGET_REQUESTS = 1000;
+    /**
+     * Time (in seconds) an idle scheduler thread is kept alive.
+     */
+    private static final long SCHEDULER_KEEP_ALIVE = 60;
+
+    private final double hedgePercentile;
+    private final long hedgeDelayNanos;
+    private final int minSamples;
+    private final int maxHedges;
+    private final long windowNanos;
+    private final int maxRetries;
+    private final long budgetDeposit;
+    private final long budgetCap;
+    private final long backoffNanos;
+    private final long maxBackoffNanos;
+
+    private final ConcurrentMap<String, RollingLatencyHistogram> histograms =
+            new ConcurrentHashMap<String, RollingLatencyHistogram>();
+    private final AtomicLong budget;
+    private final RequestHedgingStatistics statistics = new RequestHedgingStatistics();
+    private final Random random = new Random();
+
+    RequestHedger(double hedgePercentile, long hedgeDelayNanos, int minSamples, int maxHedges, long windowNanos,
+                  int maxRetries, double retryBudgetRatio, int minRetryBudget, long backoffNanos, long maxBackoffNanos) {
+        this.hedgePercentile = hedgePercentile;
+        this.hedgeDelayNanos = hedgeDelayNanos;
+        this.minSamples = minSamples;
+        this.maxHedges = maxHedges;
+        this.windowNanos = windowNanos;
+        this.maxRetries = maxRetries;
+        this.budgetDeposit = (long) (retryBudgetRatio * BUDGET_UNIT);
+        this.budgetCap = minRetryBudget * BUDGET_UNIT + BUDGET_REQUESTS * budgetDeposit;
+        this.budget = new AtomicLong(minRetryBudget * BUDGET_UNIT);
+        this.backoffNanos = backoffNanos;
+        this.maxBackoffNanos = maxBackoffNanos;
+    }
+
+    /**
+     * Get the hedging and retry statistics.
+     *
+     * @return hedging statistics.
+     */
+    RequestHedgingStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Wrap the connector so that the idempotent requests are executed with hedging and retries.
+     * <p>
+     * The returned connector owns the threads executing the attempts, which are stopped when
+     * the connector is closed.
+     * </p>
+     *
+     * @param connector connector to be wrapped.
+     * @return hedging connector.
+     */
+    Connector wrap(final Connector connector) {
+        return new HedgingConnector(connector);
+    }
+
+    /**
+     * Connector executing the idempotent requests with hedging and retries.
+     */
+    private final class HedgingConnector implements Connector {
+
+        private final Connector connector;
+        private final ExecutorService executor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("jersey-client-hedging-%d")
+                .setDaemon(true)
+                .build());
+        private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("jersey-client-hedging-scheduler-%d")
+                .setDaemon(true)
+                .build());
+
+        HedgingConnector(Connector connector) {
+            this.connector = connector;
+            scheduler.setKeepAliveTime(SCHEDULER_KEEP_ALIVE, TimeUnit.SECONDS);
+            scheduler.allowCoreThreadTimeOut(true);
+            scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        }
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            if (!isHedgeable(request)) {
+                return connector.apply(request);
+            }
+
+            final Execution execution = new Execution(request, this);
+            execution.start();
+            try {
+                return execution.result.get();
+            } catch (InterruptedException e) {
+                execution.result.cancel(true);
+                Thread.currentThread().interrupt();
+                throw new ClientException(e.getMessage(), e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                throw cause instanceof ClientException ?
+                        (ClientException) cause : new ClientException(cause.getMessage(), cause);
+            }
+        }
+
+        @Override
+        public Future<?> apply(ClientRequest request, final AsyncConnectorCallback callback) {
+            if (!isHedgeable(request)) {
+                return connector.apply(request, callback);
+            }
+
+            final Execution execution = new Execution(request, this);
+            Futures.addCallback(execution.result, new FutureCallback<ClientResponse>() {
+                @Override
+                public void onSuccess(ClientResponse response) {
+                    callback.response(response);
+                }
+
+                @Override
+                public void onFailure(Throwable failure) {
+                    callback.failure(failure);
+                }
+            }, MoreExecutors.sameThreadExecutor());
+            execution.start();
+            return execution.result;
+        }
+
+        @Override
+        public void close() {
+            try {
+                connector.close();
+            } finally {
+                executor.shutdown();
+                scheduler.shutdown();
+            }
+        }
+
+        @Override
+        public String getName() {
+            return connector.getName();
+        }
+    }
+
+    /**
+     * Get the current hedging delay for requests to the host of the URI.
+     *
+     * @param uri request URI.
+     * @return hedging delay in nanoseconds.
+     */
+    long getHedgeDelay(URI uri) {
+        if (hedgePercentile > 0) {
+            final RollingLatencyHistogram histogram = histograms.get(getHost(uri));
+            if (histogram != null && histogram.getCount() >= minSamples) {
+                return histogram.getValueAtPercentile(hedgePercentile, TimeUnit.NANOSECONDS);
+            }
+        }
+        return hedgeDelayNanos;
+    }
+
+    private void recordLatency(URI uri, long latencyNanos) {
+        final String host = getHost(uri);
+        RollingLatencyHistogram histogram = histograms.get(host);
+        if (histogram == null) {
+            final RollingLatencyHistogram created = new RollingLatencyHistogram(windowNanos, TimeUnit.NANOSECONDS);
+            histogram = histograms.putIfAbsent(host, created);
+            if (histogram == null) {
+                histogram = created;
+            }
+        }
+        histogram.record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void depositBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current >= budgetCap) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(budgetCap, current + budgetDeposit)));
+    }
+
+    private boolean withdrawBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < BUDGET_UNIT) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - BUDGET_UNIT));
+        return true;
+    }
+
+    private long getBackoff(int retry) {
+        final long ceiling = Math.min(maxBackoffNanos, backoffNanos << Math.min(retry, 20));
+        return ceiling <= 0 ? 0 : (long) (random.nextDouble() * ceiling);
+    }
+
+    private static boolean isHedgeable(ClientRequest request) {
+        return HEDGEABLE_METHODS.contains(request.getMethod()) && !request.hasEntity();
+    }
+
+    private static boolean isConnectFailure(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof ConnectException || t instanceof NoRouteToHostException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String getHost(URI uri) {
+        return uri.getScheme() + "://" + uri.getHost() + ':' + uri.getPort();
+    }
+
+    private static void close(ClientResponse response) {
+        try {
+            if (response.hasEntity()) {
+                response.getEntityStream().close();
+            }
+        } catch (IOException e) {
+            // ignore - response of a cancelled attempt
+        } catch (IllegalStateException e) {
+            // ignore - already closed
+        }
+    }
+
+    /**
+     * Single request execution consisting of one or more connector invocation attempts.
+     */
+    private final class Execution {
+
+        private final ClientRequest request;
+        private final HedgingConnector hedging;
+        private final SettableFuture<ClientResponse> result = SettableFuture.create();
+        private final List<Attempt> attempts = Lists.newArrayList();
+
+        // guarded by this
+        private int pending;
+        private int hedges;
+        private int retries;
+        private boolean done;
+        private Future<?> hedgeTimer;
+
+        Execution(ClientRequest request, HedgingConnector hedging) {
+            this.request = request;
+            this.hedging = hedging;
+
+            result.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (result.isCancelled()) {
+                        synchronized (Execution.this) {
+                            done = true;
+                        }
+                        cancel(null);
+                    }
+                }
+            }, MoreExecutors.sameThreadExecutor());
+        }
+
+        void start() {
+            statistics.request();
+            depositBudget();
+            launch(false);
+        }
+
+        private void launch(boolean hedge) {
+            final Attempt attempt = new Attempt(hedge);
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                attempts.add(attempt);
+                pending++;
+                try {
+                    attempt.task = hedging.executor.submit(attempt);
+                } catch (RejectedExecutionException e) {
+                    // the connector has been closed
+                    attempt.cancelled = true;
+                }
+                if (!attempt.cancelled) {
+                    scheduleHedge();
+                }
+            }
+            if (attempt.cancelled) {
+                failed(new ClientException("Connector has been closed."));
+            }
+        }
+
+        // guarded by this
+        private void scheduleHedge() {
+            if (hedges >= maxHedges || hedgeTimer != null) {
+                return;
+            }
+            try {
+                hedgeTimer = hedging.scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        synchronized (Execution.this) {
+                            hedgeTimer = null;
+                            if (done || pending == 0) {
+                                return;
+                            }
+                            hedges++;
+                        }
+                        statistics.hedged();
+                        launch(true);
+                    }
+                }, getHedgeDelay(request.getUri()), TimeUnit.NANOSECONDS);
+            } catch (RejectedExecutionException e) {
+                // the connector has been closed - no more hedging
+            }
+        }
+
+        private void completed(Attempt attempt, ClientResponse response) {
+            synchronized (this) {
+                pending--;
+                if (done) {
+                    close(response);
+                    return;
+                }
+                done = true;
+            }
+            final long now = System.nanoTime();
+            recordLatency(request.getUri(), now - attempt.start);
+            recordLosers(attempt, now);
+            if (attempt.hedge) {
+                statistics.hedgeWon();
+            }
+            cancel(attempt);
+            result.set(response);
+        }
+
+        private void failed(Throwable failure) {
+            long backoff = -1;
+            synchronized (this) {
+                pending--;
+                if (done || pending > 0) {
+                    // another attempt may still succeed
+                    return;
+                }
+                if (retries < maxRetries && isConnectFailure(failure)) {
+                    if (withdrawBudget()) {
+                        backoff = getBackoff(retries++);
+                    } else {
+                        statistics.budgetExhausted();
+                    }
+                }
+                if (backoff < 0) {
+                    done = true;
+                }
+            }
+
+            if (backoff >= 0) {
+                statistics.retried();
+                try {
+                    hedging.scheduler.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            launch(false);
+                        }
+                    }, backoff, TimeUnit.NANOSECONDS);
+                } catch (RejectedExecutionException e) {
+                    // the connector has been closed
+                    synchronized (this) {
+                        done = true;
+                    }
+                    result.setException(failure);
+                }
+            } else {
+                cancel(null);
+                result.setException(failure);
+            }
+        }
+
+        /**
+         * Record the time the attempts started before the winning one have been running so far. These attempts
+         * would have taken at least that long, leaving them out would bias the hedging delay towards the fast
+         * responses and make the requests get hedged more and more often.
+         */
+        private void recordLosers(Attempt winner, long now) {
+            final List<Attempt> losers;
+            synchronized (this) {
+                losers = Lists.newArrayList(attempts);
+            }
+            for (Attempt attempt : losers) {
+                final long start = attempt.start;
+                if (attempt != winner && start > 0 && start <= winner.start) {
+                    recordLatency(request.getUri(), now - start);
+                }
+            }
+        }
+
+        private void cancel(Attempt winner) {
+            final List<Attempt> losers;
+            synchronized (this) {
+                if (hedgeTimer != null) {
+                    hedgeTimer.cancel(false);
+                    hedgeTimer = null;
+                }
+                losers = Lists.newArrayList(attempts);
+            }
+            for (Attempt attempt : losers) {
+                if (attempt != winner) {
+                    attempt.cancel();
+                }
+            }
+        }
+
+        /**
+         * Single connector invocation attempt.
+         */
+        private final class Attempt implements Runnable, AsyncConnectorCallback {
+
+            private final boolean hedge;
+            private volatile long start;
+            private volatile Future<?> task;
+            private volatile Future<?> connectorFuture;
+            private volatile boolean cancelled;
+
+            Attempt(boolean hedge) {
+                this.hedge = hedge;
+            }
+
+            @Override
+            public void run() {
+                if (cancelled) {
+                    return;
+                }
+                // each attempt needs its own request, the connectors store per-request state in the properties
+                final ClientRequest attemptRequest = new ClientRequest(request);
+                if (ConnectorMetrics.from(request) != null) {
+                    attemptRequest.setProperty(ConnectorMetrics.PROPERTY, new ConnectorMetrics());
+                }
+                final Connector connector = hedging.connector;
+                start = System.nanoTime();
+                try {
+                    connectorFuture = connector.apply(attemptRequest, this);
+                } catch (UnsupportedOperationException e) {
+                    // connector does not support asynchronous requests
+                    try {
+                        response(connector.apply(attemptRequest));
+                    } catch (Throwable t) {
+                        failure(t);
+                    }
+                } catch (Throwable t) {
+                    failure(t);
+                }
+            }
+
+            @Override
+            public void response(ClientResponse response) {
+                completed(this, response);
+            }
+
+            @Override
+            public void failure(Throwable failure) {
+                failed(failure);
+            }
+
+            void cancel() {
+                cancelled = true;
+                final Future<?> f = connectorFuture;
+                if (f != null) {
+                    f.cancel(true);
+                }
+                final Future<?> t = task;
+                if (t != null) {
+                    t.cancel(true);
+                }
+            }
+        }
+    }
+}
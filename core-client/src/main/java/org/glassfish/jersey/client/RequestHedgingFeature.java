@@ -0,0 +1,290 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+
+/**
+ * Feature that enables hedged requests and retries of failed connection attempts.
+ * <p>
+ * Hedging and retries apply to requests using a safe method ({@code GET}, {@code HEAD} or
+ * {@code OPTIONS}) that do not carry an entity. {@code PUT} and {@code DELETE} requests are not hedged,
+ * as a duplicate attempt could race or observe the effects of the original one:
+ * </p>
+ * <ul>
+ * <li>If such request has not been answered within the hedging delay, a duplicate (hedged)
+ * request is sent to the {@link org.glassfish.jersey.client.spi.Connector connector}. The first
+ * response received is used, the other attempts are cancelled through their connector
+ * {@link java.util.concurrent.Future futures} and their responses, if any, are closed.
+ * The hedging delay is derived from a rolling histogram of the response latencies kept
+ * for each target host, e.g. a request is hedged once it takes longer than 95% of the recent
+ * requests to the same host. The time a cancelled slower attempt had been running is recorded
+ * as its latency. Until enough latencies are recorded for the host, a fixed delay is used.</li>
+ * <li>If the request fails to connect to the server (a {@link java.net.ConnectException} or
+ * {@link java.net.NoRouteToHostException} is raised), it is retried after an exponential backoff
+ * with a random jitter. Retries are limited per request and by a retry budget shared by all requests,
+ * which ensures the retries can only amount to a fraction of the regular traffic, so that they do not
+ * overload a struggling server.</li>
+ * </ul>
+ * <p>
+ * The connector invocations are executed by a pool of daemon threads owned by the feature, so
+ * hedging works even with connectors that process asynchronous requests in the calling thread.
+ * The same feature instance may be registered with multiple clients, in which case the latency
+ * histograms, the retry budget and the {@link #getStatistics() statistics} are shared.
+ * </p>
+ * <pre>
+ * RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+ *         .hedgeAtPercentile(99)
+ *         .hedgeDelay(50, TimeUnit.MILLISECONDS)
+ *         .maxRetries(3)
+ *         .build();
+ * Client client = ClientFactory.newClient(new ClientConfig().register(hedging));
+ * </pre>
+ *
+ * @author agent (agent at local)
+ */
+public class RequestHedgingFeature implements Feature {
+
+    /**
+     * Name of the client configuration property holding the {@link RequestHedger} used by the
+     * {@link ClientRuntime client runtime}.
+     */
+    static final String HEDGER_PROPERTY = RequestHedgingFeature.class.getName() + ".hedger";
+
+    /**
+     * Request hedging feature builder.
+     */
+    public static final class Builder {
+
+        private double hedgePercentile = 95;
+        private long hedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+        private int minSamples = 50;
+        private int maxHedges = 1;
+        private long windowNanos = TimeUnit.SECONDS.toNanos(30);
+        private int maxRetries = 2;
+        private double retryBudgetRatio = 0.1;
+        private int minRetryBudget = 10;
+        private long backoffNanos = TimeUnit.MILLISECONDS.toNanos(10);
+        private long maxBackoffNanos = TimeUnit.SECONDS.toNanos(1);
+
+        private Builder() {
+        }
+
+        /**
+         * Set the latency percentile of the recent requests to the same host after which a request
+         * is hedged. Default value is {@code 95}.
+         *
+         * @param percentile latency percentile in the range {@code (0, 100]}, or {@code 0} to always use
+         *                   the {@link #hedgeDelay(long, TimeUnit) fixed hedging delay}.
+         * @return updated builder.
+         */
+        public Builder hedgeAtPercentile(double percentile) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in range [0, 100].");
+            }
+            this.hedgePercentile = percentile;
+            return this;
+        }
+
+        /**
+         * Set the fixed hedging delay used when there are not enough latencies recorded for the target
+         * host or when the {@link #hedgeAtPercentile(double) percentile} is not set. Default value is
+         * 100 milliseconds.
+         *
+         * @param delay hedging delay.
+         * @param unit  delay time unit.
+         * @return updated builder.
+         */
+        public Builder hedgeDelay(long delay, TimeUnit unit) {
+            this.hedgeDelayNanos = unit.toNanos(delay);
+            return this;
+        }
+
+        /**
+         * Set the minimum number of latencies recorded for a host before the hedging delay is
+         * derived from the latency histogram. Default value is {@code 50}.
+         *
+         * @param minSamples minimum number of latency samples.
+         * @return updated builder.
+         */
+        public Builder minSamples(int minSamples) {
+            this.minSamples = minSamples;
+            return this;
+        }
+
+        /**
+         * Set the maximum number of hedged duplicates sent for a single request; {@code 0}
+         * disables hedging. Default value is {@code 1}.
+         *
+         * @param maxHedges maximum number of hedged duplicates per request.
+         * @return updated builder.
+         */
+        public Builder maxHedges(int maxHedges) {
+            this.maxHedges = maxHedges;
+            return this;
+        }
+
+        /**
+         * Set the length of the rolling window of the per-host latency histograms. Default value
+         * is 30 seconds.
+         *
+         * @param window window length.
+         * @param unit   window length time unit.
+         * @return updated builder.
+         */
+        public Builder latencyWindow(long window, TimeUnit unit) {
+            this.windowNanos = unit.toNanos(window);
+            return this;
+        }
+
+        /**
+         * Set the maximum number of retries of a request that failed to connect; {@code 0} disables
+         * retries. Default value is {@code 2}.
+         *
+         * @param maxRetries maximum number of retries per request.
+         * @return updated builder.
+         */
+        public Builder maxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * Set the retry budget. The budget initially allows {@code minRetries} retries, each request
+         * adds {@code ratio} to the budget and each retry consumes one, i.e. in the long run retries may
+         * amount to the given fraction of the requests. The budget cannot grow beyond {@code minRetries}
+         * plus the retries earned by 1000 requests. Default ratio is {@code 0.1} with {@code 10} initial
+         * retries.
+         *
+         * @param ratio      fraction of requests that may be retried.
+         * @param minRetries number of retries initially available.
+         * @return updated builder.
+         */
+        public Builder retryBudget(double ratio, int minRetries) {
+            this.retryBudgetRatio = ratio;
+            this.minRetryBudget = minRetries;
+            return this;
+        }
+
+        /**
+         * Set the retry backoff. The n-th retry is delayed by a random time between zero and
+         * {@code min(maxBackoff, backoff * 2^n)}. Default backoff is 10 milliseconds, default maximum
+         * backoff is 1 second.
+         *
+         * @param backoff    base backoff.
+         * @param maxBackoff maximum backoff.
+         * @param unit       backoff time unit.
+         * @return updated builder.
+         */
+        public Builder retryBackoff(long backoff, long maxBackoff, TimeUnit unit) {
+            this.backoffNanos = unit.toNanos(backoff);
+            this.maxBackoffNanos = unit.toNanos(maxBackoff);
+            return this;
+        }
+
+        /**
+         * Build the request hedging feature.
+         *
+         * @return new request hedging feature.
+         */
+        public RequestHedgingFeature build() {
+            return new RequestHedgingFeature(createHedger());
+        }
+
+        private RequestHedger createHedger() {
+            return new RequestHedger(hedgePercentile, hedgeDelayNanos, minSamples, maxHedges,
+                    windowNanos, maxRetries, retryBudgetRatio, minRetryBudget, backoffNanos, maxBackoffNanos);
+        }
+    }
+
+    private final RequestHedger hedger;
+
+    /**
+     * Create new request hedging feature with the default settings.
+     *
+     * @see Builder
+     */
+    public RequestHedgingFeature() {
+        this(builder().createHedger());
+    }
+
+    private RequestHedgingFeature(RequestHedger hedger) {
+        this.hedger = hedger;
+    }
+
+    /**
+     * Create new request hedging feature builder.
+     *
+     * @return new builder initialized with the default settings.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Get the request hedging and retry statistics.
+     *
+     * @return request hedging statistics.
+     */
+    public RequestHedgingStatistics getStatistics() {
+        return hedger.getStatistics();
+    }
+
+    /**
+     * Get the current hedging delay for requests to the host of the given URI.
+     *
+     * @param uri  request URI.
+     * @param unit time unit of the returned delay.
+     * @return current hedging delay.
+     */
+    public long getHedgeDelay(URI uri, TimeUnit unit) {
+        return unit.convert(hedger.getHedgeDelay(uri), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        context.setProperty(HEDGER_PROPERTY, hedger);
+        return true;
+    }
+}
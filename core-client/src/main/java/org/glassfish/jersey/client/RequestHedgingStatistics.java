@@ -0,0 +1,149 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistics of the {@link RequestHedgingFeature request hedging and retries}.
+ *
+ * @author agent (agent at local)
+ */
+public final class RequestHedgingStatistics {
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhaustedBudgets = new AtomicLong();
+
+    /**
+     * Create new empty statistics.
+     */
+    RequestHedgingStatistics() {
+    }
+
+    /**
+     * Get the number of idempotent requests executed with hedging and retries enabled.
+     *
+     * @return number of hedgeable requests.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Get the number of hedged duplicate requests sent.
+     *
+     * @return number of hedged requests.
+     */
+    public long getHedgeCount() {
+        return hedges.get();
+    }
+
+    /**
+     * Get the number of requests whose response has been provided by a hedged duplicate
+     * rather than by the original request.
+     *
+     * @return number of requests won by a hedged duplicate.
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * Get the number of retries of requests that failed to connect.
+     *
+     * @return number of retries.
+     */
+    public long getRetryCount() {
+        return retries.get();
+    }
+
+    /**
+     * Get the number of failed requests that have not been retried because the retry budget
+     * has been exhausted.
+     *
+     * @return number of requests not retried due to the retry budget.
+     */
+    public long getRetryBudgetExhaustedCount() {
+        return exhaustedBudgets.get();
+    }
+
+    /**
+     * Reset all the counters to zero.
+     */
+    public void reset() {
+        requests.set(0);
+        hedges.set(0);
+        hedgeWins.set(0);
+        retries.set(0);
+        exhaustedBudgets.set(0);
+    }
+
+    void request() {
+        requests.incrementAndGet();
+    }
+
+    void hedged() {
+        hedges.incrementAndGet();
+    }
+
+    void hedgeWon() {
+        hedgeWins.incrementAndGet();
+    }
+
+    void retried() {
+        retries.incrementAndGet();
+    }
+
+    void budgetExhausted() {
+        exhaustedBudgets.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "RequestHedgingStatistics{requests=" + getRequestCount()
+                + ", hedges=" + getHedgeCount()
+                + ", hedgeWins=" + getHedgeWinCount()
+                + ", retries=" + getRetryCount()
+                + ", retryBudgetExhausted=" + getRetryBudgetExhaustedCount() + '}';
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histogram over a rolling time window.
+ * <p>
+ * The histogram keeps two {@link TimeHistogram time histograms}, the current and the previous
+ * window; percentiles are computed from both, so that the histogram covers between one and
+ * two window lengths of the most recent latencies.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+final class RollingLatencyHistogram {
+
+    private final long windowNanos;
+    private volatile TimeHistogram current = new TimeHistogram();
+    private volatile TimeHistogram previous = new TimeHistogram();
+    private volatile long windowStart;
+
+    /**
+     * Create new rolling histogram.
+     *
+     * @param window length of the rolling window.
+     * @param unit   window length time unit.
+     */
+    RollingLatencyHistogram(long window, TimeUnit unit) {
+        this.windowNanos = unit.toNanos(window);
+        this.windowStart = System.nanoTime();
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param latency latency value.
+     * @param unit    latency time unit.
+     */
+    void record(long latency, TimeUnit unit) {
+        rotate(System.nanoTime());
+        current.record(latency, unit);
+    }
+
+    /**
+     * Get the number of latencies in the histogram.
+     *
+     * @return number of recorded latencies within the rolling window.
+     */
+    long getCount() {
+        rotate(System.nanoTime());
+        return current.getCount() + previous.getCount();
+    }
+
+    /**
+     * Get the latency at the given percentile.
+     *
+     * @param percentile percentile in the range {@code (0, 100]}.
+     * @param unit       time unit of the returned value.
+     * @return latency below or at which the given percentage of the recorded latencies fall,
+     *         {@code -1} if the histogram is empty.
+     */
+    long getValueAtPercentile(double percentile, TimeUnit unit) {
+        rotate(System.nanoTime());
+        return TimeHistogram.getValueAtPercentile(percentile, unit, current, previous);
+    }
+
+    private void rotate(long now) {
+        final long start = windowStart;
+        if (now - start < windowNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (windowStart != start) {
+                return;
+            }
+            if (now - start >= 2 * windowNanos) {
+                // no latencies recorded for more than a whole window
+                previous = new TimeHistogram();
+            } else {
+                previous = current;
+            }
+            current = new TimeHistogram();
+            windowStart = now;
+        }
+    }
+}
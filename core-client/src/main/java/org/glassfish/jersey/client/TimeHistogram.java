@@ -0,0 +1,235 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of time durations.
+ * <p>
+ * Durations are recorded with microsecond resolution into logarithmic buckets with
+ * eight linear sub-buckets per power of two, i.e. the reported percentiles are accurate
+ * to roughly 12.5%. The count, mean and maximum are exact. Recording is wait-free with
+ * the exception of the maximum update, which uses a compare-and-set loop.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class TimeHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * Maximum tracked duration (2^40 microseconds, i.e. roughly 12 days).
+     */
+    private static final int MAX_EXPONENT = 40;
+    /**
+     * Number of histogram buckets.
+     */
+    static final int BUCKETS = SUB_BUCKETS * (MAX_EXPONENT - SUB_BUCKET_BITS + 2);
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Create new empty histogram.
+     */
+    TimeHistogram() {
+    }
+
+    /**
+     * Record a duration.
+     *
+     * @param duration duration value; negative values are recorded as zero.
+     * @param unit     duration time unit.
+     */
+    void record(long duration, TimeUnit unit) {
+        final long nanos = Math.max(0, unit.toNanos(duration));
+        buckets.incrementAndGet(indexOf(TimeUnit.NANOSECONDS.toMicros(nanos)));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+        long current;
+        while (nanos > (current = max.get())) {
+            if (max.compareAndSet(current, nanos)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Get the number of recorded durations.
+     *
+     * @return number of recorded durations.
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Get the sum of the recorded durations.
+     *
+     * @param unit time unit of the returned value.
+     * @return sum of the recorded durations.
+     */
+    public long getTotal(TimeUnit unit) {
+        return unit.convert(total.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the mean of the recorded durations.
+     *
+     * @param unit time unit of the returned value.
+     * @return mean duration or {@code 0} if no duration has been recorded.
+     */
+    public double getMean(TimeUnit unit) {
+        final long n = count.get();
+        return n == 0 ? 0 : (double) total.get() / n / unit.toNanos(1);
+    }
+
+    /**
+     * Get the maximum recorded duration.
+     *
+     * @param unit time unit of the returned value.
+     * @return maximum recorded duration or {@code 0} if no duration has been recorded.
+     */
+    public long getMax(TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the duration at the given percentile.
+     *
+     * @param percentile percentile in the range {@code (0, 100]}.
+     * @param unit       time unit of the returned value.
+     * @return duration below or at which the given percentage of the recorded durations fall,
+     *         {@code -1} if no duration has been recorded.
+     */
+    public long getValueAtPercentile(double percentile, TimeUnit unit) {
+        return getValueAtPercentile(percentile, unit, this);
+    }
+
+    /**
+     * Reset the histogram.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.set(0);
+        total.set(0);
+        max.set(0);
+    }
+
+    /**
+     * Get the number of durations recorded in the bucket.
+     *
+     * @param index bucket index.
+     * @return bucket count.
+     */
+    long getBucketCount(int index) {
+        return buckets.get(index);
+    }
+
+    /**
+     * Get the duration at the given percentile of the union of the histograms.
+     *
+     * @param percentile percentile in the range {@code (0, 100]}.
+     * @param unit       time unit of the returned value.
+     * @param histograms merged histograms.
+     * @return duration at the percentile or {@code -1} if the histograms are empty.
+     */
+    static long getValueAtPercentile(double percentile, TimeUnit unit, TimeHistogram... histograms) {
+        final long[] counts = new long[BUCKETS];
+        long sum = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            for (TimeHistogram histogram : histograms) {
+                counts[i] += histogram.getBucketCount(i);
+            }
+            sum += counts[i];
+        }
+        if (sum == 0) {
+            return -1;
+        }
+
+        final long threshold = Math.max(1, (long) Math.ceil(sum * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return unit.convert(upperBoundOf(i), TimeUnit.MICROSECONDS);
+            }
+        }
+        return unit.convert(upperBoundOf(BUCKETS - 1), TimeUnit.MICROSECONDS);
+    }
+
+    private static int indexOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        final int subBucket = (int) (micros >> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return SUB_BUCKETS * (exponent - SUB_BUCKET_BITS + 1) + subBucket;
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final int subBucket = index % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeHistogram{count=" + getCount()
+                + ", mean=" + getMean(TimeUnit.MILLISECONDS) + "ms"
+                + ", p50=" + getValueAtPercentile(50, TimeUnit.MILLISECONDS) + "ms"
+                + ", p99=" + getValueAtPercentile(99, TimeUnit.MILLISECONDS) + "ms"
+                + ", max=" + getMax(TimeUnit.MILLISECONDS) + "ms}";
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.filter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.glassfish.jersey.client.spi.CachedResponse;
+import org.glassfish.jersey.client.spi.ResponseCacheStore;
+import org.glassfish.jersey.message.internal.HeadersFactory;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+
+/**
+ * {@link ResponseCacheStore Response cache store} keeping the cached responses in files
+ * of a directory.
+ * <p>
+ * Each response is stored in a separate file named after the hash of its cache key.
+ * The store is bounded by the total size of the stored files and evicts the least recently
+ * used responses first. Responses found in the directory when the store is created are
+ * reused, so the cache survives restarts of the client application, while temporary files of responses
+ * whose storing has been interrupted are deleted. The directory must not be shared by multiple store instances.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class FileResponseCacheStore implements ResponseCacheStore {
+
+    private static final Logger LOGGER = Logger.getLogger(FileResponseCacheStore.class.getName());
+
+    private static final String FILE_SUFFIX = ".response";
+    private static final String TMP_FILE_PREFIX = "response";
+    private static final String TMP_FILE_SUFFIX = ".tmp";
+    private static final int FORMAT_VERSION = 1;
+
+    private final File directory;
+    private final long maxSize;
+    /**
+     * Sizes of the stored files keyed by the file names, in the least recently used order.
+     */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Create new file-based store.
+     *
+     * @param directory directory of the stored responses; created if it does not exist.
+     * @param maxSize maximum total size of the stored files in bytes.
+     */
+    public FileResponseCacheStore(File directory, long maxSize) {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create response cache directory " + directory + ".");
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+
+        deleteTemporaryFiles(directory);
+
+        final File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(FILE_SUFFIX);
+            }
+        });
+        if (files != null) {
+            Arrays.sort(files, new Comparator<File>() {
+                @Override
+                public int compare(File f1, File f2) {
+                    final long m1 = f1.lastModified();
+                    final long m2 = f2.lastModified();
+                    return m1 < m2 ? -1 : (m1 == m2 ? 0 : 1);
+                }
+            });
+            synchronized (index) {
+                for (File file : files) {
+                    index.put(file.getName(), file.length());
+                    size += file.length();
+                }
+                evict();
+            }
+        }
+    }
+
+    @Override
+    public CachedResponse get(String key) {
+        final String fileName = getFileName(key);
+        synchronized (index) {
+            if (index.get(fileName) == null) {
+                return null;
+            }
+        }
+
+        final File file = new File(directory, fileName);
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != FORMAT_VERSION || !key.equals(in.readUTF())) {
+                    return null;
+                }
+                return read(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to read cached response from " + file + ".", e);
+            remove(key);
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        final String fileName = getFileName(key);
+        File tmp = null;
+        try {
+            tmp = File.createTempFile(TMP_FILE_PREFIX, TMP_FILE_SUFFIX, directory);
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                write(response, out);
+            } finally {
+                out.close();
+            }
+
+            synchronized (index) {
+                final File file = new File(directory, fileName);
+                removeFile(fileName);
+                if (!tmp.renameTo(file)) {
+                    throw new IOException("Cannot rename " + tmp + " to " + file + ".");
+                }
+                final long length = file.length();
+                index.put(fileName, length);
+                size += length;
+                evict();
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to store cached response in " + directory + ".", e);
+            if (tmp != null && tmp.exists() && !tmp.delete()) {
+                tmp.deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public void remove(String key) {
+        synchronized (index) {
+            removeFile(getFileName(key));
+        }
+    }
+
+    @Override
+    public void clear() {
+        synchronized (index) {
+            for (String fileName : new ArrayList<String>(index.keySet())) {
+                removeFile(fileName);
+            }
+        }
+    }
+
+    /**
+     * Get the total size of the stored files.
+     *
+     * @return size of the stored files in bytes.
+     */
+    public long size() {
+        synchronized (index) {
+            return size;
+        }
+    }
+
+    private void removeFile(String fileName) {
+        final Long length = index.remove(fileName);
+        if (length != null) {
+            size -= length;
+            final File file = new File(directory, fileName);
+            if (!file.delete() && file.exists()) {
+                LOGGER.log(Level.FINE, "Failed to delete cached response file {0}.", file);
+            }
+        }
+    }
+
+    private void evict() {
+        final Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (size > maxSize && eldest.hasNext()) {
+            final Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            size -= entry.getValue();
+            final File file = new File(directory, entry.getKey());
+            if (!file.delete() && file.exists()) {
+                LOGGER.log(Level.FINE, "Failed to delete cached response file {0}.", file);
+            }
+        }
+    }
+
+    /**
+     * Delete temporary files left behind by responses whose storing has been interrupted.
+     */
+    private static void deleteTemporaryFiles(File directory) {
+        final File[] tmpFiles = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                final String name = file.getName();
+                return file.isFile() && name.startsWith(TMP_FILE_PREFIX) && name.endsWith(TMP_FILE_SUFFIX);
+            }
+        });
+        if (tmpFiles != null) {
+            for (File file : tmpFiles) {
+                if (!file.delete() && file.exists()) {
+                    LOGGER.log(Level.FINE, "Failed to delete temporary response file {0}.", file);
+                }
+            }
+        }
+    }
+
+    private static String getFileName(String key) {
+        return Hashing.md5().hashString(key, Charsets.UTF_8).toString() + FILE_SUFFIX;
+    }
+
+    private static void write(CachedResponse response, DataOutputStream out) throws IOException {
+        out.writeInt(response.getStatus());
+        out.writeLong(response.getExpires());
+
+        final MultivaluedMap<String, String> headers = response.getHeaders();
+        out.writeInt(headers.size());
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            out.writeUTF(header.getKey());
+            out.writeInt(header.getValue().size());
+            for (String value : header.getValue()) {
+                out.writeUTF(value);
+            }
+        }
+
+        final Map<String, String> varyHeaders = response.getVaryHeaders();
+        out.writeInt(varyHeaders.size());
+        for (Map.Entry<String, String> header : varyHeaders.entrySet()) {
+            out.writeUTF(header.getKey());
+            out.writeBoolean(header.getValue() != null);
+            if (header.getValue() != null) {
+                out.writeUTF(header.getValue());
+            }
+        }
+
+        out.writeInt(response.getSize());
+        out.write(response.getEntity());
+    }
+
+    private static CachedResponse read(DataInputStream in) throws IOException {
+        final int status = in.readInt();
+        final long expires = in.readLong();
+
+        final MultivaluedMap<String, String> headers = HeadersFactory.createInbound();
+        for (int i = in.readInt(); i > 0; i--) {
+            final String name = in.readUTF();
+            for (int j = in.readInt(); j > 0; j--) {
+                headers.add(name, in.readUTF());
+            }
+        }
+
+        final Map<String, String> varyHeaders = Maps.newHashMap();
+        for (int i = in.readInt(); i > 0; i--) {
+            final String name = in.readUTF();
+            varyHeaders.put(name, in.readBoolean() ? in.readUTF() : null);
+        }
+
+        final byte[] entity = new byte[in.readInt()];
+        in.readFully(entity);
+
+        return new CachedResponse(status, headers, varyHeaders, entity, expires);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.filter;
+
+import org.glassfish.jersey.client.spi.CachedResponse;
+import org.glassfish.jersey.client.spi.ResponseCacheStore;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * {@link ResponseCacheStore Response cache store} keeping the cached responses in memory.
+ * <p>
+ * The store is bounded by the total size of the stored response entities and evicts
+ * the least recently used responses first.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class InMemoryResponseCacheStore implements ResponseCacheStore {
+
+    /**
+     * Default maximum total size of the stored response entities in bytes.
+     */
+    public static final long DEFAULT_MAX_SIZE = 10 * 1024 * 1024;
+
+    private final Cache<String, CachedResponse> cache;
+
+    /**
+     * Create new in-memory store bounded by the {@link #DEFAULT_MAX_SIZE default size}.
+     */
+    public InMemoryResponseCacheStore() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Create new in-memory store.
+     *
+     * @param maxSize maximum total size of the stored response entities in bytes.
+     */
+    public InMemoryResponseCacheStore(long maxSize) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher(new Weigher<String, CachedResponse>() {
+                    @Override
+                    public int weigh(String key, CachedResponse response) {
+                        return response.getSize();
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public CachedResponse get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, CachedResponse response) {
+        cache.put(key, response);
+    }
+
+    @Override
+    public void remove(String key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get the number of responses currently held by the store.
+     *
+     * @return number of stored responses.
+     */
+    public long size() {
+        return cache.size();
+    }
+}
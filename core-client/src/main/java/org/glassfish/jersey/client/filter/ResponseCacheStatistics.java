@@ -0,0 +1,138 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit/miss statistics of the client-side {@link ResponseCachingFilter response cache}.
+ *
+ * @author agent (agent at local)
+ */
+public final class ResponseCacheStatistics {
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong revalidatedHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Create new empty statistics.
+     */
+    ResponseCacheStatistics() {
+    }
+
+    /**
+     * Get the number of requests served from a fresh cached response without
+     * contacting the origin server.
+     *
+     * @return number of cache hits.
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of requests served from a stale cached response after the
+     * origin server confirmed the response is still valid ({@code 304 Not Modified}).
+     *
+     * @return number of revalidated cache hits.
+     */
+    public long getRevalidatedHitCount() {
+        return revalidatedHits.get();
+    }
+
+    /**
+     * Get the number of cacheable requests for which a full response had to be
+     * retrieved from the origin server.
+     *
+     * @return number of cache misses.
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Get the total number of cacheable requests seen by the cache.
+     *
+     * @return sum of hits, revalidated hits and misses.
+     */
+    public long getRequestCount() {
+        return getHitCount() + getRevalidatedHitCount() + getMissCount();
+    }
+
+    /**
+     * Get the ratio of requests served without transferring the response entity
+     * from the origin server, i.e. (hits + revalidated hits) / requests.
+     *
+     * @return hit ratio in the range {@code [0, 1]}; {@code 0} if there were no requests yet.
+     */
+    public double getHitRatio() {
+        final long requests = getRequestCount();
+        return requests == 0 ? 0 : (double) (getHitCount() + getRevalidatedHitCount()) / requests;
+    }
+
+    /**
+     * Reset all the counters to zero.
+     */
+    public void reset() {
+        hits.set(0);
+        revalidatedHits.set(0);
+        misses.set(0);
+    }
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void revalidatedHit() {
+        revalidatedHits.incrementAndGet();
+    }
+
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheStatistics{hits=" + getHitCount()
+                + ", revalidatedHits=" + getRevalidatedHitCount()
+                + ", misses=" + getMissCount() + '}';
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.filter;
+
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+
+import org.glassfish.jersey.client.spi.ResponseCacheStore;
+
+/**
+ * Feature that enables the client-side HTTP response cache.
+ * <p>
+ * The feature registers a {@link ResponseCachingFilter caching filter} backed by the
+ * provided {@link ResponseCacheStore response cache store}, e.g.:
+ * <pre>
+ * ResponseCachingFeature caching = new ResponseCachingFeature(new FileResponseCacheStore(dir, 50 * 1024 * 1024));
+ * Client client = ClientFactory.newClient(new ClientConfig().register(caching));
+ * ...
+ * long hits = caching.getStatistics().getHitCount();
+ * </pre>
+ * The same feature instance may be registered with multiple clients in order to share
+ * the cached responses and the statistics among them.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public class ResponseCachingFeature implements Feature {
+
+    private final ResponseCachingFilter filter;
+
+    /**
+     * Create new caching feature using a new {@link InMemoryResponseCacheStore in-memory store}
+     * of the default size.
+     */
+    public ResponseCachingFeature() {
+        this(new InMemoryResponseCacheStore());
+    }
+
+    /**
+     * Create new caching feature.
+     *
+     * @param store store of the cached responses.
+     */
+    public ResponseCachingFeature(ResponseCacheStore store) {
+        this(store, ResponseCachingFilter.DEFAULT_MAX_ENTITY_SIZE);
+    }
+
+    /**
+     * Create new caching feature.
+     *
+     * @param store store of the cached responses.
+     * @param maxEntitySize maximum size of a response entity (in bytes) that will be stored
+     *                      in the cache.
+     */
+    public ResponseCachingFeature(ResponseCacheStore store, int maxEntitySize) {
+        this.filter = new ResponseCachingFilter(store, maxEntitySize);
+    }
+
+    /**
+     * Get the store of the cached responses.
+     *
+     * @return response cache store.
+     */
+    public ResponseCacheStore getStore() {
+        return filter.getStore();
+    }
+
+    /**
+     * Get the cache hit/miss statistics.
+     *
+     * @return cache statistics.
+     */
+    public ResponseCacheStatistics getStatistics() {
+        return filter.getStatistics();
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        context.register(filter);
+        return true;
+    }
+}
@@ -0,0 +1,522 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.ClientResponseContext;
+import javax.ws.rs.client.ClientResponseFilter;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.spi.CachedResponse;
+import org.glassfish.jersey.client.spi.ResponseCacheStore;
+import org.glassfish.jersey.message.internal.HeadersFactory;
+import org.glassfish.jersey.message.internal.HttpHeaderReader;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+
+/**
+ * Client filter caching {@code GET} responses according to the HTTP caching
+ * semantics.
+ * <p>
+ * Successful ({@code 200 OK}) responses are stored in the configured
+ * {@link ResponseCacheStore response cache store} together with their raw entity
+ * bytes, unless the response forbids storing ({@code Cache-Control: no-store},
+ * {@code Vary: *}). Freshness of a stored response is computed from the
+ * {@code Cache-Control: max-age} or {@code Expires} response headers, corrected by
+ * the value of the {@code Age} header.
+ * </p>
+ * <p>
+ * A request for which a fresh response is found in the store is aborted with
+ * the cached response, i.e. it is served without contacting the origin server.
+ * For a stale response that carries an {@code ETag} or {@code Last-Modified} validator,
+ * the request is sent with the {@code If-None-Match} and {@code If-Modified-Since} headers
+ * and, if the server replies with {@code 304 Not Modified}, the cached response is
+ * served with its headers and freshness updated from the {@code 304} response.
+ * In both cases the entity is read again from the cached bytes through the regular
+ * {@link javax.ws.rs.ext.MessageBodyReader message body readers}.
+ * </p>
+ * <p>
+ * Requests that already carry conditional or range headers, or that contain the
+ * {@code Cache-Control: no-store} directive bypass the cache. Requests with
+ * {@code Cache-Control: no-cache} or {@code max-age=0} always revalidate the
+ * stored response. A successful request using an unsafe method (e.g. {@code POST},
+ * {@code PUT} or {@code DELETE}) invalidates the responses stored for the request URI and for the URIs
+ * in the {@code Location} and {@code Content-Location} response headers, provided they have the same
+ * origin as the request URI (see RFC 7234, section 4.4).
+ * </p>
+ *
+ * @author agent (agent at local)
+ * @see ResponseCachingFeature
+ */
+public final class ResponseCachingFilter implements ClientRequestFilter, ClientResponseFilter {
+
+    private static final Logger LOGGER = Logger.getLogger(ResponseCachingFilter.class.getName());
+
+    /**
+     * Default maximum size of a response entity (in bytes) that will be stored in the cache.
+     */
+    public static final int DEFAULT_MAX_ENTITY_SIZE = 1024 * 1024;
+
+    private static final String CACHE_HIT_PROPERTY = ResponseCachingFilter.class.getName() + ".hit";
+    private static final String REVALIDATED_PROPERTY = ResponseCachingFilter.class.getName() + ".revalidated";
+
+    private static final Set<String> SAFE_METHODS = ImmutableSet.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, "TRACE");
+    private static final Set<String> BYPASS_HEADERS = ImmutableSet.of(
+            HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_MATCH,
+            HttpHeaders.IF_UNMODIFIED_SINCE, "If-Range", "Range");
+    private static final Set<String> NOT_UPDATED_HEADERS = ImmutableSet.of(
+            HttpHeaders.CONTENT_LENGTH, "Transfer-Encoding");
+    private static final Set<String> INVALIDATED_LOCATION_HEADERS = ImmutableSet.of(
+            HttpHeaders.LOCATION, HttpHeaders.CONTENT_LOCATION);
+
+    private final ResponseCacheStore store;
+    private final int maxEntitySize;
+    private final ResponseCacheStatistics statistics = new ResponseCacheStatistics();
+
+    /**
+     * Create new caching filter using the given store and the
+     * {@link #DEFAULT_MAX_ENTITY_SIZE default maximum entity size}.
+     *
+     * @param store store of the cached responses.
+     */
+    public ResponseCachingFilter(ResponseCacheStore store) {
+        this(store, DEFAULT_MAX_ENTITY_SIZE);
+    }
+
+    /**
+     * Create new caching filter.
+     *
+     * @param store store of the cached responses.
+     * @param maxEntitySize maximum size of a response entity (in bytes) that will be stored
+     *                      in the cache. Larger responses are passed through without being cached.
+     */
+    public ResponseCachingFilter(ResponseCacheStore store, int maxEntitySize) {
+        if (store == null) {
+            throw new NullPointerException("Response cache store must not be 'null'.");
+        }
+        if (maxEntitySize < 0) {
+            throw new IllegalArgumentException("Maximum entity size must not be negative.");
+        }
+        this.store = store;
+        this.maxEntitySize = maxEntitySize;
+    }
+
+    /**
+     * Get the store of the cached responses.
+     *
+     * @return response cache store.
+     */
+    public ResponseCacheStore getStore() {
+        return store;
+    }
+
+    /**
+     * Get the cache hit/miss statistics.
+     *
+     * @return cache statistics.
+     */
+    public ResponseCacheStatistics getStatistics() {
+        return statistics;
+    }
+
+    @Override
+    public void filter(ClientRequestContext request) throws IOException {
+        if (!HttpMethod.GET.equals(request.getMethod()) || bypassesCache(request)) {
+            return;
+        }
+
+        final String key = getKey(request);
+        final CachedResponse cached = store.get(key);
+        if (cached == null || !matchesVary(cached, request)) {
+            statistics.miss();
+            return;
+        }
+
+        if (cached.isFresh(System.currentTimeMillis()) && !requiresRevalidation(request)) {
+            statistics.hit();
+            request.setProperty(CACHE_HIT_PROPERTY, cached);
+            request.abortWith(toResponse(cached));
+            return;
+        }
+
+        final String etag = cached.getHeader(HttpHeaders.ETAG);
+        final String lastModified = cached.getHeader(HttpHeaders.LAST_MODIFIED);
+        if (etag == null && lastModified == null) {
+            // stale response without validators is of no further use
+            store.remove(key);
+            statistics.miss();
+            return;
+        }
+
+        if (etag != null) {
+            request.getHeaders().putSingle(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        if (lastModified != null) {
+            request.getHeaders().putSingle(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+        }
+        request.setProperty(REVALIDATED_PROPERTY, cached);
+    }
+
+    @Override
+    public void filter(ClientRequestContext request, ClientResponseContext response) throws IOException {
+        final String method = request.getMethod();
+        if (!HttpMethod.GET.equals(method)) {
+            if (!SAFE_METHODS.contains(method) && response.getStatus() < 400) {
+                invalidate(request, response);
+            }
+            return;
+        }
+
+        final CachedResponse hit = (CachedResponse) request.getProperty(CACHE_HIT_PROPERTY);
+        if (hit != null) {
+            response.setEntityStream(hit.getEntityStream());
+            return;
+        }
+
+        final CachedResponse revalidated = (CachedResponse) request.getProperty(REVALIDATED_PROPERTY);
+        if (revalidated == null && bypassesCache(request)) {
+            return;
+        }
+
+        final String key = getKey(request);
+        final long now = System.currentTimeMillis();
+
+        if (revalidated != null) {
+            request.removeProperty(REVALIDATED_PROPERTY);
+            if (response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                statistics.revalidatedHit();
+                serveRevalidated(key, revalidated, response, now);
+                return;
+            }
+            statistics.miss();
+        }
+
+        final long lifetime = response.getStatus() == Response.Status.OK.getStatusCode()
+                ? getFreshnessLifetime(response.getHeaders(), now) : -1;
+        if (lifetime < 0) {
+            if (revalidated != null) {
+                store.remove(key);
+            }
+            return;
+        }
+
+        final byte[] entity = bufferEntity(response);
+        if (entity != null) {
+            store.put(key, new CachedResponse(response.getStatus(), copy(response.getHeaders()),
+                    getVaryHeaders(request, response.getHeaders()), entity, now + lifetime));
+        } else if (revalidated != null) {
+            store.remove(key);
+        }
+    }
+
+    private void serveRevalidated(String key, CachedResponse cached, ClientResponseContext response, long now) {
+        final MultivaluedMap<String, String> headers = copy(cached.getHeaders());
+        for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            if (!NOT_UPDATED_HEADERS.contains(header.getKey())) {
+                headers.put(header.getKey(), new ArrayList<String>(header.getValue()));
+            }
+        }
+
+        closeQuietly(response.getEntityStream());
+        response.setStatus(cached.getStatus());
+        response.getHeaders().clear();
+        response.getHeaders().putAll(copy(headers));
+        response.setEntityStream(cached.getEntityStream());
+
+        final long lifetime = getFreshnessLifetime(headers, now);
+        if (lifetime < 0) {
+            store.remove(key);
+        } else {
+            store.put(key, new CachedResponse(cached.getStatus(), headers, cached.getVaryHeaders(),
+                    cached.getEntity(), now + lifetime));
+        }
+    }
+
+    /**
+     * Buffer the response entity so that it can be stored as well as read by the caller.
+     *
+     * @return buffered entity bytes or {@code null} if the entity exceeds the maximum
+     *         cacheable size.
+     */
+    private byte[] bufferEntity(ClientResponseContext response) throws IOException {
+        if (!response.hasEntity()) {
+            return new byte[0];
+        }
+        final int length = response.getLength();
+        if (length > maxEntitySize) {
+            return null;
+        }
+
+        final InputStream in = response.getEntityStream();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(length > 0 ? length : 512);
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            if (out.size() > maxEntitySize) {
+                // too large to be cached, stream the rest of the entity to the caller
+                response.setEntityStream(new SequenceInputStream(new ByteArrayInputStream(out.toByteArray()), in));
+                return null;
+            }
+        }
+        in.close();
+
+        final byte[] entity = out.toByteArray();
+        response.setEntityStream(new ByteArrayInputStream(entity));
+        return entity;
+    }
+
+    private static boolean bypassesCache(ClientRequestContext request) {
+        for (String header : BYPASS_HEADERS) {
+            if (request.getHeaderString(header) != null) {
+                return true;
+            }
+        }
+        final CacheControl cacheControl = parseCacheControl(request.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        return cacheControl != null && cacheControl.isNoStore();
+    }
+
+    private static boolean requiresRevalidation(ClientRequestContext request) {
+        final CacheControl cacheControl = parseCacheControl(request.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        if (cacheControl != null && (cacheControl.isNoCache() || cacheControl.getMaxAge() == 0)) {
+            return true;
+        }
+        final String pragma = request.getHeaderString("Pragma");
+        return pragma != null && pragma.contains("no-cache");
+    }
+
+    /**
+     * Compute the freshness lifetime of a response with the given headers.
+     *
+     * @return freshness lifetime in milliseconds or {@code -1} if the response must not
+     *         (or is not worth to) be stored.
+     */
+    private static long getFreshnessLifetime(MultivaluedMap<String, String> headers, long now) {
+        final CacheControl cacheControl = parseCacheControl(getHeaderString(headers, HttpHeaders.CACHE_CONTROL));
+        if (cacheControl != null && cacheControl.isNoStore()) {
+            return -1;
+        }
+        final String vary = getHeaderString(headers, HttpHeaders.VARY);
+        if (vary != null && vary.contains("*")) {
+            return -1;
+        }
+
+        long lifetime = 0;
+        if (cacheControl != null && cacheControl.isNoCache()) {
+            lifetime = 0;
+        } else if (cacheControl != null && cacheControl.getMaxAge() >= 0) {
+            lifetime = TimeUnit.SECONDS.toMillis(cacheControl.getMaxAge());
+        } else {
+            final Date expires = parseDate(headers.getFirst(HttpHeaders.EXPIRES));
+            if (expires != null) {
+                final Date date = parseDate(headers.getFirst(HttpHeaders.DATE));
+                lifetime = Math.max(0, expires.getTime() - (date != null ? date.getTime() : now));
+            }
+        }
+
+        final String age = headers.getFirst("Age");
+        if (age != null) {
+            try {
+                lifetime = Math.max(0, lifetime - TimeUnit.SECONDS.toMillis(Long.parseLong(age.trim())));
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.FINE, "Ignoring invalid Age header value: " + age, e);
+            }
+        }
+
+        if (lifetime == 0
+                && headers.getFirst(HttpHeaders.ETAG) == null
+                && headers.getFirst(HttpHeaders.LAST_MODIFIED) == null) {
+            return -1;
+        }
+        return lifetime;
+    }
+
+    private static Map<String, String> getVaryHeaders(ClientRequestContext request,
+                                                      MultivaluedMap<String, String> responseHeaders) {
+        final String vary = getHeaderString(responseHeaders, HttpHeaders.VARY);
+        if (vary == null) {
+            return Maps.newHashMap();
+        }
+        final Map<String, String> varyHeaders = Maps.newHashMap();
+        for (String name : vary.split(",")) {
+            name = name.trim();
+            if (!name.isEmpty()) {
+                varyHeaders.put(name, request.getHeaderString(name));
+            }
+        }
+        return varyHeaders;
+    }
+
+    private static boolean matchesVary(CachedResponse cached, ClientRequestContext request) {
+        for (Map.Entry<String, String> header : cached.getVaryHeaders().entrySet()) {
+            if (!Objects.equal(header.getValue(), request.getHeaderString(header.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Response toResponse(CachedResponse cached) {
+        final Response.ResponseBuilder builder = Response.status(cached.getStatus());
+        for (Map.Entry<String, List<String>> header : cached.getHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                builder.header(header.getKey(), value);
+            }
+        }
+        return builder.build();
+    }
+
+    private void invalidate(ClientRequestContext request, ClientResponseContext response) {
+        final URI requestUri = request.getUri();
+        store.remove(requestUri.toString());
+
+        for (String header : INVALIDATED_LOCATION_HEADERS) {
+            final String location = response.getHeaderString(header);
+            if (location == null) {
+                continue;
+            }
+            final URI uri;
+            try {
+                uri = requestUri.resolve(location.trim());
+            } catch (IllegalArgumentException e) {
+                LOGGER.log(Level.FINE, "Invalid " + header + " header value: " + location, e);
+                continue;
+            }
+            // URIs of a different origin must not be invalidated to prevent denial of service attacks
+            if (isSameOrigin(requestUri, uri)) {
+                store.remove(uri.toString());
+            }
+        }
+    }
+
+    private static boolean isSameOrigin(URI uri, URI other) {
+        return uri.getScheme() != null && uri.getScheme().equalsIgnoreCase(other.getScheme())
+                && uri.getHost() != null && uri.getHost().equalsIgnoreCase(other.getHost())
+                && uri.getPort() == other.getPort();
+    }
+
+    private static String getKey(ClientRequestContext request) {
+        return request.getUri().toString();
+    }
+
+    private static MultivaluedMap<String, String> copy(MultivaluedMap<String, String> headers) {
+        final MultivaluedMap<String, String> copy = HeadersFactory.createInbound();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            copy.put(header.getKey(), new ArrayList<String>(header.getValue()));
+        }
+        return copy;
+    }
+
+    private static String getHeaderString(MultivaluedMap<String, String> headers, String name) {
+        final List<String> values = headers.get(name);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        if (values.size() == 1) {
+            return values.get(0);
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    private static CacheControl parseCacheControl(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return CacheControl.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.FINE, "Ignoring invalid Cache-Control header value: " + value, e);
+            return null;
+        }
+    }
+
+    private static Date parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return HttpHeaderReader.readDate(value);
+        } catch (ParseException e) {
+            // invalid dates (e.g. "Expires: 0") represent a time in the past
+            return null;
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "Failed to close the entity stream of a 304 response.", e);
+        } catch (IllegalStateException e) {
+            // already closed
+        }
+    }
+}
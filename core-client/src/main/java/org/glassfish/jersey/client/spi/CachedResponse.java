@@ -0,0 +1,189 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.spi;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.glassfish.jersey.message.internal.HeadersFactory;
+
+import com.google.common.collect.Maps;
+
+/**
+ * Immutable response stored in a {@link ResponseCacheStore response cache store}.
+ * <p>
+ * The cached response keeps the status, headers and the raw (not yet
+ * deserialized) entity bytes of the original response, so that the entity
+ * can be read again using the regular {@link javax.ws.rs.ext.MessageBodyReader
+ * message body readers} every time the response is served from the cache.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class CachedResponse {
+
+    private final int status;
+    private final MultivaluedMap<String, String> headers;
+    private final Map<String, String> varyHeaders;
+    private final byte[] entity;
+    private final long expires;
+
+    /**
+     * Create new cached response.
+     * <p>
+     * The entity byte array is not copied, the caller must not modify it
+     * once the cached response has been created.
+     * </p>
+     *
+     * @param status response status code.
+     * @param headers response headers.
+     * @param varyHeaders values of the request headers nominated by the {@code Vary}
+     *                    header of the response, keyed by the header name. Missing request
+     *                    headers are represented by {@code null} values.
+     * @param entity raw response entity bytes.
+     * @param expires time (in milliseconds since the epoch) until which the response
+     *                is considered fresh.
+     */
+    public CachedResponse(int status,
+                          MultivaluedMap<String, String> headers,
+                          Map<String, String> varyHeaders,
+                          byte[] entity,
+                          long expires) {
+        this.status = status;
+        this.headers = HeadersFactory.createInbound();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            this.headers.put(header.getKey(), Collections.unmodifiableList(header.getValue()));
+        }
+        this.varyHeaders = Collections.unmodifiableMap(Maps.newHashMap(varyHeaders));
+        this.entity = entity;
+        this.expires = expires;
+    }
+
+    /**
+     * Get the response status code.
+     *
+     * @return response status code.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the response headers.
+     *
+     * @return response headers. The returned map must not be modified.
+     */
+    public MultivaluedMap<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Get the first value of the response header.
+     *
+     * @param name header name (case-insensitive).
+     * @return first header value or {@code null} if the header is not present.
+     */
+    public String getHeader(String name) {
+        return headers.getFirst(name);
+    }
+
+    /**
+     * Get the values of the request headers the response varies on.
+     *
+     * @return unmodifiable map of the request header values nominated by the
+     *         {@code Vary} response header.
+     */
+    public Map<String, String> getVaryHeaders() {
+        return varyHeaders;
+    }
+
+    /**
+     * Get the raw response entity bytes. The returned array must not be modified.
+     *
+     * @return raw response entity bytes.
+     */
+    public byte[] getEntity() {
+        return entity;
+    }
+
+    /**
+     * Get a new input stream reading the raw response entity bytes.
+     *
+     * @return new entity input stream.
+     */
+    public InputStream getEntityStream() {
+        return new ByteArrayInputStream(entity);
+    }
+
+    /**
+     * Get the size of the raw response entity in bytes.
+     *
+     * @return size of the response entity.
+     */
+    public int getSize() {
+        return entity.length;
+    }
+
+    /**
+     * Get the expiration time of the cached response.
+     *
+     * @return time (in milliseconds since the epoch) until which the response
+     *         is considered fresh.
+     */
+    public long getExpires() {
+        return expires;
+    }
+
+    /**
+     * Check if the cached response is fresh at the given time, i.e. if it may
+     * be served without revalidation with the origin server.
+     *
+     * @param now current time in milliseconds since the epoch.
+     * @return {@code true} if the response is fresh, {@code false} otherwise.
+     */
+    public boolean isFresh(long now) {
+        return now < expires;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.spi;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.glassfish.jersey.client.ClientRequest;
+
+/**
+ * Per-request recorder of the connection-level events.
+ * <p>
+ * When the {@link org.glassfish.jersey.client.ClientMetricsFeature client metrics} are enabled,
+ * an instance of this class is attached to every request passed to the {@link Connector connector}.
+ * Connectors that are able to observe the respective events should report them, e.g.:
+ * <pre>
+ * final ConnectorMetrics metrics = ConnectorMetrics.from(request);
+ * ...
+ * connection.connect();
+ * if (metrics != null) {
+ *     metrics.connected();
+ * }
+ * </pre>
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class ConnectorMetrics {
+
+    /**
+     * Name of the request property holding the connector metrics instance.
+     */
+    public static final String PROPERTY = ConnectorMetrics.class.getName();
+
+    private volatile long connected = -1;
+    private volatile long firstByte = -1;
+    private final AtomicLong bytesSent = new AtomicLong();
+
+    /**
+     * Get the connector metrics attached to the request.
+     *
+     * @param request client request.
+     * @return connector metrics of the request or {@code null} if the metrics are not enabled.
+     */
+    public static ConnectorMetrics from(ClientRequest request) {
+        final Object metrics = request.getProperty(PROPERTY);
+        return metrics instanceof ConnectorMetrics ? (ConnectorMetrics) metrics : null;
+    }
+
+    /**
+     * Report that the connection to the server has been established.
+     */
+    public void connected() {
+        connected = System.nanoTime();
+    }
+
+    /**
+     * Report that the first byte (the status line) of the response has been received.
+     */
+    public void firstByteReceived() {
+        firstByte = System.nanoTime();
+    }
+
+    /**
+     * Report request entity bytes written to the connection.
+     *
+     * @param bytes number of bytes written.
+     */
+    public void addBytesSent(long bytes) {
+        bytesSent.addAndGet(bytes);
+    }
+
+    /**
+     * Get the time the connection has been established.
+     *
+     * @return {@link System#nanoTime()} of the connection establishment or {@code -1} if not reported.
+     */
+    public long getConnectedTime() {
+        return connected;
+    }
+
+    /**
+     * Get the time the first byte of the response has been received.
+     *
+     * @return {@link System#nanoTime()} of the first response byte or {@code -1} if not reported.
+     */
+    public long getFirstByteTime() {
+        return firstByte;
+    }
+
+    /**
+     * Get the number of request entity bytes written.
+     *
+     * @return number of bytes sent.
+     */
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+}
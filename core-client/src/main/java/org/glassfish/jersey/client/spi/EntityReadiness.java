@@ -0,0 +1,119 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.spi;
+
+/**
+ * Readiness notifications of a response entity received asynchronously.
+ * <p>
+ * Connectors that receive the response entity without a thread being blocked reading the connection may pass
+ * the response to the {@link AsyncConnectorCallback callback} before the whole entity has been received. Such
+ * connectors attach an instance of this class to the request as the {@value #PROPERTY} property and report every
+ * newly received part of the entity as well as the end of the entity:
+ * <pre>
+ * final EntityReadiness readiness = new EntityReadiness();
+ * request.setProperty(EntityReadiness.PROPERTY, readiness);
+ * ...
+ * // entity data appended to the response entity stream
+ * readiness.dataAvailable();
+ * ...
+ * // whole entity received or receiving failed
+ * readiness.completed();
+ * </pre>
+ * A consumer of the entity stream may then {@link #setListener(Runnable) register a listener} and read the data
+ * only once notified, instead of blocking a thread reading the stream or polling the stream.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class EntityReadiness {
+
+    /**
+     * Name of the request property holding the entity readiness instance.
+     */
+    public static final String PROPERTY = EntityReadiness.class.getName();
+
+    private volatile Runnable listener;
+    private volatile boolean completed;
+
+    /**
+     * Report that new entity data can be read from the response entity stream.
+     */
+    public void dataAvailable() {
+        notifyListener();
+    }
+
+    /**
+     * Report that the whole entity has been received or that receiving the entity failed. Reading the response
+     * entity stream does not block from now on, the remaining data are read first, after which the end of the stream
+     * is reported or an {@link java.io.IOException} describing the failure is thrown.
+     */
+    public void completed() {
+        completed = true;
+        notifyListener();
+    }
+
+    /**
+     * Check if the whole entity has been received or receiving the entity failed.
+     *
+     * @return {@code true} if reading the response entity stream does not block anymore.
+     */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * Set the listener notified every time new entity data are available or the entity has been completed.
+     * The listener is invoked by the connector threads and must not block. Notifications reported before
+     * the listener is set are not replayed, the consumer should therefore check the entity stream for available
+     * data once the listener is set.
+     *
+     * @param listener readiness listener, {@code null} to stop the notifications.
+     */
+    public void setListener(Runnable listener) {
+        this.listener = listener;
+    }
+
+    private void notifyListener() {
+        final Runnable l = listener;
+        if (l != null) {
+            l.run();
+        }
+    }
+}
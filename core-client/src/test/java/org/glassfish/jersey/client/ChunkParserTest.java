@@ -0,0 +1,185 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Chunk parsers created by {@link ChunkedInput} tests.
+ *
+ * @author agent (agent at local)
+ */
+public class ChunkParserTest {
+
+    /**
+     * Input stream returning at most the specified number of bytes per read.
+     */
+    private static class SlowInputStream extends ByteArrayInputStream {
+        private final int maxRead;
+
+        private SlowInputStream(byte[] data, int maxRead) {
+            super(data);
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, maxRead));
+        }
+    }
+
+    private static List<String> readAll(ChunkParser parser, InputStream in) throws IOException {
+        final List<String> chunks = new ArrayList<String>();
+        byte[] chunk;
+        while ((chunk = parser.readChunk(in)) != null) {
+            chunks.add(new String(chunk, "UTF-8"));
+        }
+        return chunks;
+    }
+
+    private static List<String> readAll(ChunkParser parser, String data, int maxRead) throws IOException {
+        return readAll(parser, new SlowInputStream(data.getBytes("UTF-8"), maxRead));
+    }
+
+    @Test
+    public void testFixedBoundary() throws IOException {
+        final String data = "first\r\n\r\nsecond\r\n\r\n\r\n\r\nthird";
+        final List<String> expected = Arrays.asList("first", "second", "third");
+
+        for (int maxRead : new int[]{1, 2, 3, 7, 1024}) {
+            assertEquals("maxRead=" + maxRead, expected, readAll(ChunkedInput.createParser("\r\n\r\n"), data, maxRead));
+        }
+    }
+
+    @Test
+    public void testFixedBoundaryPartialMatch() throws IOException {
+        // partial boundary matches must be retained as chunk data
+        final String data = "a\n\nb\n\n\nc\nd\n\n\n\ne";
+        final List<String> expected = Arrays.asList("a\n\nb", "c\nd", "\ne");
+
+        for (int maxRead : new int[]{1, 2, 5, 1024}) {
+            assertEquals("maxRead=" + maxRead, expected, readAll(ChunkedInput.createParser("\n\n\n"), data, maxRead));
+        }
+    }
+
+    @Test
+    public void testChunkLargerThanBuffer() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5 * BufferedChunkParser.DEFAULT_BUFFER_SIZE; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        final String large = sb.toString();
+
+        final List<String> chunks = readAll(ChunkedInput.createParser("|"), "x|" + large + "|y", 4096);
+        assertEquals(Arrays.asList("x", large, "y"), chunks);
+    }
+
+    @Test
+    public void testNewlineDelimited() throws IOException {
+        final String data = "{\"a\":1}\n{\"b\":2}\r\n\n\r\n{\"c\":3}";
+        final List<String> expected = Arrays.asList("{\"a\":1}", "{\"b\":2}", "{\"c\":3}");
+
+        for (int maxRead : new int[]{1, 3, 1024}) {
+            assertEquals("maxRead=" + maxRead, expected, readAll(ChunkedInput.createNewlineDelimitedParser(), data, maxRead));
+        }
+    }
+
+    @Test
+    public void testLengthPrefixed() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        for (String chunk : new String[]{"one", "", "two\n\n", "three"}) {
+            out.writeInt(chunk.length());
+            out.write(chunk.getBytes("UTF-8"));
+        }
+        out.close();
+
+        for (int maxRead : new int[]{1, 3, 1024}) {
+            final List<String> chunks = readAll(ChunkedInput.createLengthPrefixedParser(),
+                    new SlowInputStream(bytes.toByteArray(), maxRead));
+            assertEquals("maxRead=" + maxRead, Arrays.asList("one", "two\n\n", "three"), chunks);
+        }
+    }
+
+    @Test
+    public void testLengthPrefixedInvalid() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(100);
+        out.write(new byte[10]);
+        out.close();
+
+        try {
+            ChunkedInput.createLengthPrefixedParser().readChunk(new ByteArrayInputStream(bytes.toByteArray()));
+            fail("Truncated chunk expected to fail.");
+        } catch (IOException expected) {
+            // ok
+        }
+
+        try {
+            ChunkedInput.createLengthPrefixedParser(50).readChunk(new ByteArrayInputStream(bytes.toByteArray()));
+            fail("Chunk exceeding the maximum size expected to fail.");
+        } catch (IOException expected) {
+            // ok
+        }
+    }
+
+    @Test
+    public void testNewStream() throws IOException {
+        final ChunkParser parser = ChunkedInput.createParser("\n");
+        assertEquals("a", new String(parser.readChunk(new ByteArrayInputStream("a\nleft".getBytes()))));
+        // data buffered from the previous stream must be discarded
+        final InputStream second = new ByteArrayInputStream("b\n".getBytes());
+        assertEquals("b", new String(parser.readChunk(second)));
+        assertNull(parser.readChunk(second));
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.ws.rs.client.ClientException;
+import javax.ws.rs.client.ClientFactory;
+import javax.ws.rs.client.ClientRequestContext;
+import javax.ws.rs.client.ClientRequestFilter;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorMetrics;
+import org.glassfish.jersey.message.internal.OutboundMessageContext;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Client metrics tests.
+ *
+ * @author agent (agent at local)
+ */
+public class ClientMetricsTest {
+
+    private static final String HOST = "http://localhost:8080";
+
+    @Test
+    public void testRequestMetrics() {
+        final ClientMetricsFeature feature = new ClientMetricsFeature();
+        final WebTarget target = target(feature);
+
+        assertEquals("hello", target.path("ok").request().get(String.class));
+        target.path("ok").request().post(Entity.text("data"), String.class);
+        target.path("missing").request().get().close();
+
+        final ClientMetrics metrics = feature.getMetrics();
+        assertEquals(1, metrics.getHosts().size());
+        assertEquals(HOST, metrics.getHosts().iterator().next());
+        assertEquals(3, metrics.getRequestCount(HOST));
+        assertEquals(1.0 / 3, metrics.getErrorRate(HOST), 0.001);
+
+        final EndpointMetrics successful = metrics.getEndpointMetrics(HOST, Response.Status.Family.SUCCESSFUL);
+        assertEquals(2, successful.getRequestCount());
+        assertEquals(4, successful.getBytesSent());
+        assertEquals(10, successful.getBytesReceived());
+        assertEquals(2, successful.getRequestFilteringTime().getCount());
+        assertEquals(2, successful.getExchangeTime().getCount());
+        assertEquals(2, successful.getConnectTime().getCount());
+        assertEquals(2, successful.getFirstByteTime().getCount());
+        assertEquals(2, successful.getResponseFilteringTime().getCount());
+        assertEquals(2, successful.getEntityReadingTime().getCount());
+        assertEquals(2, successful.getTotalTime().getCount());
+        assertTrue(successful.getTotalTime().getValueAtPercentile(50, TimeUnit.MICROSECONDS) >= 0);
+
+        final EndpointMetrics clientError = metrics.getEndpointMetrics(HOST, Response.Status.Family.CLIENT_ERROR);
+        assertEquals(1, clientError.getRequestCount());
+        assertNull(metrics.getEndpointMetrics(HOST, null));
+
+        metrics.reset();
+        assertEquals(0, successful.getRequestCount());
+        assertEquals(0, successful.getTotalTime().getCount());
+    }
+
+    @Test
+    public void testFailedRequest() {
+        final ClientMetricsFeature feature = new ClientMetricsFeature();
+        try {
+            target(feature).path("fail").request().get(String.class);
+            fail("ClientException expected.");
+        } catch (ClientException expected) {
+            // expected
+        }
+
+        final EndpointMetrics failed = feature.getMetrics().getEndpointMetrics(HOST, null);
+        assertNotNull(failed);
+        assertEquals(1, failed.getRequestCount());
+        assertEquals(0, failed.getExchangeTime().getCount());
+        assertEquals(1, failed.getTotalTime().getCount());
+        assertEquals(1.0, feature.getMetrics().getErrorRate(HOST), 0.001);
+    }
+
+    @Test
+    public void testAbortedRequest() {
+        final ClientMetricsFeature feature = new ClientMetricsFeature();
+        final WebTarget target = target(feature).register(new ClientRequestFilter() {
+            @Override
+            public void filter(ClientRequestContext requestContext) {
+                requestContext.abortWith(Response.noContent().build());
+            }
+        });
+        assertEquals(204, target.path("ok").request().get().getStatus());
+
+        final EndpointMetrics successful = feature.getMetrics().getEndpointMetrics(HOST, Response.Status.Family.SUCCESSFUL);
+        assertEquals(1, successful.getRequestCount());
+        assertEquals(1, successful.getRequestFilteringTime().getCount());
+        assertEquals(0, successful.getExchangeTime().getCount());
+    }
+
+    @Test
+    public void testAsyncRequest() throws Exception {
+        final ClientMetricsFeature feature = new ClientMetricsFeature();
+        final Response response = target(feature).path("ok").request().async().get().get(5, TimeUnit.SECONDS);
+        assertEquals("hello", response.readEntity(String.class));
+
+        final EndpointMetrics successful = feature.getMetrics().getEndpointMetrics(HOST, Response.Status.Family.SUCCESSFUL);
+        assertEquals(1, successful.getRequestCount());
+        assertEquals(1, successful.getExchangeTime().getCount());
+        assertEquals(5, successful.getBytesReceived());
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        final ClientMetricsFeature feature = new ClientMetricsFeature("metrics-test");
+        final JerseyClient client = client(feature);
+        client.target(HOST).path("ok").request().get(String.class);
+
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = objectName("metrics-test");
+        try {
+            assertTrue(server.isRegistered(name));
+            assertEquals(1L, server.getAttribute(name, "RequestCount"));
+            assertEquals(5L, server.getAttribute(name, "BytesReceived"));
+            assertEquals(1L, server.getAttribute(name, "TotalCount"));
+            assertTrue((Double) server.getAttribute(name, "ExchangeP99Millis") >= 0);
+
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertEquals(0L, server.getAttribute(name, "RequestCount"));
+        } finally {
+            client.close();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testMBeansUnregisteredWhenLastClientClosed() throws Exception {
+        final ClientMetricsFeature feature = new ClientMetricsFeature("metrics-shared-test");
+        final JerseyClient first = client(feature);
+        final JerseyClient second = client(feature);
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name = objectName("metrics-shared-test");
+        try {
+            first.target(HOST).path("ok").request().get(String.class);
+            second.target(HOST).path("ok").request().get(String.class);
+            assertTrue(server.isRegistered(name));
+
+            first.close();
+            assertTrue(server.isRegistered(name));
+            assertEquals(2L, server.getAttribute(name, "RequestCount"));
+        } finally {
+            first.close();
+            second.close();
+        }
+        assertFalse(server.isRegistered(name));
+        assertEquals(2, feature.getMetrics().getRequestCount(HOST));
+
+        // metrics recorded so far are registered again once a new client uses the feature
+        final JerseyClient third = client(feature);
+        try {
+            third.target(HOST).path("missing").request().get().close();
+            assertTrue(server.isRegistered(name));
+            assertEquals(2L, server.getAttribute(name, "RequestCount"));
+        } finally {
+            third.close();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testTimeHistogram() {
+        final TimeHistogram histogram = new TimeHistogram();
+        assertEquals(-1, histogram.getValueAtPercentile(50, TimeUnit.MILLISECONDS));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getMean(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1000, histogram.getMax(TimeUnit.MILLISECONDS));
+        final long p99 = histogram.getValueAtPercentile(99, TimeUnit.MICROSECONDS);
+        assertTrue("p99 = " + p99, p99 >= 990000 && p99 <= 990000 * 1.125);
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax(TimeUnit.MILLISECONDS));
+    }
+
+    private static WebTarget target(ClientMetricsFeature feature) {
+        return client(feature).target(HOST);
+    }
+
+    private static JerseyClient client(ClientMetricsFeature feature) {
+        return (JerseyClient) ClientFactory.newClient(new ClientConfig().connector(new TestConnector()).register(feature));
+    }
+
+    private static ObjectName objectName(String jmxName) throws Exception {
+        return new ObjectName(ClientMetrics.JMX_DOMAIN + ":type=ClientMetrics,name="
+                + ObjectName.quote(jmxName) + ",host=" + ObjectName.quote(HOST) + ",status=SUCCESSFUL");
+    }
+
+    private static class TestConnector extends RequestWriter implements Connector {
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            if (request.getUri().getPath().endsWith("fail")) {
+                throw new ClientException("Connection refused");
+            }
+
+            final ConnectorMetrics metrics = ConnectorMetrics.from(request);
+            metrics.connected();
+            if (request.hasEntity()) {
+                try {
+                    writeRequestEntity(request, new RequestEntityWriterListener() {
+                        @Override
+                        public void onRequestEntitySize(long size) {
+                            // not used
+                        }
+
+                        @Override
+                        public OutboundMessageContext.StreamProvider onGetStreamProvider() {
+                            return new OutboundMessageContext.StreamProvider() {
+                                @Override
+                                public OutputStream getOutputStream() {
+                                    return new ByteArrayOutputStream();
+                                }
+
+                                @Override
+                                public void commit() {
+                                    // nothing to commit
+                                }
+                            };
+                        }
+                    });
+                } catch (IOException e) {
+                    throw new ClientException(e.getMessage(), e);
+                }
+            }
+            metrics.firstByteReceived();
+
+            if (request.getUri().getPath().endsWith("missing")) {
+                return new ClientResponse(Response.Status.NOT_FOUND, request);
+            }
+            final ClientResponse response = new ClientResponse(Response.Status.OK, request);
+            response.header("Content-Type", "text/plain");
+            response.setEntityStream(new ByteArrayInputStream("hello".getBytes()));
+            return response;
+        }
+
+        @Override
+        public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+            try {
+                callback.response(apply(request));
+            } catch (Throwable t) {
+                callback.failure(t);
+            }
+            return null;
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+}
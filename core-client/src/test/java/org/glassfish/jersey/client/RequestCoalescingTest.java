@@ -0,0 +1,390 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.client.ClientException;
+import javax.ws.rs.client.ClientFactory;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Request coalescing tests.
+ *
+ * @author agent (agent at local)
+ */
+public class RequestCoalescingTest {
+
+    private static final int WAITERS = 8;
+
+    private ExecutorService executor;
+    private BlockingConnector connector;
+    private RequestCoalescingFeature coalescing;
+    private WebTarget target;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        connector = new BlockingConnector();
+        coalescing = new RequestCoalescingFeature();
+        target = ClientFactory.newClient(new ClientConfig().connector(connector).register(coalescing))
+                .target("http://localhost/resource");
+    }
+
+    @After
+    public void tearDown() {
+        connector.release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testIdenticalRequestsCoalesced() throws Exception {
+        final List<Future<String>> results = Lists.newArrayList();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return target.request("text/plain").get(String.class);
+                }
+            }));
+        }
+        awaitCoalesced(WAITERS - 1);
+        connector.release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("response-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, connector.requests.get());
+        assertEquals(1, coalescing.getStatistics().getExecutedCount());
+        assertEquals(WAITERS - 1, coalescing.getStatistics().getCoalescedCount());
+        assertEquals(0, coalescing.getStatistics().getInFlightCount());
+
+        // completed requests are not reused
+        assertEquals("response-2", target.request("text/plain").get(String.class));
+    }
+
+    @Test
+    public void testAsyncRequestsCoalesced() throws Exception {
+        final List<Future<Response>> results = Lists.newArrayList();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(target.request("text/plain").async().get());
+        }
+        awaitCoalesced(WAITERS - 1);
+        connector.release.countDown();
+
+        for (Future<Response> result : results) {
+            final Response response = result.get(5, TimeUnit.SECONDS);
+            assertEquals(200, response.getStatus());
+            assertEquals("text/plain", response.getHeaderString(HttpHeaders.CONTENT_TYPE));
+            assertEquals("response-1", response.readEntity(String.class));
+        }
+        assertEquals(1, connector.requests.get());
+    }
+
+    @Test
+    public void testDifferentHeadersNotCoalesced() throws Exception {
+        final Future<String> plain = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return target.request(MediaType.TEXT_PLAIN).get(String.class);
+            }
+        });
+        final Future<String> html = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return target.request(MediaType.TEXT_HTML).get(String.class);
+            }
+        });
+        assertTrue(connector.arrived.tryAcquire(2, 5, TimeUnit.SECONDS));
+        connector.release.countDown();
+
+        assertTrue(plain.get(5, TimeUnit.SECONDS).startsWith("response-"));
+        assertTrue(html.get(5, TimeUnit.SECONDS).startsWith("response-"));
+        assertEquals(2, connector.requests.get());
+        assertEquals(0, coalescing.getStatistics().getCoalescedCount());
+    }
+
+    @Test
+    public void testUnsafeRequestsNotCoalesced() throws Exception {
+        connector.release.countDown();
+        target.request().post(Entity.text("a"));
+        target.request().post(Entity.text("a"));
+        assertEquals(2, connector.requests.get());
+        assertEquals(0, coalescing.getStatistics().getExecutedCount());
+    }
+
+    @Test
+    public void testFailurePropagated() throws Exception {
+        connector.failure = new ClientException("upstream failure");
+        final List<Future<String>> results = Lists.newArrayList();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return target.request("text/plain").get(String.class);
+                }
+            }));
+        }
+        awaitCoalesced(WAITERS - 1);
+        connector.release.countDown();
+
+        for (Future<String> result : results) {
+            try {
+                result.get(5, TimeUnit.SECONDS);
+                fail("ClientException expected.");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof ClientException);
+            }
+        }
+        assertEquals(0, coalescing.getStatistics().getInFlightCount());
+    }
+
+    @Test
+    public void testResponseNotBufferedWithoutWaiters() throws Exception {
+        connector.release.countDown();
+
+        final Response response = target.request("text/plain").get();
+        assertEquals(10, connector.entityStream.available());
+        assertEquals("response-1", response.readEntity(String.class));
+        assertEquals(1, coalescing.getStatistics().getExecutedCount());
+        assertEquals(0, coalescing.getStatistics().getInFlightCount());
+    }
+
+    @Test
+    public void testEventStreamNotShared() throws Exception {
+        connector.contentType = "text/event-stream";
+        assertNotShared(target);
+    }
+
+    @Test
+    public void testChunkedResponseShared() throws Exception {
+        connector.transferEncoding = "chunked";
+        final List<Future<String>> results = Lists.newArrayList();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return target.request("text/plain").get(String.class);
+                }
+            }));
+        }
+        awaitCoalesced(WAITERS - 1);
+        connector.release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("response-1", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, connector.requests.get());
+        assertEquals(1, coalescing.getStatistics().getExecutedCount());
+    }
+
+    @Test
+    public void testLargeEntityNotShared() throws Exception {
+        coalescing = new RequestCoalescingFeature(RequestCoalescingFeature.DEFAULT_HEADERS, 8);
+        assertNotShared(ClientFactory.newClient(new ClientConfig().connector(connector).register(coalescing))
+                .target("http://localhost/resource"));
+    }
+
+    private void assertNotShared(final WebTarget target) throws Exception {
+        final List<Future<String>> results = Lists.newArrayList();
+        for (int i = 0; i < WAITERS; i++) {
+            results.add(executor.submit(new Callable<String>() {
+                @Override
+                public String call() throws Exception {
+                    return target.request("text/plain").get(String.class);
+                }
+            }));
+        }
+        awaitCoalesced(WAITERS - 1);
+        connector.release.countDown();
+
+        final Set<String> responses = Sets.newHashSet();
+        for (Future<String> result : results) {
+            responses.add(result.get(5, TimeUnit.SECONDS));
+        }
+        // every request has been executed and got its own response
+        assertEquals(WAITERS, responses.size());
+        assertEquals(WAITERS, connector.requests.get());
+        assertEquals(WAITERS, coalescing.getStatistics().getExecutedCount());
+        assertEquals(0, coalescing.getStatistics().getCoalescedCount());
+    }
+
+    @Test
+    public void testCancelledWaiterDoesNotCancelOthers() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(RequestCoalescingFeature.DEFAULT_HEADERS, 1024);
+        target.request("text/plain").async().get();
+        assertTrue(connector.arrived.tryAcquire(5, TimeUnit.SECONDS));
+        final ClientRequest request = connector.lastRequest;
+
+        final RecordingCallback executed = new RecordingCallback();
+        final RecordingCallback cancelled = new RecordingCallback();
+        final RecordingCallback coalesced = new RecordingCallback();
+        coalescer.apply(new ClientRequest(request), connector, executed);
+        final Future<?> cancelledFuture = coalescer.apply(new ClientRequest(request), connector, cancelled);
+        final Future<?> coalescedFuture = coalescer.apply(new ClientRequest(request), connector, coalesced);
+        assertEquals(2, coalescer.getStatistics().getCoalescedCount());
+
+        assertTrue(cancelledFuture.cancel(true));
+        connector.release.countDown();
+
+        coalescedFuture.get(5, TimeUnit.SECONDS);
+        assertTrue(executed.done.await(5, TimeUnit.SECONDS));
+        assertTrue(coalesced.done.await(5, TimeUnit.SECONDS));
+        assertEquals(200, executed.response.getStatus());
+        assertEquals(200, coalesced.response.getStatus());
+        assertEquals(1, cancelled.done.getCount());
+        assertEquals(1, coalescer.getStatistics().getExecutedCount());
+    }
+
+    private static class RecordingCallback implements AsyncConnectorCallback {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile ClientResponse response;
+
+        @Override
+        public void response(ClientResponse response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        @Override
+        public void failure(Throwable failure) {
+            done.countDown();
+        }
+    }
+
+    private void awaitCoalesced(int count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (coalescing.getStatistics().getCoalescedCount() < count) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Requests have not been coalesced: " + coalescing.getStatistics());
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    private static class BlockingConnector implements Connector {
+
+        private final AtomicInteger requests = new AtomicInteger();
+        private final Semaphore arrived = new Semaphore(0);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile ClientException failure;
+        private volatile String contentType = "text/plain";
+        private volatile String transferEncoding;
+        private volatile ClientRequest lastRequest;
+        private volatile InputStream entityStream;
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            final int count = requests.incrementAndGet();
+            lastRequest = request;
+            arrived.release();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new ClientException(e.getMessage(), e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            final ClientResponse response = new ClientResponse(Response.Status.OK, request);
+            response.header(HttpHeaders.CONTENT_TYPE, contentType);
+            if (transferEncoding != null) {
+                response.header("Transfer-Encoding", transferEncoding);
+            }
+            entityStream = new ByteArrayInputStream(("response-" + count).getBytes());
+            response.setEntityStream(entityStream);
+            return response;
+        }
+
+        @Override
+        public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+            return Executors.newSingleThreadExecutor().submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        callback.response(apply(request));
+                    } catch (Throwable t) {
+                        callback.failure(t);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client;
+
+import java.io.ByteArrayInputStream;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientException;
+import javax.ws.rs.client.ClientFactory;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.ConnectorMetrics;
+
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+
+/**
+ * Request hedging and retry tests.
+ *
+ * @author agent (agent at local)
+ */
+public class RequestHedgingTest {
+
+    private static final URI TARGET_URI = URI.create("http://localhost:8080/resource");
+
+    private final TestConnector connector = new TestConnector();
+
+    @After
+    public void tearDown() {
+        connector.release.countDown();
+        connector.executor.shutdownNow();
+    }
+
+    @Test
+    public void testSlowRequestHedged() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .hedgeAtPercentile(0)
+                .hedgeDelay(20, TimeUnit.MILLISECONDS)
+                .build();
+        connector.blockFirst = true;
+
+        assertEquals("response-2", target(hedging).request().get(String.class));
+        assertEquals(2, connector.calls.get());
+        assertEquals(1, hedging.getStatistics().getHedgeCount());
+        assertEquals(1, hedging.getStatistics().getHedgeWinCount());
+
+        // the slow attempt is cancelled through the connector future
+        assertTrue(connector.futures.get(0).isCancelled());
+    }
+
+    @Test
+    public void testFastRequestNotHedged() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .hedgeAtPercentile(0)
+                .hedgeDelay(1, TimeUnit.SECONDS)
+                .build();
+
+        assertEquals("response-1", target(hedging).request().get(String.class));
+        assertEquals(1, connector.calls.get());
+        assertEquals(1, hedging.getStatistics().getRequestCount());
+        assertEquals(0, hedging.getStatistics().getHedgeCount());
+    }
+
+    @Test
+    public void testAsyncRequestHedged() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .hedgeAtPercentile(0)
+                .hedgeDelay(20, TimeUnit.MILLISECONDS)
+                .build();
+        connector.blockFirst = true;
+
+        final Response response = target(hedging).request().async().get().get(5, TimeUnit.SECONDS);
+        assertEquals("response-2", response.readEntity(String.class));
+        assertEquals(1, hedging.getStatistics().getHedgeWinCount());
+    }
+
+    @Test
+    public void testHedgeDelayFromLatencyHistogram() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .hedgeAtPercentile(90)
+                .hedgeDelay(10, TimeUnit.SECONDS)
+                .minSamples(5)
+                .build();
+        final WebTarget target = target(hedging);
+
+        assertEquals(10, hedging.getHedgeDelay(TARGET_URI, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            target.request().get(String.class);
+        }
+        assertTrue(hedging.getHedgeDelay(TARGET_URI, TimeUnit.MILLISECONDS) < 1000);
+        // other hosts still use the fixed delay
+        assertEquals(10, hedging.getHedgeDelay(URI.create("http://localhost:9090/"), TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCancelledAttemptLatencyRecorded() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .hedgeAtPercentile(100)
+                .hedgeDelay(50, TimeUnit.MILLISECONDS)
+                .minSamples(1)
+                .build();
+        connector.blockFirst = true;
+
+        assertEquals("response-2", target(hedging).request().get(String.class));
+        // the slow original is recorded with the time it had been running when the hedge won
+        assertTrue(hedging.getHedgeDelay(TARGET_URI, TimeUnit.MILLISECONDS) >= 40);
+    }
+
+    @Test
+    public void testConnectFailureRetried() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .maxHedges(0)
+                .maxRetries(2)
+                .retryBackoff(1, 5, TimeUnit.MILLISECONDS)
+                .build();
+        connector.connectFailures.set(2);
+
+        assertEquals("response-3", target(hedging).request().get(String.class));
+        assertEquals(2, hedging.getStatistics().getRetryCount());
+    }
+
+    @Test
+    public void testRetryLimits() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .maxHedges(0)
+                .maxRetries(5)
+                .retryBudget(0, 1)
+                .retryBackoff(1, 5, TimeUnit.MILLISECONDS)
+                .build();
+        connector.connectFailures.set(Integer.MAX_VALUE);
+
+        try {
+            target(hedging).request().get(String.class);
+            fail("ClientException expected.");
+        } catch (ClientException expected) {
+            assertTrue(expected.getCause() instanceof ConnectException);
+        }
+        assertEquals(2, connector.calls.get());
+        assertEquals(1, hedging.getStatistics().getRetryCount());
+        assertEquals(1, hedging.getStatistics().getRetryBudgetExhaustedCount());
+    }
+
+    @Test
+    public void testNonIdempotentRequestNotHedged() throws Exception {
+        final RequestHedgingFeature hedging = new RequestHedgingFeature();
+        connector.connectFailures.set(1);
+
+        try {
+            target(hedging).request().post(Entity.text("data"));
+            fail("ClientException expected.");
+        } catch (ClientException expected) {
+            // not retried
+        }
+        assertEquals(0, hedging.getStatistics().getRequestCount());
+        assertEquals(1, connector.calls.get());
+
+        connector.connectFailures.set(1);
+        try {
+            target(hedging).request().delete();
+            fail("ClientException expected.");
+        } catch (ClientException expected) {
+            // not retried
+        }
+        assertEquals(0, hedging.getStatistics().getRequestCount());
+        assertEquals(2, connector.calls.get());
+    }
+
+    @Test
+    public void testRollingLatencyHistogram() throws Exception {
+        final RollingLatencyHistogram histogram = new RollingLatencyHistogram(1, TimeUnit.HOURS);
+        assertEquals(-1, histogram.getValueAtPercentile(50, TimeUnit.MILLISECONDS));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(100, histogram.getCount());
+        final long p50 = histogram.getValueAtPercentile(50, TimeUnit.MICROSECONDS);
+        assertTrue("p50 = " + p50, p50 >= 50000 && p50 <= 50000 * 1.125);
+        final long p100 = histogram.getValueAtPercentile(100, TimeUnit.MICROSECONDS);
+        assertTrue("p100 = " + p100, p100 >= 100000 && p100 <= 100000 * 1.125);
+    }
+
+    @Test
+    public void testAttemptsUseOwnRequests() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .hedgeAtPercentile(0)
+                .hedgeDelay(20, TimeUnit.MILLISECONDS)
+                .build();
+        connector.blockFirst = true;
+
+        final Client client = ClientFactory.newClient(
+                new ClientConfig().connector(connector).register(hedging).register(new ClientMetricsFeature()));
+        assertEquals("response-2", client.target(TARGET_URI).request().get(String.class));
+
+        assertEquals(2, connector.requests.size());
+        final ClientRequest first = connector.requests.get(0);
+        final ClientRequest second = connector.requests.get(1);
+        assertNotSame(first, second);
+        assertNotNull(ConnectorMetrics.from(first));
+        assertNotNull(ConnectorMetrics.from(second));
+        assertNotSame(ConnectorMetrics.from(first), ConnectorMetrics.from(second));
+    }
+
+    @Test
+    public void testThreadsStoppedOnClose() throws Exception {
+        final RequestHedgingFeature hedging = RequestHedgingFeature.builder()
+                .hedgeAtPercentile(0)
+                .hedgeDelay(20, TimeUnit.MILLISECONDS)
+                .build();
+        connector.blockFirst = true;
+        final Set<Thread> existing = getHedgingThreads();
+
+        final Client client = ClientFactory.newClient(new ClientConfig().connector(connector).register(hedging));
+        assertEquals("response-2", client.target(TARGET_URI).request().get(String.class));
+        final Set<Thread> started = Sets.difference(getHedgingThreads(), existing).immutableCopy();
+        assertFalse(started.isEmpty());
+
+        client.close();
+        for (Thread thread : started) {
+            thread.join(5000);
+            assertFalse(thread.getName() + " is still running.", thread.isAlive());
+        }
+    }
+
+    private static Set<Thread> getHedgingThreads() {
+        final Set<Thread> threads = Sets.newHashSet();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("jersey-client-hedging")) {
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    private WebTarget target(RequestHedgingFeature hedging) {
+        return ClientFactory.newClient(new ClientConfig().connector(connector).register(hedging)).target(TARGET_URI);
+    }
+
+    private static class TestConnector implements Connector {
+
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger connectFailures = new AtomicInteger();
+        private final List<Future<?>> futures = Lists.newCopyOnWriteArrayList();
+        private final List<ClientRequest> requests = Lists.newCopyOnWriteArrayList();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blockFirst;
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            final int call = calls.incrementAndGet();
+            requests.add(request);
+            if (connectFailures.getAndDecrement() > 0) {
+                throw new ClientException(new ConnectException("Connection refused"));
+            }
+            if (blockFirst && call == 1) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new ClientException(e.getMessage(), e);
+                }
+            }
+            final ClientResponse response = new ClientResponse(Response.Status.OK, request);
+            response.header("Content-Type", "text/plain");
+            response.setEntityStream(new ByteArrayInputStream(("response-" + call).getBytes()));
+            return response;
+        }
+
+        @Override
+        public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+            final Future<?> future = executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        callback.response(apply(request));
+                    } catch (Throwable t) {
+                        callback.failure(t);
+                    }
+                }
+            });
+            futures.add(future);
+            return future;
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.client.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientFactory;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.CachedResponse;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.message.internal.HeadersFactory;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+
+/**
+ * Client-side response cache tests.
+ *
+ * @author agent (agent at local)
+ */
+public class ResponseCachingFilterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testFreshResponseServedFromCache() {
+        final TestConnector connector = new TestConnector("max-age=60", null);
+        final ResponseCachingFeature caching = new ResponseCachingFeature();
+        final WebTarget target = target(connector, caching);
+
+        assertEquals("response-1", target.request().get(String.class));
+        assertEquals("response-1", target.request().get(String.class));
+        final Response response = target.request().get();
+        assertEquals(200, response.getStatus());
+        assertEquals("max-age=60", response.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        assertEquals("response-1", response.readEntity(String.class));
+
+        assertEquals(1, connector.requests.size());
+        assertEquals(2, caching.getStatistics().getHitCount());
+        assertEquals(1, caching.getStatistics().getMissCount());
+    }
+
+    @Test
+    public void testStaleResponseRevalidated() {
+        final TestConnector connector = new TestConnector("max-age=0", "\"v1\"");
+        final ResponseCachingFeature caching = new ResponseCachingFeature();
+        final WebTarget target = target(connector, caching);
+
+        assertEquals("response-1", target.request().get(String.class));
+        assertEquals("response-1", target.request().get(String.class));
+
+        assertEquals(2, connector.requests.size());
+        assertNull(connector.requests.get(0).getHeaderString(HttpHeaders.IF_NONE_MATCH));
+        assertEquals("\"v1\"", connector.requests.get(1).getHeaderString(HttpHeaders.IF_NONE_MATCH));
+        assertEquals(1, caching.getStatistics().getRevalidatedHitCount());
+
+        // new representation replaces the cached one
+        connector.etag = "\"v2\"";
+        assertEquals("response-3", target.request().get(String.class));
+        assertEquals("response-3", target.request().get(String.class));
+        assertEquals(2, caching.getStatistics().getRevalidatedHitCount());
+        assertEquals(2, caching.getStatistics().getMissCount());
+    }
+
+    @Test
+    public void testRequestNoCacheForcesRevalidation() {
+        final TestConnector connector = new TestConnector("max-age=60", "\"v1\"");
+        final ResponseCachingFeature caching = new ResponseCachingFeature();
+        final WebTarget target = target(connector, caching);
+
+        target.request().get(String.class);
+        assertEquals("response-1", target.request().header(HttpHeaders.CACHE_CONTROL, "no-cache").get(String.class));
+        assertEquals(2, connector.requests.size());
+        assertEquals(1, caching.getStatistics().getRevalidatedHitCount());
+    }
+
+    @Test
+    public void testNoStoreNotCached() {
+        final TestConnector connector = new TestConnector("no-store", "\"v1\"");
+        final ResponseCachingFeature caching = new ResponseCachingFeature();
+        final WebTarget target = target(connector, caching);
+
+        assertEquals("response-1", target.request().get(String.class));
+        assertEquals("response-2", target.request().get(String.class));
+        assertEquals(0, caching.getStatistics().getHitCount());
+    }
+
+    @Test
+    public void testUnsafeMethodInvalidates() {
+        final TestConnector connector = new TestConnector("max-age=60", null);
+        final ResponseCachingFeature caching = new ResponseCachingFeature();
+        final WebTarget target = target(connector, caching);
+
+        target.request().get(String.class);
+        target.request().post(Entity.text("data"));
+        assertEquals("response-3", target.request().get(String.class));
+        assertEquals(0, caching.getStatistics().getHitCount());
+    }
+
+    @Test
+    public void testUnsafeMethodInvalidatesLocations() {
+        final TestConnector connector = new TestConnector("max-age=60", null);
+        final ResponseCachingFeature caching = new ResponseCachingFeature();
+        final WebTarget target = target(connector, caching);
+
+        assertEquals("response-1", target.path("items/1").request().get(String.class));
+        assertEquals("response-2", target.path("items/2").request().get(String.class));
+        assertEquals("response-3", target.path("items/3").request().get(String.class));
+
+        connector.location = "/resource/items/1";
+        connector.contentLocation = "http://localhost/resource/items/2";
+        target.request().post(Entity.text("data"));
+
+        assertEquals("response-5", target.path("items/1").request().get(String.class));
+        assertEquals("response-6", target.path("items/2").request().get(String.class));
+        assertEquals("response-3", target.path("items/3").request().get(String.class));
+
+        // locations of a different origin are not invalidated
+        connector.location = "http://example.org/resource/items/3";
+        connector.contentLocation = "https://localhost/resource/items/3";
+        target.request().post(Entity.text("data"));
+        assertEquals("response-3", target.path("items/3").request().get(String.class));
+    }
+
+    @Test
+    public void testVary() {
+        final TestConnector connector = new TestConnector("max-age=60", null);
+        connector.vary = HttpHeaders.ACCEPT_LANGUAGE;
+        final ResponseCachingFeature caching = new ResponseCachingFeature();
+        final WebTarget target = target(connector, caching);
+
+        assertEquals("response-1", target.request().acceptLanguage("en").get(String.class));
+        assertEquals("response-1", target.request().acceptLanguage("en").get(String.class));
+        assertEquals("response-2", target.request().acceptLanguage("cs").get(String.class));
+        assertEquals(1, caching.getStatistics().getHitCount());
+    }
+
+    @Test
+    public void testLargeEntityNotCached() {
+        final TestConnector connector = new TestConnector("max-age=60", null);
+        final ResponseCachingFeature caching = new ResponseCachingFeature(new InMemoryResponseCacheStore(), 4);
+        final WebTarget target = target(connector, caching);
+
+        assertEquals("response-1", target.request().get(String.class));
+        assertEquals("response-2", target.request().get(String.class));
+        assertEquals(0, caching.getStatistics().getHitCount());
+    }
+
+    @Test
+    public void testFileStore() throws Exception {
+        final File directory = folder.newFolder("cache");
+        final TestConnector connector = new TestConnector("max-age=60", "\"v1\"");
+        final ResponseCachingFeature caching = new ResponseCachingFeature(new FileResponseCacheStore(directory, 1024));
+        final WebTarget target = target(connector, caching);
+
+        assertEquals("response-1", target.request().get(String.class));
+        assertEquals("response-1", target.request().get(String.class));
+        assertEquals(1, caching.getStatistics().getHitCount());
+
+        // responses stored in the directory are reused by a new store
+        final FileResponseCacheStore store = new FileResponseCacheStore(directory, 1024);
+        final CachedResponse cached = store.get(target.getUri().toString());
+        assertNotNull(cached);
+        assertEquals(200, cached.getStatus());
+        assertEquals("\"v1\"", cached.getHeader(HttpHeaders.ETAG));
+        assertEquals("response-1", new String(cached.getEntity(), "UTF-8"));
+
+        store.clear();
+        assertNull(store.get(target.getUri().toString()));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void testFileStoreEviction() throws Exception {
+        final FileResponseCacheStore store = new FileResponseCacheStore(folder.newFolder("eviction"), 2500);
+        final MultivaluedMap<String, String> headers = HeadersFactory.createInbound();
+        final byte[] entity = new byte[1000];
+
+        store.put("a", new CachedResponse(200, headers, Collections.<String, String>emptyMap(), entity, 0));
+        store.put("b", new CachedResponse(200, headers, Collections.<String, String>emptyMap(), entity, 0));
+        assertNotNull(store.get("a"));
+        store.put("c", new CachedResponse(200, headers, Collections.<String, String>emptyMap(), entity, 0));
+
+        assertNotNull(store.get("a"));
+        assertNull(store.get("b"));
+        assertNotNull(store.get("c"));
+    }
+
+    @Test
+    public void testFileStoreDeletesTemporaryFiles() throws Exception {
+        final File directory = folder.newFolder("tmp");
+        final File tmp = File.createTempFile("response", ".tmp", directory);
+        final File other = new File(directory, "other.tmp");
+        assertTrue(other.createNewFile());
+
+        new FileResponseCacheStore(directory, 1024);
+
+        assertFalse(tmp.exists());
+        assertTrue(other.exists());
+    }
+
+    private static WebTarget target(Connector connector, ResponseCachingFeature caching) {
+        final Client client = ClientFactory.newClient(new ClientConfig().connector(connector).register(caching));
+        return client.target("http://localhost/resource");
+    }
+
+    private static class TestConnector implements Connector {
+
+        private final List<ClientRequest> requests = Lists.newArrayList();
+        private final String cacheControl;
+        private volatile String etag;
+        private volatile String vary;
+        private volatile String location;
+        private volatile String contentLocation;
+
+        private TestConnector(String cacheControl, String etag) {
+            this.cacheControl = cacheControl;
+            this.etag = etag;
+        }
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            requests.add(request);
+            if (etag != null && etag.equals(request.getHeaderString(HttpHeaders.IF_NONE_MATCH))) {
+                final ClientResponse response = new ClientResponse(Response.Status.NOT_MODIFIED, request);
+                response.header(HttpHeaders.ETAG, etag);
+                response.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+                return response;
+            }
+
+            final ClientResponse response = new ClientResponse(Response.Status.OK, request);
+            response.header(HttpHeaders.CONTENT_TYPE, "text/plain");
+            response.header(HttpHeaders.CACHE_CONTROL, cacheControl);
+            if (etag != null) {
+                response.header(HttpHeaders.ETAG, etag);
+            }
+            if (vary != null) {
+                response.header(HttpHeaders.VARY, vary);
+            }
+            if (location != null && !HttpMethod.GET.equals(request.getMethod())) {
+                response.header(HttpHeaders.LOCATION, location);
+                response.header(HttpHeaders.CONTENT_LOCATION, contentLocation);
+            }
+            response.setEntityStream(new ByteArrayInputStream(("response-" + requests.size()).getBytes()));
+            return response;
+        }
+
+        @Override
+        public Future<?> apply(ClientRequest clientRequest, AsyncConnectorCallback callback) {
+            throw new UnsupportedOperationException("Asynchronous execution not supported.");
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+}
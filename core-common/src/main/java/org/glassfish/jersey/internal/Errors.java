@@ -40,6 +40,7 @@
 package org.glassfish.jersey.internal;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.logging.Logger;
@@ -234,6 +235,44 @@ public class Errors {
         throw caught;
     }
 
+    /**
+     * Invoke given task in a new error processing scope and return the errors gathered by the task.
+     *
+     * The new error processing scope is detached from any error processing scope that may be active in the
+     * current thread. The gathered errors are not logged. This makes it possible to run parts of an error
+     * processing task in other threads and {@link #addAll(java.util.Collection) add} the gathered errors
+     * to the original error processing scope afterwards.
+     *
+     * @param task task to be invoked.
+     * @return non-null list of errors gathered by the task.
+     */
+    public static List<ErrorMessage> collect(final Runnable task) {
+        final Errors previous = errors.get();
+        final Errors instance = new Errors();
+        errors.set(instance);
+        instance.preProcess();
+        try {
+            task.run();
+            return Collections.unmodifiableList(new ArrayList<ErrorMessage>(instance.issues));
+        } finally {
+            if (previous == null) {
+                errors.remove();
+            } else {
+                errors.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Add error messages to the list of errors.
+     *
+     * @param messages error messages to be added, e.g. the messages {@link #collect(Runnable) collected} by
+     *                 a task invoked in another thread.
+     */
+    public static void addAll(final Collection<ErrorMessage> messages) {
+        getInstance().issues.addAll(messages);
+    }
+
     private static Errors getInstance() {
         final Errors instance = errors.get();
         // No error processing in scope
@@ -43,22 +43,21 @@ import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.Deflater;
-import java.util.zip.DeflaterOutputStream;
-import java.util.zip.Inflater;
-import java.util.zip.InflaterInputStream;
 
 import javax.ws.rs.core.Configuration;
 
 import javax.inject.Inject;
 
+import org.glassfish.jersey.message.internal.CompressionPool;
+import org.glassfish.jersey.message.internal.PooledDeflaterOutputStream;
+import org.glassfish.jersey.message.internal.PooledInflaterInputStream;
 import org.glassfish.jersey.spi.ContentEncoder;
 
 /**
  * Deflate encoding support. Interceptor that encodes the output or decodes the input if
  * {@link javax.ws.rs.core.HttpHeaders#CONTENT_ENCODING Content-Encoding header} value equals to {@code deflate}.
  * The default behavior of this interceptor can be tweaked using {@link MessageProperties#DEFLATE_WITHOUT_ZLIB}
- * property.
+ * property, the compression level can be configured using {@link MessageProperties#COMPRESSION_LEVEL} property.
  *
  * @author Martin Matula (martin.matula at oracle.com)
  */
@@ -66,6 +65,7 @@ public class DeflateEncoder extends ContentEncoder {
 
     // TODO This provider should be registered and configured via a feature.
     private final Configuration config;
+    private final int compressionLevel;
 
     /**
      * Initialize DeflateEncoder.
@@ -76,6 +76,7 @@ public class DeflateEncoder extends ContentEncoder {
     public DeflateEncoder(final Configuration config) {
         super("deflate");
         this.config = config;
+        this.compressionLevel = CompressionPool.getCompressionLevel(config);
     }
 
     @Override
@@ -94,10 +95,10 @@ public class DeflateEncoder extends ContentEncoder {
         // that should never be the case if no zlib wrapper
         if ((firstByte & 15) == 8) {
             // ok, zlib wrapped stream
-            return new InflaterInputStream(markSupportingStream);
+            return new PooledInflaterInputStream(markSupportingStream, false);
         } else {
             // no zlib wrapper
-            return new InflaterInputStream(markSupportingStream, new Inflater(true));
+            return new PooledInflaterInputStream(markSupportingStream, true);
         }
     }
 
@@ -117,8 +118,7 @@ public class DeflateEncoder extends ContentEncoder {
             deflateWithoutZLib = false;
         }
 
-        return deflateWithoutZLib ?
-                new DeflaterOutputStream(entityStream, new Deflater(Deflater.DEFAULT_COMPRESSION, true)) :
-                new DeflaterOutputStream(entityStream);
+        return new PooledDeflaterOutputStream(entityStream, compressionLevel, deflateWithoutZLib ?
+                PooledDeflaterOutputStream.Format.RAW : PooledDeflaterOutputStream.Format.ZLIB);
     }
 }
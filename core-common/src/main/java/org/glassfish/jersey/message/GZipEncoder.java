@@ -43,24 +43,43 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
+import javax.ws.rs.core.Configuration;
 import javax.ws.rs.core.HttpHeaders;
 
+import javax.inject.Inject;
+
+import org.glassfish.jersey.message.internal.CompressionPool;
+import org.glassfish.jersey.message.internal.PooledDeflaterOutputStream;
 import org.glassfish.jersey.spi.ContentEncoder;
 
 /**
  * GZIP encoding support. Interceptor that encodes the output or decodes the input if
  * {@link HttpHeaders#CONTENT_ENCODING Content-Encoding header} value equals to {@code gzip} or {@code x-gzip}.
+ * The compression level can be configured using {@link MessageProperties#COMPRESSION_LEVEL} property.
  *
  * @author Martin Matula (martin.matula at oracle.com)
  */
 public class GZipEncoder extends ContentEncoder {
+
+    private final int compressionLevel;
+
     /**
-     * Initialize GZipEncoder.
+     * Initialize GZipEncoder using the default compression level.
      */
     public GZipEncoder() {
+        this(null);
+    }
+
+    /**
+     * Initialize GZipEncoder.
+     *
+     * @param config Jersey configuration properties.
+     */
+    @Inject
+    public GZipEncoder(final Configuration config) {
         super("gzip", "x-gzip");
+        this.compressionLevel = CompressionPool.getCompressionLevel(config);
     }
 
     @Override
@@ -72,6 +91,6 @@ public class GZipEncoder extends ContentEncoder {
     @Override
     public OutputStream encode(String contentEncoding, OutputStream entityStream)
             throws IOException {
-        return new GZIPOutputStream(entityStream);
+        return new PooledDeflaterOutputStream(entityStream, compressionLevel, PooledDeflaterOutputStream.Format.GZIP);
     }
 }
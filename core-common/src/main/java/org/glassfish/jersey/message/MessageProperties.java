@@ -110,6 +110,17 @@ public final class MessageProperties {
      */
     public static final String DEFLATE_WITHOUT_ZLIB = "jersey.config.deflate.nozlib";
 
+    /**
+     * Compression level used by the {@code GZipEncoder gzip} and {@code DeflateEncoder deflate} encoding
+     * interceptors. The value is expected to be an integer in the range of {@code 0} (no compression)
+     * to {@code 9} (best compression), or {@code -1} (default compression level), otherwise it will be ignored.
+     * <p />
+     * The default value is {@code -1}.
+     * <p />
+     * The name of the configuration property is <code>{@value}</code>.
+     */
+    public static final String COMPRESSION_LEVEL = "jersey.config.compression.level";
+
     /**
      * If set to {@code true}, {@link javax.ws.rs.ext.MessageBodyReader MessageBodyReaders} and
      * {@link javax.ws.rs.ext.MessageBodyWriter MessageBodyWriters} will be ordered by rules from JAX-RS 1.x, where custom
@@ -1,7 +1,7 @@
 /*
  * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
  *
- * Copyright (c) 2010-2012 Oracle and/or its affiliates. All rights reserved.
+ * Copyright (c) 2010-2013 Oracle and/or its affiliates. All rights reserved.
  *
  * The contents of this file are subject to the terms of either the GNU
  * General Public License Version 2 only ("GPL") or the Common Development
@@ -39,6 +39,7 @@
  */
 package org.glassfish.jersey.message.internal;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 
@@ -51,6 +52,13 @@ import java.io.OutputStream;
  *
  * Concrete implementations of the class typically override the commit operation
  * to perform any initialization on the adapted output stream.
+ * <p>
+ * If {@link #enableBuffering(int) buffering} is enabled, the written bytes are first
+ * captured in an internal buffer and the commit is deferred until either the buffer size
+ * limit is exceeded or the stream is closed (or {@link #commit() explicitly committed}).
+ * In the latter case the length of the complete entity is known at the commit time and is
+ * passed to {@link OutboundMessageContext.BufferedStreamProvider buffered stream providers}.
+ * </p>
  *
  * @author Paul Sandoz
  * @author Marek Potociar (marek.potociar at oracle.com)
@@ -61,6 +69,21 @@ final class CommittingOutputStream extends OutputStream {
      * Adapted output stream.
      */
     private OutputStream adaptedOutput;
+    /**
+     * Enable buffering of the written entity bytes.
+     * <p>
+     * The written bytes are buffered until the size of the buffered entity exceeds the given limit
+     * or until the stream is closed or {@link #commit() committed}. The method must be called before
+     * the first byte is written to the stream.
+     * </p>
+     *
+     * @param bufferSize maximum size of the buffered entity. Buffering is disabled if the value is not
+     *                   positive.
+     */
+    public void enableBuffering(int bufferSize) {
+        this.bufferSize = (bufferSize > 0) ? bufferSize : 0;
+    }
+
     /**
      * Determines whether the stream was already committed or not.
      */
@@ -69,6 +92,14 @@ final class CommittingOutputStream extends OutputStream {
      * Stream provider.
      */
     private OutboundMessageContext.StreamProvider streamProvider;
+    /**
+     * Maximum size of the buffered entity; buffering is disabled if {@code 0}.
+     */
+    private int bufferSize = 0;
+    /**
+     * Entity buffer, allocated lazily on the first write.
+     */
+    private EntityBuffer buffer;
 
     /**
      * Construct a new committing output stream using a deferred initialization
@@ -98,47 +129,117 @@ final class CommittingOutputStream extends OutputStream {
 
     @Override
     public void write(byte b[]) throws IOException {
-        if (b.length > 0) {
-            commitWrite();
-            adaptedOutput.write(b);
-        }
+        write(b, 0, b.length);
     }
 
     @Override
     public void write(byte b[], int off, int len) throws IOException {
         if (len > 0) {
-            commitWrite();
-            adaptedOutput.write(b, off, len);
+            if (isBuffering(len)) {
+                buffer.write(b, off, len);
+            } else {
+                commitWrite(-1);
+                adaptedOutput.write(b, off, len);
+            }
         }
     }
 
     @Override
     public void write(int b) throws IOException {
-        commitWrite();
-        adaptedOutput.write(b);
+        if (isBuffering(1)) {
+            buffer.write(b);
+        } else {
+            commitWrite(-1);
+            adaptedOutput.write(b);
+        }
     }
 
+    /**
+     * {@inheritDoc}
+     * <p>
+     * If buffering is enabled, flushing of a stream that has not been committed yet does not commit
+     * the stream.
+     * </p>
+     */
     @Override
     public void flush() throws IOException {
-        commitWrite();
+        if (bufferSize > 0 && !isCommitted) {
+            return;
+        }
+        commitWrite(-1);
         adaptedOutput.flush();
     }
 
     @Override
     public void close() throws IOException {
-        commitWrite();
+        commit();
         adaptedOutput.close();
     }
 
-    private void commitWrite() throws IOException {
+    /**
+     * Commit the stream if it has not been committed yet.
+     * <p>
+     * If buffering is enabled, the complete entity is contained in the buffer at this point and its size
+     * is passed to the stream provider as the entity content length. The buffered bytes are then written
+     * to the adapted output stream.
+     * </p>
+     *
+     * @throws IOException in case of an IO error.
+     */
+    public void commit() throws IOException {
+        if (!isCommitted && bufferSize > 0) {
+            commitWrite((buffer == null) ? 0 : buffer.size());
+        } else {
+            commitWrite(-1);
+        }
+    }
+
+    private boolean isBuffering(int len) throws IOException {
+        if (isCommitted || bufferSize == 0) {
+            return false;
+        }
+        if (buffer == null) {
+            buffer = new EntityBuffer(Math.min(len, bufferSize));
+        }
+        return buffer.size() + len <= bufferSize;
+    }
+
+    private void commitWrite(int contentLength) throws IOException {
         if (!isCommitted) {
             isCommitted = true;
 
-            streamProvider.commit();
+            if (contentLength >= 0 && streamProvider instanceof OutboundMessageContext.BufferedStreamProvider) {
+                ((OutboundMessageContext.BufferedStreamProvider) streamProvider).commit(contentLength);
+            } else {
+                streamProvider.commit();
+            }
 
             if (adaptedOutput == null) {
                 adaptedOutput = streamProvider.getOutputStream();
             }
+
+            if (buffer != null) {
+                // write the buffered bytes at once and release the buffer
+                buffer.writeTo(adaptedOutput);
+                buffer = null;
+            }
+        }
+    }
+
+    /**
+     * Entity buffer that writes the buffered bytes without copying them.
+     */
+    private static final class EntityBuffer extends ByteArrayOutputStream {
+
+        EntityBuffer(int size) {
+            super(Math.max(size, 32));
+        }
+
+        @Override
+        public synchronized void writeTo(OutputStream out) throws IOException {
+            if (count > 0) {
+                out.write(buf, 0, count);
+            }
         }
     }
 }
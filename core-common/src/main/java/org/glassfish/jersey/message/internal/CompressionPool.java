@@ -0,0 +1,200 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.message.internal;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.ws.rs.core.Configuration;
+
+import org.glassfish.jersey.internal.util.PropertiesHelper;
+import org.glassfish.jersey.message.MessageProperties;
+
+/**
+ * Pool of reusable {@link Deflater} and {@link Inflater} instances.
+ * <p>
+ * Deflaters and inflaters allocate native memory and their creation and (finalizer based) disposal
+ * is relatively expensive compared to compressing a typical small message entity. The pool keeps
+ * a bounded number of idle instances per deflater configuration (compression level and zlib wrapping)
+ * and per inflater zlib wrapping. Instances that do not fit into the pool are {@link Deflater#end() ended}
+ * immediately.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class CompressionPool {
+
+    /**
+     * Maximum number of idle instances kept per pooled configuration.
+     */
+    private static final int MAX_IDLE = Math.max(8, 2 * Runtime.getRuntime().availableProcessors());
+    /**
+     * Deflater pools indexed by {@code 2 * (level + 1) + (nowrap ? 1 : 0)}.
+     */
+    private static final Pool<Deflater>[] DEFLATERS = newPools(22);
+    /**
+     * Inflater pools indexed by {@code nowrap ? 1 : 0}.
+     */
+    private static final Pool<Inflater>[] INFLATERS = newPools(2);
+
+    private static final class Pool<T> {
+        private final Queue<T> idle = new ConcurrentLinkedQueue<T>();
+        private final AtomicInteger size = new AtomicInteger();
+
+        T poll() {
+            final T instance = idle.poll();
+            if (instance != null) {
+                size.decrementAndGet();
+            }
+            return instance;
+        }
+
+        boolean offer(T instance) {
+            if (size.incrementAndGet() > MAX_IDLE) {
+                size.decrementAndGet();
+                return false;
+            }
+            idle.offer(instance);
+            return true;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Pool<T>[] newPools(int count) {
+        final Pool<T>[] pools = new Pool[count];
+        for (int i = 0; i < count; i++) {
+            pools[i] = new Pool<T>();
+        }
+        return pools;
+    }
+
+    private CompressionPool() {
+        // prevents instantiation
+    }
+
+    /**
+     * Check whether the compression level is a valid {@link Deflater} compression level.
+     *
+     * @param level compression level.
+     * @return {@code true} if the level is either {@link Deflater#DEFAULT_COMPRESSION} or a value
+     *         in the range of {@code 0-9}, {@code false} otherwise.
+     */
+    public static boolean isValidLevel(int level) {
+        return level >= Deflater.DEFAULT_COMPRESSION && level <= Deflater.BEST_COMPRESSION;
+    }
+
+    /**
+     * Get the compression level configured by the {@link MessageProperties#COMPRESSION_LEVEL} property.
+     *
+     * @param config configuration, may be {@code null}.
+     * @return configured compression level or {@link Deflater#DEFAULT_COMPRESSION} if the configuration
+     *         is {@code null} or the configured value is not a valid compression level.
+     */
+    public static int getCompressionLevel(Configuration config) {
+        if (config == null) {
+            return Deflater.DEFAULT_COMPRESSION;
+        }
+        final Map<String, Object> properties = config.getProperties();
+        final int level = PropertiesHelper.getValue(properties, MessageProperties.COMPRESSION_LEVEL,
+                Deflater.DEFAULT_COMPRESSION);
+        return isValidLevel(level) ? level : Deflater.DEFAULT_COMPRESSION;
+    }
+
+    private static Pool<Deflater> deflaterPool(int level, boolean nowrap) {
+        if (!isValidLevel(level)) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        return DEFLATERS[2 * (level + 1) + (nowrap ? 1 : 0)];
+    }
+
+    /**
+     * Get a deflater from the pool or create a new one if no idle deflater is available.
+     *
+     * @param level  compression level.
+     * @param nowrap if {@code true}, the deflater does not use the zlib wrapper.
+     * @return deflater ready to be used.
+     */
+    public static Deflater acquireDeflater(int level, boolean nowrap) {
+        final Deflater deflater = deflaterPool(level, nowrap).poll();
+        return (deflater != null) ? deflater : new Deflater(level, nowrap);
+    }
+
+    /**
+     * Return the deflater acquired with the same configuration back to the pool.
+     *
+     * @param deflater deflater to be returned. The deflater must not be used by the caller any more.
+     * @param level    compression level the deflater was acquired with.
+     * @param nowrap   zlib wrapper setting the deflater was acquired with.
+     */
+    public static void releaseDeflater(Deflater deflater, int level, boolean nowrap) {
+        deflater.reset();
+        if (!deflaterPool(level, nowrap).offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Get an inflater from the pool or create a new one if no idle inflater is available.
+     *
+     * @param nowrap if {@code true}, the inflater does not expect the zlib wrapper.
+     * @return inflater ready to be used.
+     */
+    public static Inflater acquireInflater(boolean nowrap) {
+        final Inflater inflater = INFLATERS[nowrap ? 1 : 0].poll();
+        return (inflater != null) ? inflater : new Inflater(nowrap);
+    }
+
+    /**
+     * Return the inflater acquired with the same configuration back to the pool.
+     *
+     * @param inflater inflater to be returned. The inflater must not be used by the caller any more.
+     * @param nowrap   zlib wrapper setting the inflater was acquired with.
+     */
+    public static void releaseInflater(Inflater inflater, boolean nowrap) {
+        inflater.reset();
+        if (!INFLATERS[nowrap ? 1 : 0].offer(inflater)) {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.message.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+
+/**
+ * Entity input stream of a message exchanged within a single JVM that carries a reference
+ * to the original Java entity instance.
+ * <p>
+ * If the receiving side reads the entity as a Java type compatible with the referenced entity, the
+ * {@link InboundMessageContext inbound message context} returns the referenced entity instance directly,
+ * without invoking any {@link javax.ws.rs.ext.MessageBodyReader message body reader}. Otherwise, i.e. if
+ * the types do not match or once the stream bytes have been accessed, the entity is lazily serialized
+ * using the {@link #serialize()} method and the stream behaves as a regular entity input stream.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public abstract class EntityReferenceInputStream extends InputStream {
+
+    private final Object entity;
+    private final Type entityType;
+    private InputStream serialized;
+
+    /**
+     * Create new entity reference input stream.
+     *
+     * @param entity     referenced entity instance.
+     * @param entityType generic type of the referenced entity.
+     */
+    protected EntityReferenceInputStream(final Object entity, final Type entityType) {
+        this.entity = entity;
+        this.entityType = entityType == null ? entity.getClass() : entityType;
+    }
+
+    /**
+     * Get the referenced entity instance.
+     *
+     * @return referenced entity instance.
+     */
+    public final Object getEntity() {
+        return entity;
+    }
+
+    /**
+     * Get the generic type of the referenced entity.
+     *
+     * @return generic type of the referenced entity.
+     */
+    public final Type getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Check if the referenced entity can be returned as an entity of the requested type.
+     * <p>
+     * The referenced entity is readable as the requested type if the entity stream has not been
+     * serialized yet and the entity is an instance of the requested raw type. In case the requested
+     * type is a parameterized type, it must also be equal to the referenced entity type.
+     * </p>
+     *
+     * @param rawType requested raw Java entity type.
+     * @param type    requested generic Java entity type.
+     * @return {@code true} if the referenced entity can be returned as is, {@code false} otherwise.
+     */
+    public boolean isReadableAs(final Class<?> rawType, final Type type) {
+        if (serialized != null || !rawType.isInstance(entity)) {
+            return false;
+        }
+        return type == null || type instanceof Class || type.equals(entityType);
+    }
+
+    /**
+     * Serialize the referenced entity.
+     * <p>
+     * Invoked at most once, when the entity stream data are accessed for the first time.
+     * </p>
+     *
+     * @return input stream of the serialized entity data.
+     * @throws IOException in case the entity serialization failed.
+     */
+    protected abstract InputStream serialize() throws IOException;
+
+    private InputStream serialized() throws IOException {
+        if (serialized == null) {
+            serialized = serialize();
+        }
+        return serialized;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return serialized().read();
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        return serialized().read(b, off, len);
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+        return serialized().skip(n);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Until the entity is serialized, the method reports a single available byte, so that the
+     * presence of the entity can be checked without triggering the serialization.
+     * </p>
+     */
+    @Override
+    public int available() throws IOException {
+        return serialized == null ? 1 : serialized.available();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (serialized != null) {
+            serialized.close();
+        }
+    }
+}
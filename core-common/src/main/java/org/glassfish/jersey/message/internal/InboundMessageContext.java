@@ -49,6 +49,7 @@ import java.lang.reflect.Type;
 import java.net.URI;
 import java.text.ParseException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -68,6 +69,7 @@ import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.NewCookie;
+import javax.ws.rs.ext.ReaderInterceptor;
 import javax.ws.rs.ext.RuntimeDelegate;
 
 import javax.xml.transform.Source;
@@ -76,6 +78,7 @@ import org.glassfish.jersey.internal.LocalizationMessages;
 import org.glassfish.jersey.internal.ProcessingException;
 import org.glassfish.jersey.internal.PropertiesDelegate;
 import org.glassfish.jersey.message.MessageBodyWorkers;
+import org.glassfish.jersey.spi.ContentEncoder;
 
 import com.google.common.base.Function;
 
@@ -807,6 +810,18 @@ public class InboundMessageContext {
             return null;
         }
 
+        final InputStream entityStream = entityContent.getWrappedStream();
+        if (entityStream instanceof EntityReferenceInputStream
+                && ((EntityReferenceInputStream) entityStream).isReadableAs(rawType, type)
+                && isReadAsIs(propertiesDelegate)) {
+            // in-process message - pass the entity instance by reference
+            final T t = (T) ((EntityReferenceInputStream) entityStream).getEntity();
+            if (!(t instanceof Closeable)) {
+                entityContent.close();
+            }
+            return t;
+        }
+
         try {
             T t = (T) workers.readFrom(
                     rawType,
@@ -827,6 +842,32 @@ public class InboundMessageContext {
         }
     }
 
+    /**
+     * Check that no reader interceptor applicable to the message would modify the read entity.
+     *
+     * @param propertiesDelegate request-scoped properties delegate.
+     * @return {@code true} if the entity would be read without being modified by an interceptor.
+     */
+    private boolean isReadAsIs(final PropertiesDelegate propertiesDelegate) {
+        final Object interceptorsProperty = (propertiesDelegate == null)
+                ? null : propertiesDelegate.getProperty(ReaderInterceptorExecutor.INTERCEPTORS);
+        @SuppressWarnings("unchecked")
+        final Collection<ReaderInterceptor> interceptors = (interceptorsProperty instanceof Collection) ?
+                (Collection<ReaderInterceptor>) interceptorsProperty : workers.getReaderInterceptors();
+
+        for (ReaderInterceptor interceptor : interceptors) {
+            if (interceptor instanceof ExceptionWrapperInterceptor) {
+                continue;
+            }
+            if (interceptor instanceof ContentEncoder && getHeaderString(HttpHeaders.CONTENT_ENCODING) == null) {
+                // content encoders only decode the encoded entities
+                continue;
+            }
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Buffer the entity stream (if not empty).
      *
@@ -117,6 +117,27 @@ public class OutboundMessageContext {
         public void commit() throws IOException;
     }
 
+    /**
+     * Output stream provider that is notified about the content length of a completely
+     * buffered entity.
+     *
+     * @see #enableBuffering(int)
+     */
+    public static interface BufferedStreamProvider extends StreamProvider {
+        /**
+         * Perform the commit functionality for a completely buffered entity.
+         *
+         * The method is called instead of {@link #commit()} if the entity has been
+         * {@link OutboundMessageContext#enableBuffering(int) buffered} and the complete entity fits
+         * into the buffer. The buffered entity bytes are written to the {@link #getOutputStream()
+         * provided output stream} at once right after the commit.
+         *
+         * @param contentLength length of the complete entity in bytes.
+         * @throws java.io.IOException in case of an IO error.
+         */
+        public void commit(int contentLength) throws IOException;
+    }
+
     /**
      * Create new outbound message context.
      */
@@ -787,6 +808,26 @@ public class OutboundMessageContext {
         this.rootStream.setStreamProvider(streamProvider);
     }
 
+    /**
+     * Enable buffering of the entity written to the {@link #getEntityStream() entity stream}.
+     * <p>
+     * If the written entity does not exceed the given buffer size, the commit is deferred until
+     * the entity stream is closed or {@link #commitStream() committed}, so that the length of
+     * the whole entity is known and passed to a {@link BufferedStreamProvider buffered stream provider}.
+     * Entities exceeding the buffer size are streamed as usual. Note that flushing the entity stream
+     * does not commit the stream while the entity is being buffered.
+     * </p>
+     * <p>
+     * The method must be invoked before the entity is written.
+     * </p>
+     *
+     * @param bufferSize maximum size of the buffered entity in bytes. Buffering is disabled if the value
+     *                   is not positive.
+     */
+    public void enableBuffering(int bufferSize) {
+        this.rootStream.enableBuffering(bufferSize);
+    }
+
     /**
      * Commits the {@link #getEntityStream() entity stream} if it wasn't already committed.
      */
@@ -796,7 +837,8 @@ public class OutboundMessageContext {
                 // flush the entity stream
                 entityStream.flush();
                 if (!rootStream.isCommitted()) {
-                    // flush the committing stream
+                    // commit and flush the committing stream
+                    rootStream.commit();
                     rootStream.flush();
                 }
             } catch (Exception ioe) {
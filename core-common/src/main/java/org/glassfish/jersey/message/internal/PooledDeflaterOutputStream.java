@@ -0,0 +1,152 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.message.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Deflater output stream that uses a {@link CompressionPool pooled} deflater and returns it back
+ * to the pool once the stream is closed.
+ * <p>
+ * The stream supports the zlib wrapped and raw deflate formats as well as the GZIP format.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class PooledDeflaterOutputStream extends DeflaterOutputStream {
+
+    /**
+     * Compressed data format.
+     */
+    public static enum Format {
+        /**
+         * Deflate compressed data wrapped in the zlib format.
+         */
+        ZLIB,
+        /**
+         * Raw deflate compressed data with no zlib wrapper.
+         */
+        RAW,
+        /**
+         * Deflate compressed data wrapped in the GZIP file format.
+         */
+        GZIP
+    }
+
+    private static final byte[] GZIP_HEADER = new byte[] {
+            (byte) 0x1f, (byte) 0x8b, // magic number
+            8,                        // compression method (deflate)
+            0,                        // flags
+            0, 0, 0, 0,               // modification time
+            0,                        // extra flags
+            0                         // operating system
+    };
+
+    private final int level;
+    private final boolean nowrap;
+    private final CRC32 crc;
+    private boolean finished = false;
+    private boolean released = false;
+
+    /**
+     * Create new pooled deflater output stream.
+     *
+     * @param out    underlying output stream.
+     * @param level  compression level.
+     * @param format compressed data format.
+     * @throws IOException in case the GZIP header cannot be written.
+     */
+    public PooledDeflaterOutputStream(OutputStream out, int level, Format format) throws IOException {
+        super(out, CompressionPool.acquireDeflater(level, format != Format.ZLIB));
+        this.level = level;
+        this.nowrap = format != Format.ZLIB;
+        if (format == Format.GZIP) {
+            this.crc = new CRC32();
+            out.write(GZIP_HEADER);
+        } else {
+            this.crc = null;
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        if (crc != null) {
+            crc.update(b, off, len);
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        super.finish();
+        finished = true;
+        if (crc != null) {
+            final byte[] trailer = new byte[8];
+            writeInt((int) crc.getValue(), trailer, 0);
+            writeInt((int) def.getBytesRead(), trailer, 4);
+            out.write(trailer);
+        }
+    }
+
+    private static void writeInt(int value, byte[] buf, int offset) {
+        buf[offset] = (byte) value;
+        buf[offset + 1] = (byte) (value >> 8);
+        buf[offset + 2] = (byte) (value >> 16);
+        buf[offset + 3] = (byte) (value >> 24);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (!released) {
+                released = true;
+                CompressionPool.releaseDeflater(def, level, nowrap);
+            }
+        }
+    }
+}
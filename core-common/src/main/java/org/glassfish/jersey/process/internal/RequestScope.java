@@ -40,9 +40,10 @@
 package org.glassfish.jersey.process.internal;
 
 import java.lang.annotation.Annotation;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -128,6 +129,14 @@ import static com.google.common.base.Preconditions.checkState;
  * which may change it's state during each request-scoped task execution for
  * which this scope instance is used.
  * </p>
+ * <p>
+ * Request-scoped inhabitants are not kept in a per-instance hash map. Instead, each
+ * {@link ActiveDescriptor active descriptor} seen by the scope is assigned a stable
+ * slot number once and every {@link RequestScope.Instance scope instance} stores
+ * its inhabitants in a dense array indexed by these slot numbers. Creating a new
+ * scope instance for each request is therefore a single array allocation and the
+ * inhabitant look-ups do not need to allocate or rehash anything.
+ * </p>
  *
  * @author Marek Potociar (marek.potociar at oracle.com)
  * @author Miroslav Fuksa (miroslav.fuksa at oracle.com)
@@ -140,7 +149,15 @@ public class RequestScope implements Context<RequestScoped> {
     /**
      * A thread local copy of the current scope instance.
      */
-    private ThreadLocal<Instance> currentScopeInstance = new ThreadLocal<Instance>();
+    private final ThreadLocal<Instance> currentScopeInstance = new ThreadLocal<Instance>();
+    /**
+     * {@code false} once the scope has been {@link #shutdown() shut down}.
+     */
+    private volatile boolean isActive = true;
+    /**
+     * Slot numbers assigned to the active descriptors managed by this scope.
+     */
+    private final SlotRegistry slots = new SlotRegistry();
 
     @Override
     public Class<? extends Annotation> getScope() {
@@ -148,15 +165,18 @@ public class RequestScope implements Context<RequestScoped> {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <U> U findOrCreate(ActiveDescriptor<U> activeDescriptor, ServiceHandle<?> root) {
         final Instance instance = current();
+        final int slot = slots.slotOf(activeDescriptor);
 
-        U retVal = instance.get(activeDescriptor);
-        if (retVal == null) {
-            retVal = activeDescriptor.create(root);
-            instance.put(activeDescriptor, retVal);
+        final Object value = instance.slotValue(slot);
+        if (value == null) {
+            final U retVal = activeDescriptor.create(root);
+            instance.store(slot, retVal);
+            return retVal;
         }
-        return retVal;
+        return (value == NULL_VALUE) ? null : (U) value;
     }
 
     @Override
@@ -172,7 +192,7 @@ public class RequestScope implements Context<RequestScoped> {
 
     @Override
     public boolean isActive() {
-        return true;
+        return isActive;
     }
 
     @Override
@@ -183,7 +203,8 @@ public class RequestScope implements Context<RequestScoped> {
 
     @Override
     public void shutdown() {
-        currentScopeInstance = null;
+        // the thread local is retained so that the tasks still running in the scope can finish cleanly
+        isActive = false;
     }
 
     /**
@@ -270,7 +291,7 @@ public class RequestScope implements Context<RequestScoped> {
      * @return New suspended request scope instance.
      */
     public Instance createInstance() {
-        return new Instance();
+        return new Instance(slots);
     }
 
     /**
@@ -437,16 +458,25 @@ public class RequestScope implements Context<RequestScoped> {
 
         private final LazyUid id = new LazyUid();
         /**
-         * A map of injectable instances in this scope.
+         * Descriptor slot registry shared by all instances of the same request scope.
+         */
+        private final SlotRegistry slots;
+        /**
+         * Injectable instances in this scope indexed by the descriptor slot numbers.
+         */
+        private Object[] store;
+        /**
+         * Number of inhabitants currently stored in this scope instance.
          */
-        private final Map<ActiveDescriptor<?>, Object> store;
+        private int size;
         /**
          * Holds the number of snapshots of this scope.
          */
         private final AtomicInteger referenceCounter;
 
-        private Instance() {
-            this.store = new HashMap<ActiveDescriptor<?>, Object>();
+        private Instance(SlotRegistry slots) {
+            this.slots = slots;
+            this.store = new Object[slots.size()];
             this.referenceCounter = new AtomicInteger(1);
         }
 
@@ -473,7 +503,8 @@ public class RequestScope implements Context<RequestScoped> {
          */
         @SuppressWarnings("unchecked")
         <T> T get(ActiveDescriptor<T> descriptor) {
-            return (T) store.get(descriptor);
+            final Object value = slotValue(slots.slotOf(descriptor));
+            return (value == NULL_VALUE) ? null : (T) value;
         }
 
         /**
@@ -487,13 +518,23 @@ public class RequestScope implements Context<RequestScoped> {
          */
         @SuppressWarnings("unchecked")
         <T> T put(ActiveDescriptor<T> descriptor, T value) {
-            checkState(!store.containsKey(descriptor),
+            final int slot = slots.slotOf(descriptor);
+            checkState(slotValue(slot) == null,
                     "An instance for the descriptor %s was already seeded in this scope. Old instance: %s New instance: %s",
                     descriptor,
-                    store.get(descriptor),
+                    slotValue(slot),
                     value);
 
-            return (T) store.put(descriptor, value);
+            store(slot, value);
+            return null;
+        }
+
+        private void store(int slot, Object value) {
+            if (slot >= store.length) {
+                store = Arrays.copyOf(store, Math.max(slots.size(), slot + 1));
+            }
+            store[slot] = (value == null) ? NULL_VALUE : value;
+            size++;
         }
 
         /**
@@ -502,11 +543,19 @@ public class RequestScope implements Context<RequestScoped> {
          * @param descriptor key for the value to be removed.
          */
         void remove(ActiveDescriptor<?> descriptor) {
-            store.remove(descriptor);
+            final int slot = slots.slotOf(descriptor);
+            if (slotValue(slot) != null) {
+                store[slot] = null;
+                size--;
+            }
         }
 
         private <T> boolean contains(ActiveDescriptor<T> provider) {
-            return store.containsKey(provider);
+            return slotValue(slots.slotOf(provider)) != null;
+        }
+
+        private Object slotValue(int slot) {
+            return (slot < store.length) ? store[slot] : null;
         }
 
         /**
@@ -517,7 +566,8 @@ public class RequestScope implements Context<RequestScoped> {
         public void release() {
             if (referenceCounter.decrementAndGet() < 1) {
                 try {
-                    store.clear();
+                    Arrays.fill(store, null);
+                    size = 0;
                 } finally {
                     logger.debugLog("Released scope instance {0}", this);
                 }
@@ -527,7 +577,53 @@ public class RequestScope implements Context<RequestScoped> {
         @Override
         public String toString() {
             return Objects.toStringHelper(this).add("id", id.value()).add("referenceCounter", referenceCounter.get())
-                    .add("store size", store.size()).toString();
+                    .add("store size", size).toString();
+        }
+    }
+
+    /**
+     * Marker stored in the scope instance slots for inhabitants explicitly created as {@code null}.
+     */
+    private static final Object NULL_VALUE = new Object();
+
+    /**
+     * Assigns stable, densely allocated slot numbers to active descriptors.
+     * <p>
+     * The slot number of a descriptor is computed only once per request scope and
+     * then reused by all the {@link RequestScope.Instance scope instances}.
+     * </p>
+     */
+    private static final class SlotRegistry {
+
+        private final ConcurrentMap<ActiveDescriptor<?>, Integer> slots = new ConcurrentHashMap<ActiveDescriptor<?>, Integer>();
+        private final AtomicInteger nextSlot = new AtomicInteger();
+
+        /**
+         * Get the slot number of the active descriptor, assigning a new one if the descriptor
+         * has not been seen yet.
+         *
+         * @param descriptor active descriptor.
+         * @return slot number of the descriptor.
+         */
+        int slotOf(ActiveDescriptor<?> descriptor) {
+            Integer slot = slots.get(descriptor);
+            if (slot == null) {
+                final Integer newSlot = nextSlot.getAndIncrement();
+                slot = slots.putIfAbsent(descriptor, newSlot);
+                if (slot == null) {
+                    slot = newSlot;
+                }
+            }
+            return slot;
+        }
+
+        /**
+         * Get the number of slots allocated so far.
+         *
+         * @return number of allocated slots.
+         */
+        int size() {
+            return nextSlot.get();
         }
     }
 }
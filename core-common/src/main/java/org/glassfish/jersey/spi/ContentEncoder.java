@@ -39,6 +39,7 @@
  */
 package org.glassfish.jersey.spi;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -49,6 +50,7 @@ import java.util.Set;
 import javax.ws.rs.BindingPriority;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.ReaderInterceptor;
 import javax.ws.rs.ext.ReaderInterceptorContext;
 import javax.ws.rs.ext.WriterInterceptor;
@@ -67,6 +69,19 @@ import com.google.common.collect.Sets;
 @BindingPriority(BindingPriority.ENTITY_CODER)
 @Contract
 public abstract class ContentEncoder implements ReaderInterceptor, WriterInterceptor {
+    /**
+     * Name of the message property that may contain a minimum entity size (in bytes) required for the entity
+     * to be encoded.
+     * <p>
+     * If the property is set to a positive {@code Integer} value, the encoding decision is deferred until
+     * the written entity reaches the given size. Smaller entities are written unencoded and the
+     * {@code Content-Encoding} header is removed from the message headers. Since the decision may be deferred
+     * until the entity stream is closed, the property must be set only if the message headers are not committed
+     * before the entity stream is closed (e.g. if the whole message entity is buffered).
+     * </p>
+     */
+    public static final String ENCODING_THRESHOLD = "jersey.runtime.encoding.threshold";
+
     private final Set<String> supportedEncodings;
 
     /**
@@ -130,8 +145,77 @@ public abstract class ContentEncoder implements ReaderInterceptor, WriterInterce
 
         String contentEncoding = (String) context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
         if (contentEncoding != null && getSupportedEncodings().contains(contentEncoding)) {
-            context.setOutputStream(encode(contentEncoding, context.getOutputStream()));
+            final Object threshold = context.getProperty(ENCODING_THRESHOLD);
+            if (threshold instanceof Integer && (Integer) threshold > 0) {
+                context.setOutputStream(new ThresholdEncodingStream(contentEncoding, context.getOutputStream(),
+                        context.getHeaders(), (Integer) threshold));
+            } else {
+                context.setOutputStream(encode(contentEncoding, context.getOutputStream()));
+            }
         }
         context.proceed();
     }
+
+    /**
+     * Output stream that buffers the entity until the encoding threshold is reached and then switches
+     * to the encoded stream. If the stream is closed before reaching the threshold, the buffered entity
+     * is written unencoded.
+     */
+    private final class ThresholdEncodingStream extends OutputStream {
+        private final String contentEncoding;
+        private final OutputStream entityStream;
+        private final MultivaluedMap<String, Object> headers;
+        private final int threshold;
+
+        private ByteArrayOutputStream buffer;
+        private OutputStream output;
+
+        private ThresholdEncodingStream(String contentEncoding, OutputStream entityStream,
+                                        MultivaluedMap<String, Object> headers, int threshold) {
+            this.contentEncoding = contentEncoding;
+            this.entityStream = entityStream;
+            this.headers = headers;
+            this.threshold = threshold;
+            this.buffer = new ByteArrayOutputStream(Math.min(threshold, 512));
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (output == null) {
+                if (buffer.size() + len < threshold) {
+                    buffer.write(b, off, len);
+                    return;
+                }
+                output = encode(contentEncoding, entityStream);
+                buffer.writeTo(output);
+                buffer = null;
+            }
+            output.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // the entity is not flushed until the encoding is decided
+            if (output != null) {
+                output.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (output == null) {
+                // below the threshold - write the entity unencoded
+                headers.remove(HttpHeaders.CONTENT_ENCODING);
+                output = entityStream;
+                buffer.writeTo(output);
+                buffer = null;
+            }
+            output.close();
+        }
+    }
 }
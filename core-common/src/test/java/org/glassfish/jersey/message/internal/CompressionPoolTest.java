@@ -0,0 +1,140 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.message.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link CompressionPool} and pooled compression streams test.
+ *
+ * @author agent (agent at local)
+ */
+public class CompressionPoolTest {
+
+    private static final byte[] CONTENT;
+
+    static {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            sb.append("Hello pooled world ").append(i).append('\n');
+        }
+        CONTENT = sb.toString().getBytes();
+    }
+
+    @Test
+    public void testDeflaterReused() {
+        final Deflater deflater = CompressionPool.acquireDeflater(Deflater.BEST_SPEED, true);
+        CompressionPool.releaseDeflater(deflater, Deflater.BEST_SPEED, true);
+        assertSame(deflater, CompressionPool.acquireDeflater(Deflater.BEST_SPEED, true));
+        CompressionPool.releaseDeflater(deflater, Deflater.BEST_SPEED, true);
+    }
+
+    @Test
+    public void testInflaterReused() {
+        final Inflater inflater = CompressionPool.acquireInflater(false);
+        CompressionPool.releaseInflater(inflater, false);
+        assertSame(inflater, CompressionPool.acquireInflater(false));
+        CompressionPool.releaseInflater(inflater, false);
+    }
+
+    @Test
+    public void testValidLevel() {
+        assertTrue(CompressionPool.isValidLevel(Deflater.DEFAULT_COMPRESSION));
+        assertTrue(CompressionPool.isValidLevel(Deflater.BEST_COMPRESSION));
+        assertFalse(CompressionPool.isValidLevel(10));
+        assertFalse(CompressionPool.isValidLevel(-2));
+    }
+
+    private static byte[] compress(int level, PooledDeflaterOutputStream.Format format) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final OutputStream out = new PooledDeflaterOutputStream(baos, level, format);
+        out.write(CONTENT, 0, 100);
+        out.write(CONTENT[100]);
+        out.write(CONTENT, 101, CONTENT.length - 101);
+        out.close();
+        return baos.toByteArray();
+    }
+
+    private static byte[] read(InputStream in) throws IOException {
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[256];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            baos.write(buffer, 0, read);
+        }
+        in.close();
+        return baos.toByteArray();
+    }
+
+    @Test
+    public void testGZipRoundTrip() throws IOException {
+        // repeated to exercise reused deflaters
+        for (int i = 0; i < 3; i++) {
+            final byte[] compressed = compress(Deflater.DEFAULT_COMPRESSION, PooledDeflaterOutputStream.Format.GZIP);
+            assertArrayEquals(CONTENT, read(new GZIPInputStream(new ByteArrayInputStream(compressed))));
+        }
+    }
+
+    @Test
+    public void testDeflateRoundTrip() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            byte[] compressed = compress(Deflater.BEST_SPEED, PooledDeflaterOutputStream.Format.ZLIB);
+            assertArrayEquals(CONTENT, read(new InflaterInputStream(new ByteArrayInputStream(compressed))));
+            assertArrayEquals(CONTENT, read(new PooledInflaterInputStream(new ByteArrayInputStream(compressed), false)));
+
+            compressed = compress(Deflater.BEST_COMPRESSION, PooledDeflaterOutputStream.Format.RAW);
+            assertArrayEquals(CONTENT, read(new PooledInflaterInputStream(new ByteArrayInputStream(compressed), true)));
+        }
+    }
+}
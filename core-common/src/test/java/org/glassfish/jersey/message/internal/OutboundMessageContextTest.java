@@ -39,6 +39,9 @@
  */
 package org.glassfish.jersey.message.internal;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.text.ParseException;
@@ -211,4 +214,79 @@ public class OutboundMessageContextTest {
         assertTrue(r.getLink("self").equals(link1));
         assertTrue(r.getLink("update").equals(link2) || r.getLink("update").equals(link3));
     }
+
+    private static class RecordingStreamProvider implements OutboundMessageContext.BufferedStreamProvider {
+        private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        private int commits = 0;
+        private int contentLength = -1;
+
+        @Override
+        public void commit(int contentLength) throws IOException {
+            this.commits++;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+            return output;
+        }
+
+        @Override
+        public void commit() throws IOException {
+            this.commits++;
+        }
+    }
+
+    @Test
+    public void testBufferedEntityCommittedWithContentLength() throws IOException {
+        final OutboundMessageContext context = new OutboundMessageContext();
+        final RecordingStreamProvider provider = new RecordingStreamProvider();
+        context.setStreamProvider(provider);
+        context.enableBuffering(16);
+
+        final OutputStream entityStream = context.getEntityStream();
+        entityStream.write("Hello".getBytes());
+        entityStream.flush();
+        entityStream.write(' ');
+        entityStream.write("World".getBytes());
+        assertFalse(context.isCommitted());
+        assertEquals(0, provider.output.size());
+
+        context.commitStream();
+        assertTrue(context.isCommitted());
+        assertEquals(1, provider.commits);
+        assertEquals(11, provider.contentLength);
+        assertEquals("Hello World", provider.output.toString());
+    }
+
+    @Test
+    public void testBufferOverflowCommitsWithoutContentLength() throws IOException {
+        final OutboundMessageContext context = new OutboundMessageContext();
+        final RecordingStreamProvider provider = new RecordingStreamProvider();
+        context.setStreamProvider(provider);
+        context.enableBuffering(8);
+
+        final OutputStream entityStream = context.getEntityStream();
+        entityStream.write("Hello".getBytes());
+        assertFalse(context.isCommitted());
+        entityStream.write(" World".getBytes());
+        assertTrue(context.isCommitted());
+
+        entityStream.close();
+        assertEquals(1, provider.commits);
+        assertEquals(-1, provider.contentLength);
+        assertEquals("Hello World", provider.output.toString());
+    }
+
+    @Test
+    public void testEmptyBufferedEntity() throws IOException {
+        final OutboundMessageContext context = new OutboundMessageContext();
+        final RecordingStreamProvider provider = new RecordingStreamProvider();
+        context.setStreamProvider(provider);
+        context.enableBuffering(8);
+
+        context.getEntityStream().close();
+        assertTrue(context.isCommitted());
+        assertEquals(0, provider.contentLength);
+    }
 }
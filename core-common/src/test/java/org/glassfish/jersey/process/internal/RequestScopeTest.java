@@ -182,6 +182,39 @@ public class RequestScopeTest {
         assertNull(instance.get(inhab));
     }
 
+    @Test
+    public void testFindOrCreateInMultipleInstances() throws Exception {
+        final RequestScope requestScope = new RequestScope();
+        final TestProvider a = new TestProvider("a");
+        final TestProvider b = new TestProvider("b");
+        final TestProvider nullProvider = new TestProvider(null);
+        a.setName("a");
+        b.setName("b");
+        nullProvider.setName("null");
+
+        for (int i = 0; i < 3; i++) {
+            requestScope.runInScope(new Runnable() {
+
+                @Override
+                public void run() {
+                    assertFalse(requestScope.containsKey(b));
+                    assertEquals("b", requestScope.findOrCreate(b, null));
+                    assertEquals("a", requestScope.findOrCreate(a, null));
+                    assertTrue(requestScope.containsKey(a));
+                    assertTrue(requestScope.containsKey(b));
+
+                    assertNull(requestScope.findOrCreate(nullProvider, null));
+                    assertTrue(requestScope.containsKey(nullProvider));
+                    assertNull(requestScope.findOrCreate(nullProvider, null));
+
+                    requestScope.destroyOne(a);
+                    assertFalse(requestScope.containsKey(a));
+                    assertEquals("b", requestScope.findOrCreate(b, null));
+                }
+            });
+        }
+    }
+
     /**
      * Test request scope inhabitant.
      *
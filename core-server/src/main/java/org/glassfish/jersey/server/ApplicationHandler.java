@@ -39,6 +39,7 @@
  */
 package org.glassfish.jersey.server;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
@@ -48,9 +49,14 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
@@ -82,6 +88,7 @@ import org.glassfish.jersey.internal.inject.AbstractBinder;
 import org.glassfish.jersey.internal.inject.Injections;
 import org.glassfish.jersey.internal.inject.ProviderBinder;
 import org.glassfish.jersey.internal.inject.Providers;
+import org.glassfish.jersey.internal.util.PropertiesHelper;
 import org.glassfish.jersey.internal.util.ReflectionHelper;
 import org.glassfish.jersey.model.ContractProvider;
 import org.glassfish.jersey.model.internal.ComponentBag;
@@ -100,6 +107,7 @@ import org.glassfish.jersey.server.model.ModelProcessor;
 import org.glassfish.jersey.server.model.ModelValidationException;
 import org.glassfish.jersey.server.model.Resource;
 import org.glassfish.jersey.server.model.ResourceModel;
+import org.glassfish.jersey.server.model.ResourceModelSnapshot;
 import org.glassfish.jersey.server.model.internal.ModelErrors;
 import org.glassfish.jersey.server.spi.ComponentProvider;
 import org.glassfish.jersey.server.spi.ContainerResponseWriter;
@@ -112,9 +120,11 @@ import org.glassfish.hk2.utilities.Binder;
 
 import com.google.common.base.Predicate;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.google.common.net.HttpHeaders;
 import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 /**
  * Jersey server-side application handler.
@@ -211,6 +221,7 @@ public final class ApplicationHandler {
     private final ResourceConfig runtimeConfig;
     private final ServiceLocator locator;
     private ServerRuntime runtime;
+    private volatile StartupReport startupReport;
 
     /**
      * Create a new Jersey application handler using a default configuration.
@@ -292,6 +303,7 @@ public final class ApplicationHandler {
      */
     private void initialize() {
         LOGGER.info(LocalizationMessages.INIT_MSG(Version.getBuildId()));
+        final StartupProfiler profiler = new StartupProfiler();
 
         // Lock original ResourceConfig.
         if (application instanceof ResourceConfig) {
@@ -302,29 +314,92 @@ public final class ApplicationHandler {
         runtimeConfig.register(WadlModelProcessorFeature.class);
 
         // Configure binders and features.
+        profiler.start(StartupReport.META_PROVIDERS);
         runtimeConfig.configureMetaProviders(locator);
+        profiler.end();
+
+        final ExecutorService initializationExecutor = createInitializationExecutor();
+        try {
+            initialize(initializationExecutor, profiler);
+        } finally {
+            if (initializationExecutor != null) {
+                initializationExecutor.shutdown();
+            }
+        }
+    }
+
+    private ExecutorService createInitializationExecutor() {
+        final boolean parallel = PropertiesHelper.getValue(runtimeConfig.getProperties(),
+                ServerProperties.PARALLEL_INITIALIZATION, Boolean.FALSE);
+        if (!parallel) {
+            return null;
+        }
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder().setNameFormat("jersey-server-initialization-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Initialize the application, using the supplied executor service to introspect the resource classes
+     * and validate the resource model in parallel.
+     *
+     * @param executor initialization executor service, {@code null} for sequential initialization.
+     * @param profiler startup profiler.
+     */
+    private void initialize(final ExecutorService executor, final StartupProfiler profiler) {
+        // Scanning for classes (the original application configuration has been scanned already)
+        runtimeConfig.getClasses();
+        runtimeConfig.getSingletons();
+        final int classesScanned = recordScanning(profiler);
 
         // Introspecting classes & instances
+        profiler.start(StartupReport.INTROSPECTION);
+        final File snapshotFile = getResourceModelSnapshotFile();
+        final ResourceModelSnapshot snapshot = readResourceModelSnapshot(snapshotFile);
+        final Map<Class<?>, Resource> introspectedResources = Maps.newHashMap();
         final ResourceBag.Builder resourceBagBuilder = new ResourceBag.Builder();
-        for (Class<?> c : runtimeConfig.getClasses()) {
-            try {
-                Resource resource = Resource.from(c);
+        if (executor == null || snapshot != null) {
+            for (Class<?> c : runtimeConfig.getClasses()) {
+                final Resource resource = introspect(c, snapshot, introspectedResources);
                 if (resource != null) {
                     resourceBagBuilder.registerResource(c, resource);
                 }
-            } catch (IllegalArgumentException ex) {
-                LOGGER.warning(ex.getMessage());
             }
-        }
 
-        for (Object o : runtimeConfig.getSingletons()) {
-            try {
-                Resource resource = Resource.from(o.getClass());
+            for (Object o : runtimeConfig.getSingletons()) {
+                final Resource resource = introspect(o.getClass(), snapshot, introspectedResources);
+                if (resource != null) {
+                    resourceBagBuilder.registerResource(o, resource);
+                }
+            }
+        } else {
+            final Set<Class<?>> classes = runtimeConfig.getClasses();
+            final Set<Object> singletons = runtimeConfig.getSingletons();
+
+            final List<Future<ResourceIntrospection>> classResults = Lists.newArrayListWithCapacity(classes.size());
+            for (Class<?> c : classes) {
+                classResults.add(executor.submit(new ResourceIntrospection(c)));
+            }
+            final List<Future<ResourceIntrospection>> singletonResults = Lists.newArrayListWithCapacity(singletons.size());
+            for (Object o : singletons) {
+                singletonResults.add(executor.submit(new ResourceIntrospection(o.getClass())));
+            }
+
+            // merge the results in the registration order
+            final Iterator<Future<ResourceIntrospection>> classResultIterator = classResults.iterator();
+            for (Class<?> c : classes) {
+                final Resource resource = ResourceIntrospection.merge(classResultIterator.next());
+                introspectedResources.put(c, resource);
+                if (resource != null) {
+                    resourceBagBuilder.registerResource(c, resource);
+                }
+            }
+            final Iterator<Future<ResourceIntrospection>> singletonResultIterator = singletonResults.iterator();
+            for (Object o : singletons) {
+                final Resource resource = ResourceIntrospection.merge(singletonResultIterator.next());
+                introspectedResources.put(o.getClass(), resource);
                 if (resource != null) {
                     resourceBagBuilder.registerResource(o, resource);
                 }
-            } catch (IllegalArgumentException ex) {
-                LOGGER.warning(ex.getMessage());
             }
         }
 
@@ -338,6 +413,7 @@ public final class ApplicationHandler {
         runtimeConfig.lock();
 
         // Registering Injection Bindings
+        profiler.start(StartupReport.BINDING);
         final Set<ComponentProvider> componentProviders = new HashSet<ComponentProvider>();
 
         for (ComponentProvider provider : ServiceFinder.find(ComponentProvider.class)) {
@@ -346,12 +422,14 @@ public final class ApplicationHandler {
         }
 
         final ComponentBag componentBag = runtimeConfig.getComponentBag();
-        bindProvidersAndResources(componentProviders, componentBag, resourceBag.classes, resourceBag.instances);
+        final int providersBound =
+                bindProvidersAndResources(componentProviders, componentBag, resourceBag.classes, resourceBag.instances);
         for (ComponentProvider componentProvider : componentProviders) {
             componentProvider.done();
         }
 
         // scan for NameBinding annotations attached to the application class
+        profiler.start(StartupReport.PROVIDER_LOOKUP);
         Collection<Class<? extends Annotation>> applicationNameBindings =
                 ReflectionHelper.getAnnotationTypes(application.getClass(), NameBinding.class);
 
@@ -380,12 +458,19 @@ public final class ApplicationHandler {
 
         ResourceModel resourceModel = new ResourceModel.Builder(resourceBag.getRootResources(), false).build();
 
-        resourceModel = processResourceModel(resourceModel);
+        profiler.end();
+        resourceModel = processResourceModel(resourceModel, profiler);
         // validate the models
-        validate(resourceModel);
+        profiler.start(StartupReport.VALIDATION);
+        validate(resourceModel, executor);
+        if (snapshotFile != null && snapshot == null) {
+            writeResourceModelSnapshot(snapshotFile, introspectedResources);
+        }
 
+        profiler.start(StartupReport.RESOURCE_BINDING);
         bindEnhancingResourceClasses(resourceModel, resourceBag, componentProviders);
 
+        profiler.start(StartupReport.ROUTING);
         final RuntimeModelBuilder runtimeModelBuilder = locator.getService(RuntimeModelBuilder.class);
         runtimeModelBuilder.setGlobalInterceptors(readerInterceptors, writerInterceptors);
         runtimeModelBuilder.setBoundProviders(nameBoundRequestFilters, nameBoundResponseFilters, nameBoundReaderInterceptors,
@@ -398,6 +483,7 @@ public final class ApplicationHandler {
          */
         final Router resourceRoutingRoot = runtimeModelBuilder.buildModel(resourceModel.getRuntimeResourceModel(), false);
 
+        profiler.start(StartupReport.PROCESSING_CHAIN);
         final ContainerFilteringStage preMatchRequestFilteringStage =
                 locator.createAndInitialize(ContainerFilteringStage.Builder.class).build(preMatchFilters, responseFilters);
         final RoutingStage routingStage =
@@ -418,6 +504,7 @@ public final class ApplicationHandler {
                 .build(routedInflectorExtractorStage);
 
         // Inject instances.
+        profiler.start(StartupReport.INJECTION);
         for (Object instance : componentBag.getInstances(ComponentBag.EXCLUDE_META_PROVIDERS)) {
             locator.inject(instance);
         }
@@ -426,6 +513,7 @@ public final class ApplicationHandler {
         }
 
         // initiate resource model into JerseyResourceContext
+        profiler.start(StartupReport.RUNTIME);
         JerseyResourceContext jerseyResourceContext = locator.getService(JerseyResourceContext.class);
         jerseyResourceContext.setResourceModel(resourceModel);
 
@@ -433,17 +521,178 @@ public final class ApplicationHandler {
 
         // inject self
         locator.inject(this);
+
+        final StartupReport report =
+                profiler.report(classesScanned, providersBound, resourceModel.getRootResources().size());
+        registerStartupReport(report);
+        if (LOGGER.isLoggable(Level.CONFIG)) {
+            LOGGER.config(LocalizationMessages.STARTUP_REPORT(report));
+        }
+    }
+
+    private static Resource introspect(final Class<?> resourceClass, final ResourceModelSnapshot snapshot,
+                                       final Map<Class<?>, Resource> introspectedResources) {
+        final Resource resource;
+        if (snapshot != null && snapshot.contains(resourceClass)) {
+            resource = snapshot.getResource(resourceClass);
+        } else {
+            resource = new ResourceIntrospection(resourceClass).call().merge();
+        }
+        introspectedResources.put(resourceClass, resource);
+        return resource;
+    }
+
+    private File getResourceModelSnapshotFile() {
+        final Object value = runtimeConfig.getProperty(ServerProperties.RESOURCE_MODEL_SNAPSHOT);
+        if (value == null) {
+            return null;
+        }
+        return (value instanceof File) ? (File) value : new File(value.toString());
+    }
+
+    private ResourceModelSnapshot readResourceModelSnapshot(final File file) {
+        if (file == null) {
+            return null;
+        }
+
+        final Set<Class<?>> classes = Sets.newHashSet(runtimeConfig.getClasses());
+        for (Object o : runtimeConfig.getSingletons()) {
+            classes.add(o.getClass());
+        }
+        try {
+            final ResourceModelSnapshot snapshot = ResourceModelSnapshot.read(file, classes);
+            if (snapshot != null) {
+                LOGGER.config(LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_RESTORED(snapshot.size(), file));
+            }
+            return snapshot;
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_READ_FAILED(file), e);
+            return null;
+        }
+    }
+
+    private void writeResourceModelSnapshot(final File file, final Map<Class<?>, Resource> introspectedResources) {
+        try {
+            final ResourceModelSnapshot snapshot = ResourceModelSnapshot.create(introspectedResources);
+            if (snapshot != null) {
+                snapshot.write(file);
+                LOGGER.config(LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_WRITTEN(snapshot.size(), file));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_WRITE_FAILED(file), e);
+        }
+    }
+
+    private int recordScanning(final StartupProfiler profiler) {
+        long wallTime = runtimeConfig.getScanningTime();
+        long cpuTime = runtimeConfig.getScanningCpuTime();
+        int classesScanned = runtimeConfig.getScannedClassCount();
+        if (application instanceof ResourceConfig) {
+            final ResourceConfig original = (ResourceConfig) application;
+            wallTime += original.getScanningTime();
+            cpuTime = (cpuTime < 0 || original.getScanningCpuTime() < 0) ? -1 : cpuTime + original.getScanningCpuTime();
+            classesScanned += original.getScannedClassCount();
+        }
+        profiler.add(StartupReport.SCANNING, wallTime, cpuTime);
+        return classesScanned;
+    }
+
+    private void registerStartupReport(final StartupReport report) {
+        this.startupReport = report;
+
+        final DynamicConfiguration dc = Injections.getConfiguration(locator);
+        Injections.addBinding(Injections.newBinder(report).to(StartupReport.class), dc);
+        dc.commit();
+    }
+
+    /**
+     * Get the startup report of the application.
+     *
+     * The report contains the time spent in the individual phases of the application initialization.
+     *
+     * @return application startup report.
+     */
+    public StartupReport getStartupReport() {
+        return startupReport;
+    }
+
+    /**
+     * Introspection of a single resource class. The introspection may be executed in a different thread,
+     * the introspection errors are collected and {@link #merge() merged} into the error processing scope
+     * of the initializing thread.
+     */
+    private static final class ResourceIntrospection implements Callable<ResourceIntrospection> {
+        private final Class<?> resourceClass;
+
+        private Resource resource;
+        private String warning;
+        private RuntimeException failure;
+        private List<Errors.ErrorMessage> messages;
+
+        private ResourceIntrospection(final Class<?> resourceClass) {
+            this.resourceClass = resourceClass;
+        }
+
+        @Override
+        public ResourceIntrospection call() {
+            messages = Errors.collect(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        resource = Resource.from(resourceClass);
+                    } catch (IllegalArgumentException ex) {
+                        warning = ex.getMessage();
+                    } catch (RuntimeException ex) {
+                        failure = ex;
+                    }
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Report the introspection errors in the current thread and return the introspected resource model.
+         *
+         * @return introspected resource model or {@code null} if the class is not a resource class.
+         */
+        Resource merge() {
+            Errors.addAll(messages);
+            if (failure != null) {
+                throw failure;
+            }
+            if (warning != null) {
+                LOGGER.warning(warning);
+            }
+            return resource;
+        }
+
+        static Resource merge(final Future<ResourceIntrospection> result) {
+            try {
+                return result.get().merge();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } catch (ExecutionException e) {
+                final Throwable cause = e.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
     }
 
-    private ResourceModel processResourceModel(ResourceModel resourceModel) {
+    private ResourceModel processResourceModel(ResourceModel resourceModel, final StartupProfiler profiler) {
         final Iterable<RankedProvider<ModelProcessor>> allRankedProviders = Providers.getAllRankedProviders(locator,
                 ModelProcessor.class);
         final Iterable<ModelProcessor> modelProcessors = Providers.sortRankedProviders(new RankedComparator<ModelProcessor>(),
                 allRankedProviders);
 
         for (ModelProcessor modelProcessor : modelProcessors) {
+            profiler.start(StartupReport.MODEL_PROCESSING + modelProcessor.getClass().getName());
             resourceModel = modelProcessor.processResourceModel(resourceModel, getConfiguration());
         }
+        profiler.end();
         return resourceModel;
     }
 
@@ -528,7 +777,7 @@ public final class ApplicationHandler {
         return result;
     }
 
-    private void bindProvidersAndResources(
+    private int bindProvidersAndResources(
             final Set<ComponentProvider> componentProviders,
             final ComponentBag componentBag,
             final Set<Class<?>> resourceClasses,
@@ -537,6 +786,7 @@ public final class ApplicationHandler {
         final JerseyResourceContext resourceContext = locator.getService(JerseyResourceContext.class);
         final DynamicConfiguration dc = Injections.getConfiguration(locator);
         final Set<Class<?>> registeredClasses = runtimeConfig.getRegisteredClasses();
+        int bound = 0;
 
         // Merge programmatic resource classes with component classes.
         Set<Class<?>> classes = Sets.newIdentityHashSet();
@@ -559,6 +809,7 @@ public final class ApplicationHandler {
             ContractProvider model = componentBag.getModel(componentClass);
             if (resourceClasses.contains(componentClass)) {
                 if (bindWithComponentProvider(componentClass, model, componentProviders)) {
+                    bound++;
                     continue;
                 }
 
@@ -579,6 +830,7 @@ public final class ApplicationHandler {
             } else {
                 ProviderBinder.bindProvider(componentClass, model, dc);
             }
+            bound++;
         }
 
         // Merge programmatic resource instances with other component instances.
@@ -614,9 +866,11 @@ public final class ApplicationHandler {
             } else {
                 ProviderBinder.bindProvider(component, model, dc);
             }
+            bound++;
         }
 
         dc.commit();
+        return bound;
     }
 
     private boolean bindWithComponentProvider(
@@ -647,9 +901,9 @@ public final class ApplicationHandler {
         dc.commit();
     }
 
-    private void validate(ResourceModel resourceModel) {
+    private void validate(ResourceModel resourceModel, ExecutorService executor) {
         final ComponentModelValidator validator = new ComponentModelValidator(locator);
-        validator.validate(resourceModel);
+        validator.validate(resourceModel, executor);
         if (Errors.fatalIssuesFound()) {
             throw new ModelValidationException(ModelErrors.getErrorsAsResourceModelIssues());
         }
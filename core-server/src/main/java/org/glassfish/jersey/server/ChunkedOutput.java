@@ -41,9 +41,15 @@ package org.glassfish.jersey.server;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Type;
 import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.ws.rs.core.GenericType;
 
@@ -52,9 +58,16 @@ import javax.inject.Provider;
 import org.glassfish.jersey.server.internal.LocalizationMessages;
 import org.glassfish.jersey.server.internal.process.AsyncContext;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
 /**
  * Used for sending messages in "typed" chunks. Useful for long running processes,
  * which needs to produce partial responses.
+ * <p>
+ * Written chunks are flushed to the client once all the pending chunks have been written. Optionally,
+ * the flushing may be delayed by a {@link #ChunkedOutput(long, TimeUnit) maximum flush latency} in order to
+ * coalesce the flushes of chunks written in a rapid succession.
+ * </p>
  *
  * @param <T> chunk type.
  * @author Pavel Bucek (pavel.bucek at oracle.com)
@@ -62,10 +75,15 @@ import org.glassfish.jersey.server.internal.process.AsyncContext;
  */
 // TODO:  something like prequel/sequel - usable for EventChannelWriter and XML related writers
 public class ChunkedOutput<T> extends GenericType<T> implements Closeable {
+    private static final Logger LOGGER = Logger.getLogger(ChunkedOutput.class.getName());
+
     private final BlockingDeque<T> queue = new LinkedBlockingDeque<T>();
+    private final long flushLatency;
 
     private volatile boolean closed = false;
     private boolean flushing = false;
+    private boolean flushScheduled = false;
+    private CoalescingStream coalescingStream = null;
     private volatile ContainerRequest requestContext;
     private volatile ContainerResponse responseContext;
     private volatile ServerRuntime.ConnectionCallbackRunner connectionCallbackRunner;
@@ -75,6 +93,18 @@ public class ChunkedOutput<T> extends GenericType<T> implements Closeable {
      * Create new chunked response.
      */
     protected ChunkedOutput() {
+        this.flushLatency = 0;
+    }
+
+    /**
+     * Create new chunked response with coalesced flushing.
+     *
+     * @param maxFlushLatency maximum time the written chunks may wait before the output is flushed.
+     *                        If {@code 0}, chunks are flushed as soon as all the pending chunks are written.
+     * @param unit            time unit of the maximum flush latency.
+     */
+    protected ChunkedOutput(final long maxFlushLatency, final TimeUnit unit) {
+        this.flushLatency = checkLatency(maxFlushLatency, unit);
     }
 
     /**
@@ -84,6 +114,35 @@ public class ChunkedOutput<T> extends GenericType<T> implements Closeable {
      */
     public ChunkedOutput(final Type chunkType) {
         super(chunkType);
+        this.flushLatency = 0;
+    }
+
+    /**
+     * Create {@link ChunkedOutput} with specified type and coalesced flushing.
+     *
+     * @param chunkType       chunk type
+     * @param maxFlushLatency maximum time the written chunks may wait before the output is flushed.
+     *                        If {@code 0}, chunks are flushed as soon as all the pending chunks are written.
+     * @param unit            time unit of the maximum flush latency.
+     */
+    public ChunkedOutput(final Type chunkType, final long maxFlushLatency, final TimeUnit unit) {
+        super(chunkType);
+        this.flushLatency = checkLatency(maxFlushLatency, unit);
+    }
+
+    private static long checkLatency(final long maxFlushLatency, final TimeUnit unit) {
+        if (maxFlushLatency < 0) {
+            throw new IllegalArgumentException("Negative maximum flush latency: " + maxFlushLatency);
+        }
+        return unit.toNanos(maxFlushLatency);
+    }
+
+    /**
+     * Lazily initialized scheduler of the delayed flushes.
+     */
+    private static final class FlushScheduler {
+        private static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(
+                new ThreadFactoryBuilder().setNameFormat("jersey-chunked-output-flush-%d").setDaemon(true).build());
     }
 
     /**
@@ -133,6 +192,11 @@ public class ChunkedOutput<T> extends GenericType<T> implements Closeable {
         }
 
         try {
+            if (flushLatency > 0 && coalescingStream == null && t != null) {
+                // prevent the message body writers from flushing each chunk
+                coalescingStream = new CoalescingStream(responseContext.getEntityStream());
+                responseContext.setEntityStream(coalescingStream);
+            }
             while (t != null) {
                 try {
                     responseContext.setEntityStream(requestContext.getWorkers().writeTo(
@@ -167,6 +231,9 @@ public class ChunkedOutput<T> extends GenericType<T> implements Closeable {
                             // the flushing flag at the very end (to make sure it is unset only if no
                             // exception is thrown)
                             responseContext.commitStream();
+                            if (!shouldClose) {
+                                flushOrSchedule();
+                            }
                             // if closing, we keep the "flushing" flag set, since no other thread needs to flush
                             // this queue anymore - finally clause will take care of closing the stream
                             flushing = shouldClose;
@@ -201,6 +268,107 @@ public class ChunkedOutput<T> extends GenericType<T> implements Closeable {
         }
     }
 
+    /**
+     * Flush the written chunks or schedule a delayed flush. Must be called by the flushing thread while holding
+     * the lock.
+     */
+    private void flushOrSchedule() throws IOException {
+        if (flushLatency == 0) {
+            flushEntityStream();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            scheduleFlush();
+        }
+    }
+
+    private void scheduleFlush() {
+        FlushScheduler.INSTANCE.schedule(new Runnable() {
+            @Override
+            public void run() {
+                delayedFlush();
+            }
+        }, flushLatency, TimeUnit.NANOSECONDS);
+    }
+
+    private void delayedFlush() {
+        synchronized (this) {
+            if (closed) {
+                // the output is flushed when closed
+                return;
+            }
+            if (flushing) {
+                // some thread is writing chunks at the moment, try again later
+                scheduleFlush();
+                return;
+            }
+            flushScheduled = false;
+            flushing = true;
+        }
+        try {
+            flushEntityStream();
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, e.getMessage(), e);
+            connectionCallbackRunner.onDisconnect(asyncContext.get());
+            closed = true;
+        } finally {
+            final boolean close;
+            synchronized (this) {
+                flushing = false;
+                close = closed;
+            }
+            if (close) {
+                // the output got closed while flushing, finish the closing
+                try {
+                    flushQueue();
+                } catch (Exception e) {
+                    LOGGER.log(Level.FINE, e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void flushEntityStream() throws IOException {
+        responseContext.getEntityStream().flush();
+        if (coalescingStream != null) {
+            coalescingStream.flushNow();
+        }
+    }
+
+    /**
+     * Entity stream wrapper that ignores the flushes requested by the chunk writers.
+     */
+    private static final class CoalescingStream extends OutputStream {
+        private final OutputStream out;
+
+        private CoalescingStream(final OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() {
+            // flushing is driven by the chunked output
+        }
+
+        void flushNow() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
     /**
      * Close this response - it will be finalized and underlying connections will be closed
      * or made available for another response.
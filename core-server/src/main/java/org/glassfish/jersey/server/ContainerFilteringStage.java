@@ -136,12 +136,14 @@ class ContainerFilteringStage extends AbstractChainableStage<ContainerRequest> {
         if (responseFilters == null) {
             // post-matching (response filter stage is pushed in pre-matching phase, so that if pre-matching filter
             // throws exception, response filters get still invoked)
-            RoutingContext rc = locator.getService(RoutingContext.class);
+            final RoutingContext rc = routingContext(requestContext, locator);
             sortedRequestFilters = Providers.sortRankedProviders(new RankedComparator<ContainerRequestFilter>(), requestFilters,
                     rc.getBoundRequestFilters());
         } else {
             // pre-matching
-            respondingContextFactory.get().push(new ResponseFilterStage(responseFilters, locator));
+            final RespondingContext respondingContext = requestContext.getRespondingContext();
+            (respondingContext != null ? respondingContext : respondingContextFactory.get())
+                    .push(new ResponseFilterStage(responseFilters, locator));
             sortedRequestFilters = Providers.sortRankedProviders(new RankedComparator<ContainerRequestFilter>(), requestFilters);
         }
 
@@ -172,6 +174,19 @@ class ContainerFilteringStage extends AbstractChainableStage<ContainerRequest> {
         return Continuation.of(requestContext, getDefaultNext());
     }
 
+    /**
+     * Get the routing context of the request, falling back to the request scope
+     * look-up if the context has not been cached in the request.
+     *
+     * @param request request context.
+     * @param locator HK2 service locator.
+     * @return routing context of the request.
+     */
+    private static RoutingContext routingContext(ContainerRequest request, ServiceLocator locator) {
+        final RoutingContext rc = request.getRoutingContext();
+        return (rc != null) ? rc : locator.<RoutingContext>getService(RoutingContext.class);
+    }
+
     private static class ResponseFilterStage extends AbstractChainableStage<ContainerResponse> {
         private final Iterable<RankedProvider<ContainerResponseFilter>> filters;
         private final ServiceLocator locator;
@@ -185,7 +200,7 @@ class ContainerFilteringStage extends AbstractChainableStage<ContainerRequest> {
         @SuppressWarnings("unchecked")
         public Continuation<ContainerResponse> apply(ContainerResponse responseContext) {
             try {
-                RoutingContext rc = locator.getService(RoutingContext.class);
+                final RoutingContext rc = routingContext(responseContext.getRequestContext(), locator);
 
                 Iterable<ContainerResponseFilter> sortedResponseFilters = Providers.sortRankedProviders(
                         new RankedComparator<ContainerResponseFilter>(RankedComparator.Order.DESCENDING), filters, rc.getBoundResponseFilters()
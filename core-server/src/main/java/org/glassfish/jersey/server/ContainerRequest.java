@@ -72,6 +72,8 @@ import org.glassfish.jersey.message.internal.InboundMessageContext;
 import org.glassfish.jersey.message.internal.MatchingEntityTag;
 import org.glassfish.jersey.message.internal.VariantSelector;
 import org.glassfish.jersey.server.internal.LocalizationMessages;
+import org.glassfish.jersey.server.internal.process.RespondingContext;
+import org.glassfish.jersey.server.internal.routing.RoutingContext;
 import org.glassfish.jersey.server.spi.ContainerResponseWriter;
 import org.glassfish.jersey.server.spi.RequestScopedInitializer;
 import org.glassfish.jersey.uri.UriComponent;
@@ -120,6 +122,10 @@ public class ContainerRequest extends InboundMessageContext
     private RequestScopedInitializer requestScopedInitializer;
     // Request-scoped response writer of the invoking container
     private ContainerResponseWriter responseWriter;
+    // Request-scoped responding context (direct access to avoid request scope look-ups)
+    private RespondingContext respondingContext;
+    // Request-scoped routing context (direct access to avoid request scope look-ups)
+    private RoutingContext routingContext;
 
 
     /**
@@ -192,6 +198,42 @@ public class ContainerRequest extends InboundMessageContext
         this.responseWriter = responseWriter;
     }
 
+    /**
+     * Get the request-scoped responding context cached in the request.
+     *
+     * @return responding context of the current request or {@code null} if not set yet.
+     */
+    RespondingContext getRespondingContext() {
+        return respondingContext;
+    }
+
+    /**
+     * Cache the request-scoped responding context in the request.
+     *
+     * @param respondingContext responding context of the current request.
+     */
+    void setRespondingContext(RespondingContext respondingContext) {
+        this.respondingContext = respondingContext;
+    }
+
+    /**
+     * Get the request-scoped routing context cached in the request.
+     *
+     * @return routing context of the current request or {@code null} if not set yet.
+     */
+    RoutingContext getRoutingContext() {
+        return routingContext;
+    }
+
+    /**
+     * Cache the request-scoped routing context in the request.
+     *
+     * @param routingContext routing context of the current request.
+     */
+    void setRoutingContext(RoutingContext routingContext) {
+        this.routingContext = routingContext;
+    }
+
     /**
      * Read entity from a context entity input stream.
      *
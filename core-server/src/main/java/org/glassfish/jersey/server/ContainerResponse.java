@@ -354,6 +354,16 @@ public class ContainerResponse implements ContainerResponseContext {
         messageContext.setStreamProvider(streamProvider);
     }
 
+    /**
+     * Enable buffering of the response entity.
+     *
+     * @param bufferSize maximum size of the buffered entity in bytes.
+     * @see OutboundMessageContext#enableBuffering(int)
+     */
+    public void enableBuffering(int bufferSize) {
+        messageContext.enableBuffering(bufferSize);
+    }
+
     /**
      * Commits the {@link #getEntityStream() entity stream} if it wasn't already committed.
      */
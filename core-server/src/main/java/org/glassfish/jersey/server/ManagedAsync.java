@@ -49,6 +49,13 @@ import java.lang.annotation.Target;
  * Indicates that the resource method to which the annotation has been applied
  * should be executed on a separate thread managed by an internal Jersey
  * {@link java.util.concurrent.ExecutorService executor service}.
+ * <p>
+ * By default all managed asynchronous resource methods share the same executor service.
+ * A resource method may instead be dispatched to a dedicated, named executor service by
+ * specifying the executor name in the annotation {@link #value() value}, e.g.
+ * {@code @ManagedAsync("jdbc")}. The named executors are configured using the
+ * {@link ServerProperties#MANAGED_ASYNC_EXECUTOR_PREFIX} configuration properties.
+ * </p>
  *
  * @author Marek Potociar (marek.potociar at oracle.com)
  */
@@ -56,4 +63,12 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface ManagedAsync {
+
+    /**
+     * Name of the managed executor service that should be used to execute the resource method.
+     * If empty (default), the default Jersey managed asynchronous executor service is used.
+     *
+     * @return name of the managed executor service.
+     */
+    String value() default "";
 }
@@ -46,6 +46,7 @@ import javax.inject.Inject;
 import javax.inject.Provider;
 
 import org.glassfish.jersey.internal.util.collection.Ref;
+import org.glassfish.jersey.server.internal.routing.RoutingContext;
 import org.glassfish.jersey.server.spi.RequestScopedInitializer;
 
 import org.glassfish.hk2.api.ServiceLocator;
@@ -67,6 +68,8 @@ class ReferencesInitializer implements Function<ContainerRequest, ContainerReque
     private Provider<Ref<ContainerRequest>> requestContextReference;
     @Inject
     private Provider<UriInfo> uriInfoFactory;
+    @Inject
+    private Provider<RoutingContext> routingContextFactory;
 
     /**
      * Initialize the request references using the incoming request and register
@@ -88,6 +91,7 @@ class ReferencesInitializer implements Function<ContainerRequest, ContainerReque
         }
 
         requestContext.setUriInfo(uriInfoFactory.get());
+        requestContext.setRoutingContext(routingContextFactory.get());
 
         return requestContext;
     }
@@ -92,6 +92,10 @@ public class ResourceConfig extends Application implements Configurable<Resource
     private transient Set<Object> cachedSingletons = null;
     private transient Set<Object> cachedSingletonsView = null;
 
+    private transient long scanningTime = 0;
+    private transient long scanningCpuTime = 0;
+    private transient int scannedClassCount = 0;
+
     private volatile State state;
 
     private static class State extends CommonConfig implements ServerConfig {
@@ -804,6 +808,9 @@ public class ResourceConfig extends Application implements Configurable<Resource
     }
 
     private Set<Class<?>> scanClasses() {
+        final long wallStart = System.nanoTime();
+        final long cpuStart = StartupProfiler.currentThreadCpuTime();
+
         Set<Class<?>> result = Sets.newHashSet();
 
         final ResourceConfig.State _state = state;
@@ -839,6 +846,7 @@ public class ResourceConfig extends Application implements Configurable<Resource
             while (resourceFinder.hasNext()) {
                 final String next = resourceFinder.next();
                 if (afl.accept(next)) {
+                    scannedClassCount++;
                     try {
                         afl.process(next, resourceFinder.open());
                     } catch (IOException e) {
@@ -850,9 +858,40 @@ public class ResourceConfig extends Application implements Configurable<Resource
         }
 
         result.addAll(afl.getAnnotatedClasses());
+
+        final long cpuEnd = cpuStart < 0 ? -1 : StartupProfiler.currentThreadCpuTime();
+        scanningTime += System.nanoTime() - wallStart;
+        scanningCpuTime = (cpuEnd < 0 || scanningCpuTime < 0) ? -1 : scanningCpuTime + cpuEnd - cpuStart;
         return result;
     }
 
+    /**
+     * Get the wall-clock time spent scanning for the resource and provider classes by this resource config.
+     *
+     * @return scanning time in nanoseconds.
+     */
+    final long getScanningTime() {
+        return scanningTime;
+    }
+
+    /**
+     * Get the CPU time spent scanning for the resource and provider classes by this resource config.
+     *
+     * @return scanning CPU time in nanoseconds or {@code -1} if not measured.
+     */
+    final long getScanningCpuTime() {
+        return scanningCpuTime;
+    }
+
+    /**
+     * Get the number of class files examined while scanning for the resource and provider classes.
+     *
+     * @return number of scanned class files.
+     */
+    final int getScannedClassCount() {
+        return scannedClassCount;
+    }
+
     private String[] parsePropertyValue(String propertyName) {
         String[] classNames = null;
         final Object o = state.getProperties().get(propertyName);
@@ -39,12 +39,26 @@
  */
 package org.glassfish.jersey.server;
 
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.UriInfo;
+
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import org.glassfish.jersey.process.internal.ExecutorsFactory;
+import org.glassfish.jersey.server.internal.LocalizationMessages;
+import org.glassfish.jersey.server.model.ResourceMethod;
 import org.glassfish.jersey.spi.RequestExecutorsProvider;
 import org.glassfish.jersey.spi.ResponseExecutorsProvider;
 
@@ -57,29 +71,46 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
  * {@link org.glassfish.jersey.process.internal.ExecutorsFactory Executors factory} used on the server side.
  *
  * The class returns the {@link java.util.concurrent.ExecutorService requesting executor} based on the request
- * data.
+ * data. Requests matched to a {@link ManagedAsync managed asynchronous} resource method that declares
+ * a {@link ManagedAsync#value() named executor} are executed using the named executor configured via the
+ * {@link ServerProperties#MANAGED_ASYNC_EXECUTOR_PREFIX} properties.
+ * <p>
+ * Executors created by the factory are shut down when the factory is {@link #shutdown() destroyed}
+ * together with the application. Executors supplied by the application are left untouched.
+ * </p>
  *
  * @author Miroslav Fuksa (miroslav.fuksa at oracle.com)
  */
 class ServerExecutorsFactory extends ExecutorsFactory<ContainerRequest> {
+    private static final Logger LOGGER = Logger.getLogger(ServerExecutorsFactory.class.getName());
+
     private final ExecutorService requestingExecutor;
     private final ExecutorService respondingExecutor;
 
+    private final Map<String, Object> properties;
+    private final ConcurrentMap<String, ExecutorService> namedExecutors = new ConcurrentHashMap<String, ExecutorService>();
+    /**
+     * Executors created (and therefore owned) by this factory.
+     */
+    private final List<ExecutorService> ownedExecutors = new CopyOnWriteArrayList<ExecutorService>();
+
 
     /**
      * Creates a new instance.
      *
      * @param locator HK2 service locator.
+     * @param configuration application configuration.
      */
     @Inject
-    public ServerExecutorsFactory(ServiceLocator locator) {
+    public ServerExecutorsFactory(ServiceLocator locator, Configuration configuration) {
         super(locator);
+        this.properties = configuration.getProperties();
         this.requestingExecutor = getInitialRequestingExecutor(new RequestExecutorsProvider() {
 
             @Override
             public ExecutorService getRequestingExecutor() {
-                return Executors.newCachedThreadPool(
-                        new ThreadFactoryBuilder().setNameFormat("jersey-server-managed-async-executor-%d").build());
+                return own(Executors.newCachedThreadPool(
+                        new ThreadFactoryBuilder().setNameFormat("jersey-server-managed-async-executor-%d").build()));
             }
         });
         this.respondingExecutor = getInitialRespondingExecutor(new ResponseExecutorsProvider() {
@@ -93,6 +124,13 @@ class ServerExecutorsFactory extends ExecutorsFactory<ContainerRequest> {
 
     @Override
     public ExecutorService getRequestingExecutor(ContainerRequest request) {
+        final UriInfo uriInfo = request.getUriInfo();
+        if (uriInfo instanceof ExtendedUriInfo) {
+            final ResourceMethod method = ((ExtendedUriInfo) uriInfo).getMatchedResourceMethod();
+            if (method != null && method.getManagedAsyncExecutor() != null) {
+                return getNamedExecutor(method.getManagedAsyncExecutor());
+            }
+        }
         return requestingExecutor;
     }
 
@@ -100,4 +138,100 @@ class ServerExecutorsFactory extends ExecutorsFactory<ContainerRequest> {
     public ExecutorService getRespondingExecutor(ContainerRequest request) {
         return respondingExecutor;
     }
+
+    /**
+     * Get the named managed asynchronous executor, creating it on first use.
+     *
+     * @param name executor name.
+     * @return named executor or the default requesting executor if the named executor
+     *         is not configured.
+     */
+    private ExecutorService getNamedExecutor(String name) {
+        ExecutorService executor = namedExecutors.get(name);
+        if (executor == null) {
+            synchronized (namedExecutors) {
+                executor = namedExecutors.get(name);
+                if (executor == null) {
+                    executor = createNamedExecutor(name);
+                    namedExecutors.put(name, executor);
+                }
+            }
+        }
+        return executor;
+    }
+
+    private ExecutorService createNamedExecutor(String name) {
+        final String property = ServerProperties.MANAGED_ASYNC_EXECUTOR_PREFIX + name;
+        final Object value = properties.get(property);
+
+        if (value instanceof ExecutorService) {
+            return (ExecutorService) value;
+        }
+
+        final String threadNameFormat = "jersey-server-managed-async-executor-" + name + "-%d";
+        if (value != null) {
+            final String stringValue = value.toString().trim();
+            if (ServerProperties.MANAGED_ASYNC_EXECUTOR_VIRTUAL.equalsIgnoreCase(stringValue)) {
+                final ExecutorService virtualExecutor = createVirtualThreadPerTaskExecutor();
+                if (virtualExecutor != null) {
+                    LOGGER.config(LocalizationMessages.MANAGED_ASYNC_EXECUTOR_CREATED(name, stringValue));
+                    return own(virtualExecutor);
+                }
+
+                LOGGER.warning(LocalizationMessages.MANAGED_ASYNC_EXECUTOR_VIRTUAL_NOT_SUPPORTED(name));
+                return own(Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat(threadNameFormat).build()));
+            }
+
+            try {
+                final int size = Integer.parseInt(stringValue);
+                if (size > 0) {
+                    LOGGER.config(LocalizationMessages.MANAGED_ASYNC_EXECUTOR_CREATED(name, size));
+                    return own(Executors.newFixedThreadPool(size,
+                            new ThreadFactoryBuilder().setNameFormat(threadNameFormat).build()));
+                }
+            } catch (NumberFormatException ex) {
+                // falls through to the invalid value handling
+            }
+            LOGGER.warning(LocalizationMessages.INVALID_CONFIG_PROPERTY_VALUE(property, value));
+        } else {
+            LOGGER.warning(LocalizationMessages.MANAGED_ASYNC_EXECUTOR_NOT_CONFIGURED(name, property));
+        }
+
+        return requestingExecutor;
+    }
+
+    private ExecutorService own(ExecutorService executor) {
+        ownedExecutors.add(executor);
+        return executor;
+    }
+
+    /**
+     * Shut down all the executors created by this factory. Invoked when the application
+     * is undeployed or reloaded.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService executor : ownedExecutors) {
+            executor.shutdown();
+        }
+        ownedExecutors.clear();
+        namedExecutors.clear();
+    }
+
+    /**
+     * Create a virtual-thread-per-task executor if supported by the Java runtime.
+     *
+     * @return new virtual-thread-per-task executor or {@code null} if not supported.
+     */
+    private static ExecutorService createVirtualThreadPerTaskExecutor() {
+        try {
+            final Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factoryMethod.invoke(null);
+        } catch (NoSuchMethodException ex) {
+            return null;
+        } catch (Exception ex) {
+            LOGGER.log(Level.FINE, "Unable to create a virtual-thread-per-task executor.", ex);
+            return null;
+        }
+    }
 }
@@ -237,6 +237,19 @@ public final class ServerProperties {
     @SuppressWarnings("HtmlTagCanBeJavadocTag")
     public static final String FEATURE_DISABLE_WADL = "jersey.config.server.wadl.disableWadl";
 
+    /**
+     * If {@code true} then the WADL document and the external grammars are additionally pre-rendered
+     * in a gzip-compressed form, which is served to the clients that accept the {@code gzip} content coding.
+     * <p>
+     * The default value is {@code false}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String WADL_GZIP = "jersey.config.server.wadl.gzip";
+
     /**
      * If {@code true} then enable sending of validation error entity in {@code Response} (validation has to be enabled by registering
      * {@code ValidationFeature} in the application).
@@ -251,6 +264,258 @@ public final class ServerProperties {
     public static final String FEATURE_OUTPUT_VALIDATION_ERROR_ENTITY
             = "jersey.config.server.validation.enableOutputValidationErrorEntity";
 
+    /**
+     * Prefix of the configuration properties that define named executor services used to run
+     * {@link ManagedAsync managed asynchronous} resource methods. The executor name used in the
+     * {@link ManagedAsync#value() &#64;ManagedAsync} annotation is appended to the prefix, e.g.
+     * {@code jersey.config.server.managedAsync.executor.jdbc}.
+     * <p>
+     * The property value MUST be one of:
+     * <ul>
+     * <li>an instance of {@link java.util.concurrent.ExecutorService} that will be used as is
+     * (the life-cycle of such executor is not managed by Jersey),</li>
+     * <li>a positive {@link Integer} or a {@code String} convertible to a positive {@code Integer}
+     * defining the number of threads of a bounded executor service created by Jersey,</li>
+     * <li>{@value #MANAGED_ASYNC_EXECUTOR_VIRTUAL} {@code String} value requesting an executor
+     * that starts a new virtual thread for each task. If the virtual threads are not supported by
+     * the Java runtime, an unbounded thread pool is used instead.</li>
+     * </ul>
+     * </p>
+     * <p>
+     * A resource method referencing an executor name that is not configured will be executed using
+     * the default managed asynchronous executor service.
+     * </p>
+     * <p>
+     * A default value is not set.
+     * </p>
+     * <p>
+     * The prefix of the configuration properties is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String MANAGED_ASYNC_EXECUTOR_PREFIX = "jersey.config.server.managedAsync.executor.";
+
+    /**
+     * {@link #MANAGED_ASYNC_EXECUTOR_PREFIX Managed asynchronous executor} property value requesting
+     * a virtual-thread-per-task executor service.
+     * <p>
+     * The value of the constant is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String MANAGED_ASYNC_EXECUTOR_VIRTUAL = "virtual";
+
+    /**
+     * Size of the buffer used to buffer the outbound response entity in order to determine its size
+     * and set the value of the HTTP <code>{@value javax.ws.rs.core.HttpHeaders#CONTENT_LENGTH}</code> header.
+     * <p>
+     * If the entity written by a {@link javax.ws.rs.ext.MessageBodyWriter message body writer} (and any
+     * writer interceptors) fits into the buffer, the response is committed with the content length of the
+     * buffered entity and the entity is written to the container at once. Larger entities are streamed to
+     * the container once the buffer size is exceeded (typically using chunked transfer encoding).
+     * While the entity is being buffered, flushing the entity stream does not commit the response.
+     * {@link ChunkedOutput Chunked} responses and responses to {@code HEAD} requests are never buffered.
+     * </p>
+     * <p>
+     * A value of {@code 0} (or a negative value) disables the buffering.
+     * </p>
+     * <p>
+     * The property value MUST be an instance of {@code Integer} type or a {@code String} convertible
+     * to {@code Integer} type.
+     * </p>
+     * <p>
+     * The default value is {@value #OUTBOUND_CONTENT_LENGTH_BUFFER_DEFAULT} (buffering disabled).
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String OUTBOUND_CONTENT_LENGTH_BUFFER = "jersey.config.server.contentLength.buffer";
+
+    /**
+     * Default value of the {@link #OUTBOUND_CONTENT_LENGTH_BUFFER} property.
+     */
+    public static final int OUTBOUND_CONTENT_LENGTH_BUFFER_DEFAULT = 0;
+
+    /**
+     * Minimum size of the response entity (in bytes) required for the entity to be encoded by
+     * the {@link org.glassfish.jersey.server.filter.EncodingFilter}.
+     * <p>
+     * Compressing small entities costs more CPU time than it saves in bandwidth. If the size of the entity is known
+     * before it is written (e.g. {@code byte[]}, {@code String} or {@code File} entities or entities
+     * with the {@code Content-Length} header set) and it is smaller than the threshold, the entity is sent unencoded.
+     * If the size is not known in advance and the response entity is
+     * {@link #OUTBOUND_CONTENT_LENGTH_BUFFER buffered}, the decision is deferred until the threshold is reached
+     * or the entity is completely written. Entities are never sent unencoded if the identity encoding
+     * is not acceptable for the client.
+     * </p>
+     * <p>
+     * A value of {@code 0} disables the threshold.
+     * </p>
+     * <p>
+     * The property value MUST be an instance of {@code Integer} type or a {@code String} convertible
+     * to {@code Integer} type.
+     * </p>
+     * <p>
+     * The default value is {@value #ENCODING_THRESHOLD_DEFAULT}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String ENCODING_THRESHOLD = "jersey.config.server.encoding.threshold";
+
+    /**
+     * Default value of the {@link #ENCODING_THRESHOLD} property.
+     */
+    public static final int ENCODING_THRESHOLD_DEFAULT = 0;
+
+    /**
+     * Maximum number of sub-resource routers cached by each sub-resource locator.
+     * <p>
+     * Sub-resource routers are built from the sub-resource classes (or programmatic resource models) returned by
+     * a sub-resource locator the first time they are returned and cached for subsequent requests.
+     * Once the cache size limit is reached, the least recently used routers are evicted.
+     * A value of {@code 0} disables the caching.
+     * </p>
+     * <p>
+     * The property value MUST be an instance of {@code Integer} type or a {@code String} convertible
+     * to {@code Integer} type.
+     * </p>
+     * <p>
+     * The default value is {@value #SUBRESOURCE_LOCATOR_CACHE_SIZE_DEFAULT}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String SUBRESOURCE_LOCATOR_CACHE_SIZE = "jersey.config.server.subresource.cache.size";
+
+    /**
+     * Default value of the {@link #SUBRESOURCE_LOCATOR_CACHE_SIZE} property.
+     */
+    public static final int SUBRESOURCE_LOCATOR_CACHE_SIZE_DEFAULT = 64;
+
+    /**
+     * If {@code true}, the resource classes are introspected and the resource model is validated in parallel
+     * during the application initialization.
+     * <p>
+     * Parallel initialization may considerably reduce the startup time of applications with a large number
+     * of resource classes. The initialization errors and warnings are reported in the same order as with
+     * the sequential initialization.
+     * </p>
+     * <p>
+     * The property value MUST be an instance of {@code Boolean} type or a {@code String} convertible
+     * to {@code Boolean} type.
+     * </p>
+     * <p>
+     * The default value is {@code false}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String PARALLEL_INITIALIZATION = "jersey.config.server.initialization.parallel";
+
+    /**
+     * Location of the resource model snapshot file.
+     * <p>
+     * If set, the resource models built by introspecting the JAX-RS annotated application classes are stored
+     * in the snapshot file once the application has been successfully initialized. On subsequent application
+     * initializations the resource models are restored from the snapshot instead of introspecting the classes
+     * again, provided that the set of the application classes as well as their class files have not changed.
+     * An out-of-date snapshot is ignored and replaced with a new one.
+     * </p>
+     * <p>
+     * Resource model validation and model processing are always performed, regardless of whether the resource
+     * models have been restored from the snapshot or not.
+     * </p>
+     * <p>
+     * The property value MUST be an instance of {@code String} representing a file path or an instance
+     * of {@link java.io.File}.
+     * </p>
+     * <p>
+     * A default value is not set.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String RESOURCE_MODEL_SNAPSHOT = "jersey.config.server.resource.snapshot";
+
+    /**
+     * If {@code true}, the application reload requested from a {@link org.glassfish.jersey.server.spi.Container}
+     * is performed in the pre-warmed, zero-downtime mode.
+     * <p>
+     * In this mode the new application handler is initialized in a background thread, while the requests are still
+     * being served by the current application. Once initialized, the new application is warmed up by processing
+     * the {@link #RELOAD_WARM_UP_REQUESTS configured synthetic requests} and only then it atomically replaces
+     * the current application. The replaced application is destroyed once all the requests that were being
+     * processed by it have been completed.
+     * </p>
+     * <p>
+     * The property is read from the configuration of the reloaded application.
+     * The property value MUST be an instance of {@code Boolean} type or a {@code String} convertible
+     * to {@code Boolean} type.
+     * </p>
+     * <p>
+     * The default value is {@code false}, in which case the new application replaces the current one
+     * as soon as it is initialized on the thread that requested the reload.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String RELOAD_WARM_UP = "jersey.config.server.reload.warmUp";
+
+    /**
+     * Synthetic requests used to warm up a {@link #RELOAD_WARM_UP pre-warmed} application before it replaces
+     * the currently running application.
+     * <p>
+     * Each request is defined as {@code [METHOD ]path}, where the path is relative to the application root
+     * and may contain a query string, e.g. {@code "GET /customers?start=0"} or {@code "items"}. Requests without
+     * an explicit HTTP method use {@code GET}. Responses of the synthetic requests are discarded.
+     * </p>
+     * <p>
+     * The property value MUST be an instance of {@code String} containing comma-separated requests or an
+     * instance of {@code String[]}.
+     * </p>
+     * <p>
+     * A default value is not set.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String RELOAD_WARM_UP_REQUESTS = "jersey.config.server.reload.warmUp.requests";
+
+    /**
+     * Maximum time (in milliseconds) to wait for the requests being processed by an application replaced
+     * during the {@link org.glassfish.jersey.server.spi.Container#reload() application reload} to complete.
+     * Once the timeout expires, the replaced application is destroyed even if some of its requests have not
+     * been completed yet. A value of zero or less disables the timeout.
+     * <p>
+     * The property is read from the configuration of the reloaded application.
+     * The property value MUST be an instance of {@code Integer} type or a {@code String} convertible
+     * to {@code Integer} type.
+     * </p>
+     * <p>
+     * The default value is {@code 60000}.
+     * </p>
+     * <p>
+     * The name of the configuration property is <code>{@value}</code>.
+     * </p>
+     */
+    @SuppressWarnings("HtmlTagCanBeJavadocTag")
+    public static final String RELOAD_DRAIN_TIMEOUT = "jersey.config.server.reload.drainTimeout";
+
     private ServerProperties() {
         // prevents instantiation
     }
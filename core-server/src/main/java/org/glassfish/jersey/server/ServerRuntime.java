@@ -40,9 +40,12 @@
 
 package org.glassfish.jersey.server;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
@@ -60,9 +63,12 @@ import javax.ws.rs.container.AsyncResponse;
 import javax.ws.rs.container.CompletionCallback;
 import javax.ws.rs.container.ConnectionCallback;
 import javax.ws.rs.container.TimeoutHandler;
+import javax.ws.rs.core.Configuration;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.WriterInterceptor;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
@@ -71,16 +77,21 @@ import org.glassfish.jersey.internal.ProcessingException;
 import org.glassfish.jersey.internal.inject.Injections;
 import org.glassfish.jersey.internal.util.Closure;
 import org.glassfish.jersey.internal.util.Producer;
+import org.glassfish.jersey.internal.util.PropertiesHelper;
 import org.glassfish.jersey.internal.util.collection.Ref;
 import org.glassfish.jersey.internal.util.collection.Refs;
 import org.glassfish.jersey.internal.util.collection.Value;
 import org.glassfish.jersey.message.MessageBodyWorkers;
+import org.glassfish.jersey.message.internal.ByteArrayProvider;
+import org.glassfish.jersey.message.internal.FileProvider;
 import org.glassfish.jersey.message.internal.HeaderValueException;
 import org.glassfish.jersey.message.internal.OutboundMessageContext;
+import org.glassfish.jersey.message.internal.WriterInterceptorExecutor;
 import org.glassfish.jersey.process.internal.ExecutorsFactory;
 import org.glassfish.jersey.process.internal.RequestScope;
 import org.glassfish.jersey.process.internal.Stage;
 import org.glassfish.jersey.process.internal.Stages;
+import org.glassfish.jersey.server.internal.JsonWithPaddingInterceptor;
 import org.glassfish.jersey.server.internal.LocalizationMessages;
 import org.glassfish.jersey.server.internal.inject.ExtractorException;
 import org.glassfish.jersey.server.internal.process.AsyncContext;
@@ -88,6 +99,8 @@ import org.glassfish.jersey.server.internal.process.Endpoint;
 import org.glassfish.jersey.server.internal.process.MappableException;
 import org.glassfish.jersey.server.internal.process.RespondingContext;
 import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+import org.glassfish.jersey.server.spi.EntityReferenceResponseWriter;
+import org.glassfish.jersey.server.spi.ZeroCopyResponseWriter;
 import org.glassfish.jersey.spi.ExceptionMappers;
 import static org.glassfish.jersey.server.internal.process.AsyncContext.State.COMPLETED;
 import static org.glassfish.jersey.server.internal.process.AsyncContext.State.RESUMED;
@@ -112,6 +125,7 @@ class ServerRuntime {
     private final Provider<Ref<Value<AsyncContext>>> asyncContextFactoryProvider;
     private final Provider<AsyncContext> asyncContextProvider;
     private final ExecutorsFactory<ContainerRequest> asyncExecutorsFactory;
+    private final int outboundBufferSize;
 
     /**
      * Server-side request processing runtime builder.
@@ -131,6 +145,8 @@ class ServerRuntime {
         private Provider<AsyncContext> asyncContextProvider;
         @Inject
         private ExecutorsFactory<ContainerRequest> asyncExecutorsFactory;
+        @Inject
+        private Configuration configuration;
 
         /**
          * Create new server-side request processing runtime.
@@ -147,7 +163,10 @@ class ServerRuntime {
                     closeableServiceProvider,
                     asyncContextRefProvider,
                     asyncContextProvider,
-                    asyncExecutorsFactory);
+                    asyncExecutorsFactory,
+                    PropertiesHelper.getValue(configuration.getProperties(),
+                            ServerProperties.OUTBOUND_CONTENT_LENGTH_BUFFER,
+                            ServerProperties.OUTBOUND_CONTENT_LENGTH_BUFFER_DEFAULT));
         }
     }
 
@@ -158,7 +177,8 @@ class ServerRuntime {
                           Provider<CloseableService> closeableServiceProvider,
                           Provider<Ref<Value<AsyncContext>>> asyncContextFactoryProvider,
                           Provider<AsyncContext> asyncContextProvider,
-                          ExecutorsFactory<ContainerRequest> asyncExecutorsFactory) {
+                          ExecutorsFactory<ContainerRequest> asyncExecutorsFactory,
+                          int outboundBufferSize) {
         this.requestProcessingRoot = requestProcessingRoot;
         this.locator = locator;
         this.requestScope = requestScope;
@@ -167,6 +187,7 @@ class ServerRuntime {
         this.asyncContextFactoryProvider = asyncContextFactoryProvider;
         this.asyncContextProvider = asyncContextProvider;
         this.asyncExecutorsFactory = asyncExecutorsFactory;
+        this.outboundBufferSize = outboundBufferSize;
     }
 
     /**
@@ -179,12 +200,16 @@ class ServerRuntime {
         requestScope.runInScope(new Runnable() {
             @Override
             public void run() {
+                final RespondingContext respondingContext = locator.getService(RespondingContext.class);
+                request.setRespondingContext(respondingContext);
+
                 final Responder responder = new Responder(
                         request,
-                        locator.<RespondingContext>getService(RespondingContext.class),
+                        respondingContext,
                         exceptionMappers,
                         closeableServiceProvider,
-                        asyncContextProvider);
+                        asyncContextProvider,
+                        outboundBufferSize);
 
                 final AsyncResponderHolder asyncResponderHolder = new AsyncResponderHolder(
                         responder, locator, requestScope, requestScope.referenceCurrent(), asyncExecutorsFactory);
@@ -263,6 +288,7 @@ class ServerRuntime {
         private final ExceptionMappers exceptionMappers;
         private final Provider<CloseableService> closeableService;
         private final Provider<AsyncContext> asyncContext;
+        private final int outboundBufferSize;
 
 
         private final CompletionCallbackRunner completionCallbackRunner = new CompletionCallbackRunner();
@@ -273,13 +299,15 @@ class ServerRuntime {
                          final RespondingContext respondingCtx,
                          final ExceptionMappers exceptionMappers,
                          final Provider<CloseableService> closeableService,
-                         final Provider<AsyncContext> asyncContext) {
+                         final Provider<AsyncContext> asyncContext,
+                         final int outboundBufferSize) {
 
             this.request = request;
             this.respondingCtx = respondingCtx;
             this.exceptionMappers = exceptionMappers;
             this.closeableService = closeableService;
             this.asyncContext = asyncContext;
+            this.outboundBufferSize = outboundBufferSize;
         }
 
         public void process(ContainerResponse response) {
@@ -396,10 +424,26 @@ class ServerRuntime {
                 return response;
             }
 
+            if (writer instanceof ZeroCopyResponseWriter && writeDirectly((ZeroCopyResponseWriter) writer, response)) {
+                return response;
+            }
+
+            if (writer instanceof EntityReferenceResponseWriter
+                    && writeReference((EntityReferenceResponseWriter) writer, response)) {
+                return response;
+            }
+
             final Object entity = response.getEntity();
+            // buffered entities are committed with a known content length when the response is closed
+            final boolean buffered = outboundBufferSize > 0
+                    && !response.isChunked()
+                    && !request.getMethod().equals(HttpMethod.HEAD);
+            if (buffered) {
+                response.enableBuffering(outboundBufferSize);
+            }
             boolean skipFinally = false;
             try {
-                response.setStreamProvider(new OutboundMessageContext.StreamProvider() {
+                response.setStreamProvider(new OutboundMessageContext.BufferedStreamProvider() {
                     private OutputStream output;
 
                     @Override
@@ -413,6 +457,11 @@ class ServerRuntime {
                         output = writer.writeResponseStatusAndHeaders(size, response);
                     }
 
+                    @Override
+                    public void commit(int contentLength) throws IOException {
+                        output = writer.writeResponseStatusAndHeaders(contentLength, response);
+                    }
+
                     @Override
                     public OutputStream getOutputStream() throws IOException {
                         return output;
@@ -448,7 +497,7 @@ class ServerRuntime {
                     throw new MappableException(ex);
                 }
             } finally {
-                if (!skipFinally) {
+                if (!skipFinally && !buffered) {
                     response.commitStream();
 
                     if (response.isChunked()) {
@@ -468,6 +517,120 @@ class ServerRuntime {
             return response;
         }
 
+        /**
+         * Transfer the response entity directly using the zero-copy container response writer.
+         *
+         * The direct transfer is used only for {@link File} and {@code byte[]} entities that would otherwise
+         * be written by the default Jersey providers and only if no writer interceptor might modify the entity.
+         *
+         * @param writer   zero-copy container response writer.
+         * @param response response to be written.
+         * @return {@code true} if the entity has been transferred by the container, {@code false} otherwise.
+         */
+        @SuppressWarnings("unchecked")
+        private boolean writeDirectly(final ZeroCopyResponseWriter writer, final ContainerResponse response) {
+            final Object entity = response.getEntity();
+            if (!(entity instanceof File || entity instanceof byte[])
+                    || request.getMethod().equals(HttpMethod.HEAD)
+                    || response.getMediaType() == null
+                    || response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING) != null) {
+                return false;
+            }
+
+            final MessageBodyWorkers workers = request.getWorkers();
+            if (!isWrittenAsIs(response, workers)) {
+                return false;
+            }
+            final MessageBodyWriter<?> bodyWriter = workers.getMessageBodyWriter(entity.getClass(),
+                    response.getEntityType(), response.getEntityAnnotations(), response.getMediaType());
+
+            final boolean written;
+            if (entity instanceof File) {
+                final File file = (File) entity;
+                if (!(bodyWriter instanceof FileProvider) || !file.isFile()) {
+                    return false;
+                }
+                written = writer.writeFile(file, 0, file.length(), response);
+            } else {
+                if (!(bodyWriter instanceof ByteArrayProvider)) {
+                    return false;
+                }
+                written = writer.writeByteBuffer(ByteBuffer.wrap((byte[]) entity), response);
+            }
+
+            if (written) {
+                // the entity has been written by the container, there's nothing left to flush
+                commitWithoutEntityStream(response);
+            }
+            return written;
+        }
+
+        /**
+         * Pass the response entity instance by reference using the entity reference response writer.
+         *
+         * The entity is passed by reference only if it would not be modified by any writer interceptor
+         * and if it is not required to be streamed (chunked output, content encoding, {@code HEAD} request).
+         *
+         * @param writer   entity reference container response writer.
+         * @param response response to be written.
+         * @return {@code true} if the entity has been taken over by the container, {@code false} otherwise.
+         */
+        private boolean writeReference(final EntityReferenceResponseWriter writer, final ContainerResponse response) {
+            if (response.isChunked()
+                    || request.getMethod().equals(HttpMethod.HEAD)
+                    || response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING) != null
+                    || !isWrittenAsIs(response, request.getWorkers())) {
+                return false;
+            }
+
+            final boolean written = writer.writeEntityReference(response.getEntity(), response);
+            if (written) {
+                commitWithoutEntityStream(response);
+            }
+            return written;
+        }
+
+        /**
+         * Commit the response whose entity has been taken over by the container.
+         */
+        private void commitWithoutEntityStream(final ContainerResponse response) {
+            response.setStreamProvider(new OutboundMessageContext.StreamProvider() {
+                @Override
+                public void commit() throws IOException {
+                    // no-op
+                }
+
+                @Override
+                public OutputStream getOutputStream() throws IOException {
+                    return new OutputStream() {
+                        @Override
+                        public void write(int b) throws IOException {
+                            // discard
+                        }
+                    };
+                }
+            });
+            response.commitStream();
+        }
+
+        /**
+         * Check that no writer interceptor applicable to the response would modify the written entity.
+         */
+        private boolean isWrittenAsIs(final ContainerResponse response, final MessageBodyWorkers workers) {
+            final Object interceptorsProperty = request.getProperty(WriterInterceptorExecutor.INTERCEPTORS);
+            @SuppressWarnings("unchecked")
+            final Collection<WriterInterceptor> interceptors = (interceptorsProperty instanceof Collection) ?
+                    (Collection<WriterInterceptor>) interceptorsProperty : workers.getWriterInterceptors();
+
+            for (WriterInterceptor interceptor : interceptors) {
+                if (!(interceptor instanceof JsonWithPaddingInterceptor)
+                        || ((JsonWithPaddingInterceptor) interceptor).isJavascript(response.getMediaType())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
         private void release(ContainerResponse responseContext) {
             try {
                 closeableService.get().close();
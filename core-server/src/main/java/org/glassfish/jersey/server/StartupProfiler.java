@@ -0,0 +1,122 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the wall-clock and CPU time of the consecutive application initialization phases.
+ *
+ * Instances of this class are not thread-safe.
+ *
+ * @author agent (agent at local)
+ */
+final class StartupProfiler {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final List<StartupReport.Phase> phases = new ArrayList<StartupReport.Phase>();
+
+    private String phase = null;
+    private long wallStart;
+    private long cpuStart;
+
+    /**
+     * Get the CPU time of the current thread.
+     *
+     * @return CPU time of the current thread in nanoseconds or {@code -1} if not supported.
+     */
+    static long currentThreadCpuTime() {
+        try {
+            return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Finish the current phase, if any, and start a new initialization phase.
+     *
+     * @param name name of the new phase.
+     */
+    void start(final String name) {
+        end();
+        phase = name;
+        wallStart = System.nanoTime();
+        cpuStart = currentThreadCpuTime();
+    }
+
+    /**
+     * Finish the current phase, if any.
+     */
+    void end() {
+        if (phase != null) {
+            final long cpuEnd = cpuStart < 0 ? -1 : currentThreadCpuTime();
+            add(phase, System.nanoTime() - wallStart, cpuEnd < 0 ? -1 : cpuEnd - cpuStart);
+            phase = null;
+        }
+    }
+
+    /**
+     * Record a phase measured elsewhere.
+     *
+     * @param name     phase name.
+     * @param wallTime wall-clock time spent in the phase in nanoseconds.
+     * @param cpuTime  CPU time spent in the phase in nanoseconds, or {@code -1} if not measured.
+     */
+    void add(final String name, final long wallTime, final long cpuTime) {
+        phases.add(new StartupReport.Phase(name, wallTime, cpuTime));
+    }
+
+    /**
+     * Finish the current phase, if any, and create the startup report.
+     *
+     * @param classesScanned number of class files examined by the class path scanning.
+     * @param providersBound number of provider and resource components bound in the application.
+     * @param resources      number of root resources in the application resource model.
+     * @return startup report.
+     */
+    StartupReport report(final int classesScanned, final int providersBound, final int resources) {
+        end();
+        return new StartupReport(new ArrayList<StartupReport.Phase>(phases), classesScanned, providersBound, resources);
+    }
+}
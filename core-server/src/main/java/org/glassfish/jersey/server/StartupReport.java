@@ -0,0 +1,295 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application startup report.
+ * <p>
+ * The report contains the wall-clock and CPU time spent in the individual phases of the
+ * {@link ApplicationHandler application handler} initialization together with the basic statistics
+ * of the initialized application. The CPU time is measured for the initializing thread only; work
+ * delegated to other threads (e.g. {@link ServerProperties#PARALLEL_INITIALIZATION parallel
+ * initialization}) is reflected in the wall-clock time only. If the CPU time measurement is not supported
+ * by the JVM, the CPU times are reported as {@code -1}.
+ * </p>
+ * <p>
+ * The report of an initialized application is available via {@link ApplicationHandler#getStartupReport()}.
+ * It can also be injected into any application component, e.g. a
+ * {@link org.glassfish.jersey.server.spi.ContainerLifecycleListener container lifecycle listener} that
+ * publishes the report once the container is started.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class StartupReport {
+    /**
+     * Name of the class path scanning phase ({@value}).
+     */
+    public static final String SCANNING = "scanning";
+    /**
+     * Name of the phase configuring the custom binders and features ({@value}).
+     */
+    public static final String META_PROVIDERS = "meta-providers";
+    /**
+     * Name of the resource class introspection phase ({@value}).
+     */
+    public static final String INTROSPECTION = "introspection";
+    /**
+     * Name of the provider and resource binding phase ({@value}).
+     */
+    public static final String BINDING = "binding";
+    /**
+     * Name of the filter, interceptor and dynamic feature lookup phase ({@value}).
+     */
+    public static final String PROVIDER_LOOKUP = "provider-lookup";
+    /**
+     * Name prefix of the resource model processing phases ({@value}). The prefix is followed by the class name
+     * of the {@link org.glassfish.jersey.server.model.ModelProcessor model processor} (e.g. the WADL model processor).
+     */
+    public static final String MODEL_PROCESSING = "model-processing ";
+    /**
+     * Name of the resource model validation phase ({@value}).
+     */
+    public static final String VALIDATION = "validation";
+    /**
+     * Name of the phase binding the resource classes enhanced by the model processors ({@value}).
+     */
+    public static final String RESOURCE_BINDING = "resource-binding";
+    /**
+     * Name of the routing model building phase ({@value}).
+     */
+    public static final String ROUTING = "routing";
+    /**
+     * Name of the request processing chain assembly phase ({@value}).
+     */
+    public static final String PROCESSING_CHAIN = "processing-chain";
+    /**
+     * Name of the server runtime creation phase ({@value}).
+     */
+    public static final String RUNTIME = "runtime";
+    /**
+     * Name of the component instance injection phase ({@value}).
+     */
+    public static final String INJECTION = "injection";
+
+
+    /**
+     * Single application initialization phase.
+     */
+    public static final class Phase {
+        private final String name;
+        private final long wallTime;
+        private final long cpuTime;
+
+        /**
+         * Create new initialization phase record.
+         *
+         * @param name     phase name.
+         * @param wallTime wall-clock time spent in the phase in nanoseconds.
+         * @param cpuTime  CPU time spent in the phase in nanoseconds, or {@code -1} if not measured.
+         */
+        Phase(final String name, final long wallTime, final long cpuTime) {
+            this.name = name;
+            this.wallTime = wallTime;
+            this.cpuTime = cpuTime;
+        }
+
+        /**
+         * Get the phase name.
+         *
+         * @return phase name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the wall-clock time spent in the phase.
+         *
+         * @param unit time unit of the returned value.
+         * @return wall-clock time spent in the phase.
+         */
+        public long getWallTime(final TimeUnit unit) {
+            return unit.convert(wallTime, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the CPU time spent in the phase by the initializing thread.
+         *
+         * @param unit time unit of the returned value.
+         * @return CPU time spent in the phase, or {@code -1} if the CPU time has not been measured.
+         */
+        public long getCpuTime(final TimeUnit unit) {
+            return cpuTime < 0 ? -1 : unit.convert(cpuTime, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-48s %10.3f ms (CPU %s)", name, wallTime / 1e6, formatCpuTime(cpuTime));
+        }
+    }
+
+    private final List<Phase> phases;
+    private final int classesScanned;
+    private final int providersBound;
+    private final int resources;
+
+    /**
+     * Create new startup report.
+     *
+     * @param phases         initialization phases.
+     * @param classesScanned number of class files examined by the class path scanning.
+     * @param providersBound number of provider and resource components bound in the application.
+     * @param resources      number of root resources in the application resource model.
+     */
+    StartupReport(final List<Phase> phases, final int classesScanned, final int providersBound, final int resources) {
+        this.phases = Collections.unmodifiableList(phases);
+        this.classesScanned = classesScanned;
+        this.providersBound = providersBound;
+        this.resources = resources;
+    }
+
+    /**
+     * Get the initialization phases in the order of their execution.
+     *
+     * @return unmodifiable list of the initialization phases.
+     */
+    public List<Phase> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Get the initialization phase of a given name.
+     *
+     * @param name phase name.
+     * @return initialization phase or {@code null} if no phase of the given name has been recorded.
+     */
+    public Phase getPhase(final String name) {
+        for (Phase phase : phases) {
+            if (phase.name.equals(name)) {
+                return phase;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the total wall-clock time spent in all the initialization phases.
+     *
+     * @param unit time unit of the returned value.
+     * @return total wall-clock initialization time.
+     */
+    public long getWallTime(final TimeUnit unit) {
+        long total = 0;
+        for (Phase phase : phases) {
+            total += phase.wallTime;
+        }
+        return unit.convert(total, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the total CPU time spent in all the initialization phases by the initializing thread.
+     *
+     * @param unit time unit of the returned value.
+     * @return total CPU initialization time, or {@code -1} if the CPU time has not been measured.
+     */
+    public long getCpuTime(final TimeUnit unit) {
+        final long total = totalCpuTime();
+        return total < 0 ? -1 : unit.convert(total, TimeUnit.NANOSECONDS);
+    }
+
+    private long totalCpuTime() {
+        long total = 0;
+        for (Phase phase : phases) {
+            if (phase.cpuTime < 0) {
+                return -1;
+            }
+            total += phase.cpuTime;
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of class files examined by the class path scanning.
+     *
+     * @return number of scanned class files.
+     */
+    public int getClassesScanned() {
+        return classesScanned;
+    }
+
+    /**
+     * Get the number of provider and resource components bound in the application.
+     *
+     * @return number of bound components.
+     */
+    public int getProvidersBound() {
+        return providersBound;
+    }
+
+    /**
+     * Get the number of root resources in the application resource model.
+     *
+     * @return number of root resources.
+     */
+    public int getResources() {
+        return resources;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%.3f ms (CPU %s), %d classes scanned, %d providers bound, %d resources",
+                getWallTime(TimeUnit.MICROSECONDS) / 1e3, formatCpuTime(totalCpuTime()),
+                classesScanned, providersBound, resources));
+        for (Phase phase : phases) {
+            sb.append(String.format("%n  ")).append(phase);
+        }
+        return sb.toString();
+    }
+
+    private static String formatCpuTime(final long cpuTime) {
+        return cpuTime < 0 ? "n/a" : String.format("%.3f ms", cpuTime / 1e6);
+    }
+}
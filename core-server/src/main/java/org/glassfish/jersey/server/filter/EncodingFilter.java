@@ -39,6 +39,7 @@
  */
 package org.glassfish.jersey.server.filter;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Collections;
@@ -48,22 +49,31 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.ws.rs.BindingPriority;
+import javax.ws.rs.HttpMethod;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerResponseContext;
 import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.Configuration;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import javax.inject.Inject;
 
+import org.glassfish.jersey.internal.util.PropertiesHelper;
 import org.glassfish.jersey.message.internal.HttpHeaderReader;
+import org.glassfish.jersey.message.internal.ReaderWriter;
 import org.glassfish.jersey.server.ContainerResponse;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
 import org.glassfish.jersey.spi.ContentEncoder;
 
 import org.glassfish.hk2.api.ServiceLocator;
 
+import com.google.common.base.Joiner;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 
@@ -77,6 +87,11 @@ import com.google.common.collect.Sets;
  * <p>
  *     The filter also ensures Accept-Encoding is added to the Vary header, for proper interaction with web caches.
  * </p>
+ * <p>
+ *     Results of the negotiation are cached per Accept-Encoding header value. Entities smaller than
+ *     the {@link ServerProperties#ENCODING_THRESHOLD configured threshold} are sent unencoded, provided that
+ *     the identity encoding is acceptable for the client.
+ * </p>
  *
  * @author Martin Matula (martin.matula at oracle.com)
  */
@@ -85,10 +100,51 @@ public final class EncodingFilter implements ContainerResponseFilter {
     // name for the identity encoding
     private static final String IDENTITY_ENCODING = "identity";
 
+    // maximum number of cached Accept-Encoding header value negotiation results
+    private static final int NEGOTIATION_CACHE_SIZE = 64;
+    private static final SortedSet<String> IDENTITY_ONLY =
+            Collections.unmodifiableSortedSet(Sets.newTreeSet(Collections.singleton(IDENTITY_ENCODING)));
+    private static final Joiner HEADER_JOINER = Joiner.on(',');
+
     @Inject
     private ServiceLocator serviceLocator;
     // sorted set to keep the order same for different invocations of the app
     private volatile SortedSet<String> supportedEncodings = null;
+    // minimum size of the entity to be encoded
+    private final int threshold;
+    // whether the outbound entities are buffered to compute their Content-Length
+    private final boolean outboundBuffering;
+    // negotiation results of the commonly used Accept-Encoding header values
+    private final LoadingCache<String, Negotiation> negotiationCache = CacheBuilder.newBuilder()
+            .maximumSize(NEGOTIATION_CACHE_SIZE)
+            .build(new CacheLoader<String, Negotiation>() {
+                @Override
+                public Negotiation load(String acceptEncoding) {
+                    return negotiate(acceptEncoding);
+                }
+            });
+
+    /**
+     * Create new encoding filter using the default {@link ServerProperties#ENCODING_THRESHOLD encoding threshold}
+     * and {@link ServerProperties#OUTBOUND_CONTENT_LENGTH_BUFFER outbound buffering} settings.
+     */
+    public EncodingFilter() {
+        this.threshold = ServerProperties.ENCODING_THRESHOLD_DEFAULT;
+        this.outboundBuffering = ServerProperties.OUTBOUND_CONTENT_LENGTH_BUFFER_DEFAULT > 0;
+    }
+
+    /**
+     * Create new encoding filter configured by the application configuration.
+     *
+     * @param configuration application configuration.
+     */
+    @Inject
+    public EncodingFilter(Configuration configuration) {
+        this.threshold = Math.max(0, PropertiesHelper.getValue(configuration.getProperties(),
+                ServerProperties.ENCODING_THRESHOLD, ServerProperties.ENCODING_THRESHOLD_DEFAULT));
+        this.outboundBuffering = PropertiesHelper.getValue(configuration.getProperties(),
+                ServerProperties.OUTBOUND_CONTENT_LENGTH_BUFFER, ServerProperties.OUTBOUND_CONTENT_LENGTH_BUFFER_DEFAULT) > 0;
+    }
 
     /**
      * Enables this filter along with the provided {@link org.glassfish.jersey.spi.ContentEncoder encoders}
@@ -125,19 +181,50 @@ public final class EncodingFilter implements ContainerResponseFilter {
             return;
         }
 
+        final Negotiation negotiation = negotiationCache.getUnchecked(
+                acceptEncoding.size() == 1 ? acceptEncoding.get(0) : HEADER_JOINER.join(acceptEncoding));
+        final String contentEncoding = negotiation.contentEncoding;
+
+        if (contentEncoding == null) {
+            // no acceptable encoding can be sent -> return NOT ACCEPTABLE status code back to the client
+            throw new WebApplicationException(Response.status(Response.Status.NOT_ACCEPTABLE).build());
+        }
+
+        // finally set the header - but no need to set for identity encoding
+        if (!IDENTITY_ENCODING.equals(contentEncoding)) {
+            if (threshold > 0 && negotiation.identityAcceptable) {
+                final long size = getKnownEntitySize((ContainerResponse) response, threshold);
+                if (size >= 0) {
+                    if (size < threshold) {
+                        // not worth encoding
+                        return;
+                    }
+                } else if (isBuffered(request, (ContainerResponse) response)) {
+                    // let the encoder decide once the entity size is known
+                    request.setProperty(ContentEncoder.ENCODING_THRESHOLD, threshold);
+                }
+            }
+            response.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+    }
+
+    /**
+     * Negotiate the content encoding for a given {@code Accept-Encoding} header value.
+     *
+     * @param acceptEncoding {@code Accept-Encoding} header value (multiple header values joined by comma).
+     * @return result of the content encoding negotiation.
+     */
+    private Negotiation negotiate(String acceptEncoding) {
         // convert encodings from String to Encoding objects
         List<ContentEncoding> encodings = Lists.newArrayList();
-        for (String input : acceptEncoding) {
-            String[] tokens = input.split(",");
-            for (String token : tokens) {
-                try {
-                    ContentEncoding encoding = ContentEncoding.fromString(token);
-                    encodings.add(encoding);
-                } catch (ParseException e) {
-                    // ignore the encoding that could not parse
-                    // but log the exception
-                    Logger.getLogger(EncodingFilter.class.getName()).log(Level.WARNING, e.getLocalizedMessage(), e);
-                }
+        for (String token : acceptEncoding.split(",")) {
+            try {
+                ContentEncoding encoding = ContentEncoding.fromString(token);
+                encodings.add(encoding);
+            } catch (ParseException e) {
+                // ignore the encoding that could not parse
+                // but log the exception
+                Logger.getLogger(EncodingFilter.class.getName()).log(Level.WARNING, e.getLocalizedMessage(), e);
             }
         }
         // sort based on quality parameter
@@ -146,13 +233,24 @@ public final class EncodingFilter implements ContainerResponseFilter {
         // in the Accept-Content header by assigning q=0
         encodings.add(new ContentEncoding(IDENTITY_ENCODING, -1));
 
+        return new Negotiation(
+                selectEncoding(encodings, getSupportedEncodings()),
+                IDENTITY_ENCODING.equals(selectEncoding(encodings, IDENTITY_ONLY)));
+    }
+
+    /**
+     * Select the content encoding.
+     *
+     * @param encodings          accepted encodings sorted by quality.
+     * @param supportedEncodings supported encodings.
+     * @return selected encoding or {@code null} if none of the supported encodings is acceptable.
+     */
+    private static String selectEncoding(List<ContentEncoding> encodings, SortedSet<String> supportedEncodings) {
         // get a copy of supported encoding (we'll be modifying this set, hence the copy)
-        SortedSet<String> acceptedEncodings = Sets.newTreeSet(getSupportedEncodings());
+        SortedSet<String> acceptedEncodings = Sets.newTreeSet(supportedEncodings);
 
         // indicates that we can pick any of the encodings that remained in the acceptedEncodings set
         boolean anyRemaining = false;
-        // final resulting value of the Content-Encoding header to be set
-        String contentEncoding = null;
 
         // iterate through the accepted encodings, starting with the highest quality one
         for (ContentEncoding encoding : encodings) {
@@ -172,27 +270,68 @@ public final class EncodingFilter implements ContainerResponseFilter {
                 } else {
                     if (acceptedEncodings.contains(encoding.name)) {
                         // found an acceptable one -> we are done
-                        contentEncoding = encoding.name;
-                        break;
+                        return encoding.name;
                     }
                 }
             }
         }
 
-        if (contentEncoding == null) {
-            // haven't found any explicit acceptable encoding, let's see if we can just pick any of the remaining ones
-            // (if there are any left)
-            if (anyRemaining && !acceptedEncodings.isEmpty()) {
-                contentEncoding = acceptedEncodings.first();
-            } else {
-                // no acceptable encoding can be sent -> return NOT ACCEPTABLE status code back to the client
-                throw new WebApplicationException(Response.status(Response.Status.NOT_ACCEPTABLE).build());
+        // haven't found any explicit acceptable encoding, let's see if we can just pick any of the remaining ones
+        // (if there are any left)
+        if (anyRemaining && !acceptedEncodings.isEmpty()) {
+            return acceptedEncodings.first();
+        }
+        return null;
+    }
+
+    /**
+     * Get the size of the response entity if it is known before the entity is written.
+     * <p>
+     * Byte size of a {@code String} entity is only computed if the entity may be smaller than the threshold,
+     * otherwise its length in characters (the lower bound of its byte size) is returned.
+     * </p>
+     *
+     * @param response  container response.
+     * @param threshold encoding threshold.
+     * @return size of the entity in bytes or {@code -1} if not known.
+     */
+    private static long getKnownEntitySize(ContainerResponse response, int threshold) {
+        final int length = response.getLength();
+        if (length >= 0) {
+            return length;
+        }
+        final Object entity = response.getEntity();
+        if (entity instanceof byte[]) {
+            return ((byte[]) entity).length;
+        } else if (entity instanceof String) {
+            final String string = (String) entity;
+            if (string.length() >= threshold) {
+                // every character is encoded into at least one byte
+                return string.length();
             }
+            return string.getBytes(ReaderWriter.getCharset(response.getMediaType())).length;
+        } else if (entity instanceof File) {
+            return ((File) entity).length();
         }
+        return -1;
+    }
 
-        // finally set the header - but no need to set for identity encoding
-        if (!IDENTITY_ENCODING.equals(contentEncoding)) {
-            response.getHeaders().putSingle(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+    private boolean isBuffered(ContainerRequestContext request, ContainerResponse response) {
+        return outboundBuffering
+                && !response.isChunked()
+                && !HttpMethod.HEAD.equals(request.getMethod());
+    }
+
+    // result of the content encoding negotiation for a single Accept-Encoding header value
+    private static final class Negotiation {
+        // negotiated encoding, null if no acceptable encoding is supported
+        public final String contentEncoding;
+        // whether the entity can be sent unencoded
+        public final boolean identityAcceptable;
+
+        private Negotiation(String contentEncoding, boolean identityAcceptable) {
+            this.contentEncoding = contentEncoding;
+            this.identityAcceptable = identityAcceptable;
         }
     }
 
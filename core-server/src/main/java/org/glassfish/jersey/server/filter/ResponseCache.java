@@ -0,0 +1,260 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.filter;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.MediaType;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.Weigher;
+
+/**
+ * Server-side store of the encoded response entities produced by {@link Cached cached} resource methods.
+ * <p>
+ * The cache is bounded by the total size of the stored entities and evicts the least recently used
+ * entries first. The cache instance used by the application can be injected into resources and providers,
+ * e.g. in order to invalidate the cached responses once the underlying data change:
+ * <pre>
+ * &#64;Inject
+ * private ResponseCache cache;
+ *
+ * &#64;PUT
+ * public void update(Item item) {
+ *     ...
+ *     cache.invalidate("items/" + item.getId());
+ * }
+ * </pre>
+ * </p>
+ *
+ * @author agent (agent at local)
+ * @see ResponseCacheFeature
+ */
+public final class ResponseCache {
+
+    /**
+     * Cache key consisting of the requested resource and the values of the {@code Accept} and
+     * {@code Accept-Encoding} request headers. Responses varying on other request headers are not stored.
+     */
+    static final class Key {
+        private final String path;
+        private final String query;
+        private final String accept;
+        private final String acceptEncoding;
+        private final int hashCode;
+
+        Key(String path, String query, String accept, String acceptEncoding) {
+            this.path = normalize(path);
+            this.query = query;
+            this.accept = accept;
+            this.acceptEncoding = acceptEncoding;
+            this.hashCode = Arrays.hashCode(new Object[] {this.path, query, accept, acceptEncoding});
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return path.equals(other.path)
+                    && equal(query, other.query)
+                    && equal(accept, other.accept)
+                    && equal(acceptEncoding, other.acceptEncoding);
+        }
+
+        private static boolean equal(String a, String b) {
+            return (a == null) ? b == null : a.equals(b);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    /**
+     * Cached response.
+     */
+    static final class Entry {
+        final byte[] entity;
+        final MediaType mediaType;
+        final Map<String, List<String>> headers;
+        final EntityTag entityTag;
+        final String[] tags;
+        final long expires;
+
+        Entry(byte[] entity, MediaType mediaType, Map<String, List<String>> headers, EntityTag entityTag,
+              String[] tags, long expires) {
+            this.entity = entity;
+            this.mediaType = mediaType;
+            this.headers = headers;
+            this.entityTag = entityTag;
+            this.tags = tags;
+            this.expires = expires;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expires;
+        }
+    }
+
+    private final Cache<Key, Entry> cache;
+    private final int maxEntrySize;
+
+    /**
+     * Create new response cache.
+     *
+     * @param maxSize      maximum total size of the cached response entities in bytes.
+     * @param maxEntrySize maximum size of a single cached response entity in bytes.
+     */
+    ResponseCache(long maxSize, int maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize)
+                .weigher(new Weigher<Key, Entry>() {
+                    @Override
+                    public int weigh(Key key, Entry entry) {
+                        return entry.entity.length;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Get the maximum size of a single cached response entity.
+     *
+     * @return maximum size of a single cached response entity in bytes.
+     */
+    int getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    /**
+     * Get a cached response that has not expired yet.
+     *
+     * @param key cache key.
+     * @return cached response or {@code null} if no valid response is cached.
+     */
+    Entry get(Key key) {
+        final Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.isExpired(now())) {
+            cache.asMap().remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Store a response.
+     *
+     * @param key   cache key.
+     * @param entry cached response.
+     */
+    void put(Key key, Entry entry) {
+        cache.put(key, entry);
+    }
+
+    /**
+     * Get current time used to compute the expiration of cached responses.
+     *
+     * @return current time in milliseconds.
+     */
+    static long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * Invalidate all cached representations of a resource.
+     *
+     * @param path path of the resource relative to the application base URI (e.g. {@code "items/42"}),
+     *             the cached responses are invalidated regardless of the request query parameters.
+     */
+    public void invalidate(String path) {
+        final String normalized = normalize(path);
+        for (Iterator<Key> it = cache.asMap().keySet().iterator(); it.hasNext(); ) {
+            if (it.next().path.equals(normalized)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidate all cached responses associated with the {@link Cached#tags() tag}.
+     *
+     * @param tag cache tag.
+     */
+    public void invalidateTag(String tag) {
+        for (Iterator<Entry> it = cache.asMap().values().iterator(); it.hasNext(); ) {
+            if (Arrays.asList(it.next().tags).contains(tag)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * Invalidate all cached responses.
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Get the number of cached responses.
+     *
+     * @return number of cached responses.
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    private static String normalize(String path) {
+        return path.startsWith("/") ? path.substring(1) : path;
+    }
+}
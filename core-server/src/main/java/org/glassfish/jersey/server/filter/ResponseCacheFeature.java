@@ -0,0 +1,442 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.ws.rs.BindingPriority;
+import javax.ws.rs.GET;
+import javax.ws.rs.HttpMethod;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Feature;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.glassfish.jersey.internal.inject.AbstractBinder;
+import org.glassfish.jersey.message.internal.HeadersFactory;
+import org.glassfish.jersey.server.ChunkedOutput;
+import org.glassfish.jersey.server.model.AnnotatedMethod;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+
+/**
+ * Feature enabling the server-side {@link ResponseCache response cache} for {@link Cached cached}
+ * {@code GET} resource methods.
+ * <p>
+ * Encoded response entities (i.e. entities after all the {@link WriterInterceptor writer interceptors},
+ * such as the {@link org.glassfish.jersey.message.GZipEncoder gzip encoder}, have been applied) of successful
+ * responses produced by cached resource methods are stored per requested resource and per values
+ * of the {@code Accept} and {@code Accept-Encoding} request headers. Responses with a {@code Vary} header naming
+ * any other request header (or {@code *}) are not stored. Subsequent matching requests are served
+ * directly from the cache by a {@link PreMatching pre-matching} filter, without invoking the resource method,
+ * the message body writer and the encoders. Cached responses carry an entity tag and conditional requests
+ * are evaluated using {@link javax.ws.rs.core.Request#evaluatePreconditions(EntityTag)}, i.e. a matching
+ * {@code If-None-Match} request results in a {@code 304 Not Modified} response.
+ * </p>
+ * <p>
+ * Requests with the {@code Authorization} header are never cached. Requests with {@code Cache-Control: no-cache}
+ * bypass the cache lookup, responses with {@code Set-Cookie} header or {@code Cache-Control: private} or
+ * {@code no-store} directives are not stored.
+ * </p>
+ * <p>
+ * All the response headers except for the hop-by-hop headers and the headers that are computed for each response
+ * (such as {@code Content-Length} or {@code Date}) are stored with the entity and replayed on cache hits.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public class ResponseCacheFeature implements Feature {
+
+    /**
+     * Default maximum total size of the cached response entities ({@value} bytes).
+     */
+    public static final long DEFAULT_MAX_SIZE = 16 * 1024 * 1024;
+    /**
+     * Default maximum size of a single cached response entity ({@value} bytes).
+     */
+    public static final int DEFAULT_MAX_ENTRY_SIZE = 256 * 1024;
+
+    private static final String KEY_PROPERTY = "jersey.runtime.responseCache.key";
+    private static final String HIT_PROPERTY = "jersey.runtime.responseCache.hit";
+    private static final String STORE_PROPERTY = "jersey.runtime.responseCache.store";
+
+    /**
+     * Response headers that are not stored with the cached response: hop-by-hop headers (RFC 2616, section 13.5.1),
+     * headers computed for each response and headers stored separately.
+     */
+    private static final Set<String> NOT_STORED_HEADERS = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        NOT_STORED_HEADERS.addAll(Arrays.asList(
+                "Connection", "Keep-Alive", "Proxy-Authenticate", "Proxy-Authorization", "TE", "Trailer", "Trailers",
+                "Transfer-Encoding", "Upgrade",
+                HttpHeaders.CONTENT_LENGTH, HttpHeaders.DATE, HttpHeaders.SET_COOKIE,
+                HttpHeaders.CONTENT_TYPE, HttpHeaders.ETAG));
+    }
+
+    /**
+     * Request headers the cached responses are keyed by, i.e. the only request headers a stored response may vary on.
+     */
+    private static final Set<String> KEY_HEADERS = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+
+    static {
+        KEY_HEADERS.addAll(Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    private final long maxSize;
+    private final int maxEntrySize;
+
+    /**
+     * Create new response cache feature using the {@link #DEFAULT_MAX_SIZE default cache size}
+     * and {@link #DEFAULT_MAX_ENTRY_SIZE default entry size} limits.
+     */
+    public ResponseCacheFeature() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    /**
+     * Create new response cache feature.
+     *
+     * @param maxSize      maximum total size of the cached response entities in bytes.
+     * @param maxEntrySize maximum size of a single cached response entity in bytes. Larger responses are not cached.
+     */
+    public ResponseCacheFeature(long maxSize, int maxEntrySize) {
+        this.maxSize = maxSize;
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        final ResponseCache cache = new ResponseCache(maxSize, maxEntrySize);
+
+        context.register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(cache).to(ResponseCache.class);
+            }
+        });
+        context.register(new ResponseCacheFilter(cache));
+        context.register(CachedMethodsFeature.class);
+        return true;
+    }
+
+    /**
+     * Registers the response storing filter for the cached resource methods.
+     */
+    static final class CachedMethodsFeature implements DynamicFeature {
+
+        @Override
+        public void configure(ResourceInfo resourceInfo, FeatureContext context) {
+            final AnnotatedMethod am = new AnnotatedMethod(resourceInfo.getResourceMethod());
+            if (!am.isAnnotationPresent(GET.class)) {
+                return;
+            }
+
+            Cached cached = am.getAnnotation(Cached.class);
+            if (cached == null) {
+                cached = resourceInfo.getResourceClass().getAnnotation(Cached.class);
+            }
+            if (cached != null) {
+                context.register(new CacheStoreFilter(cached));
+            }
+        }
+    }
+
+    /**
+     * Marks successful responses of a cached resource method to be stored once their entity is written.
+     */
+    @BindingPriority(BindingPriority.HEADER_DECORATOR)
+    static final class CacheStoreFilter implements ContainerResponseFilter {
+
+        private final long ttl;
+        private final String[] tags;
+
+        CacheStoreFilter(Cached cached) {
+            this.ttl = cached.unit().toMillis(cached.value());
+            this.tags = cached.tags();
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
+            final Object key = request.getProperty(KEY_PROPERTY);
+            if (key == null
+                    || response.getStatus() != Response.Status.OK.getStatusCode()
+                    || !response.hasEntity()
+                    || response.getEntity() instanceof ChunkedOutput
+                    || response.getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                return;
+            }
+            final String cacheControl = response.getHeaderString(HttpHeaders.CACHE_CONTROL);
+            if (cacheControl != null && (cacheControl.contains("no-store") || cacheControl.contains("private"))) {
+                return;
+            }
+
+            request.setProperty(STORE_PROPERTY, new PendingEntry((ResponseCache.Key) key, ttl, tags));
+        }
+    }
+
+    /**
+     * Response to be stored.
+     */
+    private static final class PendingEntry {
+        final ResponseCache.Key key;
+        final long ttl;
+        final String[] tags;
+
+        PendingEntry(ResponseCache.Key key, long ttl, String[] tags) {
+            this.key = key;
+            this.ttl = ttl;
+            this.tags = tags;
+        }
+    }
+
+    /**
+     * Serves the cached responses and captures the encoded entities of the responses to be stored.
+     */
+    @PreMatching
+    // must go after the UriConnegFilter and HttpMethodOverrideFilter (if present);
+    // as a writer interceptor it must go before any entity encoders
+    @BindingPriority(BindingPriority.HEADER_DECORATOR + 100)
+    static final class ResponseCacheFilter implements ContainerRequestFilter, WriterInterceptor {
+
+        private final ResponseCache cache;
+
+        ResponseCacheFilter(ResponseCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void filter(ContainerRequestContext request) throws IOException {
+            if (!HttpMethod.GET.equals(request.getMethod())
+                    || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+                return;
+            }
+
+            final UriInfo uriInfo = request.getUriInfo();
+            final ResponseCache.Key key = new ResponseCache.Key(
+                    uriInfo.getPath(false),
+                    uriInfo.getRequestUri().getRawQuery(),
+                    request.getHeaderString(HttpHeaders.ACCEPT),
+                    request.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+
+            final String cacheControl = request.getHeaderString(HttpHeaders.CACHE_CONTROL);
+            if (cacheControl == null || !cacheControl.contains("no-cache")) {
+                final ResponseCache.Entry entry = cache.get(key);
+                if (entry != null) {
+                    Response.ResponseBuilder builder = request.getRequest().evaluatePreconditions(entry.entityTag);
+                    if (builder == null) {
+                        builder = Response.ok(entry.entity, entry.mediaType).tag(entry.entityTag);
+                        for (Map.Entry<String, List<String>> header : entry.headers.entrySet()) {
+                            for (String value : header.getValue()) {
+                                builder.header(header.getKey(), value);
+                            }
+                        }
+                        request.setProperty(HIT_PROPERTY, entry);
+                    }
+                    request.abortWith(builder.build());
+                    return;
+                }
+            }
+
+            request.setProperty(KEY_PROPERTY, key);
+        }
+
+        @Override
+        public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+            final Object hit = context.getProperty(HIT_PROPERTY);
+            if (hit instanceof ResponseCache.Entry) {
+                final ResponseCache.Entry entry = (ResponseCache.Entry) hit;
+                if (!entry.headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+                    // the cached entity is not encoded, make sure no encoding gets advertised
+                    context.getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+                }
+                // the entity is already encoded, skip the writer and any other interceptors
+                context.getOutputStream().write(entry.entity);
+                return;
+            }
+
+            final Object pending = context.getProperty(STORE_PROPERTY);
+            if (pending instanceof PendingEntry) {
+                context.setOutputStream(
+                        new CapturingOutputStream(context.getOutputStream(), (PendingEntry) pending, context.getHeaders()));
+            }
+            context.proceed();
+        }
+
+        /**
+         * Output stream that captures the written encoded entity and stores it in the cache once the stream
+         * is closed.
+         */
+        private final class CapturingOutputStream extends OutputStream {
+
+            private final OutputStream out;
+            private final PendingEntry pending;
+            private final MultivaluedMap<String, Object> headers;
+            private ByteArrayOutputStream capture = new ByteArrayOutputStream();
+
+            private CapturingOutputStream(OutputStream out, PendingEntry pending, MultivaluedMap<String, Object> headers) {
+                this.out = out;
+                this.pending = pending;
+                this.headers = headers;
+            }
+
+            private void capture(byte[] b, int off, int len) {
+                if (capture != null) {
+                    if (capture.size() + len > cache.getMaxEntrySize()) {
+                        // too large to be cached
+                        capture = null;
+                    } else {
+                        capture.write(b, off, len);
+                    }
+                }
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                try {
+                    out.write(b, off, len);
+                } catch (IOException e) {
+                    capture = null;
+                    throw e;
+                }
+                capture(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                out.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                final ByteArrayOutputStream captured = capture;
+                capture = null;
+                out.close();
+                if (captured != null) {
+                    store(captured.toByteArray());
+                }
+            }
+
+            private void store(byte[] entity) {
+                if (!isVaryCovered()) {
+                    // the response depends on request headers that are not part of the cache key
+                    return;
+                }
+
+                final Set<String> connectionHeaders = new TreeSet<String>(String.CASE_INSENSITIVE_ORDER);
+                for (String value : HeadersFactory.asStringList(headers.get("Connection"), null)) {
+                    for (String token : value.split(",")) {
+                        connectionHeaders.add(token.trim());
+                    }
+                }
+
+                final Map<String, List<String>> stored = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+                for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+                    final String name = header.getKey();
+                    if (NOT_STORED_HEADERS.contains(name) || connectionHeaders.contains(name)
+                            || header.getValue() == null || header.getValue().isEmpty()) {
+                        continue;
+                    }
+                    stored.put(name, ImmutableList.copyOf(HeadersFactory.asStringList(header.getValue(), null)));
+                }
+
+                final Object etag = headers.getFirst(HttpHeaders.ETAG);
+                final EntityTag entityTag;
+                if (etag instanceof EntityTag) {
+                    entityTag = (EntityTag) etag;
+                } else if (etag != null) {
+                    entityTag = EntityTag.valueOf(etag.toString());
+                } else {
+                    entityTag = new EntityTag(Hashing.md5().hashBytes(entity).toString());
+                }
+
+                final Object mediaType = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+                cache.put(pending.key, new ResponseCache.Entry(
+                        entity,
+                        (mediaType == null) ? null : MediaType.valueOf(mediaType.toString()),
+                        Collections.unmodifiableMap(stored),
+                        entityTag,
+                        pending.tags,
+                        ResponseCache.now() + pending.ttl));
+            }
+
+            private boolean isVaryCovered() {
+                for (String value : HeadersFactory.asStringList(headers.get(HttpHeaders.VARY), null)) {
+                    for (String token : value.split(",")) {
+                        final String name = token.trim();
+                        if (!name.isEmpty() && !KEY_HEADERS.contains(name)) {
+                            return false;
+                        }
+                    }
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.internal;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.HttpMethod;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.internal.util.PropertiesHelper;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerException;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+import org.glassfish.jersey.server.spi.EntityReferenceResponseWriter;
+import org.glassfish.jersey.server.spi.ZeroCopyResponseWriter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Holder of the {@link ApplicationHandler application handler} currently deployed in a container.
+ * <p>
+ * The holder supports {@link #reload(ResourceConfig, Runnable) application reloading}. If the
+ * {@link ServerProperties#RELOAD_WARM_UP} property is enabled in the reloaded application configuration,
+ * the new application handler is created and warmed up in a background thread and then atomically
+ * swapped in. In both cases the replaced application handler is destroyed once all the requests
+ * {@link #handle(ContainerRequest) handled} by it are completed (i.e. their response writers have been
+ * committed or failed), or once the {@link ServerProperties#RELOAD_DRAIN_TIMEOUT drain timeout} expires.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class ApplicationHandlerHolder {
+
+    private static final Logger LOGGER = Logger.getLogger(ApplicationHandlerHolder.class.getName());
+
+    private static final URI WARM_UP_BASE_URI = URI.create("http://localhost/");
+    private static final long WARM_UP_REQUEST_TIMEOUT = 30;
+    private static final int DEFAULT_DRAIN_TIMEOUT = 60000;
+
+    /**
+     * Scheduler of the forced destruction of replaced applications that have not been drained in time.
+     */
+    private static final ScheduledThreadPoolExecutor DRAIN_SCHEDULER;
+
+    static {
+        DRAIN_SCHEDULER = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+                .setNameFormat("jersey-application-drain-%d").setDaemon(true).build());
+        DRAIN_SCHEDULER.setKeepAliveTime(10, TimeUnit.SECONDS);
+        DRAIN_SCHEDULER.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Deployed application handler together with the count of the requests being processed by it.
+     */
+    private static final class Generation {
+
+        private final ApplicationHandler handler;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicBoolean destroyed = new AtomicBoolean();
+        private volatile boolean retired;
+
+        private Generation(final ApplicationHandler handler) {
+            this.handler = handler;
+        }
+
+        private void release() {
+            if (inFlight.decrementAndGet() == 0 && retired) {
+                destroy();
+            }
+        }
+
+        private void retire(final long drainTimeout) {
+            retired = true;
+            if (inFlight.get() == 0) {
+                destroy();
+            } else if (drainTimeout > 0) {
+                DRAIN_SCHEDULER.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!destroyed.get()) {
+                            LOGGER.warning(LocalizationMessages.RELOAD_APPLICATION_DRAIN_TIMEOUT(
+                                    drainTimeout, inFlight.get()));
+                            destroy();
+                        }
+                    }
+                }, drainTimeout, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void destroy() {
+            if (destroyed.compareAndSet(false, true)) {
+                try {
+                    handler.getServiceLocator().shutdown();
+                    LOGGER.fine(LocalizationMessages.RELOAD_APPLICATION_DESTROYED());
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.WARNING, LocalizationMessages.RELOAD_APPLICATION_DESTROY_FAILED(), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Response writer releasing the application handler generation once the response is committed or failed.
+     */
+    private static final class TrackingResponseWriter implements ZeroCopyResponseWriter, EntityReferenceResponseWriter {
+
+        private final ContainerResponseWriter delegate;
+        private final Generation generation;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private TrackingResponseWriter(final ContainerResponseWriter delegate, final Generation generation) {
+            this.delegate = delegate;
+            this.generation = generation;
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                generation.release();
+            }
+        }
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(final long contentLength,
+                                                          final ContainerResponse responseContext)
+                throws ContainerException {
+            return delegate.writeResponseStatusAndHeaders(contentLength, responseContext);
+        }
+
+        @Override
+        public boolean writeFile(final File file, final long position, final long count,
+                                 final ContainerResponse responseContext) throws ContainerException {
+            return delegate instanceof ZeroCopyResponseWriter
+                    && ((ZeroCopyResponseWriter) delegate).writeFile(file, position, count, responseContext);
+        }
+
+        @Override
+        public boolean writeByteBuffer(final ByteBuffer buffer, final ContainerResponse responseContext)
+                throws ContainerException {
+            return delegate instanceof ZeroCopyResponseWriter
+                    && ((ZeroCopyResponseWriter) delegate).writeByteBuffer(buffer, responseContext);
+        }
+
+        @Override
+        public boolean writeEntityReference(final Object entity, final ContainerResponse responseContext)
+                throws ContainerException {
+            return delegate instanceof EntityReferenceResponseWriter
+                    && ((EntityReferenceResponseWriter) delegate).writeEntityReference(entity, responseContext);
+        }
+
+        @Override
+        public boolean suspend(final long timeOut, final TimeUnit timeUnit, final TimeoutHandler timeoutHandler) {
+            return delegate.suspend(timeOut, timeUnit, timeoutHandler == null ? null : new TimeoutHandler() {
+                @Override
+                public void onTimeout(final ContainerResponseWriter responseWriter) {
+                    timeoutHandler.onTimeout(TrackingResponseWriter.this);
+                }
+            });
+        }
+
+        @Override
+        public void setSuspendTimeout(final long timeOut, final TimeUnit timeUnit) throws IllegalStateException {
+            delegate.setSuspendTimeout(timeOut, timeUnit);
+        }
+
+        @Override
+        public void commit() {
+            try {
+                delegate.commit();
+            } finally {
+                release();
+            }
+        }
+
+        @Override
+        public void failure(final Throwable error) {
+            try {
+                delegate.failure(error);
+            } finally {
+                release();
+            }
+        }
+    }
+
+    private final AtomicReference<Generation> current;
+
+    /**
+     * Create new application handler holder.
+     *
+     * @param handler initially deployed application handler.
+     */
+    public ApplicationHandlerHolder(final ApplicationHandler handler) {
+        this.current = new AtomicReference<Generation>(new Generation(handler));
+    }
+
+    /**
+     * Get the currently deployed application handler.
+     *
+     * @return current application handler.
+     */
+    public ApplicationHandler get() {
+        return current.get().handler;
+    }
+
+    /**
+     * Handle the request using the currently deployed application handler.
+     * <p>
+     * The {@link ContainerRequest#getResponseWriter() response writer} of the request must be set before
+     * the method is invoked.
+     * </p>
+     *
+     * @param request request to be handled.
+     */
+    public void handle(final ContainerRequest request) {
+        final Generation generation = acquire();
+        final TrackingResponseWriter writer = new TrackingResponseWriter(request.getResponseWriter(), generation);
+        request.setWriter(writer);
+        try {
+            generation.handler.handle(request);
+        } catch (RuntimeException ex) {
+            writer.release();
+            throw ex;
+        } catch (Error error) {
+            writer.release();
+            throw error;
+        }
+    }
+
+    private Generation acquire() {
+        while (true) {
+            final Generation generation = current.get();
+            generation.inFlight.incrementAndGet();
+            if (current.get() == generation) {
+                return generation;
+            }
+            // generation replaced in the meantime
+            generation.release();
+        }
+    }
+
+    /**
+     * Reload the application using the new configuration.
+     * <p>
+     * If the {@link ServerProperties#RELOAD_WARM_UP} property is not enabled in the new configuration, the
+     * new application handler is created and swapped in on the calling thread. Otherwise the method returns
+     * immediately and the new application handler is created, warmed up and swapped in on a background thread.
+     * In both cases the {@code reloadCallback} is invoked once the new application handler has been swapped in
+     * and the replaced application handler is destroyed once it has been drained.
+     * </p>
+     *
+     * @param configuration  new application configuration.
+     * @param reloadCallback callback invoked once the new application handler has been deployed.
+     */
+    public void reload(final ResourceConfig configuration, final Runnable reloadCallback) {
+        final long drainTimeout = PropertiesHelper.getValue(configuration.getProperties(),
+                ServerProperties.RELOAD_DRAIN_TIMEOUT, DEFAULT_DRAIN_TIMEOUT);
+        if (!PropertiesHelper.getValue(configuration.getProperties(), ServerProperties.RELOAD_WARM_UP, Boolean.FALSE)) {
+            current.getAndSet(new Generation(new ApplicationHandler(configuration))).retire(drainTimeout);
+            reloadCallback.run();
+            return;
+        }
+
+        final Thread reloadThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final ApplicationHandler handler;
+                try {
+                    handler = new ApplicationHandler(configuration);
+                    warmUp(handler);
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.SEVERE, LocalizationMessages.RELOAD_APPLICATION_FAILED(), ex);
+                    return;
+                }
+
+                current.getAndSet(new Generation(handler)).retire(drainTimeout);
+                reloadCallback.run();
+            }
+        }, "jersey-application-reload");
+        reloadThread.setDaemon(true);
+        reloadThread.start();
+    }
+
+    /**
+     * Replay the configured {@link ServerProperties#RELOAD_WARM_UP_REQUESTS warm-up requests} using the
+     * application handler. Failures of the individual requests are logged and ignored.
+     *
+     * @param handler application handler to be warmed up.
+     */
+    public static void warmUp(final ApplicationHandler handler) {
+        for (String warmUpRequest : getWarmUpRequests(handler.getConfiguration())) {
+            final int separator = warmUpRequest.indexOf(' ');
+            final String method = separator < 0 ? HttpMethod.GET : warmUpRequest.substring(0, separator).trim();
+            String path = separator < 0 ? warmUpRequest : warmUpRequest.substring(separator + 1).trim();
+            if (path.startsWith("/")) {
+                path = path.substring(1);
+            }
+
+            try {
+                final ContainerRequest request = new ContainerRequest(WARM_UP_BASE_URI, WARM_UP_BASE_URI.resolve(path),
+                        method, null, new MapPropertiesDelegate());
+                handler.apply(request).get(WARM_UP_REQUEST_TIMEOUT, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                LOGGER.log(Level.FINE, LocalizationMessages.RELOAD_WARM_UP_REQUEST_FAILED(warmUpRequest), ex);
+            }
+        }
+    }
+
+    private static List<String> getWarmUpRequests(final ResourceConfig configuration) {
+        final Object value = configuration.getProperty(ServerProperties.RELOAD_WARM_UP_REQUESTS);
+
+        final String[] entries;
+        if (value instanceof String) {
+            entries = ((String) value).split(",");
+        } else if (value instanceof String[]) {
+            entries = (String[]) value;
+        } else {
+            return Collections.emptyList();
+        }
+
+        final List<String> requests = new ArrayList<String>(entries.length);
+        for (String entry : entries) {
+            final String trimmed = entry.trim();
+            if (trimmed.length() > 0) {
+                requests.add(trimmed);
+            }
+        }
+        return requests;
+    }
+}
@@ -112,7 +112,7 @@ public class JsonWithPaddingInterceptor implements WriterInterceptor {
      * @return {@code true} if the given media type is a JavaScript type, {@code false} otherwise (or if the media type is
      *         {@code null}}
      */
-    private boolean isJavascript(MediaType m) {
+    public boolean isJavascript(MediaType m) {
         if (m == null) {
             return false;
         }
@@ -39,10 +39,13 @@
  */
 package org.glassfish.jersey.server.internal.routing;
 
+import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.WebApplicationException;
@@ -53,9 +56,11 @@ import org.glassfish.jersey.internal.Errors;
 import org.glassfish.jersey.internal.ProcessingException;
 import org.glassfish.jersey.internal.inject.Injections;
 import org.glassfish.jersey.internal.inject.Providers;
+import org.glassfish.jersey.internal.util.PropertiesHelper;
 import org.glassfish.jersey.model.internal.RankedComparator;
 import org.glassfish.jersey.model.internal.RankedProvider;
 import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ServerProperties;
 import org.glassfish.jersey.server.internal.JerseyResourceContext;
 import org.glassfish.jersey.server.internal.LocalizationMessages;
 import org.glassfish.jersey.server.internal.process.MappableException;
@@ -66,17 +71,27 @@ import org.glassfish.jersey.server.model.Resource;
 import org.glassfish.jersey.server.model.ResourceMethod;
 import org.glassfish.jersey.server.model.ResourceModel;
 import org.glassfish.jersey.server.model.internal.ModelErrors;
+import org.glassfish.jersey.server.model.internal.ResourceMethodInvocationHandlerFactory;
 import org.glassfish.jersey.server.spi.internal.ParameterValueHelper;
 
 import org.glassfish.hk2.api.Factory;
 import org.glassfish.hk2.api.ServiceLocator;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
 /**
  * An methodAcceptorPair to accept sub-resource requests.
  * It first retrieves the sub-resource instance by invoking the given model method.
  * Then the {@link RuntimeModelBuilder} is used to generate corresponding methodAcceptorPair.
  * Finally the generated methodAcceptorPair is invoked to return the request methodAcceptorPair chain.
- * <p/>
+ * <p>
+ * The generated routers are cached per sub-resource class (or per programmatic {@link Resource resource}
+ * instance) so that the sub-resource model is introspected, processed and validated only once.
+ * The size of the cache is limited by the {@link ServerProperties#SUBRESOURCE_LOCATOR_CACHE_SIZE} property.
+ * </p>
  *
  * @author Jakub Podlesak (jakub.podlesak at oracle.com)
  * @author Miroslav Fuksa (miroslav.fuksa at oracle.com)
@@ -88,7 +103,13 @@ class SubResourceLocatorRouter implements Router {
     private final List<Factory<?>> valueProviders;
     private final RuntimeModelBuilder runtimeModelBuilder;
     private final JerseyResourceContext resourceContext;
-
+    private final Method handlingMethod;
+    private final InvocationHandler invocationHandler;
+    /**
+     * Cache of the built sub-resource routers, keyed by the sub-resource class or programmatic resource
+     * (weak keys are compared by identity). {@code null} if the caching is disabled.
+     */
+    private final Cache<Object, Router> routerCache;
 
     /**
      * Create a new sub-resource locator router.
@@ -106,6 +127,14 @@ class SubResourceLocatorRouter implements Router {
         this.locatorModel = locatorModel;
         this.valueProviders = ParameterValueHelper.createValueProviders(locator, locatorModel.getInvocable());
         this.resourceContext = locator.getService(JerseyResourceContext.class);
+        this.handlingMethod = locatorModel.getInvocable().getHandlingMethod();
+        this.invocationHandler = locator.getService(ResourceMethodInvocationHandlerFactory.class)
+                .create(locatorModel.getInvocable());
+
+        final int cacheSize = PropertiesHelper.getValue(locator.getService(Configuration.class).getProperties(),
+                ServerProperties.SUBRESOURCE_LOCATOR_CACHE_SIZE, ServerProperties.SUBRESOURCE_LOCATOR_CACHE_SIZE_DEFAULT);
+        this.routerCache = (cacheSize > 0)
+                ? CacheBuilder.newBuilder().weakKeys().maximumSize(cacheSize).<Object, Router>build() : null;
     }
 
     @Override
@@ -117,10 +146,11 @@ class SubResourceLocatorRouter implements Router {
             throw new WebApplicationException(Response.Status.NOT_FOUND);
         }
 
-        Resource subResource;
+        final Resource programmaticResource;
         if (subResourceInstance.getClass().isAssignableFrom(Resource.class)) {
-            subResource = (Resource) subResourceInstance;
+            programmaticResource = (Resource) subResourceInstance;
         } else {
+            programmaticResource = null;
             if (subResourceInstance.getClass().isAssignableFrom(Class.class)) {
                 final Class<?> clazz = (Class<?>) subResourceInstance;
                 subResourceInstance = Injections.getOrCreate(locator, clazz);
@@ -128,8 +158,42 @@ class SubResourceLocatorRouter implements Router {
                 routingCtx.pushMatchedResource(subResourceInstance);
                 resourceContext.bindResourceIfSingleton(subResourceInstance);
             }
+        }
 
-            final Resource.Builder builder = Resource.builder(subResourceInstance.getClass());
+        final Class<?> subResourceClass = subResourceInstance.getClass();
+        final Router subResourceAcceptor;
+        if (routerCache == null) {
+            subResourceAcceptor = buildRouter(programmaticResource, subResourceClass);
+        } else {
+            subResourceAcceptor = getCachedRouter(programmaticResource, subResourceClass);
+        }
+
+        return Continuation.of(request, subResourceAcceptor);
+    }
+
+    private Router getCachedRouter(final Resource programmaticResource, final Class<?> subResourceClass) {
+        final Object key = (programmaticResource != null) ? programmaticResource : subResourceClass;
+        try {
+            return routerCache.get(key, new Callable<Router>() {
+                @Override
+                public Router call() {
+                    return buildRouter(programmaticResource, subResourceClass);
+                }
+            });
+        } catch (ExecutionException ex) {
+            // never thrown, the router building does not throw checked exceptions
+            throw new ProcessingException(ex.getCause());
+        } catch (UncheckedExecutionException ex) {
+            throw (RuntimeException) ex.getCause();
+        } catch (ExecutionError error) {
+            throw (Error) error.getCause();
+        }
+    }
+
+    private Router buildRouter(final Resource programmaticResource, final Class<?> subResourceClass) {
+        Resource subResource = programmaticResource;
+        if (subResource == null) {
+            final Resource.Builder builder = Resource.builder(subResourceClass);
             if (builder == null) {
                 // resource is empty
                 throw new NotFoundException();
@@ -147,10 +211,7 @@ class SubResourceLocatorRouter implements Router {
             resourceContext.bindResource(handlerClass);
         }
 
-        // TODO: implement generated sub-resource methodAcceptorPair caching
-        Router subResourceAcceptor = runtimeModelBuilder.buildModel(resourceModel.getRuntimeResourceModel(), true);
-
-        return Continuation.of(request, subResourceAcceptor);
+        return runtimeModelBuilder.buildModel(resourceModel.getRuntimeResourceModel(), true);
     }
 
     private ResourceModel processSubResource(ResourceModel subResourceModel) {
@@ -193,8 +254,8 @@ class SubResourceLocatorRouter implements Router {
     private Object getResource(RoutingContext routingCtx) {
         final Object resource = routingCtx.peekMatchedResource();
         try {
-            Method handlingMethod = locatorModel.getInvocable().getHandlingMethod();
-            return handlingMethod.invoke(resource, ParameterValueHelper.getParameterValues(valueProviders));
+            return invocationHandler.invoke(resource, handlingMethod,
+                    ParameterValueHelper.getParameterValues(valueProviders));
         } catch (IllegalAccessException ex) {
             throw new ProcessingException("Resource Java method invocation error.", ex);
         } catch (InvocationTargetException ex) {
@@ -51,6 +51,10 @@
 package org.glassfish.jersey.server.model;
 
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.glassfish.jersey.internal.Errors;
 import org.glassfish.jersey.message.MessageBodyWorkers;
@@ -158,6 +162,78 @@ public final class ComponentModelValidator {
         });
     }
 
+    /**
+     * Validate a component, validating its sub-components in parallel using the supplied executor service.
+     * <p>
+     * The issues found in the sub-components are added to the issue list in the same order as if the
+     * component was validated using the {@link #validate(ResourceModelComponent)} method.
+     * </p>
+     *
+     * @param component resource model component.
+     * @param executor  executor service used to validate the sub-components. If {@code null}, the sub-components
+     *                  are validated in the calling thread.
+     */
+    public void validate(final ResourceModelComponent component, final ExecutorService executor) {
+        if (executor == null) {
+            validate(component);
+            return;
+        }
+
+        Errors.process(new Runnable() {
+            @Override
+            public void run() {
+                Errors.mark();
+
+                for (ResourceModelVisitor validator : validators) {
+                    component.accept(validator);
+                }
+
+                final List<? extends ResourceModelComponent> componentList = component.getComponents();
+                if (null != componentList) {
+                    final List<Future<List<Errors.ErrorMessage>>> results = Lists.newArrayList();
+                    for (final ResourceModelComponent subComponent : componentList) {
+                        results.add(executor.submit(new Callable<List<Errors.ErrorMessage>>() {
+                            @Override
+                            public List<Errors.ErrorMessage> call() {
+                                // validators are not thread-safe
+                                final ComponentModelValidator validator = new ComponentModelValidator(locator);
+                                return Errors.collect(new Runnable() {
+                                    @Override
+                                    public void run() {
+                                        validator.validateWithErrors(subComponent);
+                                    }
+                                });
+                            }
+                        }));
+                    }
+                    for (Future<List<Errors.ErrorMessage>> result : results) {
+                        Errors.addAll(getResult(result));
+                    }
+                }
+                issueList.addAll(ModelErrors.getErrorsAsResourceModelIssues(true));
+
+                Errors.unmark();
+            }
+        });
+    }
+
+    private static <T> T getResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
     private void validateWithErrors(final ResourceModelComponent component) {
         for (ResourceModelVisitor validator : validators) {
             component.accept(validator);
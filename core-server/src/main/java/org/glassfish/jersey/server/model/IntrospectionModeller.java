@@ -295,8 +295,9 @@ final class IntrospectionModeller {
     }
 
     private static void introspectAsyncFeatures(AnnotatedMethod am, ResourceMethod.Builder resourceMethodBuilder) {
-        if (am.isAnnotationPresent(ManagedAsync.class)) {
-            resourceMethodBuilder.managedAsync();
+        final ManagedAsync managedAsync = am.getAnnotation(ManagedAsync.class);
+        if (managedAsync != null) {
+            resourceMethodBuilder.managedAsync(managedAsync.value());
         }
 
         for (Annotation[] annotations : am.getParameterAnnotations()) {
@@ -129,6 +129,7 @@ public final class Invocable implements Parameterized, ResourceModelComponent {
     private final MethodHandler handler;
     private final Method handlingMethod;
     private final List<Parameter> parameters;
+    private final boolean encodedParameters;
 
     private final Class<?> rawResponseType;
     private final Type responseType;
@@ -136,6 +137,7 @@ public final class Invocable implements Parameterized, ResourceModelComponent {
     private Invocable(MethodHandler handler, Method handlingMethod, boolean encodedParameters) {
         this.handler = handler;
         this.handlingMethod = handlingMethod;
+        this.encodedParameters = encodedParameters;
 
         final Class<?> handlerClass = handler.getHandlerClass();
         final ClassTypePair ctPair = ReflectionHelper.resolveGenericType(
@@ -194,6 +196,15 @@ public final class Invocable implements Parameterized, ResourceModelComponent {
         return rawResponseType;
     }
 
+    /**
+     * Check if the automatic decoding of the invocable parameter values has been disabled.
+     *
+     * @return {@code true} if the parameter values are not automatically decoded, {@code false} otherwise.
+     */
+    boolean isEncodedParameters() {
+        return encodedParameters;
+    }
+
     /**
      * Check if the invocable represents an {@link Inflector#apply(Object) inflector
      * processing method}.
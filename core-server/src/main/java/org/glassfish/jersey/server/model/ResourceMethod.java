@@ -144,6 +144,7 @@ public class ResourceMethod implements ResourceModelComponent, Producing, Consum
         private final Set<MediaType> producedTypes;
         // Suspendable
         private boolean managedAsync;
+        private String managedAsyncExecutor;
         private boolean suspended;
         private long suspendTimeout;
         private TimeUnit suspendTimeoutUnit;
@@ -324,8 +325,29 @@ public class ResourceMethod implements ResourceModelComponent, Producing, Consum
             return this;
         }
 
+        /**
+         * Mark the component as managed asynchronous, i.e. to be executed on a separate
+         * thread of the default Jersey managed asynchronous executor service.
+         *
+         * @return updated builder object.
+         * @see org.glassfish.jersey.server.ManagedAsync
+         */
         public Builder managedAsync() {
+            return managedAsync(null);
+        }
+
+        /**
+         * Mark the component as managed asynchronous, i.e. to be executed on a separate
+         * thread of the named Jersey managed asynchronous executor service.
+         *
+         * @param executorName name of the managed executor service. If {@code null} or empty,
+         *                     the default managed asynchronous executor service will be used.
+         * @return updated builder object.
+         * @see org.glassfish.jersey.server.ManagedAsync#value()
+         */
+        public Builder managedAsync(String executorName) {
             managedAsync = true;
+            managedAsyncExecutor = (executorName == null || executorName.isEmpty()) ? null : executorName;
 
             return this;
         }
@@ -412,6 +434,7 @@ public class ResourceMethod implements ResourceModelComponent, Producing, Consum
                     consumedTypes,
                     producedTypes,
                     managedAsync,
+                    managedAsyncExecutor,
                     suspended,
                     suspendTimeout,
                     suspendTimeoutUnit,
@@ -446,6 +469,7 @@ public class ResourceMethod implements ResourceModelComponent, Producing, Consum
     private final List<MediaType> producedTypes;
     // SuspendableComponent
     private final boolean managedAsync;
+    private final String managedAsyncExecutor;
     private final boolean suspended;
     private final long suspendTimeout;
     private final TimeUnit suspendTimeoutUnit;
@@ -457,13 +481,16 @@ public class ResourceMethod implements ResourceModelComponent, Producing, Consum
     private ResourceMethod(final String httpMethod,
                            final Collection<MediaType> consumedTypes,
                            final Collection<MediaType> producedTypes,
-                           boolean managedAsync, final boolean suspended,
+                           final boolean managedAsync,
+                           final String managedAsyncExecutor,
+                           final boolean suspended,
                            final long suspendTimeout,
                            final TimeUnit suspendTimeoutUnit,
                            final Invocable invocable,
                            final Collection<Class<? extends Annotation>> nameBindings
     ) {
         this.managedAsync = managedAsync;
+        this.managedAsyncExecutor = managedAsyncExecutor;
         this.type = JaxrsType.classify(httpMethod);
 
         this.httpMethod = (httpMethod == null) ? httpMethod : httpMethod.toUpperCase();
@@ -543,6 +570,17 @@ public class ResourceMethod implements ResourceModelComponent, Producing, Consum
         return managedAsync;
     }
 
+    /**
+     * Get the name of the managed executor service the resource method should be executed on.
+     *
+     * @return name of the managed executor service or {@code null} if the method is not
+     *         {@link #isManagedAsyncDeclared() managed asynchronous} or if it should be
+     *         executed using the default managed executor service.
+     */
+    public String getManagedAsyncExecutor() {
+        return managedAsyncExecutor;
+    }
+
     // ResourceModelComponent
     @Override
     public List<? extends ResourceModelComponent> getComponents() {
@@ -0,0 +1,488 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import javax.ws.rs.core.MediaType;
+
+import org.glassfish.jersey.internal.Version;
+import org.glassfish.jersey.server.internal.LocalizationMessages;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+
+/**
+ * Snapshot of the introspected resource models of the application classes.
+ * <p>
+ * The snapshot stores the resource models built by introspecting the JAX-RS annotated classes
+ * (resource paths, resource methods and sub-resource locators, consumed and produced media types,
+ * name bindings and asynchronous features) in a compact binary file together with a fingerprint
+ * of the introspected class files. When the snapshot is {@link #read(java.io.File, java.util.Collection) read}
+ * back for the same set of unchanged classes, the resource models are rebuilt directly from the snapshot data,
+ * without repeating the annotation introspection.
+ * </p>
+ * <p>
+ * Only the models of the class-based resource handlers can be stored in the snapshot. Programmatic
+ * resources are not part of the snapshot and are always built by the application.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class ResourceModelSnapshot {
+
+    private static final int MAGIC = 0x4A524D53; // "JRMS"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final Map<String, Class<?>> PRIMITIVE_TYPES;
+
+    static {
+        final Map<String, Class<?>> primitives = Maps.newHashMap();
+        for (Class<?> type : new Class<?>[]{boolean.class, byte.class, char.class, short.class,
+                int.class, long.class, float.class, double.class, void.class}) {
+            primitives.put(type.getName(), type);
+        }
+        PRIMITIVE_TYPES = Collections.unmodifiableMap(primitives);
+    }
+
+    // resource models of the snapshot classes, a null value represents a class that is not a resource
+    private final SortedMap<String, Resource> resources;
+    private final long fingerprint;
+
+    private ResourceModelSnapshot(final SortedMap<String, Resource> resources, final long fingerprint) {
+        this.resources = resources;
+        this.fingerprint = fingerprint;
+    }
+
+    /**
+     * Create a new snapshot of the introspected resource models.
+     *
+     * @param resources map of the introspected classes to their resource models. A {@code null} resource
+     *                  model value indicates that the introspected class is not a resource.
+     * @return new resource model snapshot, or {@code null} if the resource models cannot be stored in
+     *         a snapshot (e.g. if any of the models is handled by a handler instance).
+     * @throws IOException in case the fingerprint of the introspected classes cannot be computed.
+     */
+    public static ResourceModelSnapshot create(final Map<Class<?>, Resource> resources) throws IOException {
+        final SortedMap<String, Resource> models = Maps.newTreeMap();
+        for (Map.Entry<Class<?>, Resource> entry : resources.entrySet()) {
+            if (entry.getValue() != null && !isSupported(entry.getValue())) {
+                return null;
+            }
+            models.put(entry.getKey().getName(), entry.getValue());
+        }
+        return new ResourceModelSnapshot(models, fingerprint(resources.keySet()));
+    }
+
+    private static boolean isSupported(final Resource resource) {
+        for (ResourceMethod method : resource.getAllMethods()) {
+            if (!method.getInvocable().getHandler().isClassBased()) {
+                return false;
+            }
+        }
+        for (Resource child : resource.getChildResources()) {
+            if (!isSupported(child)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Read the resource model snapshot from a file.
+     * <p>
+     * The snapshot is only returned if it has been created by the same Jersey version for exactly the supplied
+     * set of classes and none of the class files (including the class files of their super-types) has changed
+     * since the snapshot has been written.
+     * </p>
+     *
+     * @param file    snapshot file.
+     * @param classes classes of the application that would be otherwise introspected.
+     * @return resource model snapshot or {@code null} if the snapshot file does not exist or the snapshot is
+     *         out of date.
+     * @throws IOException in case the snapshot file cannot be read or the fingerprint of the classes cannot
+     *                     be computed.
+     */
+    public static ResourceModelSnapshot read(final File file, final Collection<Class<?>> classes) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_CORRUPTED(file));
+            }
+            if (!Version.getBuildId().equals(in.readUTF())) {
+                return null;
+            }
+            final long fingerprint = in.readLong();
+            final int size = in.readInt();
+
+            final Map<String, Class<?>> current = Maps.newHashMap();
+            for (Class<?> c : classes) {
+                current.put(c.getName(), c);
+            }
+            if (size != current.size() || fingerprint != fingerprint(classes)) {
+                return null;
+            }
+
+            final SortedMap<String, Resource> models = Maps.newTreeMap();
+            for (int i = 0; i < size; i++) {
+                final Class<?> resourceClass = current.get(in.readUTF());
+                if (resourceClass == null) {
+                    return null;
+                }
+                models.put(resourceClass.getName(), in.readBoolean() ? readResource(in, null, resourceClass) : null);
+            }
+            return new ResourceModelSnapshot(models, fingerprint);
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalArgumentException e) {
+            throw new IOException(LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_CORRUPTED(file), e);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Write the snapshot into a file.
+     * <p>
+     * The snapshot is first written into a temporary file in the same directory which then replaces
+     * the target file.
+     * </p>
+     *
+     * @param file snapshot file.
+     * @throws IOException in case the snapshot cannot be written.
+     */
+    public void write(final File file) throws IOException {
+        final File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_WRITE_FAILED(file));
+        }
+        final File tmp = File.createTempFile(file.getName(), ".tmp", directory);
+
+        boolean written = false;
+        try {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(Version.getBuildId());
+                out.writeLong(fingerprint);
+                out.writeInt(resources.size());
+                for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeBoolean(entry.getValue() != null);
+                    if (entry.getValue() != null) {
+                        writeResource(out, entry.getValue());
+                    }
+                }
+            } finally {
+                out.close();
+            }
+
+            if (!tmp.renameTo(file) && !(file.delete() && tmp.renameTo(file))) {
+                throw new IOException(LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_WRITE_FAILED(file));
+            }
+            written = true;
+        } finally {
+            if (!written) {
+                //noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+            }
+        }
+    }
+
+    /**
+     * Check if the snapshot contains the resource model of the class.
+     *
+     * @param resourceClass introspected class.
+     * @return {@code true} if the class has been introspected when the snapshot was created.
+     */
+    public boolean contains(final Class<?> resourceClass) {
+        return resources.containsKey(resourceClass.getName());
+    }
+
+    /**
+     * Get the resource model of the class stored in the snapshot.
+     *
+     * @param resourceClass introspected class.
+     * @return resource model of the class or {@code null} if the class is not a resource.
+     */
+    public Resource getResource(final Class<?> resourceClass) {
+        return resources.get(resourceClass.getName());
+    }
+
+    /**
+     * Get the number of classes stored in the snapshot.
+     *
+     * @return number of classes in the snapshot.
+     */
+    public int size() {
+        return resources.size();
+    }
+
+    /**
+     * Compute the fingerprint of the class files of the classes and all their super-types
+     * with the exception of the core Java types.
+     */
+    private static long fingerprint(final Collection<Class<?>> classes) throws IOException {
+        final SortedMap<String, Class<?>> sorted = Maps.newTreeMap();
+        for (Class<?> c : classes) {
+            sorted.put(c.getName(), c);
+        }
+
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[8192];
+        for (Class<?> c : sorted.values()) {
+            final Set<Class<?>> visited = Sets.newHashSet();
+            final List<Class<?>> types = Lists.newLinkedList();
+            types.add(c);
+            while (!types.isEmpty()) {
+                final Class<?> type = types.remove(0);
+                if (type == null || type.getName().startsWith("java.") || !visited.add(type)) {
+                    continue;
+                }
+                crc.update(type.getName().getBytes("UTF-8"));
+                update(crc, type, buffer);
+
+                types.add(type.getSuperclass());
+                Collections.addAll(types, type.getInterfaces());
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void update(final CRC32 crc, final Class<?> type, final byte[] buffer) throws IOException {
+        final String classFile = type.getName().replace('.', '/') + ".class";
+        final ClassLoader loader = type.getClassLoader();
+        final InputStream in = loader == null
+                ? ClassLoader.getSystemResourceAsStream(classFile) : loader.getResourceAsStream(classFile);
+        if (in == null) {
+            throw new IOException(LocalizationMessages.RESOURCE_MODEL_SNAPSHOT_CLASS_FILE_NOT_FOUND(type.getName()));
+        }
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } finally {
+            in.close();
+        }
+    }
+
+    private static void writeResource(final DataOutputStream out, final Resource resource) throws IOException {
+        out.writeUTF(resource.getName());
+        writeNullable(out, resource.getPath());
+
+        out.writeInt(resource.getResourceMethods().size());
+        for (ResourceMethod method : resource.getResourceMethods()) {
+            writeMethod(out, method);
+        }
+        out.writeBoolean(resource.getResourceLocator() != null);
+        if (resource.getResourceLocator() != null) {
+            writeMethod(out, resource.getResourceLocator());
+        }
+
+        out.writeInt(resource.getChildResources().size());
+        for (Resource child : resource.getChildResources()) {
+            writeResource(out, child);
+        }
+    }
+
+    private static void writeMethod(final DataOutputStream out, final ResourceMethod method) throws IOException {
+        writeNullable(out, method.getHttpMethod());
+
+        final Invocable invocable = method.getInvocable();
+        final Method handlingMethod = invocable.getHandlingMethod();
+        out.writeUTF(invocable.getHandler().getHandlerClass().getName());
+        out.writeUTF(handlingMethod.getDeclaringClass().getName());
+        out.writeUTF(handlingMethod.getName());
+        final Class<?>[] parameterTypes = handlingMethod.getParameterTypes();
+        out.writeInt(parameterTypes.length);
+        for (Class<?> parameterType : parameterTypes) {
+            out.writeUTF(parameterType.getName());
+        }
+        out.writeBoolean(invocable.isEncodedParameters());
+
+        writeMediaTypes(out, method.getConsumedTypes());
+        writeMediaTypes(out, method.getProducedTypes());
+
+        out.writeInt(method.getNameBindings().size());
+        for (Class<? extends Annotation> nameBinding : method.getNameBindings()) {
+            out.writeUTF(nameBinding.getName());
+        }
+
+        out.writeBoolean(method.isSuspendDeclared());
+        if (method.isSuspendDeclared()) {
+            out.writeLong(method.getSuspendTimeout());
+            out.writeUTF(method.getSuspendTimeoutUnit().name());
+        }
+        out.writeBoolean(method.isManagedAsyncDeclared());
+        if (method.isManagedAsyncDeclared()) {
+            writeNullable(out, method.getManagedAsyncExecutor());
+        }
+    }
+
+    private static void writeMediaTypes(final DataOutputStream out, final List<MediaType> mediaTypes)
+            throws IOException {
+        out.writeInt(mediaTypes.size());
+        for (MediaType mediaType : mediaTypes) {
+            out.writeUTF(mediaType.toString());
+        }
+    }
+
+    private static void writeNullable(final DataOutputStream out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static Resource readResource(final DataInputStream in, final Resource.Builder parent,
+                                         final Class<?> resourceClass)
+            throws IOException, ClassNotFoundException, NoSuchMethodException {
+        final String name = in.readUTF();
+        final String path = readNullable(in);
+
+        final Resource.Builder builder;
+        if (parent != null) {
+            builder = parent.addChildResource(path);
+        } else {
+            builder = path == null ? Resource.builder() : Resource.builder(path);
+        }
+        builder.name(name);
+
+        for (int i = in.readInt(); i > 0; i--) {
+            readMethod(in, builder, resourceClass);
+        }
+        if (in.readBoolean()) {
+            readMethod(in, builder, resourceClass);
+        }
+
+        for (int i = in.readInt(); i > 0; i--) {
+            readResource(in, builder, resourceClass);
+        }
+
+        return parent == null ? builder.build() : null;
+    }
+
+    private static void readMethod(final DataInputStream in, final Resource.Builder resourceBuilder,
+                                   final Class<?> resourceClass)
+            throws IOException, ClassNotFoundException, NoSuchMethodException {
+        final String httpMethod = readNullable(in);
+        final ResourceMethod.Builder builder =
+                httpMethod == null ? resourceBuilder.addMethod() : resourceBuilder.addMethod(httpMethod);
+
+        final ClassLoader loader = resourceClass.getClassLoader();
+        final Class<?> handlerClass = loadClass(in.readUTF(), resourceClass);
+        final Class<?> declaringClass = loadClass(in.readUTF(), resourceClass);
+        final String methodName = in.readUTF();
+        final Class<?>[] parameterTypes = new Class<?>[in.readInt()];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = loadClass(in.readUTF(), resourceClass);
+        }
+        final boolean encoded = in.readBoolean();
+
+        builder.consumes(readMediaTypes(in));
+        builder.produces(readMediaTypes(in));
+
+        final List<Class<? extends Annotation>> nameBindings = Lists.newArrayList();
+        for (int i = in.readInt(); i > 0; i--) {
+            nameBindings.add(Class.forName(in.readUTF(), false, loader).asSubclass(Annotation.class));
+        }
+        builder.nameBindings(nameBindings);
+
+        if (in.readBoolean()) {
+            builder.suspended(in.readLong(), TimeUnit.valueOf(in.readUTF()));
+        }
+        if (in.readBoolean()) {
+            builder.managedAsync(readNullable(in));
+        }
+
+        builder.encodedParameters(encoded)
+                .handledBy(handlerClass, declaringClass.getDeclaredMethod(methodName, parameterTypes))
+                .build();
+    }
+
+    private static Class<?> loadClass(final String name, final Class<?> resourceClass) throws ClassNotFoundException {
+        final Class<?> primitive = PRIMITIVE_TYPES.get(name);
+        if (primitive != null) {
+            return primitive;
+        }
+        return name.equals(resourceClass.getName())
+                ? resourceClass : Class.forName(name, false, resourceClass.getClassLoader());
+    }
+
+    private static List<MediaType> readMediaTypes(final DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final List<MediaType> mediaTypes = Lists.newArrayListWithCapacity(size);
+        for (int i = 0; i < size; i++) {
+            mediaTypes.add(MediaType.valueOf(in.readUTF()));
+        }
+        return mediaTypes;
+    }
+
+    private static String readNullable(final DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
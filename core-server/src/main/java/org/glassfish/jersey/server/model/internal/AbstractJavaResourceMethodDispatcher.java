@@ -51,7 +51,10 @@ import javax.ws.rs.core.Response;
 import javax.inject.Inject;
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
-import javax.validation.Validator;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.MethodDescriptor;
+import javax.validation.metadata.ParameterDescriptor;
+import javax.validation.metadata.ReturnValueDescriptor;
 
 import org.glassfish.jersey.internal.ProcessingException;
 import org.glassfish.jersey.server.internal.inject.ConfiguredValidator;
@@ -76,6 +79,8 @@ abstract class AbstractJavaResourceMethodDispatcher implements ResourceMethodDis
     private final Method method;
     private final InvocationHandler methodHandler;
 
+    private volatile ConstraintMetadata constraints;
+
     /**
      * Initialize common java resource method dispatcher structures.
      *
@@ -117,15 +122,15 @@ abstract class AbstractJavaResourceMethodDispatcher implements ResourceMethodDis
      */
     final Object invoke(Object resource, Object... args) throws ProcessingException {
         try {
-            final ConfiguredValidator validator = validatorProvider.get();
+            final ConstraintMetadata constraints = getConstraints(resource);
 
             // Validate resource class & method input parameters.
-            validateInput(validator, resource, args);
+            validateInput(constraints, resource, args);
 
             final Object invocationResult = methodHandler.invoke(resource, method, args);
 
             // Validate response entity.
-            validateResult(validator, resource, invocationResult);
+            validateResult(constraints, resource, invocationResult);
 
             return invocationResult;
         } catch (IllegalAccessException ex) {
@@ -149,30 +154,50 @@ abstract class AbstractJavaResourceMethodDispatcher implements ResourceMethodDis
         }
     }
 
+    /**
+     * Get the constraint metadata of the {@code method} invoked on the resource instance. The metadata are computed
+     * only once for the resource class and then reused for the subsequent invocations.
+     *
+     * @param resource resource class instance.
+     * @return constraint metadata of the resource method.
+     */
+    private ConstraintMetadata getConstraints(final Object resource) {
+        ConstraintMetadata current = constraints;
+        if (current == null || current.resourceClass != resource.getClass()) {
+            final ConfiguredValidator validator = current == null ? validatorProvider.get() : current.validator;
+            current = new ConstraintMetadata(validator, resource.getClass(), method);
+            constraints = current;
+        }
+        return current;
+    }
+
     /**
      * Validates resource class instance and input parameters of the {@code method}. {@link ConstraintViolationException} raised
      * from this method should be mapped to HTTP 400 status.
      *
-     * @param validator validator used to validate.
+     * @param constraints constraint metadata of the method.
      * @param resource resource class instance.
      * @param args input method parameters.
      * @throws ConstraintViolationException if {@link ConstraintViolation} occurs (should be mapped to HTTP 400 status).
      */
-    private void validateInput(final Validator validator, final Object resource, final Object[] args)
+    private void validateInput(final ConstraintMetadata constraints, final Object resource, final Object[] args)
             throws ConstraintViolationException {
 
-        if (validator != null) {
-            final Set<ConstraintViolation<Object>> constraintViolations = Sets.newHashSet();
+        Set<ConstraintViolation<Object>> constraintViolations = null;
 
-            // Resource validation.
-            constraintViolations.addAll(validator.validate(resource));
+        // Resource validation.
+        if (constraints.resourceConstrained) {
+            constraintViolations = constraints.validator.validate(resource);
+        }
 
-            // Resource method validation - input parameters.
-            constraintViolations.addAll(validator.forMethods().validateParameters(resource, method, args));
+        // Resource method validation - input parameters.
+        if (constraints.parametersConstrained) {
+            constraintViolations = merge(constraintViolations,
+                    constraints.validator.forMethods().validateParameters(resource, method, args));
+        }
 
-            if (!constraintViolations.isEmpty()) {
-                throw new ConstraintViolationException(constraintViolations);
-            }
+        if (constraintViolations != null && !constraintViolations.isEmpty()) {
+            throw new ConstraintViolationException(constraintViolations);
         }
     }
 
@@ -180,21 +205,20 @@ abstract class AbstractJavaResourceMethodDispatcher implements ResourceMethodDis
      * Validates response instance / response entity of the {@code method}. {@link ConstraintViolationException} raised
      * from this method should be mapped to HTTP 500 status.
      *
-     * @param validator validator used to validate.
+     * @param constraints constraint metadata of the method.
      * @param resource resource class instance.
      * @param invocationResult response.
      * @throws ConstraintViolationException if {@link ConstraintViolation} occurs (should be mapped to HTTP 500 status).
      */
-    private void validateResult(final Validator validator, final Object resource, final Object invocationResult) {
+    private void validateResult(final ConstraintMetadata constraints, final Object resource, final Object invocationResult) {
         // Resource method validation - return invocationResult.
-        if (validator != null) {
-            final Set<ConstraintViolation<Object>> constraintViolations = Sets.newHashSet();
-
-            constraintViolations.addAll(validator.forMethods().validateReturnValue(resource, method, invocationResult));
+        if (constraints.returnValueConstrained) {
+            Set<ConstraintViolation<Object>> constraintViolations =
+                    constraints.validator.forMethods().validateReturnValue(resource, method, invocationResult);
 
             if (invocationResult instanceof Response) {
-                constraintViolations.addAll(
-                        validator.forMethods().validateReturnValue(resource, method, ((Response) invocationResult).getEntity()));
+                constraintViolations = merge(constraintViolations, constraints.validator.forMethods()
+                        .validateReturnValue(resource, method, ((Response) invocationResult).getEntity()));
             }
 
             if (!constraintViolations.isEmpty()) {
@@ -203,6 +227,72 @@ abstract class AbstractJavaResourceMethodDispatcher implements ResourceMethodDis
         }
     }
 
+    private static Set<ConstraintViolation<Object>> merge(final Set<ConstraintViolation<Object>> first,
+                                                          final Set<ConstraintViolation<Object>> second) {
+        if (first == null || first.isEmpty()) {
+            return second;
+        } else if (second.isEmpty()) {
+            return first;
+        }
+        final Set<ConstraintViolation<Object>> merged = Sets.newHashSet(first);
+        merged.addAll(second);
+        return merged;
+    }
+
+    /**
+     * Constraint metadata of a resource method invoked on instances of a particular resource class.
+     * Validation of the resource instance, method parameters or return value is skipped if they are not constrained.
+     */
+    private static final class ConstraintMetadata {
+
+        private final ConfiguredValidator validator;
+        private final Class<?> resourceClass;
+
+        private final boolean resourceConstrained;
+        private final boolean parametersConstrained;
+        private final boolean returnValueConstrained;
+
+        ConstraintMetadata(final ConfiguredValidator validator, final Class<?> resourceClass, final Method method) {
+            this.validator = validator;
+            this.resourceClass = resourceClass;
+
+            if (validator == null) {
+                resourceConstrained = false;
+                parametersConstrained = false;
+                returnValueConstrained = false;
+            } else {
+                final BeanDescriptor beanDescriptor = validator.getConstraintsForClass(resourceClass);
+                final MethodDescriptor methodDescriptor =
+                        beanDescriptor.getConstraintsForMethod(method.getName(), method.getParameterTypes());
+
+                resourceConstrained = beanDescriptor.isBeanConstrained();
+                parametersConstrained = methodDescriptor != null && areParametersConstrained(methodDescriptor);
+                returnValueConstrained = methodDescriptor != null && isReturnValueConstrained(methodDescriptor);
+            }
+        }
+
+        private static boolean areParametersConstrained(final MethodDescriptor methodDescriptor) {
+            if (methodDescriptor.areParametersConstrained()) {
+                return true;
+            }
+            for (ParameterDescriptor parameterDescriptor : methodDescriptor.getParameterDescriptors()) {
+                if (parameterDescriptor.isCascaded() || parameterDescriptor.hasConstraints()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isReturnValueConstrained(final MethodDescriptor methodDescriptor) {
+            if (methodDescriptor.isReturnValueConstrained()) {
+                return true;
+            }
+            final ReturnValueDescriptor returnValueDescriptor = methodDescriptor.getReturnValueDescriptor();
+            return returnValueDescriptor != null
+                    && (returnValueDescriptor.isCascaded() || returnValueDescriptor.hasConstraints());
+        }
+    }
+
     @Override
     public String toString() {
         return method.toString();
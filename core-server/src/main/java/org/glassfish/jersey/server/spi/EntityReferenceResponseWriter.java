@@ -0,0 +1,77 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.spi;
+
+import org.glassfish.jersey.server.ContainerException;
+import org.glassfish.jersey.server.ContainerResponse;
+
+/**
+ * Container response writer capable of passing the response entity instance to the receiving side
+ * by reference, without serializing it.
+ * <p>
+ * The interface is meant to be implemented by in-process containers (e.g. client connectors dispatching
+ * the requests directly to an {@link org.glassfish.jersey.server.ApplicationHandler application handler}
+ * running in the same JVM). The Jersey runtime offers the response entity to the response writer
+ * whenever the entity would not be modified by any {@link javax.ws.rs.ext.WriterInterceptor writer interceptor},
+ * the response is neither chunked nor content-encoded and the request is not a {@code HEAD} request.
+ * </p>
+ * <p>
+ * If the method returns {@code true}, the container has taken over the response entity together with the
+ * response status and headers and the runtime does not write anything into the
+ * {@link #writeResponseStatusAndHeaders(long, ContainerResponse) response entity stream}. If the method returns
+ * {@code false}, the runtime falls back to the regular stream-based processing.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public interface EntityReferenceResponseWriter extends ContainerResponseWriter {
+
+    /**
+     * Write the status and headers of the response and pass the response entity instance to the receiving side.
+     *
+     * @param entity          response entity instance.
+     * @param responseContext the JAX-RS response to be written. The status, headers and entity type
+     *                        are obtained from the response.
+     * @return {@code true} if the entity instance has been accepted by the container, {@code false} if the entity
+     *         has to be serialized into the response entity stream.
+     * @throws ContainerException if an error occurred when writing out the status and headers.
+     */
+    public boolean writeEntityReference(Object entity, ContainerResponse responseContext) throws ContainerException;
+}
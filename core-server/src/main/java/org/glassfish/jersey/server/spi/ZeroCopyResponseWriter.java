@@ -0,0 +1,105 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.spi;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import org.glassfish.jersey.server.ContainerException;
+import org.glassfish.jersey.server.ContainerResponse;
+
+/**
+ * Container response writer capable of transferring selected response entity types
+ * directly to the underlying I/O container, without copying the entity data through
+ * the Jersey entity output stream.
+ * <p>
+ * I/O containers that are able to transfer a file or a byte buffer using a native mechanism
+ * (e.g. {@code sendfile}/{@link java.nio.channels.FileChannel#transferTo(long, long,
+ * java.nio.channels.WritableByteChannel) FileChannel.transferTo(...)}) may implement this interface
+ * in their {@link ContainerResponseWriter} implementation. The Jersey runtime then uses the direct
+ * transfer for {@link File} and {@code byte[]} response entities whenever the entity would be written
+ * by the default Jersey message body writer and no {@link javax.ws.rs.ext.WriterInterceptor writer
+ * interceptor} is registered.
+ * </p>
+ * <p>
+ * Each of the methods returns {@code true} if the container has accepted the entity for the direct
+ * transfer. In such case the response status and headers have been written by the container, with the
+ * {@code Content-Length} header set to the size of the transferred data. The container is responsible
+ * for finishing the response only once the transfer has completed, even if the response writer is
+ * {@link #commit() committed} earlier. If the method returns {@code false}, nothing has been written
+ * and the runtime falls back to the regular {@link #writeResponseStatusAndHeaders(long, ContainerResponse)
+ * stream-based} processing.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public interface ZeroCopyResponseWriter extends ContainerResponseWriter {
+
+    /**
+     * Write the status and headers of the response and transfer the specified region of the file
+     * as the response entity.
+     *
+     * @param file            file to be transferred.
+     * @param position        position of the first byte of the file region to be transferred.
+     * @param count           number of bytes to be transferred.
+     * @param responseContext the JAX-RS response to be written. The status and headers
+     *                        are obtained from the response.
+     * @return {@code true} if the file is transferred by the container, {@code false} if the container
+     *         is not able to transfer the file directly.
+     * @throws ContainerException if an error occurred when writing out the status and headers or when
+     *                            initiating the file transfer.
+     */
+    public boolean writeFile(File file, long position, long count, ContainerResponse responseContext)
+            throws ContainerException;
+
+    /**
+     * Write the status and headers of the response and transfer the remaining content of the byte buffer
+     * as the response entity.
+     *
+     * @param buffer          byte buffer to be transferred.
+     * @param responseContext the JAX-RS response to be written. The status and headers
+     *                        are obtained from the response.
+     * @return {@code true} if the buffer is transferred by the container, {@code false} if the container
+     *         is not able to transfer the buffer directly.
+     * @throws ContainerException if an error occurred when writing out the status and headers or
+     *                            the byte buffer.
+     */
+    public boolean writeByteBuffer(ByteBuffer buffer, ContainerResponse responseContext) throws ContainerException;
+}
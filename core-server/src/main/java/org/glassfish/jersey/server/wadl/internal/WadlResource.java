@@ -40,30 +40,57 @@
 
 package org.glassfish.jersey.server.wadl.internal;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.GZIPOutputStream;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.Configuration;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 
 import javax.inject.Singleton;
 import javax.xml.bind.Marshaller;
 
+import org.glassfish.jersey.internal.util.PropertiesHelper;
+import org.glassfish.jersey.server.ServerProperties;
 import org.glassfish.jersey.server.wadl.WadlApplicationContext;
 
 import com.sun.research.ws.wadl.Application;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Maps;
+import com.google.common.hash.Hashing;
+
 /**
+ * Resource serving the application WADL and the external grammars referenced from it.
+ * <p>
+ * The WADL document and the grammars are rendered only once per request base URI and the rendered
+ * bytes (optionally accompanied by their gzip-compressed variant, see {@link ServerProperties#WADL_GZIP})
+ * are kept in a small bounded cache. Requests for an already rendered base URI are served from the cache
+ * without any locking; concurrent requests for a base URI that is being rendered wait for the rendering
+ * of that base URI only. Responses carry a strong entity tag so that conditional requests can be answered
+ * with {@code 304 Not Modified}.
+ * </p>
  *
  * @author Paul Sandoz (paul.sandoz at oracle.com)
  */
@@ -73,55 +100,106 @@ public final class WadlResource {
 
     public static final String HTTPDATEFORMAT = "EEE, dd MMM yyyy HH:mm:ss zzz";
     private static final Logger LOGGER = Logger.getLogger(WadlResource.class.getName());
+    /**
+     * Maximum number of base URIs for which the rendered WADL is cached.
+     */
+    private static final int MAX_CACHED_BASE_URIS = 16;
+    private static final String GZIP_ENCODING = "gzip";
 
-    private URI lastBaseUri;
-    private byte[] wadlXmlRepresentation;
-    private String lastModified;
+    private final Cache<URI, RenderedApplication> renderedApplications =
+            CacheBuilder.newBuilder().maximumSize(MAX_CACHED_BASE_URIS).build();
 
     @Context
     private WadlApplicationContext wadlContext;
+    @Context
+    private Configuration configuration;
+
+    /**
+     * Pre-rendered representation (WADL document or external grammar).
+     */
+    private static final class Representation {
+        final MediaType type;
+        final byte[] identity;
+        final byte[] gzipped;
+        final EntityTag entityTag;
+        /**
+         * Entity tag of the gzipped representation. It has to differ from the tag of the identity representation,
+         * since the two representations are not byte-for-byte equal.
+         */
+        final EntityTag gzippedEntityTag;
+
+        Representation(MediaType type, byte[] identity, boolean gzip) throws IOException {
+            this.type = type;
+            this.identity = identity;
+            this.gzipped = gzip ? gzip(identity) : null;
+            this.entityTag = new EntityTag(Hashing.md5().hashBytes(identity).toString());
+            this.gzippedEntityTag = gzip ? new EntityTag(entityTag.getValue() + "-" + GZIP_ENCODING) : null;
+        }
+
+        private static byte[] gzip(byte[] data) throws IOException {
+            final ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+            final GZIPOutputStream gzipStream = new GZIPOutputStream(out);
+            gzipStream.write(data);
+            gzipStream.close();
+            return out.toByteArray();
+        }
+    }
 
+    /**
+     * WADL and external grammars rendered for a single base URI.
+     */
+    private static final class RenderedApplication {
+        final ApplicationDescription description;
+        final Representation wadl;
+        final Map<String, Representation> grammars;
+        final String lastModified;
 
-    public WadlResource() {
-        this.lastModified = new SimpleDateFormat(HTTPDATEFORMAT).format(new Date());
+        RenderedApplication(ApplicationDescription description, Representation wadl,
+                            Map<String, Representation> grammars) {
+            this.description = description;
+            this.wadl = wadl;
+            this.grammars = grammars;
+            this.lastModified = new SimpleDateFormat(HTTPDATEFORMAT, Locale.US).format(new Date());
+        }
+    }
+
+    /**
+     * Signals that the application description could not be rendered.
+     */
+    private static final class RenderingException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final transient ApplicationDescription description;
+
+        RenderingException(ApplicationDescription description, Throwable cause) {
+            super(cause);
+            this.description = description;
+        }
     }
 
     @Produces({"application/vnd.sun.wadl+xml", "application/xml"})
     @GET
-    public synchronized Response getWadl(@Context UriInfo uriInfo) {
+    public Response getWadl(@Context UriInfo uriInfo, @Context Request request, @Context HttpHeaders headers) {
         if (!wadlContext.isWadlGenerationEnabled()) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
 
-        if ((wadlXmlRepresentation == null) || ((lastBaseUri != null) && !lastBaseUri.equals(uriInfo.getBaseUri()))) {
-            this.lastBaseUri = uriInfo.getBaseUri();
-            this.lastModified = new SimpleDateFormat(HTTPDATEFORMAT).format(new Date());
-
-            ApplicationDescription applicationDescription =
-                    wadlContext.getApplication(uriInfo);
-            Application application = applicationDescription.getApplication();
-
-            try {
-                final Marshaller marshaller = wadlContext.getJAXBContext().createMarshaller();
-                marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-                final ByteArrayOutputStream os = new ByteArrayOutputStream();
-                marshaller.marshal(application, os);
-                wadlXmlRepresentation = os.toByteArray();
-                os.close();
-            } catch (Exception e) {
-                LOGGER.log(Level.WARNING, "Could not marshal wadl Application.", e);
-                return Response.ok(applicationDescription).build();
-            }
+        final RenderedApplication rendered = getRenderedApplication(uriInfo);
+        if (rendered.wadl == null) {
+            // marshalling failed - let the entity providers deal with the application description
+            return Response.ok(rendered.description).build();
         }
 
-        return Response.ok(new ByteArrayInputStream(wadlXmlRepresentation)).header("Last-modified", lastModified).build();
+        return respond(rendered.wadl, null, rendered.lastModified, request, headers);
     }
 
     @Produces({"application/xml"})
     @GET
     @Path("{path}")
-    public synchronized Response geExternalGrammar(
+    public Response geExternalGrammar(
             @Context UriInfo uriInfo,
+            @Context Request request,
+            @Context HttpHeaders headers,
             @PathParam("path") String path) {
 
         // Fail if wadl generation is disabled
@@ -129,19 +207,129 @@ public final class WadlResource {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
 
-        ApplicationDescription applicationDescription =
-                wadlContext.getApplication(uriInfo);
+        final RenderedApplication rendered = getRenderedApplication(uriInfo);
 
         // Fail is we don't have any metadata for this path
-        ApplicationDescription.ExternalGrammar externalMetadata = applicationDescription.getExternalGrammar(path);
-
-        if (externalMetadata == null) {
+        final Representation grammar = rendered.grammars.get(path);
+        if (grammar == null) {
             return Response.status(Response.Status.NOT_FOUND).build();
         }
 
         // Return the data
-        return Response.ok().type(externalMetadata.getType())
-                .entity(externalMetadata.getContent())
-                .build();
+        return respond(grammar, grammar.type, rendered.lastModified, request, headers);
+    }
+
+    private Response respond(final Representation representation,
+                             final MediaType type,
+                             final String lastModified,
+                             final Request request,
+                             final HttpHeaders headers) {
+        final boolean gzip =
+                representation.gzipped != null && acceptsGzip(headers.getRequestHeader(HttpHeaders.ACCEPT_ENCODING));
+        final EntityTag entityTag = gzip ? representation.gzippedEntityTag : representation.entityTag;
+
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+        if (notModified != null) {
+            if (representation.gzipped != null) {
+                notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            return notModified.build();
+        }
+
+        final Response.ResponseBuilder builder;
+        if (gzip) {
+            builder = Response.ok(representation.gzipped).header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        } else {
+            builder = Response.ok(representation.identity);
+        }
+        if (representation.gzipped != null) {
+            builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (type != null) {
+            builder.type(type);
+        }
+        return builder.tag(entityTag).header("Last-modified", lastModified).build();
+    }
+
+    private RenderedApplication getRenderedApplication(final UriInfo uriInfo) {
+        final URI baseUri = uriInfo.getBaseUri();
+        final RenderedApplication rendered = renderedApplications.getIfPresent(baseUri);
+        if (rendered != null) {
+            return rendered;
+        }
+
+        try {
+            return renderedApplications.get(baseUri, new Callable<RenderedApplication>() {
+                @Override
+                public RenderedApplication call() throws RenderingException {
+                    return render(uriInfo);
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RenderingException) {
+                // do not cache the failed rendering
+                final RenderingException failure = (RenderingException) e.getCause();
+                LOGGER.log(Level.WARNING, "Could not marshal wadl Application.", failure.getCause());
+                return new RenderedApplication(failure.description, null, Collections.<String, Representation>emptyMap());
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private RenderedApplication render(final UriInfo uriInfo) throws RenderingException {
+        final ApplicationDescription applicationDescription = wadlContext.getApplication(uriInfo);
+        final Application application = applicationDescription.getApplication();
+        final boolean gzip = PropertiesHelper.isProperty(configuration.getProperty(ServerProperties.WADL_GZIP));
+
+        final Representation wadl;
+        final Map<String, Representation> grammars = Maps.newHashMap();
+        try {
+            final Marshaller marshaller = wadlContext.getJAXBContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            marshaller.marshal(application, os);
+            os.close();
+            wadl = new Representation(null, os.toByteArray(), gzip);
+
+            for (String path : applicationDescription.getExternalMetadataKeys()) {
+                final ApplicationDescription.ExternalGrammar grammar = applicationDescription.getExternalGrammar(path);
+                grammars.put(path, new Representation(grammar.getType(), grammar.getContent(), gzip));
+            }
+        } catch (Exception e) {
+            throw new RenderingException(applicationDescription, e);
+        }
+
+        return new RenderedApplication(applicationDescription, wadl, Collections.unmodifiableMap(grammars));
+    }
+
+    private static boolean acceptsGzip(final Iterable<String> acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String value : acceptEncoding) {
+            for (String token : value.split(",")) {
+                final String[] parts = token.split(";");
+                final String coding = parts[0].trim();
+                if (!GZIP_ENCODING.equalsIgnoreCase(coding) && !"x-gzip".equalsIgnoreCase(coding)) {
+                    continue;
+                }
+                for (int i = 1; i < parts.length; i++) {
+                    final String param = parts[i].trim();
+                    if (param.startsWith("q=") && isZero(param.substring(2))) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isZero(final String qValue) {
+        try {
+            return Float.parseFloat(qValue.trim()) == 0f;
+        } catch (NumberFormatException e) {
+            return false;
+        }
     }
-}
\ No newline at end of file
+}
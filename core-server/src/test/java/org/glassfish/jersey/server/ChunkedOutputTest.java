@@ -39,10 +39,17 @@
  */
 package org.glassfish.jersey.server;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
 
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
+import javax.ws.rs.core.SecurityContext;
+
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
 
 import org.junit.Test;
 
@@ -79,6 +86,97 @@ public class ChunkedOutputTest {
         }
     }
 
+    @Path("/coalesced")
+    public static class CoalescedResource {
+        static volatile ChunkedOutput<String> output;
+
+        @GET
+        public ChunkedOutput<String> get() {
+            output = new ChunkedOutput<String>(String.class, 500, TimeUnit.MILLISECONDS);
+            return output;
+        }
+    }
+
+    private static class FlushCountingWriter implements ContainerResponseWriter {
+        private final ByteArrayOutputStream flushed = new ByteArrayOutputStream();
+        private volatile int flushes = 0;
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
+            return new ByteArrayOutputStream() {
+                @Override
+                public synchronized void flush() {
+                    if (size() > 0) {
+                        flushed.write(buf, 0, count);
+                        reset();
+                        flushes++;
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) throws IllegalStateException {
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void failure(Throwable error) {
+            throw new AssertionError(error);
+        }
+    }
+
+    @Test
+    public void testCoalescedFlushing() throws Exception {
+        final ContainerRequest request = RequestContextBuilder.from("/coalesced", "GET").build();
+        request.setSecurityContext(new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return null;
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return false;
+            }
+
+            @Override
+            public boolean isSecure() {
+                return false;
+            }
+
+            @Override
+            public String getAuthenticationScheme() {
+                return null;
+            }
+        });
+        final FlushCountingWriter writer = new FlushCountingWriter();
+        request.setWriter(writer);
+        new ApplicationHandler(new ResourceConfig(CoalescedResource.class)).handle(request);
+
+        final ChunkedOutput<String> output = CoalescedResource.output;
+        for (int i = 0; i < 100; i++) {
+            output.write("x");
+        }
+        assertEquals(0, writer.flushes);
+
+        for (int i = 0; i < 100 && writer.flushes == 0; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, writer.flushes);
+        assertEquals(100, writer.flushed.size());
+
+        output.close();
+    }
+
     @Test
     public void testChunkedResponse() throws Exception {
         final ResourceConfig resourceConfig = new ResourceConfig(MyResource.class, ChunkedResponseWriter.class);
@@ -0,0 +1,240 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HEAD;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests buffering of the response entity configured by {@link ServerProperties#OUTBOUND_CONTENT_LENGTH_BUFFER}.
+ *
+ * @author agent (agent at local)
+ */
+public class ContentLengthBufferTest {
+
+    private static final String SMALL = "small entity";
+    private static final String LARGE;
+
+    static {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("large entity ");
+        }
+        LARGE = sb.toString();
+    }
+
+    @Path("/")
+    public static class Resource {
+
+        @GET
+        @Path("small")
+        @Produces("text/plain")
+        public StreamingOutput getSmall() {
+            return entity(SMALL);
+        }
+
+        @GET
+        @Path("large")
+        @Produces("text/plain")
+        public StreamingOutput getLarge() {
+            return entity(LARGE);
+        }
+
+        @HEAD
+        @Path("small")
+        @Produces("text/plain")
+        public StreamingOutput headSmall() {
+            return entity(SMALL);
+        }
+
+        private static StreamingOutput entity(final String content) {
+            return new StreamingOutput() {
+                @Override
+                public void write(OutputStream output) throws IOException, WebApplicationException {
+                    output.write(content.getBytes());
+                    output.flush();
+                }
+            };
+        }
+    }
+
+    /**
+     * Writes a trailer once the entity stream is closed.
+     */
+    public static class TrailerInterceptor implements WriterInterceptor {
+
+        @Override
+        public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+            context.setOutputStream(new FilterOutputStream(context.getOutputStream()) {
+                @Override
+                public void close() throws IOException {
+                    write("!".getBytes());
+                    super.close();
+                }
+            });
+            context.proceed();
+        }
+    }
+
+    private static class RecordingWriter implements ContainerResponseWriter {
+
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        private long contentLength = Long.MIN_VALUE;
+        private boolean committed;
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
+            this.contentLength = contentLength;
+            return stream;
+        }
+
+        @Override
+        public boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) throws IllegalStateException {
+        }
+
+        @Override
+        public void commit() {
+            committed = true;
+        }
+
+        @Override
+        public void failure(Throwable error) {
+            throw new AssertionError(error);
+        }
+    }
+
+    private RecordingWriter handle(ResourceConfig resourceConfig, String method, String path) {
+        final ApplicationHandler application = new ApplicationHandler(resourceConfig);
+        final RecordingWriter writer = new RecordingWriter();
+        final ContainerRequest request = RequestContextBuilder.from(path, method).build();
+        request.setSecurityContext(new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return null;
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return false;
+            }
+
+            @Override
+            public boolean isSecure() {
+                return false;
+            }
+
+            @Override
+            public String getAuthenticationScheme() {
+                return null;
+            }
+        });
+        request.setWriter(writer);
+        application.handle(request);
+        return writer;
+    }
+
+    private static ResourceConfig config(int bufferSize, Class<?>... classes) {
+        return new ResourceConfig(Resource.class).registerClasses(classes)
+                .setProperty(ServerProperties.OUTBOUND_CONTENT_LENGTH_BUFFER, bufferSize);
+    }
+
+    @Test
+    public void testBufferingDisabled() {
+        final RecordingWriter writer = handle(new ResourceConfig(Resource.class), "GET", "/small");
+        assertEquals(-1, writer.contentLength);
+        assertEquals(SMALL, writer.stream.toString());
+        assertTrue(writer.committed);
+    }
+
+    @Test
+    public void testSmallEntityBuffered() {
+        final RecordingWriter writer = handle(config(256), "GET", "/small");
+        assertEquals(SMALL.length(), writer.contentLength);
+        assertEquals(SMALL, writer.stream.toString());
+        assertTrue(writer.committed);
+    }
+
+    @Test
+    public void testLargeEntityStreamed() {
+        final RecordingWriter writer = handle(config(256), "GET", "/large");
+        assertEquals(-1, writer.contentLength);
+        assertEquals(LARGE, writer.stream.toString());
+        assertTrue(writer.committed);
+    }
+
+    @Test
+    public void testBufferedEntityWithInterceptor() {
+        final RecordingWriter writer = handle(config(256, TrailerInterceptor.class), "GET", "/small");
+        assertEquals(SMALL.length() + 1, writer.contentLength);
+        assertEquals(SMALL + "!", writer.stream.toString());
+    }
+
+    @Test
+    public void testHeadNotBuffered() {
+        final RecordingWriter writer = handle(config(256), "HEAD", "/small");
+        assertEquals(-1, writer.contentLength);
+        assertEquals("", writer.stream.toString());
+    }
+}
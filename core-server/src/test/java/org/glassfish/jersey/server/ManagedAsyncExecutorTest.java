@@ -0,0 +1,171 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.core.Context;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests execution of {@link ManagedAsync managed asynchronous} resource methods
+ * on named executors.
+ *
+ * @author agent (agent at local)
+ */
+public class ManagedAsyncExecutorTest {
+
+    @Path("executors")
+    public static class ExecutorsResource {
+
+        private static volatile Thread lastThread;
+
+        @Context
+        private ContainerRequestContext requestContext;
+
+        @GET
+        @Path("default")
+        @ManagedAsync
+        public String getDefault() {
+            return Thread.currentThread().getName();
+        }
+
+        @GET
+        @Path("jdbc")
+        @ManagedAsync("jdbc")
+        public String getJdbc() {
+            lastThread = Thread.currentThread();
+            return Thread.currentThread().getName() + ":" + requestContext.getUriInfo().getPath();
+        }
+
+        @GET
+        @Path("virtual")
+        @ManagedAsync("virtual")
+        public String getVirtual() {
+            return "virtual:" + requestContext.getUriInfo().getPath();
+        }
+
+        @GET
+        @Path("custom")
+        @ManagedAsync("custom")
+        public String getCustom() {
+            return "custom";
+        }
+
+        @GET
+        @Path("unknown")
+        @ManagedAsync("unknown")
+        public String getUnknown() {
+            return Thread.currentThread().getName();
+        }
+    }
+
+    private ApplicationHandler createApplication() {
+        return new ApplicationHandler(new ResourceConfig(ExecutorsResource.class)
+                .setProperty(ServerProperties.MANAGED_ASYNC_EXECUTOR_PREFIX + "jdbc", 2)
+                .setProperty(ServerProperties.MANAGED_ASYNC_EXECUTOR_PREFIX + "virtual",
+                        ServerProperties.MANAGED_ASYNC_EXECUTOR_VIRTUAL));
+    }
+
+    private String get(ApplicationHandler application, String path) throws ExecutionException, InterruptedException {
+        final ContainerResponse response = application.apply(RequestContextBuilder.from(path, "GET").build()).get();
+        assertEquals(200, response.getStatus());
+        return (String) response.getEntity();
+    }
+
+    @Test
+    public void testDefaultExecutor() throws Exception {
+        final String threadName = get(createApplication(), "/executors/default");
+        assertTrue(threadName, threadName.startsWith("jersey-server-managed-async-executor-"));
+        assertTrue(threadName, !threadName.startsWith("jersey-server-managed-async-executor-jdbc-"));
+    }
+
+    @Test
+    public void testNamedExecutor() throws Exception {
+        final ApplicationHandler application = createApplication();
+        for (int i = 0; i < 5; i++) {
+            // request scoped injection must work on the named executor thread.
+            final String result = get(application, "/executors/jdbc");
+            assertTrue(result, result.startsWith("jersey-server-managed-async-executor-jdbc-"));
+            assertTrue(result, result.endsWith(":/executors/jdbc"));
+        }
+    }
+
+    @Test
+    public void testVirtualExecutor() throws Exception {
+        assertEquals("virtual:/executors/virtual", get(createApplication(), "/executors/virtual"));
+    }
+
+    @Test
+    public void testUnknownExecutorFallsBackToDefault() throws Exception {
+        final String threadName = get(createApplication(), "/executors/unknown");
+        assertTrue(threadName, threadName.startsWith("jersey-server-managed-async-executor-"));
+    }
+
+    @Test
+    public void testOwnedExecutorsShutDownWithApplication() throws Exception {
+        final ExecutorService custom = Executors.newSingleThreadExecutor();
+        try {
+            final ApplicationHandler application = new ApplicationHandler(new ResourceConfig(ExecutorsResource.class)
+                    .setProperty(ServerProperties.MANAGED_ASYNC_EXECUTOR_PREFIX + "jdbc", 1)
+                    .setProperty(ServerProperties.MANAGED_ASYNC_EXECUTOR_PREFIX + "custom", custom));
+            get(application, "/executors/jdbc");
+            assertEquals("custom", get(application, "/executors/custom"));
+            final Thread jdbcThread = ExecutorsResource.lastThread;
+
+            application.getServiceLocator().shutdown();
+
+            jdbcThread.join(5000);
+            assertFalse("Executor created by Jersey has not been shut down.", jdbcThread.isAlive());
+            assertFalse("Application supplied executor must not be shut down.", custom.isShutdown());
+        } finally {
+            custom.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+
+import org.glassfish.jersey.server.model.ModelValidationException;
+import org.glassfish.jersey.server.model.ResourceModelIssue;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Parallel application initialization tests.
+ *
+ * @author agent (agent at local)
+ */
+public class ParallelInitializationTest {
+
+    @Path("a")
+    public static class ResourceA {
+        @GET
+        public String get() {
+            return "a";
+        }
+    }
+
+    @Path("b")
+    public static class ResourceB {
+        @GET
+        public String get() {
+            return "b";
+        }
+
+        @Path("sub")
+        public ResourceA sub() {
+            return new ResourceA();
+        }
+    }
+
+    @Path("c")
+    public static class ResourceC {
+        @GET
+        public String get(@QueryParam("q") @HeaderParam("h") String value) {
+            return "c";
+        }
+    }
+
+    @Path("invalid")
+    public static class InvalidResource {
+        @POST
+        public String post(String first, String second) {
+            return "invalid";
+        }
+    }
+
+    @Path("invalid-too")
+    public static class AnotherInvalidResource {
+        @POST
+        public String post(String first, String second) {
+            return "invalid";
+        }
+
+        @GET
+        public String get() {
+            return "valid";
+        }
+    }
+
+    @Path("ambiguous")
+    public static class AmbiguousParameterResource {
+        @GET
+        public String get(@QueryParam("q") @HeaderParam("h") String value) {
+            return "ambiguous";
+        }
+    }
+
+    private static ResourceConfig createConfig(boolean parallel, Class<?>... classes) {
+        return new ResourceConfig(classes).setProperty(ServerProperties.PARALLEL_INITIALIZATION, parallel);
+    }
+
+    private static List<String> getIssues(ResourceConfig config) {
+        try {
+            final ApplicationHandler handler = new ApplicationHandler(config);
+            fail("Application initialization expected to fail: " + handler);
+            return null;
+        } catch (ModelValidationException e) {
+            // issue sources are model instances specific to each application handler
+            final List<String> issues = new ArrayList<String>();
+            for (ResourceModelIssue issue : e.getIssues()) {
+                issues.add((issue.isFatal() ? "[FATAL] " : "[WARNING] ") + issue.getMessage());
+            }
+            return issues;
+        }
+    }
+
+    @Test
+    public void testParallelInitialization() throws Exception {
+        final ApplicationHandler handler = new ApplicationHandler(
+                createConfig(true, ResourceA.class, ResourceB.class, ResourceC.class));
+
+        assertEquals("a", handler.apply(RequestContextBuilder.from("/a", "GET").build()).get().getEntity());
+        assertEquals("b", handler.apply(RequestContextBuilder.from("/b", "GET").build()).get().getEntity());
+        assertEquals("a", handler.apply(RequestContextBuilder.from("/b/sub", "GET").build()).get().getEntity());
+        assertEquals("c", handler.apply(RequestContextBuilder.from("/c", "GET").build()).get().getEntity());
+    }
+
+    @Test
+    public void testIdenticalErrorReporting() {
+        final Class<?>[] classes = new Class<?>[]{
+                ResourceA.class, InvalidResource.class, ResourceB.class, ResourceC.class, AnotherInvalidResource.class,
+                AmbiguousParameterResource.class};
+
+        final List<String> sequential = getIssues(createConfig(false, classes));
+        final List<String> parallel = getIssues(createConfig(true, classes));
+
+        // note: the order of the issues found in a single resource class is not defined,
+        // hence each of the resource classes contains at most one issue
+        assertEquals(4, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+import javax.inject.Inject;
+
+import org.glassfish.jersey.server.wadl.processor.WadlModelProcessor;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Application {@link StartupReport startup report} tests.
+ *
+ * @author agent (agent at local)
+ */
+public class StartupReportTest {
+
+    @Path("report")
+    public static class ReportResource {
+        @Inject
+        private StartupReport report;
+
+        @GET
+        public String get() {
+            return String.valueOf(report.getResources());
+        }
+    }
+
+    @Test
+    public void testStartupReport() throws Exception {
+        final ApplicationHandler handler = new ApplicationHandler(new ResourceConfig(ReportResource.class)
+                .packages(false, "org.glassfish.jersey.server.wadl.processor"));
+        final StartupReport report = handler.getStartupReport();
+
+        assertNotNull(report);
+        assertTrue(report.getClassesScanned() > 0);
+        assertTrue(report.getProvidersBound() > 0);
+        // report resource + application.wadl
+        assertEquals(2, report.getResources());
+
+        long phases = 0;
+        for (String name : new String[]{
+                StartupReport.SCANNING,
+                StartupReport.META_PROVIDERS,
+                StartupReport.INTROSPECTION,
+                StartupReport.BINDING,
+                StartupReport.PROVIDER_LOOKUP,
+                StartupReport.MODEL_PROCESSING + WadlModelProcessor.class.getName(),
+                StartupReport.VALIDATION,
+                StartupReport.ROUTING,
+                StartupReport.INJECTION,
+                StartupReport.RUNTIME}) {
+            final StartupReport.Phase phase = report.getPhase(name);
+            assertNotNull(name, phase);
+            assertTrue(name, phase.getWallTime(TimeUnit.NANOSECONDS) >= 0);
+            phases += phase.getWallTime(TimeUnit.NANOSECONDS);
+        }
+        assertTrue(report.getWallTime(TimeUnit.NANOSECONDS) >= phases);
+        assertTrue(report.toString().contains(StartupReport.INTROSPECTION));
+    }
+
+    @Test
+    public void testInjectedStartupReport() throws Exception {
+        final ApplicationHandler handler = new ApplicationHandler(new ResourceConfig(ReportResource.class)
+                .setProperty(ServerProperties.FEATURE_DISABLE_WADL, true));
+        assertSame(handler.getStartupReport(), handler.getServiceLocator().getService(StartupReport.class));
+
+        final ContainerResponse response = handler.apply(RequestContextBuilder.from("/report", "GET").build()).get();
+        assertEquals("1", response.getEntity());
+    }
+}
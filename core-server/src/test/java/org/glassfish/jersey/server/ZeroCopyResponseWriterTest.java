@@ -0,0 +1,266 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.glassfish.jersey.server.spi.ZeroCopyResponseWriter;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests direct entity transfer using {@link ZeroCopyResponseWriter}.
+ *
+ * @author agent (agent at local)
+ */
+public class ZeroCopyResponseWriterTest {
+
+    private static final byte[] CONTENT = "zero-copy content".getBytes();
+    private static File file;
+
+    @BeforeClass
+    public static void createFile() throws IOException {
+        file = File.createTempFile("zero-copy", ".txt");
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(CONTENT);
+        } finally {
+            out.close();
+        }
+    }
+
+    @AfterClass
+    public static void deleteFile() {
+        if (file != null) {
+            file.delete();
+        }
+    }
+
+    @Path("/")
+    public static class Resource {
+
+        @GET
+        @Path("file")
+        @Produces("text/plain")
+        public File getFile() {
+            return file;
+        }
+
+        @GET
+        @Path("bytes")
+        @Produces("application/octet-stream")
+        public byte[] getBytes() {
+            return CONTENT;
+        }
+
+        @GET
+        @Path("string")
+        @Produces("text/plain")
+        public String getString() {
+            return new String(CONTENT);
+        }
+    }
+
+    public static class PassThroughInterceptor implements WriterInterceptor {
+
+        @Override
+        public void aroundWriteTo(WriterInterceptorContext context) throws IOException, WebApplicationException {
+            context.proceed();
+        }
+    }
+
+    private static class RecordingWriter implements ZeroCopyResponseWriter {
+
+        private final boolean accept;
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        private File transferredFile;
+        private long transferredCount = -1;
+        private ByteBuffer transferredBuffer;
+        private ContainerResponse response;
+        private boolean committed;
+
+        private RecordingWriter(boolean accept) {
+            this.accept = accept;
+        }
+
+        @Override
+        public boolean writeFile(File file, long position, long count, ContainerResponse responseContext) {
+            if (accept) {
+                this.transferredFile = file;
+                this.transferredCount = count;
+                this.response = responseContext;
+            }
+            return accept;
+        }
+
+        @Override
+        public boolean writeByteBuffer(ByteBuffer buffer, ContainerResponse responseContext) {
+            if (accept) {
+                this.transferredBuffer = buffer;
+                this.response = responseContext;
+            }
+            return accept;
+        }
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
+            this.response = responseContext;
+            return stream;
+        }
+
+        @Override
+        public boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) throws IllegalStateException {
+        }
+
+        @Override
+        public void commit() {
+            committed = true;
+        }
+
+        @Override
+        public void failure(Throwable error) {
+            throw new AssertionError(error);
+        }
+    }
+
+    private RecordingWriter handle(ResourceConfig resourceConfig, String path, boolean accept) {
+        final ApplicationHandler application = new ApplicationHandler(resourceConfig);
+        final RecordingWriter writer = new RecordingWriter(accept);
+        final ContainerRequest request = RequestContextBuilder.from(path, "GET").build();
+        request.setSecurityContext(new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return null;
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return false;
+            }
+
+            @Override
+            public boolean isSecure() {
+                return false;
+            }
+
+            @Override
+            public String getAuthenticationScheme() {
+                return null;
+            }
+        });
+        request.setWriter(writer);
+        application.handle(request);
+        return writer;
+    }
+
+    @Test
+    public void testFileTransferred() {
+        final RecordingWriter writer = handle(new ResourceConfig(Resource.class), "/file", true);
+
+        assertEquals(file, writer.transferredFile);
+        assertEquals(CONTENT.length, writer.transferredCount);
+        assertEquals(200, writer.response.getStatus());
+        assertEquals(0, writer.stream.size());
+        assertTrue(writer.committed);
+    }
+
+    @Test
+    public void testByteArrayTransferred() {
+        final RecordingWriter writer = handle(new ResourceConfig(Resource.class), "/bytes", true);
+
+        assertArrayEquals(CONTENT, writer.transferredBuffer.array());
+        assertEquals(CONTENT.length, writer.transferredBuffer.remaining());
+        assertEquals(0, writer.stream.size());
+        assertTrue(writer.committed);
+    }
+
+    @Test
+    public void testFallbackWhenRejected() {
+        final RecordingWriter writer = handle(new ResourceConfig(Resource.class), "/file", false);
+
+        assertArrayEquals(CONTENT, writer.stream.toByteArray());
+        assertTrue(writer.committed);
+    }
+
+    @Test
+    public void testNotUsedForOtherEntities() {
+        final RecordingWriter writer = handle(new ResourceConfig(Resource.class), "/string", true);
+
+        assertNull(writer.transferredFile);
+        assertNull(writer.transferredBuffer);
+        assertArrayEquals(CONTENT, writer.stream.toByteArray());
+    }
+
+    @Test
+    public void testNotUsedWithWriterInterceptor() {
+        final RecordingWriter writer = handle(
+                new ResourceConfig(Resource.class, PassThroughInterceptor.class), "/file", true);
+
+        assertNull(writer.transferredFile);
+        assertArrayEquals(CONTENT, writer.stream.toByteArray());
+        assertEquals(200, writer.response.getStatus());
+    }
+}
@@ -39,14 +39,25 @@
  */
 package org.glassfish.jersey.server.filter;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.Principal;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
 
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.container.ContainerResponseFilter;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
 
 import org.glassfish.jersey.message.GZipEncoder;
 import org.glassfish.jersey.server.ApplicationHandler;
@@ -54,6 +65,8 @@ import org.glassfish.jersey.server.ContainerRequest;
 import org.glassfish.jersey.server.ContainerResponse;
 import org.glassfish.jersey.server.RequestContextBuilder;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
 import org.glassfish.jersey.spi.ContentEncoder;
 
 import org.junit.Test;
@@ -155,21 +168,167 @@ public class EncodingFilterTest {
         assertNull(response.getHeaders().getFirst(HttpHeaders.VARY));
     }
 
-    @SuppressWarnings("unchecked")
+    @Test
+    public void testBelowThreshold() throws IOException {
+        testFilterEncoding(initializeAndGetFilter(threshold(16)), null, "OK!", "gzip");
+    }
+
+    @Test
+    public void testAboveThreshold() throws IOException {
+        testFilterEncoding(initializeAndGetFilter(threshold(2)), "gzip", "OK!", "gzip");
+    }
+
+    @Test
+    public void testNonAsciiStringAboveThreshold() throws IOException {
+        // 6 characters encoded into 12 bytes in UTF-8
+        testFilterEncoding(initializeAndGetFilter(threshold(8)), "gzip", "\u011b\u0161\u010d\u0159\u017e\u00fd", "gzip");
+        testFilterEncoding(initializeAndGetFilter(threshold(16)), null, "\u011b\u0161\u010d\u0159\u017e\u00fd", "gzip");
+    }
+
+    @Test
+    public void testBelowThresholdIdentityNotAcceptable() throws IOException {
+        testFilterEncoding(initializeAndGetFilter(threshold(16)), "gzip", "OK!", "gzip", "identity; q=0");
+        testFilterEncoding(initializeAndGetFilter(threshold(16)), "gzip", "OK!", "gzip", "*; q=0");
+    }
+
+    @Test
+    public void testNegotiationCached() throws IOException {
+        EncodingFilter filter = initializeAndGetFilter();
+        for (int i = 0; i < 3; i++) {
+            testFilterEncoding(filter, "foo", "OK!", "foo", "gzip; q=.5");
+            testFilterEncoding(filter, "gzip", "OK!", "foo; q=.5, gzip");
+        }
+    }
+
+    @Path("/")
+    public static class StreamingResource {
+        @GET
+        @Path("{size}")
+        @Produces("text/plain")
+        public StreamingOutput get(@PathParam("size") final int size) {
+            return new StreamingOutput() {
+                @Override
+                public void write(OutputStream output) throws IOException, WebApplicationException {
+                    for (int i = 0; i < size; i++) {
+                        output.write('a');
+                    }
+                    output.flush();
+                }
+            };
+        }
+    }
+
+    private static class RecordingWriter implements ContainerResponseWriter {
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        private ContainerResponse response;
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
+            this.response = responseContext;
+            return stream;
+        }
+
+        @Override
+        public boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) throws IllegalStateException {
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void failure(Throwable error) {
+            throw new AssertionError(error);
+        }
+    }
+
+    private RecordingWriter getStreaming(int size) {
+        ResourceConfig rc = new ResourceConfig(StreamingResource.class)
+                .setProperty(ServerProperties.ENCODING_THRESHOLD, 64)
+                .setProperty(ServerProperties.OUTBOUND_CONTENT_LENGTH_BUFFER, 1024);
+        EncodingFilter.enableFor(rc, GZipEncoder.class);
+
+        final ContainerRequest request = RequestContextBuilder.from("/" + size, "GET")
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip").build();
+        request.setSecurityContext(new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return null;
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return false;
+            }
+
+            @Override
+            public boolean isSecure() {
+                return false;
+            }
+
+            @Override
+            public String getAuthenticationScheme() {
+                return null;
+            }
+        });
+        final RecordingWriter writer = new RecordingWriter();
+        request.setWriter(writer);
+        new ApplicationHandler(rc).handle(request);
+        return writer;
+    }
+
+    @Test
+    public void testBufferedEntityBelowThreshold() throws IOException {
+        final RecordingWriter writer = getStreaming(10);
+        assertNull(writer.response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("aaaaaaaaaa", writer.stream.toString());
+    }
+
+    @Test
+    public void testBufferedEntityAboveThreshold() throws IOException {
+        final RecordingWriter writer = getStreaming(100);
+        assertEquals("gzip", writer.response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+
+        final InputStream in = new GZIPInputStream(new ByteArrayInputStream(writer.stream.toByteArray()));
+        int count = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            assertEquals('a', b);
+            count++;
+        }
+        assertEquals(100, count);
+    }
+
+    private static ResourceConfig threshold(int threshold) {
+        return new ResourceConfig().setProperty(ServerProperties.ENCODING_THRESHOLD, threshold);
+    }
+
     private EncodingFilter initializeAndGetFilter() {
-        ResourceConfig rc = new ResourceConfig();
+        return initializeAndGetFilter(new ResourceConfig());
+    }
+
+    @SuppressWarnings("unchecked")
+    private EncodingFilter initializeAndGetFilter(ResourceConfig rc) {
         EncodingFilter.enableFor(rc, FooEncoding.class, GZipEncoder.class);
         return (EncodingFilter) new ApplicationHandler(rc).getServiceLocator().getService(ContainerResponseFilter.class);
     }
 
     private void testEncoding(String expected, String... accepted) throws IOException {
-        EncodingFilter filter = initializeAndGetFilter();
+        testFilterEncoding(initializeAndGetFilter(), expected, "OK!", accepted);
+    }
+
+    private void testFilterEncoding(EncodingFilter filter, String expected, String entity, String... accepted) throws IOException {
         RequestContextBuilder builder = RequestContextBuilder.from("/resource", "GET");
         for (String a : accepted) {
             builder.header(HttpHeaders.ACCEPT_ENCODING, a);
         }
         ContainerRequest request = builder.build();
-        ContainerResponse response = new ContainerResponse(request, Response.ok("OK!").build());
+        ContainerResponse response = new ContainerResponse(request, Response.ok(entity).build());
         filter.filter(request, response);
         if (response.getStatus() != 200) {
             throw new WebApplicationException(Response.status(response.getStatus()).build());
@@ -0,0 +1,338 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.SecurityContext;
+
+import javax.inject.Inject;
+
+import org.glassfish.jersey.message.GZipEncoder;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.RequestContextBuilder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link ResponseCacheFeature} test.
+ *
+ * @author agent (agent at local)
+ */
+public class ResponseCacheFeatureTest {
+
+    private static final AtomicInteger INVOCATIONS = new AtomicInteger();
+
+    @Path("/")
+    public static class Resource {
+
+        @Inject
+        private ResponseCache cache;
+
+        @GET
+        @Path("cached")
+        @Produces({"text/plain", "text/html"})
+        @Cached(tags = "items")
+        public String getCached() {
+            return "cached:" + INVOCATIONS.incrementAndGet();
+        }
+
+        @GET
+        @Path("expiring")
+        @Produces("text/plain")
+        @Cached(value = 1, unit = TimeUnit.NANOSECONDS)
+        public String getExpiring() {
+            return "expiring:" + INVOCATIONS.incrementAndGet();
+        }
+
+        @GET
+        @Path("headers")
+        @Produces("text/plain")
+        @Cached
+        public Response getWithHeaders() {
+            final CacheControl cacheControl = new CacheControl();
+            cacheControl.setMaxAge(60);
+            return Response.ok("headers:" + INVOCATIONS.incrementAndGet())
+                    .cacheControl(cacheControl)
+                    .lastModified(new Date(0))
+                    .expires(new Date(60000))
+                    .contentLocation(URI.create("/headers/1"))
+                    .header("X-Custom", "a")
+                    .header("X-Custom", "b")
+                    .header("Connection", "X-Hop")
+                    .header("X-Hop", "hop")
+                    .build();
+        }
+
+        @GET
+        @Path("language")
+        @Produces("text/plain")
+        @Cached
+        public Response getLanguage(@Context HttpHeaders headers) {
+            return Response.ok("language:" + headers.getHeaderString(HttpHeaders.ACCEPT_LANGUAGE)
+                    + ":" + INVOCATIONS.incrementAndGet())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+                    .build();
+        }
+
+        @GET
+        @Path("uncached")
+        @Produces("text/plain")
+        public String getUncached() {
+            return "uncached:" + INVOCATIONS.incrementAndGet();
+        }
+
+        @GET
+        @Path("invalidate")
+        @Produces("text/plain")
+        public String invalidate() {
+            cache.invalidate("cached");
+            return "invalidated";
+        }
+    }
+
+    private static class RecordingWriter implements ContainerResponseWriter {
+        private final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        private ContainerResponse response;
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
+            this.response = responseContext;
+            return stream;
+        }
+
+        @Override
+        public boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) throws IllegalStateException {
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void failure(Throwable error) {
+            throw new AssertionError(error);
+        }
+    }
+
+    private ApplicationHandler application;
+
+    @Before
+    public void setUp() {
+        INVOCATIONS.set(0);
+        final ResourceConfig rc = new ResourceConfig(Resource.class).register(new ResponseCacheFeature());
+        EncodingFilter.enableFor(rc, GZipEncoder.class);
+        application = new ApplicationHandler(rc);
+    }
+
+    private RecordingWriter get(String path, String... headers) {
+        final RequestContextBuilder builder = RequestContextBuilder.from(path, "GET");
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        final ContainerRequest request = builder.build();
+        request.setSecurityContext(new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return null;
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return false;
+            }
+
+            @Override
+            public boolean isSecure() {
+                return false;
+            }
+
+            @Override
+            public String getAuthenticationScheme() {
+                return null;
+            }
+        });
+        final RecordingWriter writer = new RecordingWriter();
+        request.setWriter(writer);
+        application.handle(request);
+        return writer;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        final InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1) {
+            out.write(b);
+        }
+        return out.toString();
+    }
+
+    @Test
+    public void testCachedResponse() {
+        assertEquals("cached:1", get("/cached").stream.toString());
+
+        final RecordingWriter hit = get("/cached");
+        assertEquals(200, hit.response.getStatus());
+        assertEquals("cached:1", hit.stream.toString());
+        assertEquals("text/plain", hit.response.getMediaType().toString());
+        assertNotNull(hit.response.getEntityTag());
+        assertEquals(1, INVOCATIONS.get());
+    }
+
+    @Test
+    public void testVaryKeys() throws IOException {
+        assertEquals("cached:1", get("/cached").stream.toString());
+        assertEquals("cached:2", get("/cached", HttpHeaders.ACCEPT, "text/html").stream.toString());
+
+        RecordingWriter writer = get("/cached", HttpHeaders.ACCEPT_ENCODING, "gzip");
+        assertEquals("gzip", writer.response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("cached:3", gunzip(writer.stream.toByteArray()));
+
+        writer = get("/cached", HttpHeaders.ACCEPT_ENCODING, "gzip");
+        assertEquals("gzip", writer.response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("cached:3", gunzip(writer.stream.toByteArray()));
+
+        assertEquals("cached:2", get("/cached", HttpHeaders.ACCEPT, "text/html").stream.toString());
+        assertEquals("cached:1", get("/cached").stream.toString());
+        assertEquals(3, INVOCATIONS.get());
+    }
+
+    @Test
+    public void testVaryOnOtherHeaderNotCached() {
+        assertEquals("language:en:1", get("/language", HttpHeaders.ACCEPT_LANGUAGE, "en").stream.toString());
+        assertEquals("language:de:2", get("/language", HttpHeaders.ACCEPT_LANGUAGE, "de").stream.toString());
+        assertEquals("language:en:3", get("/language", HttpHeaders.ACCEPT_LANGUAGE, "en").stream.toString());
+        assertEquals(0, application.getServiceLocator().getService(ResponseCache.class).size());
+    }
+
+    @Test
+    public void testCachedHeaders() {
+        final ContainerResponse original = get("/headers").response;
+
+        final RecordingWriter hit = get("/headers");
+        assertEquals("headers:1", hit.stream.toString());
+        assertEquals(1, INVOCATIONS.get());
+        for (String name : new String[] {HttpHeaders.CACHE_CONTROL, HttpHeaders.LAST_MODIFIED, HttpHeaders.EXPIRES,
+                HttpHeaders.CONTENT_LOCATION}) {
+            assertEquals(name, original.getHeaderString(name), hit.response.getHeaderString(name));
+        }
+        assertEquals(Arrays.asList("a", "b"), hit.response.getStringHeaders().get("X-Custom"));
+        assertNull(hit.response.getHeaderString("X-Hop"));
+        assertNull(hit.response.getHeaderString("Connection"));
+    }
+
+    @Test
+    public void testConditionalRequest() {
+        get("/cached");
+        final String etag = get("/cached").response.getEntityTag().toString();
+
+        final RecordingWriter writer = get("/cached", HttpHeaders.IF_NONE_MATCH, etag);
+        assertEquals(304, writer.response.getStatus());
+        assertEquals(0, writer.stream.size());
+        assertEquals(1, INVOCATIONS.get());
+    }
+
+    @Test
+    public void testUncached() {
+        assertEquals("uncached:1", get("/uncached").stream.toString());
+        assertEquals("uncached:2", get("/uncached").stream.toString());
+        assertNull(get("/uncached").response.getEntityTag());
+    }
+
+    @Test
+    public void testNoCacheAndAuthorizationBypass() {
+        get("/cached");
+        assertEquals("cached:2", get("/cached", HttpHeaders.CACHE_CONTROL, "no-cache").stream.toString());
+        assertEquals("cached:3", get("/cached", HttpHeaders.AUTHORIZATION, "Basic Zm9vOmJhcg==").stream.toString());
+        assertEquals("cached:2", get("/cached").stream.toString());
+    }
+
+    @Test
+    public void testExpiration() throws InterruptedException {
+        assertEquals("expiring:1", get("/expiring").stream.toString());
+        Thread.sleep(5);
+        assertEquals("expiring:2", get("/expiring").stream.toString());
+    }
+
+    @Test
+    public void testInvalidation() {
+        get("/cached");
+        get("/invalidate");
+        assertEquals("cached:2", get("/cached").stream.toString());
+
+        final ResponseCache cache = application.getServiceLocator().getService(ResponseCache.class);
+        cache.invalidateTag("items");
+        assertEquals("cached:3", get("/cached").stream.toString());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+    }
+}
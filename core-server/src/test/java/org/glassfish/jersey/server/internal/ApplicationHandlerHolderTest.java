@@ -0,0 +1,269 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.security.Principal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.SecurityContext;
+
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.RequestContextBuilder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+
+import org.glassfish.hk2.api.ServiceLocatorState;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link ApplicationHandlerHolder} application reloading.
+ *
+ * @author agent (agent at local)
+ */
+public class ApplicationHandlerHolderTest {
+
+    private static final AtomicInteger warmUpCount = new AtomicInteger();
+    private static volatile AsyncResponse suspended;
+
+    @Path("/")
+    public static class Resource {
+
+        @GET
+        @Path("warm")
+        public String warm() {
+            warmUpCount.incrementAndGet();
+            return "warm";
+        }
+
+        @GET
+        @Path("suspend")
+        public void suspend(@Suspended AsyncResponse asyncResponse) {
+            suspended = asyncResponse;
+        }
+    }
+
+    private static class TestWriter implements ContainerResponseWriter {
+
+        private final CountDownLatch committed = new CountDownLatch(1);
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(long contentLength, ContainerResponse responseContext) {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public boolean suspend(long timeOut, TimeUnit timeUnit, TimeoutHandler timeoutHandler) {
+            return true;
+        }
+
+        @Override
+        public void setSuspendTimeout(long timeOut, TimeUnit timeUnit) throws IllegalStateException {
+        }
+
+        @Override
+        public void commit() {
+            committed.countDown();
+        }
+
+        @Override
+        public void failure(Throwable error) {
+            committed.countDown();
+        }
+    }
+
+    private static class Reloaded implements Runnable {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        @Override
+        public void run() {
+            latch.countDown();
+        }
+
+        private void await() throws InterruptedException {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        }
+    }
+
+    @Before
+    public void setUp() {
+        warmUpCount.set(0);
+        suspended = null;
+    }
+
+    private static ContainerRequest request(String path, ContainerResponseWriter writer) {
+        final ContainerRequest request = RequestContextBuilder.from(path, "GET").build();
+        request.setSecurityContext(new SecurityContext() {
+            @Override
+            public Principal getUserPrincipal() {
+                return null;
+            }
+
+            @Override
+            public boolean isUserInRole(String role) {
+                return false;
+            }
+
+            @Override
+            public boolean isSecure() {
+                return false;
+            }
+
+            @Override
+            public String getAuthenticationScheme() {
+                return null;
+            }
+        });
+        request.setWriter(writer);
+        return request;
+    }
+
+    @Test
+    public void testReload() throws Exception {
+        final ApplicationHandler initial = new ApplicationHandler(new ResourceConfig(Resource.class));
+        final ApplicationHandlerHolder holder = new ApplicationHandlerHolder(initial);
+
+        final Reloaded reloaded = new Reloaded();
+        holder.reload(new ResourceConfig(Resource.class), reloaded);
+        reloaded.await();
+
+        assertNotSame(initial, holder.get());
+        assertEquals(0, warmUpCount.get());
+        assertEquals(ServiceLocatorState.SHUTDOWN, initial.getServiceLocator().getState());
+    }
+
+    @Test
+    public void testWarmUpReload() throws Exception {
+        final ApplicationHandler initial = new ApplicationHandler(new ResourceConfig(Resource.class));
+        final ApplicationHandlerHolder holder = new ApplicationHandlerHolder(initial);
+
+        final Reloaded reloaded = new Reloaded();
+        holder.reload(new ResourceConfig(Resource.class)
+                .setProperty(ServerProperties.RELOAD_WARM_UP, true)
+                .setProperty(ServerProperties.RELOAD_WARM_UP_REQUESTS, "GET /warm, warm, POST /unknown"), reloaded);
+        reloaded.await();
+
+        assertNotSame(initial, holder.get());
+        assertEquals(2, warmUpCount.get());
+        assertEquals(ServiceLocatorState.SHUTDOWN, initial.getServiceLocator().getState());
+    }
+
+    @Test
+    public void testReplacedApplicationDrained() throws Exception {
+        final ApplicationHandler initial = new ApplicationHandler(new ResourceConfig(Resource.class));
+        final ApplicationHandlerHolder holder = new ApplicationHandlerHolder(initial);
+
+        final TestWriter writer = new TestWriter();
+        holder.handle(request("/suspend", writer));
+        assertTrue(suspended != null);
+
+        final Reloaded reloaded = new Reloaded();
+        holder.reload(new ResourceConfig(Resource.class).setProperty(ServerProperties.RELOAD_WARM_UP, "true"), reloaded);
+        reloaded.await();
+
+        // the suspended request is still being processed by the replaced application
+        assertEquals(ServiceLocatorState.RUNNING, initial.getServiceLocator().getState());
+
+        // new requests are handled by the new application
+        final TestWriter newWriter = new TestWriter();
+        holder.handle(request("/warm", newWriter));
+        assertTrue(newWriter.committed.await(10, TimeUnit.SECONDS));
+        assertSame(ServiceLocatorState.RUNNING, initial.getServiceLocator().getState());
+
+        suspended.resume("done");
+        assertTrue(writer.committed.await(10, TimeUnit.SECONDS));
+        assertEquals(ServiceLocatorState.SHUTDOWN, initial.getServiceLocator().getState());
+    }
+
+    @Test
+    public void testReplacedApplicationDrainedWithoutWarmUp() throws Exception {
+        final ApplicationHandler initial = new ApplicationHandler(new ResourceConfig(Resource.class));
+        final ApplicationHandlerHolder holder = new ApplicationHandlerHolder(initial);
+
+        final TestWriter writer = new TestWriter();
+        holder.handle(request("/suspend", writer));
+        assertTrue(suspended != null);
+
+        final Reloaded reloaded = new Reloaded();
+        holder.reload(new ResourceConfig(Resource.class), reloaded);
+        reloaded.await();
+        assertEquals(ServiceLocatorState.RUNNING, initial.getServiceLocator().getState());
+
+        suspended.resume("done");
+        assertTrue(writer.committed.await(10, TimeUnit.SECONDS));
+        assertEquals(ServiceLocatorState.SHUTDOWN, initial.getServiceLocator().getState());
+    }
+
+    @Test
+    public void testReplacedApplicationDestroyedAfterDrainTimeout() throws Exception {
+        final ApplicationHandler initial = new ApplicationHandler(new ResourceConfig(Resource.class));
+        final ApplicationHandlerHolder holder = new ApplicationHandlerHolder(initial);
+
+        // request that is never completed
+        holder.handle(request("/suspend", new TestWriter()));
+        assertTrue(suspended != null);
+
+        final Reloaded reloaded = new Reloaded();
+        holder.reload(new ResourceConfig(Resource.class).setProperty(ServerProperties.RELOAD_DRAIN_TIMEOUT, 200), reloaded);
+        reloaded.await();
+
+        for (int i = 0; i < 100 && initial.getServiceLocator().getState() != ServiceLocatorState.SHUTDOWN; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(ServiceLocatorState.SHUTDOWN, initial.getServiceLocator().getState());
+    }
+}
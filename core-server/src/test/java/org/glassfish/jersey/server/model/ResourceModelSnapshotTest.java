@@ -0,0 +1,267 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Encoded;
+import javax.ws.rs.GET;
+import javax.ws.rs.NameBinding;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
+
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ManagedAsync;
+import org.glassfish.jersey.server.RequestContextBuilder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+/**
+ * {@link ResourceModelSnapshot Resource model snapshot} tests.
+ *
+ * @author agent (agent at local)
+ */
+public class ResourceModelSnapshotTest {
+
+    @NameBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    public static @interface Bound {
+    }
+
+    @Path("snapshot")
+    @Produces("text/plain")
+    public static class SnapshotResource {
+
+        @GET
+        public String get() {
+            return "get";
+        }
+
+        @POST
+        @Bound
+        @Consumes({"text/plain", "application/xml"})
+        public String post(String entity) {
+            return entity;
+        }
+
+        @GET
+        @Path("{id}")
+        @Encoded
+        public String getId(@PathParam("id") String id, @QueryParam("n") int n, @QueryParam("v") List<String> values) {
+            return id + n + values;
+        }
+
+        @GET
+        @Path("async")
+        @ManagedAsync
+        public void async(@Suspended AsyncResponse response) {
+            response.resume("async");
+        }
+
+        @Path("sub")
+        public SubResource sub() {
+            return new SubResource();
+        }
+    }
+
+    public static class SubResource {
+
+        @GET
+        public String get() {
+            return "sub";
+        }
+    }
+
+    public static class NotResource {
+    }
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("jersey-resource-model", ".snapshot");
+        assertTrue(file.delete());
+    }
+
+    @After
+    public void tearDown() {
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private static Map<Class<?>, Resource> introspect(Class<?>... classes) {
+        final Map<Class<?>, Resource> resources = Maps.newHashMap();
+        for (Class<?> c : classes) {
+            resources.put(c, Resource.isAcceptable(c) && Resource.getPath(c) != null ? Resource.from(c) : null);
+        }
+        return resources;
+    }
+
+    private static List<String> describe(Resource resource) {
+        final List<String> result = Lists.newArrayList();
+        describe(resource, "", result);
+        Collections.sort(result);
+        return result;
+    }
+
+    private static void describe(Resource resource, String prefix, List<String> result) {
+        final String path = prefix + "/" + resource.getPath() + " " + resource.getName();
+        result.add(path);
+        for (ResourceMethod method : resource.getAllMethods()) {
+            result.add(path + " " + method.getType() + " " + method.getHttpMethod()
+                    + " " + method.getConsumedTypes() + " " + method.getProducedTypes()
+                    + " " + method.getNameBindings()
+                    + " " + method.isSuspendDeclared() + " " + method.isManagedAsyncDeclared()
+                    + " " + method.getInvocable().getHandler().getHandlerClass()
+                    + " " + method.getInvocable().getHandlingMethod()
+                    + " " + method.getInvocable().isEncodedParameters()
+                    + " " + method.getInvocable().getParameters().size());
+        }
+        for (Resource child : resource.getChildResources()) {
+            describe(child, path, result);
+        }
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        final Map<Class<?>, Resource> resources = introspect(SnapshotResource.class, NotResource.class);
+        final ResourceModelSnapshot snapshot = ResourceModelSnapshot.create(resources);
+        assertNotNull(snapshot);
+        snapshot.write(file);
+
+        final Collection<Class<?>> classes = Arrays.<Class<?>>asList(SnapshotResource.class, NotResource.class);
+        final ResourceModelSnapshot restored = ResourceModelSnapshot.read(file, classes);
+        assertNotNull(restored);
+        assertEquals(2, restored.size());
+        assertTrue(restored.contains(NotResource.class));
+        assertNull(restored.getResource(NotResource.class));
+
+        final Resource resource = restored.getResource(SnapshotResource.class);
+        assertEquals(describe(resources.get(SnapshotResource.class)), describe(resource));
+    }
+
+    @Test
+    public void testStaleSnapshot() throws Exception {
+        ResourceModelSnapshot.create(introspect(SnapshotResource.class)).write(file);
+
+        assertNull(ResourceModelSnapshot.read(file,
+                Arrays.<Class<?>>asList(SnapshotResource.class, NotResource.class)));
+        assertNull(ResourceModelSnapshot.read(file, Arrays.<Class<?>>asList(SubResource.class)));
+        assertNotNull(ResourceModelSnapshot.read(file, Arrays.<Class<?>>asList(SnapshotResource.class)));
+    }
+
+    @Test
+    public void testMissingSnapshot() throws Exception {
+        assertFalse(file.exists());
+        assertNull(ResourceModelSnapshot.read(file, Arrays.<Class<?>>asList(SnapshotResource.class)));
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void testCorruptedSnapshot() throws Exception {
+        final FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write("corrupted snapshot".getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+        ResourceModelSnapshot.read(file, Arrays.<Class<?>>asList(SnapshotResource.class));
+    }
+
+    @Test
+    public void testInstanceHandlersNotSupported() throws Exception {
+        final Resource.Builder builder = Resource.builder("instance");
+        builder.addMethod("GET").handledBy(new SubResource(), SubResource.class.getMethod("get"));
+        final Map<Class<?>, Resource> resources = Maps.newHashMap();
+        resources.put(SubResource.class, builder.build());
+
+        assertNull(ResourceModelSnapshot.create(resources));
+    }
+
+    private static String get(ApplicationHandler handler, String path) throws Exception {
+        final ContainerResponse response = handler.apply(RequestContextBuilder.from(path, "GET").build()).get();
+        assertEquals(200, response.getStatus());
+        return (String) response.getEntity();
+    }
+
+    @Test
+    public void testApplicationRestart() throws Exception {
+        final ResourceConfig config = new ResourceConfig(SnapshotResource.class, NotResource.class)
+                .setProperty(ServerProperties.RESOURCE_MODEL_SNAPSHOT, file.getPath());
+
+        final ApplicationHandler first = new ApplicationHandler(config);
+        assertTrue(file.isFile());
+        assertEquals("get", get(first, "/snapshot"));
+        // the snapshot must not be re-written on restart
+        assertTrue(file.setLastModified(0));
+
+        final ApplicationHandler restarted = new ApplicationHandler(new ResourceConfig(config));
+        assertEquals("get", get(restarted, "/snapshot"));
+        assertEquals("a5[x]", get(restarted, "/snapshot/a?n=5&v=x"));
+        assertEquals("sub", get(restarted, "/snapshot/sub"));
+        assertEquals(0, file.lastModified());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.model.internal;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.QueryParam;
+
+import javax.validation.MethodValidator;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.MethodDescriptor;
+
+import org.glassfish.jersey.internal.inject.AbstractBinder;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.RequestContextBuilder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.internal.inject.ConfiguredValidator;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test that the resource method dispatchers validate only the constrained resource methods.
+ *
+ * @author agent (agent at local)
+ */
+public class ConstrainedResourceMethodDispatchTest {
+
+    @Path("validated")
+    public static class ValidatedResource {
+
+        @GET
+        @Path("plain")
+        public String plain() {
+            return "plain";
+        }
+
+        @GET
+        @Path("constrained")
+        public String constrained(@QueryParam("q") String q) {
+            return "constrained";
+        }
+    }
+
+    private final AtomicInteger descriptorLookups = new AtomicInteger();
+    private final AtomicInteger beanValidations = new AtomicInteger();
+    private final AtomicInteger parameterValidations = new AtomicInteger();
+    private final AtomicInteger returnValueValidations = new AtomicInteger();
+
+    private ApplicationHandler handler;
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(final Class<T> type, final InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if (method.getDeclaringClass() == Object.class) {
+                    if ("equals".equals(method.getName())) {
+                        return proxy == args[0];
+                    } else if ("hashCode".equals(method.getName())) {
+                        return System.identityHashCode(proxy);
+                    }
+                    return type.getName() + " stub";
+                }
+                return handler.invoke(proxy, method, args);
+            }
+        });
+    }
+
+    @Before
+    public void setUp() {
+        final MethodDescriptor constrainedMethod = stub(MethodDescriptor.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                return true; // areParametersConstrained, isReturnValueConstrained, hasConstraints
+            }
+        });
+        final BeanDescriptor bean = stub(BeanDescriptor.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("isBeanConstrained".equals(method.getName())) {
+                    return false;
+                }
+                // getConstraintsForMethod
+                return "constrained".equals(args[0]) ? constrainedMethod : null;
+            }
+        });
+        final MethodValidator methodValidator = stub(MethodValidator.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("validateParameters".equals(method.getName())) {
+                    parameterValidations.incrementAndGet();
+                } else {
+                    returnValueValidations.incrementAndGet();
+                }
+                return Collections.emptySet();
+            }
+        });
+        final ConfiguredValidator validator = stub(ConfiguredValidator.class, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("getConstraintsForClass".equals(method.getName())) {
+                    descriptorLookups.incrementAndGet();
+                    return bean;
+                } else if ("forMethods".equals(method.getName())) {
+                    return methodValidator;
+                }
+                beanValidations.incrementAndGet();
+                return Collections.emptySet();
+            }
+        });
+
+        handler = new ApplicationHandler(new ResourceConfig(ValidatedResource.class).register(new AbstractBinder() {
+            @Override
+            protected void configure() {
+                bind(validator).to(ConfiguredValidator.class);
+            }
+        }));
+    }
+
+    private String get(String path) throws Exception {
+        final ContainerResponse response = handler.apply(RequestContextBuilder.from(path, "GET").build()).get();
+        assertEquals(200, response.getStatus());
+        return (String) response.getEntity();
+    }
+
+    @Test
+    public void testUnconstrainedMethodNotValidated() throws Exception {
+        assertEquals("plain", get("/validated/plain"));
+        assertEquals("plain", get("/validated/plain"));
+
+        assertEquals(1, descriptorLookups.get());
+        assertEquals(0, beanValidations.get());
+        assertEquals(0, parameterValidations.get());
+        assertEquals(0, returnValueValidations.get());
+    }
+
+    @Test
+    public void testConstrainedMethodValidated() throws Exception {
+        assertEquals("constrained", get("/validated/constrained?q=a"));
+        assertEquals("constrained", get("/validated/constrained?q=b"));
+
+        assertEquals(1, descriptorLookups.get());
+        assertEquals(0, beanValidations.get());
+        assertEquals(2, parameterValidations.get());
+        assertEquals(2, returnValueValidations.get());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.server.wadl.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.RequestContextBuilder;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.ServerProperties;
+
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Pre-rendered {@link WadlResource WADL resource} tests.
+ *
+ * @author agent (agent at local)
+ */
+public class WadlResourceTest {
+
+    @Path("widgets")
+    public static class WidgetsResource {
+        @GET
+        public String get() {
+            return "widgets";
+        }
+    }
+
+    private static ApplicationHandler createHandler(boolean gzip) {
+        return new ApplicationHandler(new ResourceConfig(WidgetsResource.class)
+                .packages(false, "org.glassfish.jersey.server.wadl.processor")
+                .setProperty(ServerProperties.WADL_GZIP, gzip));
+    }
+
+    private static ContainerResponse getWadl(ApplicationHandler handler, String baseUri, String... headers)
+            throws Exception {
+        final RequestContextBuilder builder = RequestContextBuilder.from(baseUri, baseUri + "application.wadl", "GET");
+        for (int i = 0; i < headers.length; i += 2) {
+            builder.header(headers[i], headers[i + 1]);
+        }
+        return handler.apply(builder.build()).get();
+    }
+
+    @Test
+    public void testRenderedOncePerBaseUri() throws Exception {
+        final ApplicationHandler handler = createHandler(false);
+
+        final ContainerResponse first = getWadl(handler, "http://localhost:8080/");
+        final ContainerResponse second = getWadl(handler, "http://localhost:8080/");
+        assertEquals(200, first.getStatus());
+        final EntityTag tag = first.getEntityTag();
+        assertNotNull(tag);
+        assertEquals(tag, second.getEntityTag());
+        assertArrayEquals((byte[]) first.getEntity(), (byte[]) second.getEntity());
+        assertTrue(new String((byte[]) first.getEntity(), "UTF-8").contains("http://localhost:8080/"));
+
+        final ContainerResponse other = getWadl(handler, "http://example.org:9090/");
+        assertEquals(200, other.getStatus());
+        assertFalse(tag.equals(other.getEntityTag()));
+        assertTrue(new String((byte[]) other.getEntity(), "UTF-8").contains("http://example.org:9090/"));
+    }
+
+    @Test
+    public void testConditionalRequest() throws Exception {
+        final ApplicationHandler handler = createHandler(false);
+
+        final EntityTag tag = getWadl(handler, "http://localhost:8080/").getEntityTag();
+        final ContainerResponse notModified = getWadl(handler, "http://localhost:8080/",
+                HttpHeaders.IF_NONE_MATCH, tag.toString());
+        assertEquals(304, notModified.getStatus());
+        assertFalse(notModified.hasEntity());
+    }
+
+    @Test
+    public void testGzipVariant() throws Exception {
+        final ApplicationHandler handler = createHandler(true);
+
+        final ContainerResponse identity = getWadl(handler, "http://localhost:8080/");
+        assertNull(identity.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, identity.getHeaderString(HttpHeaders.VARY));
+
+        final ContainerResponse gzipped = getWadl(handler, "http://localhost:8080/",
+                HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.5");
+        assertEquals("gzip", gzipped.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertFalse(identity.getEntityTag().equals(gzipped.getEntityTag()));
+        assertFalse(gzipped.getEntityTag().isWeak());
+        assertArrayEquals((byte[]) identity.getEntity(), gunzip((byte[]) gzipped.getEntity()));
+
+        // each representation is validated against its own entity tag
+        assertEquals(304, getWadl(handler, "http://localhost:8080/", HttpHeaders.ACCEPT_ENCODING, "gzip",
+                HttpHeaders.IF_NONE_MATCH, gzipped.getEntityTag().toString()).getStatus());
+        assertEquals(200, getWadl(handler, "http://localhost:8080/", HttpHeaders.ACCEPT_ENCODING, "gzip",
+                HttpHeaders.IF_NONE_MATCH, identity.getEntityTag().toString()).getStatus());
+        assertEquals(200, getWadl(handler, "http://localhost:8080/",
+                HttpHeaders.IF_NONE_MATCH, gzipped.getEntityTag().toString()).getStatus());
+
+        final ContainerResponse refused = getWadl(handler, "http://localhost:8080/",
+                HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+        assertNull(refused.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    private static byte[] gunzip(byte[] data) throws Exception {
+        final InputStream in = new GZIPInputStream(new ByteArrayInputStream(data));
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        in.close();
+        return out.toByteArray();
+    }
+}
@@ -55,6 +55,7 @@ import org.glassfish.jersey.media.sse.EventInput;
 import org.glassfish.jersey.media.sse.EventInputReader;
 import org.glassfish.jersey.media.sse.EventListener;
 import org.glassfish.jersey.media.sse.EventSource;
+import org.glassfish.jersey.media.sse.EventSourceDispatcher;
 import org.glassfish.jersey.media.sse.InboundEvent;
 import org.glassfish.jersey.media.sse.InboundEventReader;
 import org.glassfish.jersey.media.sse.OutboundEventWriter;
@@ -196,4 +197,50 @@ public class ServerSentEventsTest extends JerseyTest {
         System.out.println("terminated");
         assertEquals(MAX_COUNT, doneCount.get());
     }
+
+    @Test
+    public void testCreateDomainWithDispatcher() throws InterruptedException, URISyntaxException {
+        final int MAX_COUNT = 25;
+
+        final Response response = target().path("domain/start").queryParam("testSources", MAX_COUNT)
+                .request().post(Entity.text("data"), Response.class);
+
+        final EventSourceDispatcher dispatcher = new EventSourceDispatcher(2, 10, 100, 0, TimeUnit.MILLISECONDS);
+        final AtomicInteger doneCount = new AtomicInteger(0);
+        final CountDownLatch doneLatch = new CountDownLatch(MAX_COUNT);
+        final EventSource[] sources = new EventSource[MAX_COUNT];
+        final String processUrl = response.getLocation().toString();
+        for (int i = 0; i < MAX_COUNT; i++) {
+            sources[i] = new EventSource(target().path(processUrl).queryParam("testSource", "true"), dispatcher, false);
+            sources[i].register(new EventListener() {
+
+                private volatile int messageCount = 0;
+
+                @Override
+                public void onEvent(InboundEvent inboundEvent) {
+                    try {
+                        messageCount++;
+
+                        if (inboundEvent.getData(String.class).equals("done")) {
+                            assertEquals(6, messageCount);
+                            doneCount.incrementAndGet();
+                            doneLatch.countDown();
+                        }
+                    } catch (IOException e) {
+                        e.printStackTrace();
+                    }
+                }
+            });
+            sources[i].open();
+        }
+
+        doneLatch.await(5, TimeUnit.SECONDS);
+
+        for (EventSource source : sources) {
+            assertTrue(source.close(1, TimeUnit.SECONDS));
+        }
+        dispatcher.shutdown();
+
+        assertEquals(MAX_COUNT, doneCount.get());
+    }
 }
@@ -76,14 +76,15 @@ public class ValidationBinder extends AbstractBinder {
 
     @Override
     protected void configure() {
-        bindFactory(DefaultValidatorFactoryProvider.class, Singleton.class).to(ValidatorFactory.class).in(PerLookup.class);
+        bindFactory(DefaultValidatorFactoryProvider.class, Singleton.class).to(ValidatorFactory.class).in(Singleton.class);
         bindFactory(DefaultValidatorProvider.class, Singleton.class).to(Validator.class).in(PerLookup.class);
 
-        bindFactory(ConfiguredValidatorProvider.class, Singleton.class).to(ConfiguredValidator.class).in(PerLookup.class);
+        // Validator instances are thread-safe, configured validator is created only once per application.
+        bindFactory(ConfiguredValidatorProvider.class, Singleton.class).to(ConfiguredValidator.class).in(Singleton.class);
     }
 
     /**
-     * Factory providing default (un-configured) {@link ValidatorFactory} instance.
+     * Factory providing default (un-configured) {@link ValidatorFactory} instance shared by the application.
      */
     private static class DefaultValidatorFactoryProvider implements Factory<ValidatorFactory> {
 
@@ -143,7 +144,7 @@ public class ValidationBinder extends AbstractBinder {
     }
 
     /**
-     * Factory providing configured {@link Validator} instance.
+     * Factory providing configured {@link Validator} instance shared by the application.
      */
     private static class ConfiguredValidatorProvider implements Factory<ConfiguredValidator> {
 
@@ -40,6 +40,7 @@
 package org.glassfish.jersey.client.proxy;
 
 import java.lang.annotation.Annotation;
+import java.lang.ref.SoftReference;
 import java.lang.reflect.AnnotatedElement;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
@@ -47,10 +48,11 @@ import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.Future;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.CookieParam;
@@ -63,8 +65,10 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.client.AsyncInvoker;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.Form;
@@ -78,6 +82,19 @@ import javax.ws.rs.core.MultivaluedMap;
  * Factory for client-side representation of a resource.
  * See the <a href="package-summary.html">package overview</a>
  * for an example on how to use this class.
+ * <p>
+ * Resource interface methods are introspected only once - on their first invocation. The resulting
+ * invocation plans are cached and shared by all the resource and sub-resource proxies, so that subsequent
+ * invocations do not need to re-read the JAX-RS annotations. The cache does not prevent the resource
+ * interfaces from being unloaded.
+ * </p>
+ * <p>
+ * Besides the synchronous resource methods, the factory supports also asynchronous resource
+ * methods. A resource method is invoked asynchronously if it either returns {@link Future Future&lt;T&gt;}
+ * (in which case {@code T} is used as the response type) or if it declares a non-annotated parameter
+ * of the {@link InvocationCallback} type (in which case the callback is notified about the invocation
+ * outcome and the method may return either {@code void} or a {@code Future}).
+ * </p>
  *
  * @author Martin Matula (martin.matula at oracle.com)
  */
@@ -86,9 +103,17 @@ public final class WebResourceFactory implements InvocationHandler {
     private final MultivaluedMap<String, Object> headers;
     private final List<Cookie> cookies;
     private final Form form;
+    private final String[] accepts;
+    private final String[] consumes;
 
     private static final MultivaluedMap<String, Object> EMPTY_HEADERS = new MultivaluedHashMap<String, Object>();
     private static final Form EMPTY_FORM = new Form();
+    /**
+     * Invocation plans of the resource methods. The plans are softly referenced, since they strongly
+     * reference the classes of the resource interface and would otherwise keep the methods reachable.
+     */
+    private static final Map<Method, SoftReference<InvocationPlan>> PLANS =
+            Collections.synchronizedMap(new WeakHashMap<Method, SoftReference<InvocationPlan>>());
 
     /**
      * Creates a new client-side representation of a resource described by
@@ -128,129 +153,114 @@ public final class WebResourceFactory implements InvocationHandler {
                                     MultivaluedMap<String, Object> headers, List<Cookie> cookies, Form form) {
         return (C) Proxy.newProxyInstance(resourceInterface.getClassLoader(),
                 new Class[]{resourceInterface},
-                new WebResourceFactory(ignoreResourcePath ? target : addPathFromAnnotation(resourceInterface, target),
+                new WebResourceFactory(resourceInterface,
+                        ignoreResourcePath ? target : addPathFromAnnotation(resourceInterface, target),
                         headers, cookies, form));
     }
 
-    private WebResourceFactory(WebTarget target, MultivaluedMap<String, Object> headers, List<Cookie> cookies,
-                               Form form) {
+    private WebResourceFactory(Class<?> resourceInterface, WebTarget target, MultivaluedMap<String, Object> headers,
+                               List<Cookie> cookies, Form form) {
         this.target = target;
         this.headers = headers;
         this.cookies = cookies;
         this.form = form;
+
+        final Produces produces = resourceInterface.getAnnotation(Produces.class);
+        this.accepts = produces == null ? null : produces.value();
+        final Consumes consumes = resourceInterface.getAnnotation(Consumes.class);
+        this.consumes = consumes == null ? null : consumes.value();
+    }
+
+    private static InvocationPlan getPlan(Method method) {
+        final SoftReference<InvocationPlan> reference = PLANS.get(method);
+        InvocationPlan plan = reference == null ? null : reference.get();
+        if (plan == null) {
+            // plans are immutable - racing threads may both compute it, the result is the same
+            plan = new InvocationPlan(method);
+            PLANS.put(method, new SoftReference<InvocationPlan>(plan));
+        }
+        return plan;
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        // get the interface describing the resource
-        Class<?> proxyIfc = proxy.getClass().getInterfaces()[0];
-
-        // response type
-        Class<?> responseType = method.getReturnType();
-
-        // determine method name
-        String httpMethod = getHttpMethodName(method);
-        if (httpMethod == null) {
-            for (Annotation ann : method.getAnnotations()) {
-                httpMethod = getHttpMethodName(ann.annotationType());
-                if (httpMethod != null) {
-                    break;
-                }
-            }
-        }
+        final InvocationPlan plan = getPlan(method);
 
-        // create a new UriBuilder appending the @Path attached to the method
-        WebTarget newTarget = addPathFromAnnotation(method, target);
-
-        if (httpMethod == null) {
-            if (newTarget == target) {
-                // no path annotation on the method -> fail
-                throw new UnsupportedOperationException("Not a resource method.");
-            } else if (!responseType.isInterface()) {
-                // the method is a subresource locator, but returns class,
-                // not interface - can't help here
-                throw new UnsupportedOperationException("Return type not an interface");
-            }
-        }
+        // create a new WebTarget appending the @Path attached to the method
+        WebTarget newTarget = plan.path == null ? target : target.path(plan.path);
 
         // process method params (build maps of (Path|Form|Cookie|Matrix|Header..)Params
-        // and extract entity type
-        MultivaluedHashMap<String, Object> headers = new MultivaluedHashMap<String, Object>(this.headers);
-        LinkedList<Cookie> cookies = new LinkedList<Cookie>(this.cookies);
-        Form form = new Form();
-        form.asMap().putAll(this.form.asMap());
-        Annotation[][] paramAnns = method.getParameterAnnotations();
-        Object entity = null;
-        Type entityType = null;
-        for (int i = 0; i < paramAnns.length; i++) {
-            Map<Class, Annotation> anns = new HashMap<Class, Annotation>();
-            for (Annotation ann : paramAnns[i]) {
-                anns.put(ann.annotationType(), ann);
+        // and extract entity and callback); the inherited params are copied only if they are going to be modified
+        MultivaluedMap<String, Object> headers = plan.hasHeaderParams
+                ? new MultivaluedHashMap<String, Object>(this.headers) : this.headers;
+        List<Cookie> cookies = plan.hasCookieParams ? new LinkedList<Cookie>(this.cookies) : this.cookies;
+        Form form = this.form;
+        if (plan.hasFormParams) {
+            form = new Form();
+            form.asMap().putAll(this.form.asMap());
+        }
+        Object entity = plan.entityIndex < 0 ? null : args[plan.entityIndex];
+        InvocationCallback<Object> callback = plan.callbackIndex < 0
+                ? null : (InvocationCallback<Object>) args[plan.callbackIndex];
+
+        final ParameterBinder[] binders = plan.parameters;
+        for (int i = 0; i < binders.length; i++) {
+            final ParameterBinder binder = binders[i];
+            if (binder.kind == ParameterKind.NONE) {
+                continue;
             }
-            Annotation ann;
+
             Object value = args[i];
-            if (anns.isEmpty()) {
-                entityType = method.getGenericParameterTypes()[i];
-                entity = value;
-            } else {
-                if (value == null && (ann = anns.get(DefaultValue.class)) != null) {
-                    value = ((DefaultValue) ann).value();
+            if (value == null) {
+                if (binder.defaultValue == null) {
+                    continue;
                 }
+                value = binder.defaultValue;
+            }
 
-                if (value != null) {
-                    if ((ann = anns.get(PathParam.class)) != null) {
-                        newTarget = newTarget.resolveTemplate(((PathParam) ann).value(), value);
-                    } else if ((ann = anns.get((QueryParam.class))) != null) {
-                        newTarget = newTarget.queryParam(((QueryParam) ann).value(), value);
-                    } else if ((ann = anns.get((HeaderParam.class))) != null) {
-                        headers.addAll(((HeaderParam) ann).value(), value);
-                    } else if ((ann = anns.get((CookieParam.class))) != null) {
-                        String name = ((CookieParam) ann).value();
-                        Cookie c;
-                        if (!(value instanceof Cookie)) {
-                            c = new Cookie(name, value.toString());
-                        } else {
-                            c = (Cookie) value;
-                            if (!name.equals(((Cookie) value).getName())) {
-                                // is this the right thing to do? or should I fail? or ignore the difference?
-                                c = new Cookie(name, c.getValue(), c.getPath(), c.getDomain(), c.getVersion());
-                            }
+            switch (binder.kind) {
+                case PATH:
+                    newTarget = newTarget.resolveTemplate(binder.name, value);
+                    break;
+                case QUERY:
+                    newTarget = newTarget.queryParam(binder.name, value);
+                    break;
+                case HEADER:
+                    headers.addAll(binder.name, value);
+                    break;
+                case COOKIE:
+                    Cookie c;
+                    if (!(value instanceof Cookie)) {
+                        c = new Cookie(binder.name, value.toString());
+                    } else {
+                        c = (Cookie) value;
+                        if (!binder.name.equals(c.getName())) {
+                            // is this the right thing to do? or should I fail? or ignore the difference?
+                            c = new Cookie(binder.name, c.getValue(), c.getPath(), c.getDomain(), c.getVersion());
                         }
-                        cookies.add(c);
-                    } else if ((ann = anns.get((MatrixParam.class))) != null) {
-                        newTarget = newTarget.matrixParam(((MatrixParam) ann).value(), value);
-                    } else if ((ann = anns.get((FormParam.class))) != null) {
-                        form.param(((FormParam) ann).value(), value.toString());
                     }
-                }
+                    cookies.add(c);
+                    break;
+                case MATRIX:
+                    newTarget = newTarget.matrixParam(binder.name, value);
+                    break;
+                case FORM:
+                    form.param(binder.name, value.toString());
+                    break;
+                default:
+                    break;
             }
         }
 
-        if (httpMethod == null) {
+        if (plan.httpMethod == null) {
             // the method is a subresource locator
-            return WebResourceFactory.newResource(responseType, newTarget, true, headers, cookies, form);
+            return WebResourceFactory.newResource(plan.responseType, newTarget, true, headers, cookies, form);
         }
 
-        // accepted media types
-        Produces produces = method.getAnnotation(Produces.class);
-        if (produces == null) {
-            produces = proxyIfc.getAnnotation(Produces.class);
-        }
-        String[] accepts = produces == null ? null : produces.value();
-
-        // determine content type
-        String contentType = null;
-        if (entity != null) {
-            Consumes consumes = method.getAnnotation(Consumes.class);
-            if (consumes == null) {
-                consumes = proxyIfc.getAnnotation(Consumes.class);
-            }
-            if (consumes != null && consumes.value().length > 0) {
-                // TODO: should consider q/qs instead of picking the first one
-                contentType = consumes.value()[0];
-            }
-        }
+        // media types declared by the method take precedence over those declared by the resource interface
+        final String[] accepts = plan.accepts == null ? this.accepts : plan.accepts;
+        final String[] consumes = plan.consumes == null ? this.consumes : plan.consumes;
 
         Invocation.Builder b;
         if (accepts != null) {
@@ -270,8 +280,8 @@ public final class WebResourceFactory implements InvocationHandler {
             }
         }
 
-        Object result;
-
+        // TODO: should consider q/qs instead of picking the first one
+        String contentType = entity == null || consumes == null || consumes.length == 0 ? null : consumes[0];
         if (entity == null && !form.asMap().isEmpty()) {
             entity = form;
             contentType = MediaType.APPLICATION_FORM_URLENCODED;
@@ -288,17 +298,32 @@ public final class WebResourceFactory implements InvocationHandler {
             }
         }
 
-        GenericType responseGenericType = new GenericType(method.getGenericReturnType());
+        Entity<?> requestEntity = null;
         if (entity != null) {
-            if (entityType instanceof ParameterizedType) {
-                entity = new GenericEntity(entity, entityType);
+            if (plan.entityType instanceof ParameterizedType) {
+                entity = new GenericEntity(entity, plan.entityType);
             }
-            result = b.method(httpMethod, Entity.entity(entity, contentType), responseGenericType);
-        } else {
-            result = b.method(httpMethod, responseGenericType);
+            requestEntity = Entity.entity(entity, contentType);
         }
 
-        return result;
+        if (!plan.async) {
+            return requestEntity == null
+                    ? b.method(plan.httpMethod, plan.responseGenericType)
+                    : b.method(plan.httpMethod, requestEntity, plan.responseGenericType);
+        }
+
+        final AsyncInvoker asyncInvoker = b.async();
+        final Future<?> future;
+        if (callback != null) {
+            future = requestEntity == null
+                    ? asyncInvoker.method(plan.httpMethod, callback)
+                    : asyncInvoker.method(plan.httpMethod, requestEntity, callback);
+        } else {
+            future = requestEntity == null
+                    ? asyncInvoker.method(plan.httpMethod, plan.responseGenericType)
+                    : asyncInvoker.method(plan.httpMethod, requestEntity, plan.responseGenericType);
+        }
+        return plan.returnsFuture ? future : null;
     }
 
     private static WebTarget addPathFromAnnotation(AnnotatedElement ae, WebTarget target) {
@@ -313,4 +338,172 @@ public final class WebResourceFactory implements InvocationHandler {
         HttpMethod a = ae.getAnnotation(HttpMethod.class);
         return a == null ? null : a.value();
     }
+
+    /**
+     * Kind of a resource method parameter.
+     */
+    private static enum ParameterKind {
+        PATH, QUERY, HEADER, COOKIE, MATRIX, FORM, NONE
+    }
+
+    /**
+     * Pre-computed information on how to apply a resource method argument to the request.
+     */
+    private static final class ParameterBinder {
+        private static final ParameterBinder NONE = new ParameterBinder(ParameterKind.NONE, null, null);
+
+        final ParameterKind kind;
+        final String name;
+        final String defaultValue;
+
+        ParameterBinder(ParameterKind kind, String name, String defaultValue) {
+            this.kind = kind;
+            this.name = name;
+            this.defaultValue = defaultValue;
+        }
+
+        static ParameterBinder of(Annotation[] annotations) {
+            String defaultValue = null;
+            PathParam pathParam = null;
+            QueryParam queryParam = null;
+            HeaderParam headerParam = null;
+            CookieParam cookieParam = null;
+            MatrixParam matrixParam = null;
+            FormParam formParam = null;
+            for (Annotation ann : annotations) {
+                final Class<? extends Annotation> type = ann.annotationType();
+                if (type == DefaultValue.class) {
+                    defaultValue = ((DefaultValue) ann).value();
+                } else if (type == PathParam.class) {
+                    pathParam = (PathParam) ann;
+                } else if (type == QueryParam.class) {
+                    queryParam = (QueryParam) ann;
+                } else if (type == HeaderParam.class) {
+                    headerParam = (HeaderParam) ann;
+                } else if (type == CookieParam.class) {
+                    cookieParam = (CookieParam) ann;
+                } else if (type == MatrixParam.class) {
+                    matrixParam = (MatrixParam) ann;
+                } else if (type == FormParam.class) {
+                    formParam = (FormParam) ann;
+                }
+            }
+
+            if (pathParam != null) {
+                return new ParameterBinder(ParameterKind.PATH, pathParam.value(), defaultValue);
+            } else if (queryParam != null) {
+                return new ParameterBinder(ParameterKind.QUERY, queryParam.value(), defaultValue);
+            } else if (headerParam != null) {
+                return new ParameterBinder(ParameterKind.HEADER, headerParam.value(), defaultValue);
+            } else if (cookieParam != null) {
+                return new ParameterBinder(ParameterKind.COOKIE, cookieParam.value(), defaultValue);
+            } else if (matrixParam != null) {
+                return new ParameterBinder(ParameterKind.MATRIX, matrixParam.value(), defaultValue);
+            } else if (formParam != null) {
+                return new ParameterBinder(ParameterKind.FORM, formParam.value(), defaultValue);
+            }
+            return NONE;
+        }
+    }
+
+    /**
+     * Immutable invocation plan of a single resource interface method, computed from the method
+     * annotations on the first invocation of the method. The plan does not depend on the resource
+     * interface the method is invoked on, so that it can be shared by all the proxies.
+     */
+    private static final class InvocationPlan {
+        final String httpMethod;
+        final String path;
+        final Class<?> responseType;
+        final String[] accepts;
+        final String[] consumes;
+        final ParameterBinder[] parameters;
+        final boolean hasHeaderParams;
+        final boolean hasCookieParams;
+        final boolean hasFormParams;
+        final int entityIndex;
+        final Type entityType;
+        final int callbackIndex;
+        final boolean async;
+        final boolean returnsFuture;
+        final GenericType<Object> responseGenericType;
+
+        @SuppressWarnings("unchecked")
+        InvocationPlan(Method method) {
+            // determine method name
+            String httpMethodName = getHttpMethodName(method);
+            if (httpMethodName == null) {
+                for (Annotation ann : method.getAnnotations()) {
+                    httpMethodName = getHttpMethodName(ann.annotationType());
+                    if (httpMethodName != null) {
+                        break;
+                    }
+                }
+            }
+            this.httpMethod = httpMethodName;
+
+            final Path pathAnnotation = method.getAnnotation(Path.class);
+            this.path = pathAnnotation == null ? null : pathAnnotation.value();
+            this.responseType = method.getReturnType();
+
+            if (httpMethod == null) {
+                if (path == null) {
+                    // no path annotation on the method -> fail
+                    throw new UnsupportedOperationException("Not a resource method.");
+                } else if (!responseType.isInterface()) {
+                    // the method is a subresource locator, but returns class,
+                    // not interface - can't help here
+                    throw new UnsupportedOperationException("Return type not an interface");
+                }
+            }
+
+            // parameters
+            final Annotation[][] paramAnns = method.getParameterAnnotations();
+            final Type[] paramTypes = method.getGenericParameterTypes();
+            final Class<?>[] paramClasses = method.getParameterTypes();
+            this.parameters = new ParameterBinder[paramAnns.length];
+            boolean headerParams = false;
+            boolean cookieParams = false;
+            boolean formParams = false;
+            int entity = -1;
+            int callback = -1;
+            for (int i = 0; i < paramAnns.length; i++) {
+                if (paramAnns[i].length == 0) {
+                    parameters[i] = ParameterBinder.NONE;
+                    if (httpMethod != null && InvocationCallback.class.isAssignableFrom(paramClasses[i])) {
+                        callback = i;
+                    } else {
+                        entity = i;
+                    }
+                } else {
+                    parameters[i] = ParameterBinder.of(paramAnns[i]);
+                    headerParams |= parameters[i].kind == ParameterKind.HEADER;
+                    cookieParams |= parameters[i].kind == ParameterKind.COOKIE;
+                    formParams |= parameters[i].kind == ParameterKind.FORM;
+                }
+            }
+            this.hasHeaderParams = headerParams;
+            this.hasCookieParams = cookieParams;
+            this.hasFormParams = formParams;
+            this.entityIndex = entity;
+            this.entityType = entity < 0 ? null : paramTypes[entity];
+            this.callbackIndex = callback;
+
+            // accepted and declared media types of the method, the resource interface may declare the defaults
+            final Produces produces = method.getAnnotation(Produces.class);
+            this.accepts = produces == null ? null : produces.value();
+            final Consumes consumes = method.getAnnotation(Consumes.class);
+            this.consumes = consumes == null ? null : consumes.value();
+
+            // response type & invocation mode
+            this.returnsFuture = httpMethod != null && responseType == Future.class;
+            this.async = returnsFuture || callbackIndex >= 0;
+            Type genericResponseType = method.getGenericReturnType();
+            if (returnsFuture) {
+                genericResponseType = genericResponseType instanceof ParameterizedType
+                        ? ((ParameterizedType) genericResponseType).getActualTypeArguments()[0] : Object.class;
+            }
+            this.responseGenericType = new GenericType(genericResponseType);
+        }
+    }
 }
@@ -40,6 +40,11 @@
 package org.glassfish.jersey.client.proxy;
 
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ws.rs.client.InvocationCallback;
 
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.test.JerseyTest;
@@ -47,6 +52,7 @@ import org.glassfish.jersey.test.TestProperties;
 
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class WebResourceFactoryTest extends JerseyTest {
     private MyResourceIfc resource;
@@ -93,4 +99,43 @@ public class WebResourceFactoryTest extends JerseyTest {
     public void testSubResource() {
         assertEquals("Got it!", resource.getSubResource().getMyBean().name);
     }
+
+    @Test
+    public void testRepeatedInvocation() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("jouda" + i, resource.getId("jouda" + i));
+            assertEquals("Got it!", resource.getSubResource().getMyBean().name);
+        }
+    }
+
+    @Test
+    public void testAsyncFuture() throws Exception {
+        MyResourceAsyncIfc asyncResource = WebResourceFactory.newResource(MyResourceAsyncIfc.class, target());
+        assertEquals("Got it!", asyncResource.getIt().get(10, TimeUnit.SECONDS));
+
+        MyBean bean = new MyBean();
+        bean.name = "Ahoj";
+        assertEquals("Ahoj", asyncResource.postIt(Collections.singletonList(bean)).get(10, TimeUnit.SECONDS).get(0).name);
+    }
+
+    @Test
+    public void testAsyncCallback() throws Exception {
+        MyResourceAsyncIfc asyncResource = WebResourceFactory.newResource(MyResourceAsyncIfc.class, target());
+        final CountDownLatch latch = new CountDownLatch(1);
+        final AtomicReference<String> result = new AtomicReference<String>();
+        asyncResource.getId("jouda", new InvocationCallback<String>() {
+            @Override
+            public void completed(String response) {
+                result.set(response);
+                latch.countDown();
+            }
+
+            @Override
+            public void failed(Throwable error) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals("jouda", result.get());
+    }
 }
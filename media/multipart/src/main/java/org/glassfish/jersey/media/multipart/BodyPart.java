@@ -190,6 +190,10 @@ public class BodyPart {
     public void setContentDisposition(ContentDisposition contentDisposition) {
         this.contentDisposition = contentDisposition;
         headers.remove("Content-Disposition");
+
+        if (parent != null) {
+            parent.onBodyPartChanged();
+        }
     }
 
     /**
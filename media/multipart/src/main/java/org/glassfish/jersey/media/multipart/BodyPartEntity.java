@@ -42,6 +42,8 @@ package org.glassfish.jersey.media.multipart;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 import org.jvnet.mimepull.MIMEPart;
 
@@ -53,6 +55,9 @@ import org.jvnet.mimepull.MIMEPart;
  * However, it also transparently deals with storing the data in a temporary disk
  * file, if it is larger than a configurable size; otherwise, the data is stored
  * in memory for faster processing.
+ * <p/>
+ * Entities of the body parts provided by a {@link StreamingMultiPart} are not stored at all. Their data can be read
+ * only once, directly as the data of the multipart message arrive.
  *
  * @author Craig McClanahan
  * @author Paul Sandoz (paul.sandoz at oracle.com)
@@ -60,7 +65,11 @@ import org.jvnet.mimepull.MIMEPart;
  */
 public class BodyPartEntity implements Closeable {
 
+    private static final int TRANSFER_BUFFER_SIZE = 8192;
+
     private final MIMEPart mimePart;
+    private final boolean streaming;
+    private InputStream stream;
 
     /**
      * Constructs a new {@link BodyPartEntity} with a {@link MIMEPart}.
@@ -68,16 +77,71 @@ public class BodyPartEntity implements Closeable {
      * @param mimePart MIMEPart containing the input stream of this body part entity.
      */
     public BodyPartEntity(final MIMEPart mimePart) {
+        this(mimePart, false);
+    }
+
+    /**
+     * Constructs a new {@link BodyPartEntity} with a {@link MIMEPart}.
+     *
+     * @param mimePart  MIMEPart containing the input stream of this body part entity.
+     * @param streaming if {@code true}, the data of the entity are not stored and can be read only once.
+     */
+    BodyPartEntity(final MIMEPart mimePart, final boolean streaming) {
         this.mimePart = mimePart;
+        this.streaming = streaming;
     }
 
     /**
      * Gets the input stream of the raw bytes of this body part entity.
+     * <p/>
+     * The entity of a body part provided by a {@link StreamingMultiPart} returns always the same live
+     * stream that can be read only once.
      *
      * @return the input stream of the body part entity.
      */
     public InputStream getInputStream() {
-        return mimePart.read();
+        if (!streaming) {
+            return mimePart.read();
+        }
+        if (stream == null) {
+            stream = mimePart.readOnce();
+        }
+        return stream;
+    }
+
+    /**
+     * Transfers the remaining raw bytes of this body part entity into the target channel, e.g. a
+     * {@link java.nio.channels.FileChannel}. When the entity is provided by a {@link StreamingMultiPart}, the data
+     * are written into the target channel directly as they arrive, without being stored in a temporary file first.
+     * <p/>
+     * The target channel is not closed by this method.
+     *
+     * @param target target channel.
+     * @return number of bytes transferred.
+     * @throws IOException in case of an I/O error.
+     */
+    public long transferTo(final WritableByteChannel target) throws IOException {
+        final InputStream in = getInputStream();
+        final byte[] bytes = new byte[TRANSFER_BUFFER_SIZE];
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+
+        long transferred = 0;
+        int read;
+        try {
+            while ((read = in.read(bytes)) != -1) {
+                buffer.clear();
+                buffer.limit(read);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                transferred += read;
+            }
+        } finally {
+            if (!streaming) {
+                in.close();
+            }
+        }
+        return transferred;
     }
 
     /**
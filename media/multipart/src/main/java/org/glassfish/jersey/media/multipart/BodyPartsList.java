@@ -55,6 +55,23 @@ class BodyPartsList extends ArrayList<BodyPart> {
         this.parent = parent;
     }
 
+    /**
+     * Get the number of structural modifications of this list.
+     *
+     * @return list modification count.
+     */
+    int getModificationCount() {
+        return modCount;
+    }
+
+    @Override
+    public BodyPart set(int index, BodyPart bp) {
+        final BodyPart replaced = super.set(index, bp);
+        bp.setParent(parent);
+        parent.onBodyPartChanged();
+        return replaced;
+    }
+
     @Override
     public boolean add(BodyPart bp) {
         super.add(bp);
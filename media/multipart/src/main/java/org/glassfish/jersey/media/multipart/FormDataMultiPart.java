@@ -79,6 +79,10 @@ import org.glassfish.jersey.message.internal.MediaTypes;
  */
 public class FormDataMultiPart extends MultiPart {
 
+    // form data body parts indexed by control name, rebuilt when the body parts change
+    private Map<String, List<FormDataBodyPart>> fieldIndex;
+    private int fieldIndexModificationCount;
+
     /**
      * Instantiates a new {@link FormDataMultiPart} instance with
      * default characteristics.
@@ -122,16 +126,8 @@ public class FormDataMultiPart extends MultiPart {
      * is present with the same control name, then the first part that occurs is returned.
      */
     public FormDataBodyPart getField(String name) {
-        FormDataBodyPart result = null;
-        for (BodyPart bodyPart : getBodyParts()) {
-            if (!(bodyPart instanceof FormDataBodyPart)) {
-                continue;
-            }
-            if (name.equals(((FormDataBodyPart) bodyPart).getName())) {
-                result = (FormDataBodyPart) bodyPart;
-            }
-        }
-        return result;
+        final List<FormDataBodyPart> fields = getFieldIndex().get(name);
+        return fields == null ? null : fields.get(fields.size() - 1);
     }
 
     /**
@@ -141,18 +137,8 @@ public class FormDataMultiPart extends MultiPart {
      * @return the list of form data body parts, otherwise null if no parts are present with the given control name.
      */
     public List<FormDataBodyPart> getFields(String name) {
-        List<FormDataBodyPart> result = null;
-        for (BodyPart bodyPart : getBodyParts()) {
-            if (!(bodyPart instanceof FormDataBodyPart)) {
-                continue;
-            }
-            if (name.equals(((FormDataBodyPart) bodyPart).getName())) {
-                if (result == null)
-                    result = new ArrayList<FormDataBodyPart>(1);
-                result.add((FormDataBodyPart) bodyPart);
-            }
-        }
-        return result;
+        final List<FormDataBodyPart> fields = getFieldIndex().get(name);
+        return fields == null ? null : new ArrayList<FormDataBodyPart>(fields);
     }
 
     /**
@@ -162,21 +148,46 @@ public class FormDataMultiPart extends MultiPart {
      * @return return the map of form data body parts.
      */
     public Map<String, List<FormDataBodyPart>> getFields() {
-        Map<String, List<FormDataBodyPart>> map = new HashMap<String, List<FormDataBodyPart>>();
-        for (BodyPart bodyPart : getBodyParts()) {
-            if (!(bodyPart instanceof FormDataBodyPart)) {
-                continue;
-            }
+        final Map<String, List<FormDataBodyPart>> index = getFieldIndex();
+        final Map<String, List<FormDataBodyPart>> map = new HashMap<String, List<FormDataBodyPart>>(index.size());
+        for (Map.Entry<String, List<FormDataBodyPart>> entry : index.entrySet()) {
+            map.put(entry.getKey(), new ArrayList<FormDataBodyPart>(entry.getValue()));
+        }
+        return map;
+    }
+
+    /**
+     * Get the form data body parts indexed by their control names. The index is built once and reused by the
+     * subsequent lookups until the list of body parts or the content disposition of a body part is modified.
+     *
+     * @return form data body parts index.
+     */
+    private Map<String, List<FormDataBodyPart>> getFieldIndex() {
+        final int modificationCount = getBodyPartsModificationCount();
+        if (fieldIndex == null || fieldIndexModificationCount != modificationCount) {
+            final Map<String, List<FormDataBodyPart>> index = new HashMap<String, List<FormDataBodyPart>>();
+            for (BodyPart bodyPart : getBodyParts()) {
+                if (!(bodyPart instanceof FormDataBodyPart)) {
+                    continue;
+                }
 
-            FormDataBodyPart p = (FormDataBodyPart) bodyPart;
-            List<FormDataBodyPart> l = map.get(p.getName());
-            if (l == null) {
-                l = new ArrayList<FormDataBodyPart>(1);
-                map.put(p.getName(), l);
+                FormDataBodyPart p = (FormDataBodyPart) bodyPart;
+                List<FormDataBodyPart> l = index.get(p.getName());
+                if (l == null) {
+                    l = new ArrayList<FormDataBodyPart>(1);
+                    index.put(p.getName(), l);
+                }
+                l.add(p);
             }
-            l.add(p);
+            fieldIndex = index;
+            fieldIndexModificationCount = modificationCount;
         }
-        return map;
+        return fieldIndex;
+    }
+
+    @Override
+    void onBodyPartChanged() {
+        fieldIndex = null;
     }
 
     /**
@@ -84,6 +84,23 @@ public class MultiPart extends BodyPart implements Closeable {
         return this.bodyParts;
     }
 
+    /**
+     * Get the number of structural modifications of the list of body parts.
+     *
+     * @return body parts list modification count.
+     */
+    int getBodyPartsModificationCount() {
+        return bodyParts.getModificationCount();
+    }
+
+    /**
+     * Invoked when a body part in the list of body parts has been replaced or when
+     * a content disposition of a body part has been changed.
+     */
+    void onBodyPartChanged() {
+        // nothing to do by default
+    }
+
     /**
      * Disables access to the entity for a {@link MultiPart}. Use the list
      * returned by {@code getBodyParts()} to access the relevant
@@ -0,0 +1,261 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.multipart;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.message.MessageBodyWorkers;
+import org.glassfish.jersey.message.internal.MediaTypes;
+
+import org.jvnet.mimepull.Header;
+import org.jvnet.mimepull.MIMEMessage;
+import org.jvnet.mimepull.MIMEParsingException;
+import org.jvnet.mimepull.MIMEPart;
+
+/**
+ * Streaming view of a received multipart entity.
+ * <p/>
+ * Unlike {@link MultiPart}, that is returned only once all the body parts of the multipart message have been parsed
+ * and buffered, the streaming multipart entity iterates over the body parts in the order in which they arrive.
+ * Each returned {@link BodyPart} (a {@link FormDataBodyPart} for {@code multipart/form-data} messages) contains
+ * a {@link BodyPartEntity} whose {@link BodyPartEntity#getInputStream() input stream} reads the body part data
+ * directly from the multipart message. The data are not stored, so they can be read only once and only until
+ * the iterator advances to the next body part; any data left unread in the current body part are skipped.
+ * Large body parts (e.g. uploaded files) can be {@link BodyPartEntity#transferTo(java.nio.channels.WritableByteChannel)
+ * transferred} directly into their target file channel.
+ * <p/>
+ * A streaming multipart entity is received by declaring it as the entity parameter of a resource method:
+ * <pre>
+ * &#64;POST
+ * &#64;Consumes(MediaType.MULTIPART_FORM_DATA)
+ * public String upload(StreamingMultiPart parts) throws IOException {
+ *     while (parts.hasNext()) {
+ *         final FormDataBodyPart part = (FormDataBodyPart) parts.next();
+ *         ...
+ *     }
+ *     ...
+ * }
+ * </pre>
+ * The entity is closed automatically once the request processing is finished.
+ *
+ * @author agent (agent at local)
+ */
+public class StreamingMultiPart implements Iterator<BodyPart>, Closeable {
+
+    private final MIMEMessage message;
+    private final MediaType mediaType;
+    private final MessageBodyWorkers workers;
+    private final boolean formData;
+    private final boolean fileNameFix;
+
+    private int index = 0;
+    private BodyPart current;
+    private BodyPart next;
+    private boolean done;
+
+    /**
+     * Create new streaming multipart entity.
+     *
+     * @param message     MIME message providing the body parts.
+     * @param mediaType   media type of the multipart entity.
+     * @param workers     message body workers used to read the body part entities.
+     * @param fileNameFix if {@code true}, the file names of the {@code multipart/form-data} body parts are
+     *                    fixed for MS Internet Explorer clients.
+     */
+    public StreamingMultiPart(final MIMEMessage message,
+                              final MediaType mediaType,
+                              final MessageBodyWorkers workers,
+                              final boolean fileNameFix) {
+        this.message = message;
+        this.mediaType = mediaType;
+        this.workers = workers;
+        this.formData = MediaTypes.typeEqual(mediaType, MediaType.MULTIPART_FORM_DATA_TYPE);
+        this.fileNameFix = fileNameFix;
+    }
+
+    /**
+     * Get the media type of the multipart entity.
+     *
+     * @return multipart entity media type.
+     */
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Check if there is another body part in the multipart message.
+     * <p/>
+     * Any unread data of the current body part are skipped.
+     *
+     * @return {@code true} if there is another body part.
+     * @throws WebApplicationException in case the multipart message cannot be parsed.
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (done) {
+            return false;
+        }
+        discardCurrent();
+
+        final MIMEPart mimePart;
+        try {
+            mimePart = message.getPart(index);
+        } catch (MIMEParsingException ex) {
+            // the message has been parsed completely
+            done = true;
+            return false;
+        }
+        try {
+            next = createBodyPart(mimePart, mimePart.getAllHeaders());
+            index++;
+            return true;
+        } catch (IllegalStateException ex) {
+            // end of the message reached, there are no headers of a next part
+            done = true;
+            return false;
+        } catch (MIMEParsingException ex) {
+            done = true;
+            throw new WebApplicationException(ex, Response.Status.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Get the next body part of the multipart message.
+     * <p/>
+     * Any unread data of the current body part are skipped.
+     *
+     * @return next body part.
+     * @throws NoSuchElementException  if there are no more body parts.
+     * @throws WebApplicationException in case the multipart message cannot be parsed.
+     */
+    @Override
+    public BodyPart next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        current = next;
+        next = null;
+        return current;
+    }
+
+    /**
+     * Not supported.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Release the current body part. The remaining body parts are not read.
+     */
+    @Override
+    public void close() {
+        done = true;
+        next = null;
+        if (current != null) {
+            current.cleanup();
+            current = null;
+        }
+    }
+
+    private BodyPart createBodyPart(final MIMEPart mimePart, final Iterable<? extends Header> headers) {
+        final BodyPart bodyPart = formData ? new FormDataBodyPart(fileNameFix) : new BodyPart();
+        bodyPart.setMessageBodyWorkers(workers);
+
+        final MultivaluedMap<String, String> bodyPartHeaders = bodyPart.getHeaders();
+        for (Header header : headers) {
+            bodyPartHeaders.add(header.getName(), header.getValue());
+        }
+
+        try {
+            final String contentType = bodyPartHeaders.getFirst("Content-Type");
+            if (contentType != null) {
+                bodyPart.setMediaType(MediaType.valueOf(contentType));
+            }
+            bodyPart.getContentDisposition();
+        } catch (IllegalArgumentException ex) {
+            throw new WebApplicationException(ex, Response.Status.BAD_REQUEST);
+        }
+
+        bodyPart.setEntity(new BodyPartEntity(mimePart, true));
+        return bodyPart;
+    }
+
+    /**
+     * Skip the unread data of the current body part, so that they are not buffered by the parser
+     * when the next body part is parsed.
+     */
+    private void discardCurrent() {
+        if (current == null) {
+            return;
+        }
+        try {
+            if (!(current.getEntity() instanceof BodyPartEntity)) {
+                return;
+            }
+            final InputStream in = ((BodyPartEntity) current.getEntity()).getInputStream();
+            final byte[] buffer = new byte[8192];
+            //noinspection StatementWithEmptyBody
+            while (in.read(buffer) != -1) {
+                // skip
+            }
+        } catch (IOException ignored) {
+            // the stream has been closed by the application, the remaining data will be buffered by the parser
+        } finally {
+            current.cleanup();
+            current = null;
+        }
+    }
+}
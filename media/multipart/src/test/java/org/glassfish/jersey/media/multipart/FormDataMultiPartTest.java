@@ -44,6 +44,7 @@ import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 /**
  * Test case for {@link FormDataMultiPart}.
@@ -98,4 +99,30 @@ public class FormDataMultiPartTest extends MultiPartTest {
         assertEquals(2, fdmp.getFields("baz").size());
     }
 
+    @Test
+    public void testFieldIndexUpdates() {
+        final FormDataMultiPart fdmp = ((FormDataMultiPart) multiPart).field("foo", "bar").field("baz", "bop");
+        assertEquals("bar", fdmp.getField("foo").getValue());
+
+        // rename
+        fdmp.getField("foo").setName("qux");
+        assertNull(fdmp.getField("foo"));
+        assertEquals("bar", fdmp.getField("qux").getValue());
+
+        // replace
+        fdmp.getBodyParts().set(1, new FormDataBodyPart("foo", "replaced"));
+        assertNull(fdmp.getField("baz"));
+        assertEquals("replaced", fdmp.getField("foo").getValue());
+
+        // remove & add
+        fdmp.getBodyParts().remove(0);
+        assertNull(fdmp.getField("qux"));
+        fdmp.getBodyParts().add(new FormDataBodyPart("qux", "added"));
+        assertEquals("added", fdmp.getField("qux").getValue());
+        assertEquals(2, fdmp.getFields().size());
+
+        // returned lists are not backed by the index
+        fdmp.getFields("qux").clear();
+        assertEquals(1, fdmp.getFields("qux").size());
+    }
 }
@@ -0,0 +1,193 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.multipart.internal;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Set;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+
+import org.glassfish.jersey.media.multipart.BodyPart;
+import org.glassfish.jersey.media.multipart.BodyPartEntity;
+import org.glassfish.jersey.media.multipart.FormDataBodyPart;
+import org.glassfish.jersey.media.multipart.FormDataContentDisposition;
+import org.glassfish.jersey.media.multipart.FormDataMultiPart;
+import org.glassfish.jersey.media.multipart.MultiPart;
+import org.glassfish.jersey.media.multipart.StreamingMultiPart;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.Sets;
+
+/**
+ * Tests for the {@link StreamingMultiPart} entities.
+ *
+ * @author agent (agent at local)
+ */
+public class StreamingMultiPartTest extends MultiPartJerseyTest {
+
+    private static final int FILE_SIZE = 1024 * 1024 + 17;
+
+    @Override
+    protected Set<Class<?>> getResourceClasses() {
+        return Sets.<Class<?>>newHashSet(StreamingResource.class);
+    }
+
+    @Path("streaming")
+    public static class StreamingResource {
+
+        @POST
+        @Path("form")
+        @Consumes(MediaType.MULTIPART_FORM_DATA)
+        @Produces(MediaType.TEXT_PLAIN)
+        public String form(StreamingMultiPart parts) throws IOException {
+            final StringBuilder result = new StringBuilder();
+            while (parts.hasNext()) {
+                final FormDataBodyPart part = (FormDataBodyPart) parts.next();
+                if ("skipped".equals(part.getName())) {
+                    continue;
+                }
+                if (result.length() > 0) {
+                    result.append(',');
+                }
+
+                if ("file".equals(part.getName())) {
+                    final File file = File.createTempFile("jersey-streaming", ".bin");
+                    try {
+                        final FileChannel channel = new FileOutputStream(file).getChannel();
+                        final long transferred;
+                        try {
+                            transferred = ((BodyPartEntity) part.getEntity()).transferTo(channel);
+                        } finally {
+                            channel.close();
+                        }
+                        result.append(part.getContentDisposition().getFileName()).append(':').append(transferred)
+                                .append(':').append(verify(file));
+                    } finally {
+                        //noinspection ResultOfMethodCallIgnored
+                        file.delete();
+                    }
+                } else {
+                    result.append(part.getName()).append('=').append(part.getValue());
+                }
+            }
+            return result.toString();
+        }
+
+        @POST
+        @Path("mixed")
+        @Consumes("multipart/mixed")
+        @Produces(MediaType.TEXT_PLAIN)
+        public String mixed(StreamingMultiPart parts) throws IOException {
+            final StringBuilder result = new StringBuilder(parts.getMediaType().getSubtype());
+            while (parts.hasNext()) {
+                final BodyPart part = parts.next();
+                result.append(',').append(part.getMediaType()).append('=').append(part.getEntityAs(String.class));
+            }
+            return result.toString();
+        }
+    }
+
+    private static byte[] content() {
+        final byte[] content = new byte[FILE_SIZE];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 251);
+        }
+        return content;
+    }
+
+    private static boolean verify(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            final byte[] data = new byte[FILE_SIZE];
+            int offset = 0;
+            int read;
+            while (offset < data.length && (read = in.read(data, offset, data.length - offset)) != -1) {
+                offset += read;
+            }
+            return offset == FILE_SIZE && in.read() == -1 && Arrays.equals(content(), data);
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void testFormData() throws Exception {
+        final char[] skipped = new char[64 * 1024];
+        Arrays.fill(skipped, 'x');
+
+        final FormDataMultiPart entity = new FormDataMultiPart()
+                .field("a", "1")
+                .field("skipped", new String(skipped))
+                .field("file", content(), MediaType.APPLICATION_OCTET_STREAM_TYPE)
+                .field("b", "2");
+        ((FormDataBodyPart) entity.getBodyParts().get(2))
+                .setFormDataContentDisposition(FormDataContentDisposition.name("file").fileName("data.bin").build());
+
+        final String response = target().path("streaming/form").request()
+                .post(Entity.entity(entity, MediaType.MULTIPART_FORM_DATA_TYPE), String.class);
+
+        assertEquals("a=1,data.bin:" + FILE_SIZE + ":true,b=2", response);
+    }
+
+    @Test
+    public void testMixed() throws Exception {
+        final MultiPart entity = new MultiPart()
+                .bodyPart("first", MediaType.TEXT_PLAIN_TYPE)
+                .bodyPart("<second/>", MediaType.APPLICATION_XML_TYPE);
+
+        final String response = target().path("streaming/mixed").request()
+                .post(Entity.entity(entity, "multipart/mixed"), String.class);
+
+        assertEquals("mixed,text/plain=first,application/xml=<second/>", response);
+    }
+}
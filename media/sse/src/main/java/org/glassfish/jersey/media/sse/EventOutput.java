@@ -39,6 +39,8 @@
  */
 package org.glassfish.jersey.media.sse;
 
+import java.util.concurrent.TimeUnit;
+
 import org.glassfish.jersey.server.ChunkedOutput;
 
 /**
@@ -51,4 +53,26 @@ import org.glassfish.jersey.server.ChunkedOutput;
  */
 public class EventOutput extends ChunkedOutput<OutboundEvent> {
 
+    /**
+     * Create new outbound Server-Sent Events channel. Events are flushed as soon as all the pending
+     * events have been written.
+     */
+    public EventOutput() {
+        super();
+    }
+
+    /**
+     * Create new outbound Server-Sent Events channel with coalesced flushing.
+     * <p>
+     * Events written in a rapid succession are flushed together, at most after the given latency
+     * elapses. This considerably reduces the number of writes to the underlying connection for
+     * high-frequency event streams.
+     * </p>
+     *
+     * @param maxFlushLatency maximum time the written events may wait before they are flushed to the client.
+     * @param unit            time unit of the maximum flush latency.
+     */
+    public EventOutput(long maxFlushLatency, TimeUnit unit) {
+        super(maxFlushLatency, unit);
+    }
 }
@@ -51,6 +51,7 @@ import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.ws.rs.client.WebTarget;
@@ -69,6 +70,11 @@ import org.glassfish.jersey.client.ChunkedInput;
  * and {@link EventSource#register(EventListener, String, String...)}.
  * </p>
  * <p>
+ * By default, each opened event source processes the incoming events in its own thread. Event sources that are
+ * created with an {@link EventSourceDispatcher event source dispatcher} share the threads of the dispatcher instead
+ * and automatically reconnect when the connection to the web target is lost.
+ * </p>
+ * <p>
  * Instances of this class are thread safe.
  * </p>
  *
@@ -80,6 +86,7 @@ public class EventSource implements EventListener {
 
     // Keeping the target is necessary for future reconnect support.
     private final WebTarget target;
+    private final EventSourceDispatcher dispatcher;
 
     private ExecutorService executorService;
     private Future<?> process;
@@ -160,13 +167,38 @@ public class EventSource implements EventListener {
      * @throws NullPointerException in case the supplied web target is {@code null}.
      */
     public EventSource(WebTarget target, boolean open) {
+        this(target, null, open);
+    }
+
+    /**
+     * Create new SSE event source pointing at a SSE streaming {@link WebTarget web target} and processing
+     * the incoming events using the supplied {@link EventSourceDispatcher event source dispatcher}.
+     * <p>
+     * If the supplied {@code open} flag is {@code true}, the created event source instance automatically
+     * {@link #open opens a connection} to the supplied SSE streaming web target and starts processing incoming
+     * {@link InboundEvent events}. Otherwise it is expected that the user who created the event source will
+     * manually invoke its {@link #open()} method.
+     * </p>
+     * <p>
+     * The incoming events are processed by the threads of the dispatcher. If the connection to the web target
+     * is lost, the dispatcher reconnects to the web target, see {@link EventSourceDispatcher} for details.
+     * </p>
+     *
+     * @param target     SSE streaming web target. Must not be {@code null}.
+     * @param dispatcher event source dispatcher. If {@code null}, the incoming events are processed in an internal
+     *                   {@link java.util.concurrent.Executors#newSingleThreadExecutor() single thread executor}.
+     * @param open       if {@code true}, the connection to the web target is opened immediately.
+     * @throws NullPointerException in case the supplied web target is {@code null}.
+     */
+    public EventSource(WebTarget target, EventSourceDispatcher dispatcher, boolean open) {
         if (target == null) {
             throw new NullPointerException("Web target is 'null'.");
         }
 
         // TODO replace with SseFeature once common config is fully implemented.
-        target.register(InboundEventReader.class).register(EventInputReader.class);
+        target.register(InboundEventReader.class).register(EventInputReader.class).register(EventStreamReader.class);
         this.target = target;
+        this.dispatcher = dispatcher;
 
         if (open) {
             open();
@@ -185,6 +217,11 @@ public class EventSource implements EventListener {
                 throw new IllegalStateException(LocalizationMessages.EVENT_SOURCE_ALREADY_CONNECTED());
             }
 
+            if (dispatcher != null) {
+                process = dispatcher.dispatch(target, listenerAggregator);
+                return;
+            }
+
             executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
                 @Override
                 public Thread newThread(Runnable r) {
@@ -351,12 +388,21 @@ public class EventSource implements EventListener {
             }
 
             process.cancel(true);
-            executorService.shutdown();
             try {
-                if (!executorService.awaitTermination(timeout, unit)) {
-                    LOGGER.warning(LocalizationMessages.EVENT_SOURCE_SHUTDOWN_TIMEOUT(target.getUri().toString()));
-                    return false;
+                if (executorService == null) {
+                    process.get(timeout, unit);
+                } else {
+                    executorService.shutdown();
+                    if (!executorService.awaitTermination(timeout, unit)) {
+                        LOGGER.warning(LocalizationMessages.EVENT_SOURCE_SHUTDOWN_TIMEOUT(target.getUri().toString()));
+                        return false;
+                    }
                 }
+            } catch (TimeoutException e) {
+                LOGGER.warning(LocalizationMessages.EVENT_SOURCE_SHUTDOWN_TIMEOUT(target.getUri().toString()));
+                return false;
+            } catch (ExecutionException e) {
+                LOGGER.log(Level.FINE, e.getMessage(), e);
             } catch (InterruptedException e) {
                 LOGGER.fine(LocalizationMessages.EVENT_SOURCE_SHUTDOWN_INTERRUPTED(target.getUri().toString()));
                 Thread.currentThread().interrupt();
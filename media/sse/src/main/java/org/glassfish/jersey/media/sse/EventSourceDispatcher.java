@@ -0,0 +1,544 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.sse;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.spi.EntityReadiness;
+
+/**
+ * Shared dispatcher of the {@link EventSource event sources}.
+ * <p>
+ * By default, each opened event source processes the incoming events in its own thread that is blocked
+ * reading the connection for the whole life of the event source. Event sources created with a dispatcher
+ * (see {@link EventSource#EventSource(javax.ws.rs.client.WebTarget, EventSourceDispatcher, boolean)}) instead
+ * share a bounded pool of dispatcher threads. The dispatcher reads only the data that can be read from the connections
+ * of the registered event sources without blocking, parses them into {@link InboundEvent inbound events} and notifies
+ * the event source listeners. A single dispatcher with a few threads is therefore able to serve thousands of event
+ * streams. Connections are established using the {@link javax.ws.rs.client.AsyncInvoker asynchronous client API},
+ * so that a slow server does not block the dispatcher threads.
+ * </p>
+ * <p>
+ * Connectors that receive the event stream asynchronously and report the {@link EntityReadiness entity readiness}
+ * (such as the Grizzly connector) notify the dispatcher whenever new data are received or the stream ends. Such
+ * event streams are read only once notified, the events are delivered as soon as they are received and the end
+ * of the stream is detected immediately. With other connectors, the dispatcher periodically polls the connections
+ * instead. Idle event streams are polled less and less frequently: the polling interval doubles with every poll
+ * that finds no new data, up to the {@link #MAX_POLL_INTERVAL maximum polling interval}, and is reset once new data
+ * are received.
+ * </p>
+ * <p>
+ * When the connection is lost, the dispatcher reconnects to the event source after the reconnection delay
+ * requested by the server in the {@code retry} field of the stream (or after the default reconnection delay),
+ * sending the identifier of the last received event in the {@value #LAST_EVENT_ID_HEADER} request header.
+ * A {@code 204 No Content} response (or any other unexpected response status) stops the reconnecting.
+ * </p>
+ * <p>
+ * Unless reported by the connector, the end of an event stream is detected once the whole entity of a response with
+ * a known content length has been read. Since the end of an idle chunked stream cannot be detected without blocking
+ * in such case, the dispatcher uses an idle timeout ({@link #DEFAULT_IDLE_TIMEOUT one minute} by default). Event streams that do not receive any data
+ * (incl. comments, which are typically used by the servers as heartbeats) within the timeout are considered lost
+ * and are reconnected. The idle timeout should therefore be longer than the heartbeat interval of the server.
+ * </p>
+ * <p>
+ * Listeners of all the event sources registered with the dispatcher are invoked by the dispatcher threads. Events
+ * of a single event source are always delivered sequentially. Long running listeners delay the processing of other
+ * event sources, the listeners should therefore hand any expensive processing over to another executor.
+ * </p>
+ * <p>
+ * Instances of this class are thread safe.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class EventSourceDispatcher {
+    private static final Logger LOGGER = Logger.getLogger(EventSourceDispatcher.class.getName());
+    private static final AtomicInteger DISPATCHER_COUNT = new AtomicInteger(0);
+
+    /**
+     * Name of the request header carrying the identifier of the last received event ("{@value}").
+     */
+    public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    /**
+     * Default initial interval of polling the idle event streams in milliseconds ({@value}).
+     */
+    public static final long DEFAULT_POLL_INTERVAL = 50;
+    /**
+     * Maximum interval of polling an idle event stream in milliseconds ({@value}), unless the configured
+     * initial polling interval is longer.
+     */
+    public static final long MAX_POLL_INTERVAL = 1000;
+    /**
+     * Default delay of reconnecting a lost event stream in milliseconds ({@value}). Used until the server
+     * specifies a different reconnection delay.
+     */
+    public static final long DEFAULT_RECONNECT_DELAY = 3000;
+    /**
+     * Default idle timeout of an event stream in milliseconds ({@value}).
+     */
+    public static final long DEFAULT_IDLE_TIMEOUT = 60000;
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private final ScheduledExecutorService executor;
+    private final long pollInterval;
+    private final long maxPollInterval;
+    private final long reconnectDelay;
+    private final long idleTimeout;
+    private final Set<Subscription> subscriptions =
+            Collections.newSetFromMap(new ConcurrentHashMap<Subscription, Boolean>());
+
+    /**
+     * Create new event source dispatcher with the default polling interval, reconnection delay and idle timeout.
+     *
+     * @param threads number of the dispatcher threads.
+     */
+    public EventSourceDispatcher(final int threads) {
+        this(threads, DEFAULT_POLL_INTERVAL, DEFAULT_RECONNECT_DELAY, DEFAULT_IDLE_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create new event source dispatcher.
+     *
+     * @param threads        number of the dispatcher threads.
+     * @param pollInterval   initial interval of polling the idle event streams for new data.
+     * @param reconnectDelay default delay of reconnecting a lost event stream.
+     * @param idleTimeout    maximum time an event stream may remain idle before it is considered lost and
+     *                       reconnected. If {@code 0}, idle event streams are never reconnected, in which case
+     *                       event streams closed by the server may not be detected.
+     * @param unit           time unit of the polling interval, reconnection delay and idle timeout.
+     */
+    public EventSourceDispatcher(final int threads,
+                                 final long pollInterval,
+                                 final long reconnectDelay,
+                                 final long idleTimeout,
+                                 final TimeUnit unit) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Number of dispatcher threads must be positive: " + threads);
+        }
+        if (pollInterval <= 0 || reconnectDelay < 0 || idleTimeout < 0) {
+            throw new IllegalArgumentException("Invalid dispatcher timing configuration.");
+        }
+        this.pollInterval = unit.toNanos(pollInterval);
+        this.maxPollInterval = Math.max(this.pollInterval, TimeUnit.MILLISECONDS.toNanos(MAX_POLL_INTERVAL));
+        this.reconnectDelay = unit.toMillis(reconnectDelay);
+        this.idleTimeout = unit.toNanos(idleTimeout);
+
+        final int dispatcherId = DISPATCHER_COUNT.incrementAndGet();
+        this.executor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger(0);
+
+            @Override
+            public Thread newThread(Runnable r) {
+                final Thread thread = new Thread(r, String.format("jersey-sse-dispatcher-%d-%d",
+                        dispatcherId, threadCount.incrementAndGet()));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Start dispatching the events received from the web target to the listener.
+     *
+     * @param target   SSE streaming web target.
+     * @param listener listener to be notified about the received events.
+     * @return future representing the event stream subscription. Cancelling the future closes the event stream,
+     *         the future is done once the event stream is closed.
+     */
+    Future<?> dispatch(final WebTarget target, final EventListener listener) {
+        final Subscription subscription = new Subscription(target, listener);
+        subscriptions.add(subscription);
+        subscription.schedule(0, TimeUnit.NANOSECONDS);
+        return subscription;
+    }
+
+    /**
+     * Close all the event streams dispatched by this dispatcher and stop the dispatcher threads.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        for (Subscription subscription : subscriptions) {
+            subscription.cancel(false);
+        }
+    }
+
+    /**
+     * Check if this dispatcher has been shut down.
+     *
+     * @return {@code true} if the dispatcher has been shut down, {@code false} otherwise.
+     */
+    public boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * Single event stream processed by the dispatcher.
+     */
+    private final class Subscription implements Runnable, Future<Object> {
+        private final WebTarget target;
+        private final EventListener listener;
+        private final InboundEventParser parser = new InboundEventParser();
+        private final CountDownLatch terminated = new CountDownLatch(1);
+
+        private final byte[] buffer = new byte[READ_BUFFER_SIZE];
+        private EventStream stream = null;
+        private long lastRead;
+        private long idlePollDelay;
+
+        private volatile boolean cancelled = false;
+        private ScheduledFuture<?> next = null;
+        private boolean done = false;
+        /**
+         * Readiness of the current event stream, {@code null} if not reported by the connector.
+         */
+        private EntityReadiness readiness = null;
+        /**
+         * {@code true} if the subscription waits for a readiness notification of the current event stream.
+         */
+        private boolean waiting = false;
+        /**
+         * {@code true} if a readiness notification has been received since the stream has been last read.
+         */
+        private boolean notified = false;
+
+        private Subscription(final WebTarget target, final EventListener listener) {
+            this.target = target;
+            this.listener = new EventListener() {
+                @Override
+                public void onEvent(final InboundEvent inboundEvent) {
+                    try {
+                        listener.onEvent(inboundEvent);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING,
+                                LocalizationMessages.EVENT_SOURCE_LISTENER_FAILED(target.getUri().toString()), e);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                terminate();
+                return;
+            }
+
+            if (stream == null) {
+                connect();
+                return;
+            }
+
+            synchronized (this) {
+                waiting = false;
+                notified = false;
+            }
+
+            try {
+                final int read = stream.readAvailable(buffer);
+                if (read > 0) {
+                    lastRead = System.nanoTime();
+                    idlePollDelay = pollInterval;
+                    parser.parse(buffer, 0, read, listener);
+                    // give other event streams a chance before reading more data
+                    schedule(0, TimeUnit.NANOSECONDS);
+                } else if (read < 0) {
+                    reconnect();
+                } else if (idleTimeout > 0 && System.nanoTime() - lastRead > idleTimeout) {
+                    reconnect();
+                } else if (stream.getReadiness() != null) {
+                    await();
+                } else {
+                    schedule(idlePollDelay, TimeUnit.NANOSECONDS);
+                    idlePollDelay = Math.min(idlePollDelay << 1, maxPollInterval);
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, e.getMessage(), e);
+                reconnect();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, e.getMessage(), e);
+                reconnect();
+            }
+        }
+
+        /**
+         * Wait for the readiness notification of the current event stream. Only the idle timeout is scheduled
+         * meanwhile.
+         */
+        private void await() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                if (notified) {
+                    // notified while reading, read again
+                    schedule(0, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                waiting = true;
+                next = null;
+                if (idleTimeout > 0) {
+                    schedule(lastRead + idleTimeout - System.nanoTime(), TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        /**
+         * Handle the readiness notification of an event stream.
+         *
+         * @param source readiness of the notifying event stream.
+         */
+        private void ready(final EntityReadiness source) {
+            synchronized (this) {
+                if (done || readiness != source) {
+                    return;
+                }
+                if (!waiting) {
+                    notified = true;
+                    return;
+                }
+                waiting = false;
+                if (next != null && !next.cancel(false)) {
+                    // the idle timeout check is running at the moment
+                    return;
+                }
+            }
+            schedule(0, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Connect to the event source asynchronously. The subscription is scheduled again once the connection
+         * is established.
+         */
+        private void connect() {
+            final Invocation.Builder request = target.request(SseFeature.SERVER_SENT_EVENTS_TYPE);
+            final String lastEventId = parser.getLastEventId();
+            if (lastEventId != null) {
+                request.header(LAST_EVENT_ID_HEADER, lastEventId);
+            }
+
+            try {
+                request.async().get(new InvocationCallback<Response>() {
+                    @Override
+                    public void completed(final Response response) {
+                        connected(response);
+                    }
+
+                    @Override
+                    public void failed(final Throwable error) {
+                        LOGGER.log(Level.FINE, error.getMessage(), error);
+                        reconnect();
+                    }
+                });
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, e.getMessage(), e);
+                reconnect();
+            }
+        }
+
+        private void connected(final Response response) {
+            if (cancelled) {
+                response.close();
+                terminate();
+                return;
+            }
+
+            final int status = response.getStatus();
+            if (status != Response.Status.OK.getStatusCode()) {
+                response.close();
+                if (status != Response.Status.NO_CONTENT.getStatusCode()) {
+                    LOGGER.warning(LocalizationMessages.EVENT_SOURCE_UNEXPECTED_STATUS(status, target.getUri().toString()));
+                }
+                terminate();
+                return;
+            }
+
+            try {
+                stream = response.readEntity(EventStream.class);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, e.getMessage(), e);
+                response.close();
+                reconnect();
+                return;
+            }
+            parser.reset(stream);
+            lastRead = System.nanoTime();
+            idlePollDelay = pollInterval;
+
+            final EntityReadiness entityReadiness = stream.getReadiness();
+            if (entityReadiness != null) {
+                synchronized (this) {
+                    readiness = entityReadiness;
+                }
+                entityReadiness.setListener(new Runnable() {
+                    @Override
+                    public void run() {
+                        ready(entityReadiness);
+                    }
+                });
+            }
+            // notifications received before the listener has been set are not replayed, read the stream anyway
+            schedule(0, TimeUnit.NANOSECONDS);
+        }
+
+        private void reconnect() {
+            closeStream();
+
+            final long serverDelay = parser.getReconnectDelay();
+            final long delay = serverDelay < 0 ? reconnectDelay : serverDelay;
+            LOGGER.fine(LocalizationMessages.EVENT_SOURCE_RECONNECT(target.getUri().toString(), delay));
+            schedule(delay, TimeUnit.MILLISECONDS);
+        }
+
+        private void schedule(final long delay, final TimeUnit unit) {
+            synchronized (this) {
+                if (!done) {
+                    try {
+                        next = executor.schedule(this, delay, unit);
+                        return;
+                    } catch (RejectedExecutionException e) {
+                        // the dispatcher has been shut down
+                        LOGGER.log(Level.FINE, e.getMessage(), e);
+                    }
+                }
+            }
+            terminate();
+        }
+
+        private void terminate() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            closeStream();
+            subscriptions.remove(this);
+            terminated.countDown();
+        }
+
+        private void closeStream() {
+            synchronized (this) {
+                if (readiness != null) {
+                    readiness.setListener(null);
+                    readiness = null;
+                }
+                waiting = false;
+            }
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, e.getMessage(), e);
+                } finally {
+                    stream = null;
+                }
+            }
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            cancelled = true;
+            synchronized (this) {
+                if (done) {
+                    return false;
+                }
+                if (waiting) {
+                    // no subscription run is scheduled except for the idle timeout check
+                    waiting = false;
+                    if (next != null) {
+                        next.cancel(false);
+                    }
+                } else if (next == null || !next.cancel(false)) {
+                    // the subscription is running at the moment and terminates once it sees the cancelled flag
+                    return true;
+                }
+            }
+            terminate();
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean isDone() {
+            return terminated.getCount() == 0;
+        }
+
+        @Override
+        public Object get() throws InterruptedException, ExecutionException {
+            terminated.await();
+            return null;
+        }
+
+        @Override
+        public Object get(final long timeout, final TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!terminated.await(timeout, unit)) {
+                throw new TimeoutException();
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.sse;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.glassfish.jersey.client.spi.EntityReadiness;
+import org.glassfish.jersey.message.MessageBodyWorkers;
+
+/**
+ * Raw inbound Server-Sent Events stream consumed by the {@link EventSourceDispatcher}.
+ *
+ * The stream provides non-blocking access to the data received on the connection together with the
+ * context required to build the {@link InboundEvent inbound events} parsed from the data.
+ *
+ * @author agent (agent at local)
+ */
+final class EventStream implements Closeable {
+    private final InputStream inputStream;
+    private final MessageBodyWorkers workers;
+    private final Annotation[] annotations;
+    private final MediaType mediaType;
+    private final MultivaluedMap<String, String> headers;
+    private final long contentLength;
+    private long remaining;
+    private volatile EntityReadiness readiness;
+
+    /**
+     * Package-private constructor used by the {@link EventStreamReader}.
+     *
+     * @param inputStream response input stream.
+     * @param workers     message body workers.
+     * @param annotations annotations associated with response entity.
+     * @param mediaType   response entity media type.
+     * @param headers     response headers.
+     */
+    EventStream(final InputStream inputStream,
+                final MessageBodyWorkers workers,
+                final Annotation[] annotations,
+                final MediaType mediaType,
+                final MultivaluedMap<String, String> headers) {
+        this.inputStream = inputStream;
+        this.workers = workers;
+        this.annotations = annotations;
+        this.mediaType = mediaType;
+        this.headers = headers;
+        this.contentLength = getContentLength(headers);
+        this.remaining = contentLength;
+    }
+
+    private static long getContentLength(final MultivaluedMap<String, String> headers) {
+        final String value = headers == null ? null : headers.getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (value != null) {
+            try {
+                return Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                // ignore invalid content length
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the readiness of the stream entity reported by the connector.
+     *
+     * @return entity readiness or {@code null} if the connector does not report the entity readiness.
+     */
+    EntityReadiness getReadiness() {
+        return readiness;
+    }
+
+    /**
+     * Set the readiness of the stream entity reported by the connector.
+     *
+     * @param readiness entity readiness.
+     */
+    void setReadiness(final EntityReadiness readiness) {
+        this.readiness = readiness;
+    }
+
+    /**
+     * Read the data that can be read from the stream without blocking.
+     *
+     * @param buffer buffer to read the data into.
+     * @return number of bytes read, {@code -1} if the end of the stream has been detected or {@code 0} if no data
+     *         are available at the moment. The end of the stream is detected once the whole entity of a response
+     *         with a known content length has been read, once the stream itself reports it or once the
+     *         {@link #getReadiness() entity readiness} reports the entity completed. Otherwise, the end of a chunked
+     *         stream closed by the server cannot be detected without blocking, in such case {@code 0} is returned
+     *         until the stream is closed.
+     * @throws IOException in case of an I/O error.
+     */
+    int readAvailable(final byte[] buffer) throws IOException {
+        if (contentLength >= 0 && remaining == 0) {
+            return -1;
+        }
+        final int available = inputStream.available();
+        if (available <= 0) {
+            final EntityReadiness entityReadiness = readiness;
+            if (entityReadiness != null && entityReadiness.isCompleted()) {
+                // all the received data are buffered, the read does not block
+                final int read = inputStream.read(buffer);
+                return read < 0 ? -1 : read;
+            }
+            return 0;
+        }
+        final int length = contentLength < 0 ? buffer.length : (int) Math.min(buffer.length, remaining);
+        final int read = inputStream.read(buffer, 0, Math.min(available, length));
+        if (read > 0 && contentLength >= 0) {
+            remaining -= read;
+        }
+        return read;
+    }
+
+    /**
+     * Create new builder of an inbound event received on this stream.
+     *
+     * @return new inbound event builder.
+     */
+    InboundEvent.Builder newEventBuilder() {
+        return new InboundEvent.Builder(workers, annotations, mediaType, headers);
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+}
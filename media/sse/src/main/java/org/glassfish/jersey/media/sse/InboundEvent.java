@@ -175,6 +175,24 @@ public class InboundEvent {
         return name;
     }
 
+    /**
+     * Get the event identifier.
+     *
+     * @return event identifier or {@code null} if it is not present.
+     */
+    String getId() {
+        return id;
+    }
+
+    /**
+     * Get the raw event data, including the line break terminating the last data line.
+     *
+     * @return raw event data.
+     */
+    byte[] getRawData() {
+        return data;
+    }
+
     /**
      * Get event data.
      *
@@ -0,0 +1,248 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.sse;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Incremental Server-Sent Events stream parser.
+ * <p>
+ * The parser consumes the event stream in arbitrary byte array chunks as they are read from the connection
+ * and notifies the supplied {@link EventListener event listener} about every complete event. Partially received
+ * lines are retained between the invocations. The parser also keeps track of the last received event identifier
+ * and the reconnection delay requested by the server, which both survive the {@link #reset(EventStream) reset}
+ * of the parser on a new connection.
+ * </p>
+ * <p>
+ * Instances of this class are not thread-safe.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+final class InboundEventParser {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte[] EVENT_FIELD = "event".getBytes(UTF8);
+    private static final byte[] DATA_FIELD = "data".getBytes(UTF8);
+    private static final byte[] ID_FIELD = "id".getBytes(UTF8);
+    private static final byte[] RETRY_FIELD = "retry".getBytes(UTF8);
+
+    private EventStream stream;
+
+    private byte[] line = new byte[256];
+    private int lineLength = 0;
+    private boolean skipLineFeed = false;
+
+    private String name = null;
+    private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+
+    private String lastEventId = null;
+    private long reconnectDelay = -1;
+
+    /**
+     * Reset the parser to process a new event stream connection. Any partially received event is discarded.
+     *
+     * @param stream new event stream.
+     */
+    void reset(final EventStream stream) {
+        this.stream = stream;
+        this.lineLength = 0;
+        this.skipLineFeed = false;
+        this.name = null;
+        this.data.reset();
+    }
+
+    /**
+     * Parse the next chunk of the event stream.
+     *
+     * @param buffer   buffer containing the event stream data.
+     * @param offset   offset of the data in the buffer.
+     * @param length   length of the data.
+     * @param listener listener to be notified about the complete events.
+     */
+    void parse(final byte[] buffer, final int offset, final int length, final EventListener listener) {
+        final int end = offset + length;
+        int i = offset;
+        if (skipLineFeed && i < end) {
+            // previous chunk ended with CR
+            skipLineFeed = false;
+            if (buffer[i] == '\n') {
+                i++;
+            }
+        }
+
+        int lineStart = i;
+        for (; i < end; i++) {
+            final byte b = buffer[i];
+            if (b == '\n' || b == '\r') {
+                appendLine(buffer, lineStart, i - lineStart);
+                processLine(listener);
+
+                if (b == '\r') {
+                    if (i + 1 == end) {
+                        skipLineFeed = true;
+                    } else if (buffer[i + 1] == '\n') {
+                        i++;
+                    }
+                }
+                lineStart = i + 1;
+            }
+        }
+        appendLine(buffer, lineStart, end - lineStart);
+    }
+
+    /**
+     * Get the identifier of the last received event.
+     *
+     * @return last event identifier or {@code null} if no event identifier has been received yet.
+     */
+    String getLastEventId() {
+        return lastEventId;
+    }
+
+    /**
+     * Get the reconnection delay requested by the server.
+     *
+     * @return reconnection delay in milliseconds or {@code -1} if the server has not requested any.
+     */
+    long getReconnectDelay() {
+        return reconnectDelay;
+    }
+
+    private void appendLine(final byte[] buffer, final int offset, final int length) {
+        if (length == 0) {
+            return;
+        }
+        if (lineLength + length > line.length) {
+            final byte[] newLine = new byte[Math.max(line.length << 1, lineLength + length)];
+            System.arraycopy(line, 0, newLine, 0, lineLength);
+            line = newLine;
+        }
+        System.arraycopy(buffer, offset, line, lineLength, length);
+        lineLength += length;
+    }
+
+    private void processLine(final EventListener listener) {
+        try {
+            if (lineLength == 0) {
+                dispatchEvent(listener);
+            } else if (line[0] != ':') {
+                // lines starting with colon are comments and are ignored
+                processField();
+            }
+        } finally {
+            lineLength = 0;
+        }
+    }
+
+    private void processField() {
+        int colon = 0;
+        while (colon < lineLength && line[colon] != ':') {
+            colon++;
+        }
+
+        int valueStart = colon + 1;
+        if (valueStart < lineLength && line[valueStart] == ' ') {
+            // first space in value has to be skipped
+            valueStart++;
+        }
+        final int valueLength = Math.max(0, lineLength - valueStart);
+
+        if (isField(DATA_FIELD, colon)) {
+            data.write(line, valueStart, valueLength);
+            data.write('\n');
+        } else if (isField(EVENT_FIELD, colon)) {
+            name = new String(line, valueStart, valueLength, UTF8);
+        } else if (isField(ID_FIELD, colon)) {
+            final String id = new String(line, valueStart, valueLength, UTF8);
+            if (id.indexOf('\u0000') < 0) {
+                lastEventId = id;
+            }
+        } else if (isField(RETRY_FIELD, colon)) {
+            processRetry(valueStart, valueLength);
+        }
+        // other fields are ignored
+    }
+
+    private void processRetry(final int offset, final int length) {
+        if (length == 0 || length > 18) {
+            return;
+        }
+        long delay = 0;
+        for (int i = offset; i < offset + length; i++) {
+            final byte b = line[i];
+            if (b < '0' || b > '9') {
+                return;
+            }
+            delay = delay * 10 + (b - '0');
+        }
+        reconnectDelay = delay;
+    }
+
+    private boolean isField(final byte[] field, final int nameLength) {
+        if (field.length != nameLength) {
+            return false;
+        }
+        for (int i = 0; i < nameLength; i++) {
+            if (field[i] != line[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void dispatchEvent(final EventListener listener) {
+        if (data.size() == 0) {
+            name = null;
+            return;
+        }
+
+        final InboundEvent event = stream.newEventBuilder()
+                .name(name)
+                .id(lastEventId)
+                .data(data.toByteArray())
+                .build();
+        name = null;
+        data.reset();
+
+        listener.onEvent(event);
+    }
+}
@@ -39,10 +39,12 @@
  */
 package org.glassfish.jersey.media.sse;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.nio.charset.Charset;
 
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
@@ -56,12 +58,38 @@ import org.glassfish.jersey.message.MessageBodyWorkers;
 
 /**
  * Writer for {@link OutboundEvent}.
+ * <p>
+ * Each event is framed into a (per-thread reusable) buffer and written to the entity stream at once.
+ * The entity stream is not flushed by the writer; the events written to an {@link EventOutput} are flushed
+ * once all the pending events have been written (see {@link EventOutput#EventOutput(long, java.util.concurrent.TimeUnit)}).
+ * </p>
  *
  * @author Pavel Bucek (pavel.bucek at oracle.com)
  */
 // TODO: make package-private once common config support is fully implemented & replace registration with SseFeature.
 public class OutboundEventWriter implements MessageBodyWriter<OutboundEvent> {
 
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final byte[] COMMENT_PREFIX = ": ".getBytes(UTF8);
+    private static final byte[] NAME_PREFIX = "event: ".getBytes(UTF8);
+    private static final byte[] ID_PREFIX = "id: ".getBytes(UTF8);
+    private static final byte[] DATA_PREFIX = "data: ".getBytes(UTF8);
+    private static final byte[] EOL = "\n".getBytes(UTF8);
+    private static final byte[] EVENT_END = "\n\n".getBytes(UTF8);
+
+    /**
+     * Maximum size of a per-thread event buffer that is kept for reuse.
+     */
+    private static final int MAX_REUSED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<EventBuffer> BUFFERS = new ThreadLocal<EventBuffer>() {
+        @Override
+        protected EventBuffer initialValue() {
+            return new EventBuffer();
+        }
+    };
+
     @Inject
     private Provider<MessageBodyWorkers> workersProvider;
 
@@ -89,48 +117,149 @@ public class OutboundEventWriter implements MessageBodyWriter<OutboundEvent> {
                         MultivaluedMap<String, Object> httpHeaders,
                         final OutputStream entityStream) throws IOException, WebApplicationException {
 
-        if (outboundEvent.getComment() != null) {
-            entityStream.write(String.format(": %s\n", outboundEvent.getComment()).getBytes());
+        EventBuffer buffer = BUFFERS.get();
+        if (buffer.inUse) {
+            // nested event serialization - do not share the buffer
+            buffer = new EventBuffer();
+        }
+        buffer.inUse = true;
+        try {
+            if (outboundEvent.getComment() != null) {
+                buffer.writeField(COMMENT_PREFIX, outboundEvent.getComment().getBytes(UTF8));
+            }
+
+            if (outboundEvent.getType() != null) {
+                final MediaType eventMediaType =
+                        outboundEvent.getMediaType() == null ? MediaType.TEXT_PLAIN_TYPE : outboundEvent.getMediaType();
+                final MessageBodyWriter messageBodyWriter = workersProvider.get().getMessageBodyWriter(
+                        outboundEvent.getType(), outboundEvent.getType(), annotations, eventMediaType);
+                if (outboundEvent.getName() != null) {
+                    buffer.writeField(NAME_PREFIX, outboundEvent.getName().getBytes(UTF8));
+                }
+                if (outboundEvent.getId() != null) {
+                    buffer.writeField(ID_PREFIX, outboundEvent.getId().getBytes(UTF8));
+                }
+
+                buffer.startField(DATA_PREFIX);
+                messageBodyWriter.writeTo(
+                        outboundEvent.getData(),
+                        outboundEvent.getType(),
+                        outboundEvent.getType(),
+                        annotations,
+                        eventMediaType,
+                        httpHeaders,
+                        buffer.fieldStream);
+                buffer.write(EVENT_END, 0, EVENT_END.length);
+            } else {
+                // all the fields written so far are already terminated, just end the event
+                buffer.write(EOL, 0, EOL.length);
+            }
+
+            buffer.writeTo(entityStream);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Event framing buffer.
+     * <p>
+     * Field values are split into lines at any line terminator ({@code CRLF}, {@code LF} or a single
+     * {@code CR}); each line is written as a separate field line terminated by {@code LF}.
+     * </p>
+     */
+    private static final class EventBuffer extends ByteArrayOutputStream {
+
+        private boolean inUse = false;
+        private byte[] fieldPrefix;
+        /**
+         * {@code true} if the last written field value byte was {@code CR}, so that a following {@code LF}
+         * is treated as a part of the same line terminator.
+         */
+        private boolean afterCr;
+
+        /**
+         * Stream that writes a multi-line field value, prefixing each line with the field prefix.
+         */
+        private final OutputStream fieldStream = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                writeValue(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                writeValue(b, off, len);
+            }
+        };
+
+        EventBuffer() {
+            super(1024);
+        }
+
+        void startField(byte[] prefix) {
+            fieldPrefix = prefix;
+            afterCr = false;
+            write(prefix, 0, prefix.length);
+        }
+
+        void writeField(byte[] prefix, byte[] value) {
+            startField(prefix);
+            writeValue(value, 0, value.length);
+            write(EOL, 0, EOL.length);
         }
 
-        if (outboundEvent.getType() != null) {
-            final MediaType eventMediaType =
-                    outboundEvent.getMediaType() == null ? MediaType.TEXT_PLAIN_TYPE : outboundEvent.getMediaType();
-            final MessageBodyWriter messageBodyWriter = workersProvider.get().getMessageBodyWriter(outboundEvent.getType(),
-                    outboundEvent.getType(), annotations, eventMediaType);
-            if (outboundEvent.getName() != null) {
-                entityStream.write(String.format("event: %s\n", outboundEvent.getName()).getBytes());
+        void writeValue(int b) {
+            if (b == '\n' && afterCr) {
+                // LF of a CRLF line terminator
+                afterCr = false;
+            } else if (b == '\n' || b == '\r') {
+                newLine();
+                afterCr = b == '\r';
+            } else {
+                afterCr = false;
+                write(b);
             }
-            if (outboundEvent.getId() != null) {
-                entityStream.write(String.format("id: %s\n", outboundEvent.getId()).getBytes());
+        }
+
+        void writeValue(byte[] b, int off, int len) {
+            final int end = off + len;
+            int lineStart = off;
+            for (int i = off; i < end; i++) {
+                final byte current = b[i];
+                if (current == '\n' || current == '\r') {
+                    if (lineStart < i) {
+                        write(b, lineStart, i - lineStart);
+                        afterCr = false;
+                    }
+                    writeValue(current);
+                    lineStart = i + 1;
+                }
             }
+            if (lineStart < end) {
+                write(b, lineStart, end - lineStart);
+                afterCr = false;
+            }
+        }
 
-            messageBodyWriter.writeTo(
-                    outboundEvent.getData(),
-                    outboundEvent.getType(),
-                    outboundEvent.getType(),
-                    annotations,
-                    eventMediaType,
-                    httpHeaders,
-                    new OutputStream() {
-
-                        private boolean start = true;
-
-                        @Override
-                        public void write(int i) throws IOException {
-                            if (start) {
-                                entityStream.write("data: ".getBytes());
-                                start = false;
-                            }
-                            entityStream.write(i);
-                            if (i == '\n') {
-                                entityStream.write("data: ".getBytes());
-                            }
-                        }
-                    });
+        private void newLine() {
+            write(EOL, 0, EOL.length);
+            write(fieldPrefix, 0, fieldPrefix.length);
         }
 
-        entityStream.write("\n\n".getBytes());
-        entityStream.flush();
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(buf, 0, count);
+        }
+
+        void release() {
+            inUse = false;
+            fieldPrefix = null;
+            afterCr = false;
+            reset();
+            if (buf.length > MAX_REUSED_BUFFER_SIZE) {
+                buf = new byte[1024];
+            }
+        }
     }
 }
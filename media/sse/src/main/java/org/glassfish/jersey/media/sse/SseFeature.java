@@ -66,6 +66,7 @@ public class SseFeature implements Feature {
 
         context.register(EventInputReader.class);
         context.register(InboundEventReader.class);
+        context.register(EventStreamReader.class);
         context.register(OutboundEventWriter.class);
         return true;
     }
@@ -0,0 +1,451 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.sse;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.Charset;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.client.ClientException;
+import javax.ws.rs.client.ClientFactory;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+import org.glassfish.jersey.client.spi.EntityReadiness;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link EventSourceDispatcher} tests.
+ *
+ * @author agent (agent at local)
+ */
+public class EventSourceDispatcherTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private StreamingConnector connector;
+    private EventSourceDispatcher dispatcher;
+    private BlockingQueue<InboundEvent> events;
+    private EventListener listener;
+
+    @Before
+    public void setUp() {
+        connector = new StreamingConnector();
+        dispatcher = new EventSourceDispatcher(1, 10, 20, 0, TimeUnit.MILLISECONDS);
+        events = new LinkedBlockingQueue<InboundEvent>();
+        listener = new EventListener() {
+            @Override
+            public void onEvent(InboundEvent inboundEvent) {
+                events.add(inboundEvent);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+        connector.executor.shutdownNow();
+    }
+
+    private WebTarget target(String path) {
+        return ClientFactory.newClient(new ClientConfig().connector(connector))
+                .target("http://localhost/" + path).register(EventStreamReader.class);
+    }
+
+    private InboundEvent nextEvent() throws InterruptedException {
+        final InboundEvent event = events.poll(5, TimeUnit.SECONDS);
+        assertNotNull("Event not received.", event);
+        return event;
+    }
+
+    private static String data(InboundEvent event) {
+        return new String(event.getRawData(), UTF8);
+    }
+
+    @Test
+    public void testEventsDispatched() throws Exception {
+        final PipedOutputStream server = connector.stream();
+        final Future<?> subscription = dispatcher.dispatch(target("events"), listener);
+
+        server.write("event: a\ndata: 1\n\n".getBytes(UTF8));
+        server.flush();
+        assertEquals("a", nextEvent().getName());
+
+        server.write("data: 2\n".getBytes(UTF8));
+        server.flush();
+        server.write("\n".getBytes(UTF8));
+        server.flush();
+        assertEquals("2\n", data(nextEvent()));
+
+        assertFalse(subscription.isDone());
+        subscription.cancel(false);
+        subscription.get(5, TimeUnit.SECONDS);
+        assertTrue(subscription.isDone());
+        assertTrue(subscription.isCancelled());
+        assertEquals(1, connector.requests.size());
+    }
+
+    @Test
+    public void testReconnectAtEndOfStream() throws Exception {
+        connector.complete("id: 1\nretry: 30\ndata: first\n\n");
+        connector.complete("id: 2\ndata: second\n\n");
+        connector.noContent();
+
+        final Future<?> subscription = dispatcher.dispatch(target("events"), listener);
+
+        assertEquals("first\n", data(nextEvent()));
+        assertEquals("second\n", data(nextEvent()));
+        // 204 No Content stops the reconnecting
+        subscription.get(5, TimeUnit.SECONDS);
+        assertFalse(subscription.isCancelled());
+
+        assertEquals(3, connector.requests.size());
+        assertNull(connector.requests.poll().getHeaderString(EventSourceDispatcher.LAST_EVENT_ID_HEADER));
+        assertEquals("1", connector.requests.poll().getHeaderString(EventSourceDispatcher.LAST_EVENT_ID_HEADER));
+        assertEquals("2", connector.requests.poll().getHeaderString(EventSourceDispatcher.LAST_EVENT_ID_HEADER));
+    }
+
+    @Test
+    public void testReconnectOnIdleTimeout() throws Exception {
+        dispatcher.shutdown();
+        dispatcher = new EventSourceDispatcher(1, 10, 20, 200, TimeUnit.MILLISECONDS);
+
+        final PipedOutputStream first = connector.stream();
+        connector.noContent();
+
+        final Future<?> subscription = dispatcher.dispatch(target("events"), listener);
+        first.write("id: 5\ndata: x\n\n".getBytes(UTF8));
+        first.flush();
+        assertEquals("x\n", data(nextEvent()));
+
+        // the server closes the chunked stream, which can only be detected by the idle timeout
+        first.close();
+        subscription.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, connector.requests.size());
+        connector.requests.poll();
+        assertEquals("5", connector.requests.poll().getHeaderString(EventSourceDispatcher.LAST_EVENT_ID_HEADER));
+    }
+
+    @Test
+    public void testReadinessNotifications() throws Exception {
+        dispatcher.shutdown();
+        // polling alone would not deliver the events in time, nor detect the end of the stream
+        dispatcher = new EventSourceDispatcher(1, 10000, 20, 0, TimeUnit.MILLISECONDS);
+
+        final OutputStream first = connector.notifyingStream();
+        connector.noContent();
+
+        final Future<?> subscription = dispatcher.dispatch(target("events"), listener);
+        assertTrue(connector.arrived.tryAcquire(5, TimeUnit.SECONDS));
+
+        first.write("id: 7\ndata: x\n\n".getBytes(UTF8));
+        first.flush();
+        assertEquals("x\n", data(nextEvent()));
+        first.write("data: y\n\n".getBytes(UTF8));
+        first.flush();
+        assertEquals("y\n", data(nextEvent()));
+
+        // the end of the stream is reported by the connector
+        first.close();
+        subscription.get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, connector.requests.size());
+        connector.requests.poll();
+        assertEquals("7", connector.requests.poll().getHeaderString(EventSourceDispatcher.LAST_EVENT_ID_HEADER));
+    }
+
+    @Test
+    public void testConnectionFailure() throws Exception {
+        connector.fail();
+        connector.complete("data: x\n\n");
+        connector.noContent();
+
+        final Future<?> subscription = dispatcher.dispatch(target("events"), listener);
+
+        assertEquals("x\n", data(nextEvent()));
+        subscription.get(5, TimeUnit.SECONDS);
+        assertEquals(3, connector.requests.size());
+    }
+
+    @Test
+    public void testUnexpectedStatus() throws Exception {
+        connector.status(Response.Status.NOT_FOUND);
+
+        dispatcher.dispatch(target("events"), listener).get(5, TimeUnit.SECONDS);
+        assertEquals(1, connector.requests.size());
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testListenerFailureDoesNotStopStream() throws Exception {
+        connector.complete("data: 1\n\ndata: 2\n\n");
+        connector.noContent();
+
+        final Future<?> subscription = dispatcher.dispatch(target("events"), new EventListener() {
+            @Override
+            public void onEvent(InboundEvent inboundEvent) {
+                listener.onEvent(inboundEvent);
+                throw new RuntimeException("listener failure");
+            }
+        });
+
+        assertEquals("1\n", data(nextEvent()));
+        assertEquals("2\n", data(nextEvent()));
+        subscription.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSlowConnectDoesNotBlockDispatcher() throws Exception {
+        final CountDownLatch slow = connector.block();
+        final PipedOutputStream fast = connector.stream();
+
+        final Future<?> slowSubscription = dispatcher.dispatch(target("slow"), listener);
+        assertTrue(connector.arrived.tryAcquire(5, TimeUnit.SECONDS));
+        final Future<?> fastSubscription = dispatcher.dispatch(target("fast"), listener);
+
+        fast.write("data: fast\n\n".getBytes(UTF8));
+        fast.flush();
+        assertEquals("fast\n", data(nextEvent()));
+
+        // cancelled while connecting
+        slowSubscription.cancel(false);
+        slow.countDown();
+        slowSubscription.get(5, TimeUnit.SECONDS);
+        fastSubscription.cancel(false);
+        fastSubscription.get(5, TimeUnit.SECONDS);
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        connector.stream();
+        final Future<?> subscription = dispatcher.dispatch(target("events"), listener);
+        assertTrue(connector.arrived.tryAcquire(5, TimeUnit.SECONDS));
+
+        dispatcher.shutdown();
+        assertTrue(dispatcher.isShutdown());
+        subscription.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Connector serving the scripted responses in the order of the incoming requests.
+     */
+    private static class StreamingConnector implements Connector {
+
+        private final ExecutorService executor = Executors.newCachedThreadPool();
+        private final BlockingQueue<ClientRequest> requests = new LinkedBlockingQueue<ClientRequest>();
+        private final BlockingQueue<ResponseScript> responses = new LinkedBlockingQueue<ResponseScript>();
+        private final Semaphore arrived = new Semaphore(0);
+
+        private abstract static class ResponseScript {
+
+            abstract ClientResponse respond(ClientRequest request) throws Exception;
+        }
+
+        private static ClientResponse eventStream(ClientRequest request, InputStream entity) {
+            final ClientResponse response = new ClientResponse(Response.Status.OK, request);
+            response.header(HttpHeaders.CONTENT_TYPE, SseFeature.SERVER_SENT_EVENTS);
+            response.setEntityStream(entity);
+            return response;
+        }
+
+        /**
+         * Respond with a chunked event stream written to the returned output stream.
+         */
+        PipedOutputStream stream() throws IOException {
+            final PipedInputStream entity = new PipedInputStream();
+            final PipedOutputStream output = new PipedOutputStream(entity);
+            responses.add(new ResponseScript() {
+                @Override
+                ClientResponse respond(ClientRequest request) {
+                    return eventStream(request, entity);
+                }
+            });
+            return output;
+        }
+
+        /**
+         * Respond with a chunked event stream written to the returned output stream, reporting the
+         * {@link EntityReadiness entity readiness} on every flush and on close.
+         */
+        OutputStream notifyingStream() throws IOException {
+            final PipedInputStream entity = new PipedInputStream();
+            final EntityReadiness readiness = new EntityReadiness();
+            responses.add(new ResponseScript() {
+                @Override
+                ClientResponse respond(ClientRequest request) {
+                    request.setProperty(EntityReadiness.PROPERTY, readiness);
+                    return eventStream(request, entity);
+                }
+            });
+            return new FilterOutputStream(new PipedOutputStream(entity)) {
+                @Override
+                public void flush() throws IOException {
+                    super.flush();
+                    readiness.dataAvailable();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    readiness.completed();
+                }
+            };
+        }
+
+        /**
+         * Respond with a complete event stream of a known length.
+         */
+        void complete(final String stream) {
+            responses.add(new ResponseScript() {
+                @Override
+                ClientResponse respond(ClientRequest request) {
+                    final byte[] entity = stream.getBytes(UTF8);
+                    final ClientResponse response = eventStream(request, new ByteArrayInputStream(entity));
+                    response.header(HttpHeaders.CONTENT_LENGTH, entity.length);
+                    return response;
+                }
+            });
+        }
+
+        void status(final Response.Status status) {
+            responses.add(new ResponseScript() {
+                @Override
+                ClientResponse respond(ClientRequest request) {
+                    return new ClientResponse(status, request);
+                }
+            });
+        }
+
+        void noContent() {
+            status(Response.Status.NO_CONTENT);
+        }
+
+        void fail() {
+            responses.add(new ResponseScript() {
+                @Override
+                ClientResponse respond(ClientRequest request) {
+                    throw new ClientException("Connection refused.");
+                }
+            });
+        }
+
+        /**
+         * Block the response until the returned latch is released. The connection is then refused.
+         */
+        CountDownLatch block() {
+            final CountDownLatch latch = new CountDownLatch(1);
+            responses.add(new ResponseScript() {
+                @Override
+                ClientResponse respond(ClientRequest request) throws Exception {
+                    latch.await();
+                    throw new ClientException("Connection timed out.");
+                }
+            });
+            return latch;
+        }
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Future<?> apply(final ClientRequest request, final AsyncConnectorCallback callback) {
+            return executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    final ResponseScript script;
+                    synchronized (requests) {
+                        requests.add(request);
+                        script = responses.poll();
+                    }
+                    arrived.release();
+                    try {
+                        if (script == null) {
+                            throw new ClientException("No response scripted.");
+                        }
+                        callback.response(script.respond(request));
+                    } catch (Throwable t) {
+                        callback.failure(t);
+                    }
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            // do nothing
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+    }
+}
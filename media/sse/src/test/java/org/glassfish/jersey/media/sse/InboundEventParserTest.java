@@ -0,0 +1,222 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.sse;
+
+import java.io.ByteArrayInputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests parsing of the Server-Sent Events streams by the {@link InboundEventParser}.
+ *
+ * @author agent (agent at local)
+ */
+public class InboundEventParserTest {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final List<InboundEvent> events = new ArrayList<InboundEvent>();
+    private final EventListener listener = new EventListener() {
+        @Override
+        public void onEvent(InboundEvent inboundEvent) {
+            events.add(inboundEvent);
+        }
+    };
+    private InboundEventParser parser;
+
+    @Before
+    public void setUp() {
+        parser = new InboundEventParser();
+        parser.reset(newStream());
+    }
+
+    private static EventStream newStream() {
+        return new EventStream(new ByteArrayInputStream(new byte[0]), null, new Annotation[0],
+                SseFeature.SERVER_SENT_EVENTS_TYPE, null);
+    }
+
+    /**
+     * Parse the stream in chunks of the given size.
+     */
+    private void parse(String stream, int chunkSize) {
+        final byte[] bytes = stream.getBytes(UTF8);
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            parser.parse(bytes, offset, Math.min(chunkSize, bytes.length - offset), listener);
+        }
+    }
+
+    private static String data(InboundEvent event) {
+        return new String(event.getRawData(), UTF8);
+    }
+
+    @Test
+    public void testSimpleEvents() {
+        parse("event: greeting\nid: 1\ndata: hello\n\ndata: world\n\n", 1024);
+
+        assertEquals(2, events.size());
+        assertEquals("greeting", events.get(0).getName());
+        assertEquals("1", events.get(0).getId());
+        assertEquals("hello\n", data(events.get(0)));
+        assertNull(events.get(1).getName());
+        assertEquals("1", events.get(1).getId());
+        assertEquals("world\n", data(events.get(1)));
+        assertEquals("1", parser.getLastEventId());
+    }
+
+    @Test
+    public void testMultiLineData() {
+        parse("data: first\ndata:second\ndata:  third\ndata\n\n", 1024);
+
+        assertEquals(1, events.size());
+        assertEquals("first\nsecond\n third\n\n", data(events.get(0)));
+    }
+
+    @Test
+    public void testLineTerminators() {
+        final String stream = "event: a\r\ndata: 1\r\n\r\nevent: b\rdata: 2\r\revent: c\ndata: 3\n\n";
+        for (int chunkSize = 1; chunkSize <= stream.length(); chunkSize++) {
+            events.clear();
+            setUp();
+            parse(stream, chunkSize);
+
+            assertEquals("chunk size " + chunkSize, 3, events.size());
+            assertEquals("a", events.get(0).getName());
+            assertEquals("1\n", data(events.get(0)));
+            assertEquals("b", events.get(1).getName());
+            assertEquals("2\n", data(events.get(1)));
+            assertEquals("c", events.get(2).getName());
+            assertEquals("3\n", data(events.get(2)));
+        }
+    }
+
+    @Test
+    public void testNonAsciiDataSplitAcrossChunks() {
+        parse("event: événement\ndata: žluťoučký kůň\n\n", 1);
+
+        assertEquals(1, events.size());
+        assertEquals("événement", events.get(0).getName());
+        assertEquals("žluťoučký kůň\n", data(events.get(0)));
+    }
+
+    @Test
+    public void testComments() {
+        parse(": heartbeat\n\ndata: x\n: comment inside event\ndata: y\n\n:\n\n", 3);
+
+        assertEquals(1, events.size());
+        assertEquals("x\ny\n", data(events.get(0)));
+    }
+
+    @Test
+    public void testEventsWithoutDataIgnored() {
+        parse("event: nothing\nid: 7\n\ndata: x\n\n", 1024);
+
+        assertEquals(1, events.size());
+        assertNull(events.get(0).getName());
+        assertEquals("7", events.get(0).getId());
+    }
+
+    @Test
+    public void testIncompleteEventNotDispatched() {
+        parse("data: x\n\ndata: incomplete\n", 1024);
+        assertEquals(1, events.size());
+
+        parser.reset(newStream());
+        parse("data: y\n\n", 1024);
+
+        assertEquals(2, events.size());
+        assertEquals("y\n", data(events.get(1)));
+    }
+
+    @Test
+    public void testId() {
+        parse("id: 1\ndata: a\n\nid\ndata: b\n\nid: x\u0000y\ndata: c\n\n", 2);
+
+        assertEquals(3, events.size());
+        assertEquals("1", events.get(0).getId());
+        // empty id resets the last event id
+        assertEquals("", events.get(1).getId());
+        // ids containing NUL are ignored
+        assertEquals("", events.get(2).getId());
+        assertEquals("", parser.getLastEventId());
+    }
+
+    @Test
+    public void testRetry() {
+        assertEquals(-1, parser.getReconnectDelay());
+
+        parse("retry: 1500\n\n", 1024);
+        assertEquals(1500, parser.getReconnectDelay());
+
+        parse("retry: 15x\nretry: -1\nretry\nretry: 1000000000000000000000\n\n", 1024);
+        assertEquals(1500, parser.getReconnectDelay());
+
+        parse("retry:0\n\n", 1024);
+        assertEquals(0, parser.getReconnectDelay());
+        assertEquals(0, events.size());
+    }
+
+    @Test
+    public void testLastEventIdAndRetryPreservedOnReset() {
+        parse("id: 42\nretry: 100\ndata: x\n\nid: 43\n", 1024);
+
+        parser.reset(newStream());
+
+        assertEquals("43", parser.getLastEventId());
+        assertEquals(100, parser.getReconnectDelay());
+    }
+
+    @Test
+    public void testUnknownFieldsIgnored() {
+        parse("foo: bar\ndata: x\nevent\n\n", 1024);
+
+        assertEquals(1, events.size());
+        assertEquals("", events.get(0).getName());
+        assertEquals("x\n", data(events.get(0)));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.media.sse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URI;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ResourceConfig;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests framing of the {@link OutboundEvent outbound events} by the {@link OutboundEventWriter}.
+ *
+ * @author agent (agent at local)
+ */
+public class OutboundEventWriterTest {
+
+    private static volatile OutboundEvent event;
+
+    @Path("events")
+    public static class EventResource {
+
+        @GET
+        @Produces(SseFeature.SERVER_SENT_EVENTS)
+        public OutboundEvent get() {
+            return event;
+        }
+    }
+
+    /**
+     * Event data written one byte at a time.
+     */
+    public static class SingleByteData {
+
+        private final String data;
+
+        public SingleByteData(String data) {
+            this.data = data;
+        }
+    }
+
+    @Produces("text/plain")
+    public static class SingleByteDataWriter implements MessageBodyWriter<SingleByteData> {
+
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return type == SingleByteData.class;
+        }
+
+        @Override
+        public long getSize(SingleByteData data, Class<?> type, Type genericType, Annotation[] annotations,
+                            MediaType mediaType) {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(SingleByteData data, Class<?> type, Type genericType, Annotation[] annotations,
+                            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+                throws IOException, WebApplicationException {
+            for (byte b : data.data.getBytes("UTF-8")) {
+                entityStream.write(b);
+            }
+        }
+    }
+
+    private ApplicationHandler application;
+
+    @Before
+    public void setUp() {
+        application = new ApplicationHandler(
+                new ResourceConfig(EventResource.class, OutboundEventWriter.class, SingleByteDataWriter.class));
+    }
+
+    private String write(OutboundEvent outboundEvent) throws Exception {
+        event = outboundEvent;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(200, application.apply(new ContainerRequest(URI.create("/"), URI.create("/events"), "GET", null,
+                new MapPropertiesDelegate()), out).get().getStatus());
+        return out.toString("UTF-8");
+    }
+
+    @Test
+    public void testEventFields() throws Exception {
+        assertEquals("event: update\nid: 42\ndata: hello\n\n", write(new OutboundEvent.Builder()
+                .name("update").id("42").data(String.class, "hello").build()));
+    }
+
+    @Test
+    public void testMultiLineData() throws Exception {
+        assertEquals("data: first\ndata: second\ndata: third\ndata: fourth\n\n", write(new OutboundEvent.Builder()
+                .data(String.class, "first\nsecond\r\nthird\rfourth").build()));
+    }
+
+    @Test
+    public void testEmptyLinesInData() throws Exception {
+        assertEquals("data: a\ndata: \ndata: b\ndata: \n\n", write(new OutboundEvent.Builder()
+                .data(String.class, "a\r\n\nb\n").build()));
+    }
+
+    @Test
+    public void testLineBreaksInFields() throws Exception {
+        assertEquals("event: a\nevent: b\nid: 1\nid: 2\ndata: x\n\n", write(new OutboundEvent.Builder()
+                .name("a\rb").id("1\r\n2").data(String.class, "x").build()));
+    }
+
+    @Test
+    public void testComment() throws Exception {
+        assertEquals(": first\n: second\n\n", write(new OutboundEvent.Builder().comment("first\nsecond").build()));
+        assertEquals(": keep-alive\ndata: x\n\n", write(new OutboundEvent.Builder()
+                .comment("keep-alive").data(String.class, "x").build()));
+    }
+
+    @Test
+    public void testDataWrittenByteByByte() throws Exception {
+        assertEquals("data: a\ndata: b\ndata: c\ndata: č\n\n", write(new OutboundEvent.Builder()
+                .data(SingleByteData.class, new SingleByteData("a\r\nb\rc\nč")).build()));
+    }
+
+    @Test
+    public void testNonAsciiData() throws Exception {
+        assertEquals("event: événement\ndata: žluťoučký\n\n", write(new OutboundEvent.Builder()
+                .name("événement").data(String.class, "žluťoučký").build()));
+    }
+}
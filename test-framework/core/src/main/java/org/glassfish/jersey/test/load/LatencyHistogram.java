@@ -0,0 +1,236 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.test.load;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogram of recorded latency values (in nanoseconds) with a fixed relative precision.
+ * <p>
+ * Values are stored in log-linear buckets (in the style of HdrHistogram): values below {@code 128} are
+ * recorded exactly, larger values are recorded with a relative error below {@code 1.6%}. The memory footprint
+ * of the histogram is constant and independent of the number and range of the recorded values.
+ * </p>
+ * <p>
+ * The histogram supports correction of the coordinated omission problem by {@link #recordValue(long, long)
+ * back-filling} the samples that would have been recorded, had the measured system not stalled the load
+ * generator. Instances are not thread-safe; the load test runner records the values into per-worker histograms
+ * that are {@link #add(LatencyHistogram) merged} at the end of the test.
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = Long.SIZE - 1 - SUB_BUCKET_BITS;
+
+    private final long[] counts = new long[SUB_BUCKET_COUNT + BUCKET_COUNT * SUB_BUCKET_HALF_COUNT];
+    private long totalCount;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    /**
+     * Record a single value.
+     *
+     * @param value recorded value in nanoseconds. Negative values are recorded as zero.
+     */
+    public void recordValue(final long value) {
+        final long v = value < 0 ? 0 : value;
+        counts[indexOf(v)]++;
+        totalCount++;
+        sum += v;
+        if (v < min) {
+            min = v;
+        }
+        if (v > max) {
+            max = v;
+        }
+    }
+
+    /**
+     * Record a value measured by a load generator that issues requests at a fixed expected interval,
+     * correcting for coordinated omission.
+     * <p>
+     * If the recorded value exceeds the expected interval, the generator has been stalled and the requests
+     * that should have been sent in the meantime are missing from the measurement. The method therefore also
+     * records the values {@code value - expectedInterval}, {@code value - 2 * expectedInterval}, ...
+     * down to the expected interval.
+     * </p>
+     *
+     * @param value            recorded value in nanoseconds.
+     * @param expectedInterval expected interval between two subsequent requests in nanoseconds. If not
+     *                         positive, no correction is made.
+     */
+    public void recordValue(final long value, final long expectedInterval) {
+        recordValue(value);
+        if (expectedInterval <= 0) {
+            return;
+        }
+        for (long missing = value - expectedInterval; missing >= expectedInterval; missing -= expectedInterval) {
+            recordValue(missing);
+        }
+    }
+
+    /**
+     * Add all the values recorded in another histogram to this histogram.
+     *
+     * @param other histogram to be added.
+     */
+    public void add(final LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        if (other.totalCount > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    /**
+     * Remove all recorded values.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = 0;
+    }
+
+    /**
+     * Get the number of recorded values.
+     *
+     * @return number of recorded values.
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Get the smallest recorded value.
+     *
+     * @param unit time unit of the returned value.
+     * @return smallest recorded value or {@code 0} if no value has been recorded.
+     */
+    public long getMin(final TimeUnit unit) {
+        return totalCount == 0 ? 0 : unit.convert(min, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the largest recorded value.
+     *
+     * @param unit time unit of the returned value.
+     * @return largest recorded value or {@code 0} if no value has been recorded.
+     */
+    public long getMax(final TimeUnit unit) {
+        return unit.convert(max, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the mean of the recorded values in nanoseconds.
+     *
+     * @return mean of the recorded values in nanoseconds or {@code 0} if no value has been recorded.
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    /**
+     * Get the value at the given percentile, i.e. the (upper bound of the) value, which is larger or equal
+     * to the given percentage of the recorded values.
+     *
+     * @param percentile percentile in the {@code [0, 100]} range.
+     * @param unit       time unit of the returned value.
+     * @return value at the given percentile or {@code 0} if no value has been recorded.
+     */
+    public long getValueAtPercentile(final double percentile, final TimeUnit unit) {
+        return unit.convert(getValueAtPercentile(percentile), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the value at the given percentile in nanoseconds.
+     *
+     * @param percentile percentile in the {@code [0, 100]} range.
+     * @return value at the given percentile or {@code 0} if no value has been recorded.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in the [0, 100] range: " + percentile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+
+        final long target = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.max(min, Math.min(max, highestEquivalentValue(i)));
+            }
+        }
+        return max;
+    }
+
+    private static int indexOf(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int bucket = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+        return SUB_BUCKET_COUNT + (bucket - 1) * SUB_BUCKET_HALF_COUNT
+                + (int) ((value >>> bucket) - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static long highestEquivalentValue(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int bucket = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        final long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << bucket) - 1;
+    }
+}
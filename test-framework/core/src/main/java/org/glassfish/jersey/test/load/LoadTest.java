@@ -0,0 +1,563 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.test.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.InvocationCallback;
+import javax.ws.rs.core.Response;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Multi-threaded load test runner.
+ * <p>
+ * The runner repeatedly executes a request against the tested application - typically an application deployed
+ * in a {@link org.glassfish.jersey.test.JerseyTest Jersey test} container, so that the same load test can be run
+ * against any test container provider - and measures the throughput and the latency distribution of the requests.
+ * The load is generated either by a number of concurrent client threads executing {@link #run(Callable) synchronous
+ * requests} or by {@link #runAsync(Invocation) asynchronous requests} with a bounded number of requests in flight.
+ * The test runs for a fixed duration or until a fixed number of requests is executed, optionally preceded by
+ * a warm-up phase that is not measured.
+ * </p>
+ * <p>
+ * By default each client thread sends a next request as soon as the previous one completes (closed loop) and the
+ * measured latency is the request service time. If a {@link Builder#rate(double) target request rate} is set,
+ * the requests are sent according to a fixed schedule instead and the latency of each request is measured from
+ * its scheduled send time. The measured latencies then include the time the request had to wait because
+ * the tested application stalled, i.e. the results do not suffer from the coordinated omission problem.
+ * </p>
+ * <p>
+ * Latency, throughput and error rate thresholds may be configured. If any of the thresholds is exceeded,
+ * the run methods throw an {@link AssertionError} containing the load test report:
+ * <pre>
+ * &#64;Test
+ * public void testGetThroughput() throws Exception {
+ *     LoadTest.builder()
+ *             .threads(8)
+ *             .warmup(2, TimeUnit.SECONDS)
+ *             .duration(10, TimeUnit.SECONDS)
+ *             .maxLatency(99, 20, TimeUnit.MILLISECONDS)
+ *             .minThroughput(1000)
+ *             .build()
+ *             .run(new Callable&lt;String&gt;() {
+ *                 public String call() {
+ *                     return target("items").request().get(String.class);
+ *                 }
+ *             });
+ * }
+ * </pre>
+ * </p>
+ *
+ * @author agent (agent at local)
+ */
+public final class LoadTest {
+
+    private static final Logger LOGGER = Logger.getLogger(LoadTest.class.getName());
+
+    private final int threads;
+    private final long durationNanos;
+    private final long requests;
+    private final long warmupNanos;
+    private final double rate;
+    private final List<LatencyThreshold> latencyThresholds;
+    private final double minThroughput;
+    private final double maxErrorRate;
+
+    /**
+     * Latency threshold at a given percentile.
+     */
+    private static final class LatencyThreshold {
+        final double percentile;
+        final long nanos;
+
+        LatencyThreshold(final double percentile, final long nanos) {
+            this.percentile = percentile;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Load test builder.
+     */
+    public static final class Builder {
+        private int threads = 1;
+        private long durationNanos = 0;
+        private long requests = 0;
+        private long warmupNanos = 0;
+        private double rate = 0;
+        private final List<LatencyThreshold> latencyThresholds = new ArrayList<LatencyThreshold>();
+        private double minThroughput = 0;
+        private double maxErrorRate = 0;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the number of concurrent client threads executing the synchronous requests or the maximum number
+         * of asynchronous requests in flight. Defaults to {@code 1}.
+         *
+         * @param threads level of concurrency.
+         * @return updated builder.
+         */
+        public Builder threads(final int threads) {
+            if (threads < 1) {
+                throw new IllegalArgumentException("Number of threads must be positive: " + threads);
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Run the measured phase of the load test for a fixed duration.
+         *
+         * @param duration duration of the measured phase.
+         * @param unit     time unit of the duration.
+         * @return updated builder.
+         */
+        public Builder duration(final long duration, final TimeUnit unit) {
+            this.durationNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        /**
+         * Run the measured phase of the load test until a fixed number of requests is executed.
+         * If {@link #duration(long, TimeUnit) duration} is set too, the phase ends once any of the limits is reached.
+         *
+         * @param requests total number of measured requests.
+         * @return updated builder.
+         */
+        public Builder requests(final long requests) {
+            this.requests = requests;
+            return this;
+        }
+
+        /**
+         * Execute requests for the given time before the measured phase is started, e.g. to let the JIT
+         * compiler optimize the tested code.
+         *
+         * @param warmup duration of the warm-up phase.
+         * @param unit   time unit of the duration.
+         * @return updated builder.
+         */
+        public Builder warmup(final long warmup, final TimeUnit unit) {
+            this.warmupNanos = unit.toNanos(warmup);
+            return this;
+        }
+
+        /**
+         * Send the requests at a fixed rate instead of sending each next request as soon as the previous
+         * one completes. The latencies are measured from the scheduled send times.
+         *
+         * @param requestsPerSecond total target rate of the requests per second.
+         * @return updated builder.
+         */
+        public Builder rate(final double requestsPerSecond) {
+            this.rate = requestsPerSecond;
+            return this;
+        }
+
+        /**
+         * Fail the load test if the latency at the given percentile exceeds the given limit.
+         *
+         * @param percentile percentile in the {@code [0, 100]} range.
+         * @param latency    maximal latency.
+         * @param unit       time unit of the latency.
+         * @return updated builder.
+         */
+        public Builder maxLatency(final double percentile, final long latency, final TimeUnit unit) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile must be in the [0, 100] range: " + percentile);
+            }
+            latencyThresholds.add(new LatencyThreshold(percentile, unit.toNanos(latency)));
+            return this;
+        }
+
+        /**
+         * Fail the load test if the throughput is lower than the given limit.
+         *
+         * @param requestsPerSecond minimal number of requests per second.
+         * @return updated builder.
+         */
+        public Builder minThroughput(final double requestsPerSecond) {
+            this.minThroughput = requestsPerSecond;
+            return this;
+        }
+
+        /**
+         * Fail the load test if the ratio of failed requests exceeds the given limit.
+         * By default the load test fails if any request fails.
+         *
+         * @param errorRate maximal ratio of failed requests in the {@code [0, 1]} range.
+         * @return updated builder.
+         */
+        public Builder maxErrorRate(final double errorRate) {
+            this.maxErrorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Build the load test.
+         *
+         * @return new load test.
+         */
+        public LoadTest build() {
+            if (durationNanos <= 0 && requests <= 0) {
+                throw new IllegalStateException("Either the duration or the number of requests must be set.");
+            }
+            return new LoadTest(this);
+        }
+    }
+
+    /**
+     * Create new load test builder.
+     *
+     * @return new load test builder.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private LoadTest(final Builder builder) {
+        this.threads = builder.threads;
+        this.durationNanos = builder.durationNanos;
+        this.requests = builder.requests;
+        this.warmupNanos = builder.warmupNanos;
+        this.rate = builder.rate;
+        this.latencyThresholds = new ArrayList<LatencyThreshold>(builder.latencyThresholds);
+        this.minThroughput = builder.minThroughput;
+        this.maxErrorRate = builder.maxErrorRate;
+    }
+
+    /**
+     * Run the load test executing the request synchronously from the configured number of client threads.
+     * A request fails if the callable throws an exception.
+     *
+     * @param request request to be executed.
+     * @return load test result.
+     * @throws InterruptedException in case the load test has been interrupted.
+     * @throws AssertionError       in case any of the configured thresholds has been exceeded.
+     */
+    public LoadTestResult run(final Callable<?> request) throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("jersey-load-test-%d").setDaemon(true).build());
+        try {
+            final AtomicLong measurementStart = new AtomicLong();
+            final CyclicBarrier barrier = new CyclicBarrier(threads, new Runnable() {
+                @Override
+                public void run() {
+                    measurementStart.set(System.nanoTime());
+                }
+            });
+            final AtomicLong remaining = new AtomicLong(requests > 0 ? requests : Long.MAX_VALUE);
+            final List<Future<Worker>> futures = new ArrayList<Future<Worker>>(threads);
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(new Worker(request, barrier, measurementStart, remaining)));
+            }
+
+            final LatencyHistogram latencies = new LatencyHistogram();
+            long executed = 0;
+            long errors = 0;
+            Throwable firstError = null;
+            long end = 0;
+            for (Future<Worker> future : futures) {
+                final Worker worker;
+                try {
+                    worker = future.get();
+                } catch (ExecutionException ex) {
+                    throw new IllegalStateException("Load test worker failed.", ex.getCause());
+                }
+                latencies.add(worker.latencies);
+                executed += worker.executed;
+                errors += worker.errors;
+                if (firstError == null) {
+                    firstError = worker.firstError;
+                }
+                end = Math.max(end, worker.end);
+            }
+
+            return verify(new LoadTestResult(executed, errors, end - measurementStart.get(), latencies, firstError));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Run the load test submitting the asynchronous invocation with at most the configured number of requests
+     * in flight. A request fails if the invocation fails or if the response status code is not lower than
+     * {@code 400}.
+     *
+     * @param invocation invocation to be submitted.
+     * @return load test result.
+     * @throws InterruptedException in case the load test has been interrupted.
+     * @throws AssertionError       in case any of the configured thresholds has been exceeded.
+     */
+    public LoadTestResult runAsync(final Invocation invocation) throws InterruptedException {
+        final Semaphore inFlight = new Semaphore(threads);
+        final long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+
+        if (warmupNanos > 0) {
+            submitAll(invocation, inFlight, interval, System.nanoTime() + warmupNanos, Long.MAX_VALUE,
+                    new AsyncCollector());
+        }
+
+        final AsyncCollector collector = new AsyncCollector();
+        final long start = System.nanoTime();
+        final long deadline = durationNanos > 0 ? start + durationNanos : Long.MAX_VALUE;
+        submitAll(invocation, inFlight, interval, deadline, requests > 0 ? requests : Long.MAX_VALUE, collector);
+
+        return verify(collector.result(start));
+    }
+
+    private void submitAll(final Invocation invocation, final Semaphore inFlight, final long interval,
+                           final long deadline, final long count, final AsyncCollector collector)
+            throws InterruptedException {
+        long scheduled = System.nanoTime();
+        for (long i = 0; i < count; i++) {
+            if (interval > 0) {
+                scheduled += interval;
+                parkUntil(scheduled);
+                if (scheduled - deadline >= 0) {
+                    break;
+                }
+                inFlight.acquire();
+            } else {
+                inFlight.acquire();
+                // closed loop - the request starts once an in-flight slot is available
+                scheduled = System.nanoTime();
+                if (scheduled - deadline >= 0) {
+                    inFlight.release();
+                    break;
+                }
+            }
+
+            final long sent = scheduled;
+            invocation.submit(new InvocationCallback<Response>() {
+                @Override
+                public void completed(final Response response) {
+                    try {
+                        final int status = response.getStatus();
+                        response.close();
+                        if (status >= 400) {
+                            collector.failed(new IllegalStateException("Unexpected response status: " + status));
+                        } else {
+                            collector.completed(System.nanoTime() - sent);
+                        }
+                    } finally {
+                        inFlight.release();
+                    }
+                }
+
+                @Override
+                public void failed(final Throwable error) {
+                    try {
+                        collector.failed(error);
+                    } finally {
+                        inFlight.release();
+                    }
+                }
+            });
+        }
+        // wait for the requests in flight
+        inFlight.acquire(threads);
+        inFlight.release(threads);
+    }
+
+    private static void parkUntil(final long time) throws InterruptedException {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    /**
+     * Collector of the asynchronous request results.
+     */
+    private static final class AsyncCollector {
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long executed;
+        private long errors;
+        private Throwable firstError;
+        private long end;
+
+        synchronized void completed(final long latency) {
+            latencies.recordValue(latency);
+            executed++;
+            end = System.nanoTime();
+        }
+
+        synchronized void failed(final Throwable error) {
+            executed++;
+            errors++;
+            if (firstError == null) {
+                firstError = error;
+            }
+            end = System.nanoTime();
+        }
+
+        synchronized LoadTestResult result(final long start) {
+            return new LoadTestResult(executed, errors, Math.max(end, start) - start, latencies, firstError);
+        }
+    }
+
+    /**
+     * Client thread executing synchronous requests.
+     */
+    private final class Worker implements Callable<Worker> {
+        private final Callable<?> request;
+        private final CyclicBarrier barrier;
+        private final AtomicLong measurementStart;
+        private final AtomicLong remaining;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long executed;
+        private long errors;
+        private Throwable firstError;
+        private long end;
+
+        Worker(final Callable<?> request, final CyclicBarrier barrier, final AtomicLong measurementStart,
+               final AtomicLong remaining) {
+            this.request = request;
+            this.barrier = barrier;
+            this.measurementStart = measurementStart;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public Worker call() throws InterruptedException, BrokenBarrierException {
+            // each worker sends its share of the target rate
+            final long interval = rate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * threads / rate) : 0;
+
+            if (warmupNanos > 0) {
+                execute(interval, System.nanoTime() + warmupNanos, null, false);
+            }
+
+            barrier.await();
+            final long start = measurementStart.get();
+            execute(interval, durationNanos > 0 ? start + durationNanos : Long.MAX_VALUE, remaining, true);
+            end = System.nanoTime();
+            return this;
+        }
+
+        private void execute(final long interval, final long deadline, final AtomicLong remaining, final boolean measure)
+                throws InterruptedException {
+            long scheduled = System.nanoTime();
+            while (true) {
+                if (interval > 0) {
+                    scheduled += interval;
+                    parkUntil(scheduled);
+                }
+                if ((interval > 0 ? scheduled : System.nanoTime()) - deadline >= 0
+                        || (remaining != null && remaining.decrementAndGet() < 0)) {
+                    return;
+                }
+                if (interval <= 0) {
+                    // closed loop - the request starts now
+                    scheduled = System.nanoTime();
+                }
+
+                try {
+                    request.call();
+                    if (measure) {
+                        latencies.recordValue(System.nanoTime() - scheduled);
+                    }
+                } catch (InterruptedException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    if (measure) {
+                        errors++;
+                        if (firstError == null) {
+                            firstError = ex;
+                        }
+                    }
+                }
+                if (measure) {
+                    executed++;
+                }
+            }
+        }
+    }
+
+    private LoadTestResult verify(final LoadTestResult result) {
+        final List<String> violations = new ArrayList<String>();
+        for (LatencyThreshold threshold : latencyThresholds) {
+            final long latency = result.getLatencies().getValueAtPercentile(threshold.percentile);
+            if (latency > threshold.nanos) {
+                violations.add(String.format(Locale.ENGLISH, "p%s latency %.3f ms exceeds %.3f ms",
+                        LoadTestResult.formatPercentile(threshold.percentile), latency / 1e6, threshold.nanos / 1e6));
+            }
+        }
+        if (minThroughput > 0 && result.getThroughput() < minThroughput) {
+            violations.add(String.format(Locale.ENGLISH, "throughput %.1f req/s is lower than %.1f req/s",
+                    result.getThroughput(), minThroughput));
+        }
+        if (result.getErrorRate() > maxErrorRate) {
+            violations.add(String.format(Locale.ENGLISH, "error rate %.4f exceeds %.4f",
+                    result.getErrorRate(), maxErrorRate));
+        }
+
+        LOGGER.info("Load test finished:\n" + result);
+        if (!violations.isEmpty()) {
+            final AssertionError error = new AssertionError("Load test thresholds exceeded: " + violations + "\n" + result);
+            if (result.getFirstError() != null) {
+                error.initCause(result.getFirstError());
+            }
+            throw error;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.test.load;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a {@link LoadTest load test} run.
+ *
+ * @author agent (agent at local)
+ */
+public final class LoadTestResult {
+
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9};
+
+    private final long requests;
+    private final long errors;
+    private final long elapsedNanos;
+    private final LatencyHistogram latencies;
+    private final Throwable firstError;
+
+    LoadTestResult(final long requests, final long errors, final long elapsedNanos,
+                   final LatencyHistogram latencies, final Throwable firstError) {
+        this.requests = requests;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.latencies = latencies;
+        this.firstError = firstError;
+    }
+
+    /**
+     * Get the total number of measured requests (including the failed ones).
+     *
+     * @return number of measured requests.
+     */
+    public long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Get the number of failed requests.
+     *
+     * @return number of failed requests.
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Get the ratio of the failed requests.
+     *
+     * @return ratio of the failed requests in the {@code [0, 1]} range.
+     */
+    public double getErrorRate() {
+        return requests == 0 ? 0 : (double) errors / requests;
+    }
+
+    /**
+     * Get the first request failure.
+     *
+     * @return first request failure or {@code null} if no request has failed.
+     */
+    public Throwable getFirstError() {
+        return firstError;
+    }
+
+    /**
+     * Get the duration of the measured phase of the load test.
+     *
+     * @param unit time unit of the returned value.
+     * @return duration of the measured phase.
+     */
+    public long getElapsed(final TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the throughput of the tested application.
+     *
+     * @return number of measured requests per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    /**
+     * Get the latency at the given percentile of the successful requests.
+     *
+     * @param percentile percentile in the {@code [0, 100]} range.
+     * @param unit       time unit of the returned value.
+     * @return latency at the given percentile.
+     */
+    public long getLatency(final double percentile, final TimeUnit unit) {
+        return latencies.getValueAtPercentile(percentile, unit);
+    }
+
+    /**
+     * Get the histogram of the latencies of the successful requests.
+     *
+     * @return latency histogram.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ENGLISH, "requests: %d, errors: %d, elapsed: %.3f s, throughput: %.1f req/s",
+                requests, errors, elapsedNanos / 1e9, getThroughput()));
+        sb.append(String.format(Locale.ENGLISH, "%nlatency [ms]: mean %.3f", latencies.getMean() / 1e6));
+        for (double percentile : REPORTED_PERCENTILES) {
+            sb.append(String.format(Locale.ENGLISH, ", p%s %.3f",
+                    formatPercentile(percentile), latencies.getValueAtPercentile(percentile) / 1e6));
+        }
+        sb.append(String.format(Locale.ENGLISH, ", max %.3f", latencies.getMax(TimeUnit.NANOSECONDS) / 1e6));
+        return sb.toString();
+    }
+
+    /**
+     * Format percentile value for the report, omitting the fraction digits of whole percentiles.
+     *
+     * @param percentile percentile value.
+     * @return formatted percentile.
+     */
+    static String formatPercentile(final double percentile) {
+        return percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS HEADER.
+ *
+ * Copyright (c) 2013 Oracle and/or its affiliates. All rights reserved.
+ *
+ * The contents of this file are subject to the terms of either the GNU
+ * General Public License Version 2 only ("GPL") or the Common Development
+ * and Distribution License("CDDL") (collectively, the "License").  You
+ * may not use this file except in compliance with the License.  You can
+ * obtain a copy of the License at
+ * http://glassfish.java.net/public/CDDL+GPL_1_1.html
+ * or packager/legal/LICENSE.txt.  See the License for the specific
+ * language governing permissions and limitations under the License.
+ *
+ * When distributing the software, include this License Header Notice in each
+ * file and include the License file at packager/legal/LICENSE.txt.
+ *
+ * GPL Classpath Exception:
+ * Oracle designates this particular file as subject to the "Classpath"
+ * exception as provided by Oracle in the GPL Version 2 section of the License
+ * file that accompanied this code.
+ *
+ * Modifications:
+ * If applicable, add the following below the License Header, with the fields
+ * enclosed by brackets [] replaced by your own identifying information:
+ * "Portions Copyright [year] [name of copyright owner]"
+ *
+ * Contributor(s):
+ * If you wish your version of this file to be governed by only the CDDL or
+ * only the GPL Version 2, indicate your decision by adding "[Contributor]
+ * elects to include this software in this distribution under the [CDDL or GPL
+ * Version 2] license."  If you don't indicate a single choice of license, a
+ * recipient has the option to distribute your version of this file under
+ * either the CDDL, the GPL Version 2 or to extend the choice of license to
+ * its licensees as provided above.  However, if you add GPL Version 2 code
+ * and therefore, elected the GPL Version 2 license, then the option applies
+ * only if the new code is made subject to such option by the copyright
+ * holder.
+ */
+package org.glassfish.jersey.test.load;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.ws.rs.client.ClientFactory;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.Response;
+
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientRequest;
+import org.glassfish.jersey.client.ClientResponse;
+import org.glassfish.jersey.client.spi.AsyncConnectorCallback;
+import org.glassfish.jersey.client.spi.Connector;
+
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link LoadTest Load test runner} and {@link LatencyHistogram latency histogram} tests.
+ *
+ * @author agent (agent at local)
+ */
+public class LoadTestTest {
+
+    @Test
+    public void testHistogramPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10000; i++) {
+            histogram.recordValue(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+
+        assertEquals(10000, histogram.getTotalCount());
+        assertEquals(1, histogram.getMin(TimeUnit.MICROSECONDS));
+        assertEquals(10000, histogram.getMax(TimeUnit.MICROSECONDS));
+        assertEquals(5000, histogram.getValueAtPercentile(50, TimeUnit.MICROSECONDS), 5000 * 0.02);
+        assertEquals(9900, histogram.getValueAtPercentile(99, TimeUnit.MICROSECONDS), 9900 * 0.02);
+        assertEquals(10000, histogram.getValueAtPercentile(100, TimeUnit.MICROSECONDS));
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(5000), histogram.getMean(), 1000);
+
+        final LatencyHistogram other = new LatencyHistogram();
+        other.recordValue(TimeUnit.SECONDS.toNanos(1));
+        histogram.add(other);
+        assertEquals(10001, histogram.getTotalCount());
+        assertEquals(1000, histogram.getMax(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testCoordinatedOmissionCorrection() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordValue(TimeUnit.MILLISECONDS.toNanos(100), TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertEquals(10, histogram.getTotalCount());
+        assertEquals(10, histogram.getMin(TimeUnit.MILLISECONDS));
+        assertEquals(50, histogram.getValueAtPercentile(50, TimeUnit.MILLISECONDS), 1);
+    }
+
+    @Test
+    public void testRequestCount() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final LoadTestResult result = LoadTest.builder().threads(4).requests(1000).build().run(new Callable<Object>() {
+            @Override
+            public Object call() {
+                return counter.incrementAndGet();
+            }
+        });
+
+        assertEquals(1000, result.getRequests());
+        assertEquals(1000, counter.get());
+        assertEquals(0, result.getErrors());
+        assertEquals(1000, result.getLatencies().getTotalCount());
+        assertTrue(result.getThroughput() > 0);
+    }
+
+    @Test
+    public void testRate() throws Exception {
+        final LoadTestResult result = LoadTest.builder().threads(2).rate(200).duration(500, TimeUnit.MILLISECONDS)
+                .build().run(new Callable<Object>() {
+                    @Override
+                    public Object call() {
+                        return null;
+                    }
+                });
+
+        assertEquals(100, result.getRequests(), 10);
+    }
+
+    @Test
+    public void testLatencyThreshold() throws Exception {
+        final LoadTest test = LoadTest.builder().threads(2).requests(20).maxLatency(50, 1, TimeUnit.MILLISECONDS).build();
+        try {
+            test.run(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    Thread.sleep(5);
+                    return null;
+                }
+            });
+            fail("Latency threshold violation expected.");
+        } catch (AssertionError expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().contains("p50 latency"));
+        }
+    }
+
+    @Test
+    public void testErrorRate() throws Exception {
+        final AtomicInteger counter = new AtomicInteger();
+        final Callable<Object> request = new Callable<Object>() {
+            @Override
+            public Object call() {
+                if (counter.incrementAndGet() % 2 == 0) {
+                    throw new IllegalStateException("failure");
+                }
+                return null;
+            }
+        };
+
+        try {
+            LoadTest.builder().requests(100).build().run(request);
+            fail("Error rate violation expected.");
+        } catch (AssertionError expected) {
+            assertTrue(expected.getCause() instanceof IllegalStateException);
+        }
+
+        final LoadTestResult result = LoadTest.builder().requests(100).maxErrorRate(0.6).build().run(request);
+        assertEquals(50, result.getErrors());
+        assertEquals(50, result.getLatencies().getTotalCount());
+    }
+
+    @Test
+    public void testAsyncRequests() throws Exception {
+        final Invocation invocation = ClientFactory.newClient(new ClientConfig().connector(new OkConnector())
+                .getConfiguration()).target("http://localhost/").request().buildGet();
+
+        final LoadTestResult result = LoadTest.builder().threads(8).requests(500).build().runAsync(invocation);
+        assertEquals(500, result.getRequests());
+        assertEquals(0, result.getErrors());
+    }
+
+    private static class OkConnector implements Connector {
+
+        @Override
+        public ClientResponse apply(ClientRequest request) {
+            final ClientResponse response = new ClientResponse(Response.Status.OK, request);
+            response.setEntityStream(new ByteArrayInputStream(new byte[0]));
+            return response;
+        }
+
+        @Override
+        public Future<?> apply(ClientRequest request, AsyncConnectorCallback callback) {
+            callback.response(apply(request));
+            return null;
+        }
+
+        @Override
+        public String getName() {
+            return null;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}